@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This abstract class implements the book keeping of the landmarks accepted along the paths of the search. A landmark
+ * is accepted in a node if it is accepted in the parent of the node or if it is true in the node and all its
+ * predecessors in the landmark graph are accepted in the parent. The accepted landmarks of each node are stored on the
+ * node itself as a compact array of words, so they are released with the node. The last word of the array identifies
+ * the landmark graph the landmarks refer to: the words computed for another goal or by another landmark heuristic are
+ * computed again.
+ * <p>
+ * A landmark must still be achieved from a node if it is not accepted, or if it is accepted but false in the node and
+ * it is either a goal or a greedy-necessary predecessor of a landmark not yet accepted.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 12.02.2021
+ * @see LandmarkGraph
+ */
+public abstract class AbstractLandmarkHeuristic extends AbstractStateHeuristic {
+
+    /**
+     * The counter used to identify the landmark graphs.
+     */
+    private static final AtomicLong GRAPHS = new AtomicLong();
+
+    /**
+     * The unconditional operators of the problem.
+     */
+    private final UnconditionalOperators operators;
+
+    /**
+     * The positive fluents of the initial state of the problem.
+     */
+    private final BitVector init;
+
+    /**
+     * The landmark graph of the problem.
+     */
+    private LandmarkGraph graph;
+
+    /**
+     * The number of words used to store the accepted landmarks of a node.
+     */
+    private int nbWords;
+
+    /**
+     * The identifier of the current landmark graph, stored in the last word of the accepted landmarks of the nodes.
+     */
+    private long stamp;
+
+    /**
+     * Creates a new landmark heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     */
+    protected AbstractLandmarkHeuristic(final Problem problem) {
+        super(problem);
+        this.operators = UnconditionalOperators.getInstance(problem);
+        this.init = new BitVector(problem.getInitialState().getPositiveFluents());
+        this.build();
+    }
+
+    /**
+     * Builds the landmark graph for the current goal.
+     */
+    private void build() {
+        this.graph = new LandmarkGraph(this.operators, this.init, super.getGoal());
+        this.nbWords = (this.graph.size() + 63) >>> 6;
+        this.stamp = AbstractLandmarkHeuristic.GRAPHS.incrementAndGet();
+    }
+
+    /**
+     * Set the goal of the relaxed problem to solve in order to compute the heuristic. The landmark graph is rebuilt
+     * when the goal changes.
+     *
+     * @param goal the goal.
+     */
+    @Override
+    protected final void setGoal(final Condition goal) {
+        if (!goal.equals(super.getGoal())) {
+            super.setGoal(goal);
+            this.build();
+        }
+    }
+
+    /**
+     * Returns <code>true</code>: the estimation of a node depends on the landmarks accepted along its path.
+     *
+     * @return <code>true</code>.
+     */
+    @Override
+    public final boolean isPathDependent() {
+        return true;
+    }
+
+    /**
+     * Returns the landmark graph used by the heuristic.
+     *
+     * @return the landmark graph used by the heuristic.
+     */
+    public final LandmarkGraph getLandmarkGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Returns the unconditional operators of the problem.
+     *
+     * @return the unconditional operators of the problem.
+     */
+    protected final UnconditionalOperators getOperators() {
+        return this.operators;
+    }
+
+    /**
+     * Returns the landmarks accepted in a specified state. If the state is a node of the search whose parent is known,
+     * the landmarks are accepted with respect to the landmarks accepted in its parent. Otherwise, the landmarks true in
+     * the state are accepted. The accepted landmarks of a node are stored on the node so that its successors can use
+     * them. The ancestors of the node whose landmarks are unknown, e.g., the ancestors never evaluated by this
+     * heuristic, are walked up iteratively and their landmarks are accepted from the top of the path down to the node.
+     *
+     * @param state the state.
+     * @return the landmarks accepted in the state.
+     */
+    protected final long[] getAcceptedLandmarks(final State state) {
+        if (!(state instanceof Node)) {
+            return this.accept(state, null);
+        }
+        final List<Node> path = new ArrayList<>();
+        long[] words = null;
+        Node node = (Node) state;
+        while (node != null) {
+            final long[] known = node.getLandmarks();
+            if (known != null && known[this.nbWords] == this.stamp) {
+                words = known;
+                break;
+            }
+            path.add(node);
+            node = node.getParent();
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            node = path.get(i);
+            words = this.accept(node, words);
+            node.setLandmarks(words);
+        }
+        return words;
+    }
+
+    /**
+     * Computes the landmarks accepted in a state given the landmarks accepted in its parent. The array of the parent
+     * is returned, and thus shared by the nodes of the path, if no landmark is accepted in the state.
+     *
+     * @param state  the state.
+     * @param parent the landmarks accepted in the parent or <code>null</code> if the parent is unknown.
+     * @return the landmarks accepted in the state followed by the identifier of the landmark graph.
+     */
+    private long[] accept(final State state, final long[] parent) {
+        final LandmarkGraph lg = this.graph;
+        long[] words = parent;
+        if (words == null) {
+            words = new long[this.nbWords + 1];
+            words[this.nbWords] = this.stamp;
+        }
+        for (int lm = 0; lm < lg.size(); lm++) {
+            if (!AbstractLandmarkHeuristic.isSet(words, lm) && state.get(lg.getFluent(lm))) {
+                boolean accept = true;
+                if (parent != null) {
+                    for (int p : lg.getPredecessors(lm)) {
+                        if (!AbstractLandmarkHeuristic.isSet(parent, p)) {
+                            accept = false;
+                            break;
+                        }
+                    }
+                }
+                if (accept) {
+                    if (words == parent) {
+                        words = parent.clone();
+                    }
+                    words[lm >>> 6] |= 1L << lm;
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Computes the landmarks that must still be achieved from a state, i.e., the landmarks not accepted and the
+     * landmarks required again.
+     *
+     * @param state    the state.
+     * @param accepted the landmarks accepted in the state.
+     * @param needed   the array of words where the needed landmarks are stored.
+     * @return the number of needed landmarks.
+     */
+    protected final int getNeededLandmarks(final State state, final long[] accepted, final long[] needed) {
+        final LandmarkGraph lg = this.graph;
+        int count = 0;
+        for (int lm = 0; lm < lg.size(); lm++) {
+            boolean need = !AbstractLandmarkHeuristic.isSet(accepted, lm);
+            if (!need && !state.get(lg.getFluent(lm))) {
+                need = lg.isGoal(lm);
+                for (int s : lg.getGreedyNecessarySuccessors(lm)) {
+                    if (need) {
+                        break;
+                    }
+                    need = !AbstractLandmarkHeuristic.isSet(accepted, s);
+                }
+            }
+            if (need) {
+                needed[lm >>> 6] |= 1L << lm;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of words needed to store a set of landmarks.
+     *
+     * @return the number of words needed to store a set of landmarks.
+     */
+    protected final int getNumberOfWords() {
+        return this.nbWords;
+    }
+
+    /**
+     * Returns <code>true</code> if a specified bit is set in an array of words.
+     *
+     * @param words the array of words.
+     * @param bit   the bit.
+     * @return <code>true</code> if the bit is set; <code>false</code> otherwise.
+     */
+    protected static boolean isSet(final long[] words, final int bit) {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements the heuristic given by the goal distances of an abstraction of the problem, e.g., the
+ * projection of the problem on a subset of its finite-domain variables. Unlike {@link MergeAndShrink}, the goal
+ * distances are computed for any cost function over the actions, which allows to use the heuristic as a component of
+ * a {@link CostPartitioning}. The saturated cost of an action is the highest decrease of goal distance among its
+ * transitions in the abstraction: it preserves the goal distances of all the abstract states.
+ * <p>
+ * The abstraction is computed for the goal of the problem. The goal given to the estimation methods is ignored.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.03.2021
+ * @see TransitionSystem
+ * @see CostPartitioning
+ */
+public final class AbstractionHeuristic extends AbstractStateHeuristic implements CostSensitiveHeuristic {
+
+    /**
+     * The tolerance used to round the goal distances.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * The flat encoding of the unconditional operators of the problem.
+     */
+    private final UnconditionalOperators operators;
+
+    /**
+     * The finite-domain variables of the problem.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The representation of the abstraction used to map the states to the abstract states.
+     */
+    private final TransitionSystem.Representation representation;
+
+    /**
+     * The flags marking the abstract goal states.
+     */
+    private final boolean[] goals;
+
+    /**
+     * The index of the first incoming arc of each abstract state in the arrays <code>sources</code> and
+     * <code>labels</code>.
+     */
+    private final int[] first;
+
+    /**
+     * The source of the incoming arcs of the abstract states.
+     */
+    private final int[] sources;
+
+    /**
+     * The action labelling the incoming arcs of the abstract states.
+     */
+    private final int[] labels;
+
+    /**
+     * The flags marking the actions having at least one transition between two distinct abstract states.
+     */
+    private final boolean[] relevant;
+
+    /**
+     * The cost of the actions.
+     */
+    private final double[] costs;
+
+    /**
+     * The goal distances of the abstract states for the current cost function.
+     */
+    private final double[] distances;
+
+    /**
+     * The values of the finite-domain variables of the evaluated state.
+     */
+    private final int[] values;
+
+    /**
+     * The keys of the heap used by the Dijkstra search.
+     */
+    private double[] keys;
+
+    /**
+     * The abstract states of the heap used by the Dijkstra search.
+     */
+    private int[] heap;
+
+    /**
+     * The number of entries in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * Creates a new <code>AbstractionHeuristic</code> for a specified planning problem from a transition system whose
+     * labels are the unconditional operators of the problem.
+     *
+     * @param problem the planning problem.
+     * @param system  the transition system of the abstraction.
+     * @throws NullPointerException if <code>problem == null || system == null</code>.
+     */
+    public AbstractionHeuristic(final Problem problem, final TransitionSystem system) {
+        super(problem);
+        this.operators = UnconditionalOperators.getInstance(problem);
+        this.variables = PreprocessingCache.get(problem, FiniteDomainVariables.class, FiniteDomainVariables::new);
+        this.representation = system.getRepresentation();
+        final int size = system.size();
+        this.goals = new boolean[size];
+        for (int s = 0; s < size; s++) {
+            this.goals[s] = system.isGoal(s);
+        }
+        final List<Action> actions = problem.getActions();
+        this.relevant = new boolean[actions.size()];
+        this.costs = new double[actions.size()];
+        for (int a = 0; a < actions.size(); a++) {
+            final Action action = actions.get(a);
+            this.costs[a] = action.getCost() == null ? 1.0 : action.getCost().getValue();
+        }
+        // Build the backward graph: the incoming arcs of each abstract state without the self-loops
+        this.first = new int[size + 1];
+        for (int l = 0; l < system.getNumberOfLabels(); l++) {
+            final int[] pairs = system.getTransitions(l);
+            if (pairs != null) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    if (pairs[i] != pairs[i + 1]) {
+                        this.first[pairs[i + 1] + 1]++;
+                        this.relevant[this.operators.getAction(l)] = true;
+                    }
+                }
+            }
+        }
+        for (int s = 0; s < size; s++) {
+            this.first[s + 1] += this.first[s];
+        }
+        this.sources = new int[this.first[size]];
+        this.labels = new int[this.first[size]];
+        final int[] next = Arrays.copyOf(this.first, size);
+        for (int l = 0; l < system.getNumberOfLabels(); l++) {
+            final int[] pairs = system.getTransitions(l);
+            if (pairs != null) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    if (pairs[i] != pairs[i + 1]) {
+                        final int k = next[pairs[i + 1]]++;
+                        this.sources[k] = pairs[i];
+                        this.labels[k] = this.operators.getAction(l);
+                    }
+                }
+            }
+        }
+        this.distances = new double[size];
+        this.values = new int[this.variables.size()];
+        this.keys = new double[Math.max(16, size)];
+        this.heap = new int[this.keys.length];
+        this.computeGoalDistances();
+        super.setAdmissible(this.hasNoConditionalEffect());
+    }
+
+    /**
+     * Returns <code>true</code> if no action of the problem has a conditional effect.
+     *
+     * @return <code>true</code> if no action of the problem has a conditional effect.
+     */
+    private boolean hasNoConditionalEffect() {
+        for (Action a : super.getActions()) {
+            for (ConditionalEffect ce : a.getConditionalEffects()) {
+                if (!ce.getCondition().isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of abstract states of the abstraction.
+     *
+     * @return the number of abstract states of the abstraction.
+     */
+    public int getNumberOfAbstractStates() {
+        return this.distances.length;
+    }
+
+    /**
+     * Sets the cost function used by the heuristic and recomputes the goal distances of the abstract states.
+     *
+     * @param costs the costs of the actions of the problem indexed as the actions of the problem.
+     */
+    @Override
+    public void setCosts(final double[] costs) {
+        System.arraycopy(costs, 0, this.costs, 0, this.costs.length);
+        this.computeGoalDistances();
+    }
+
+    /**
+     * Returns the goal distance of the abstract state of the specified state with the current cost function.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the goal distance of the abstract state or <code>Double.MAX_VALUE</code> if the abstract state is a
+     *      dead end.
+     */
+    @Override
+    public double getCostValue(final State state, final Condition goal) {
+        for (int v = 0; v < this.values.length; v++) {
+            this.values[v] = this.variables.getNoneValue(v);
+        }
+        final int nbFluents = this.operators.nbFluents();
+        for (int f = state.nextSetBit(0); f >= 0 && f < nbFluents; f = state.nextSetBit(f + 1)) {
+            this.values[this.variables.getVariable(f)] = this.variables.getValue(f);
+        }
+        final int s = this.representation.getAbstractState(this.values);
+        return s < 0 ? Double.MAX_VALUE : this.distances[s];
+    }
+
+    /**
+     * Returns <code>true</code> if the specified action has a transition between two distinct abstract states.
+     *
+     * @param action the index of the action.
+     * @return <code>true</code> if the action is relevant to the heuristic.
+     */
+    @Override
+    public boolean isRelevant(final int action) {
+        return this.relevant[action];
+    }
+
+    /**
+     * Returns the saturated cost function of the heuristic. The saturated costs preserve the goal distances of all the
+     * abstract states and thus do not depend on the specified state.
+     *
+     * @param state the state whose estimation must be preserved.
+     * @param goal  the goal expression.
+     * @return the saturated costs of the actions.
+     */
+    @Override
+    public double[] getSaturatedCosts(final State state, final Condition goal) {
+        final double[] saturated = new double[this.costs.length];
+        for (int t = 0; t < this.distances.length; t++) {
+            if (this.distances[t] != Double.MAX_VALUE) {
+                for (int k = this.first[t]; k < this.first[t + 1]; k++) {
+                    final int s = this.sources[k];
+                    final int a = this.labels[k];
+                    saturated[a] = Math.max(saturated[a], this.distances[s] - this.distances[t]);
+                }
+            }
+        }
+        for (int a = 0; a < saturated.length; a++) {
+            saturated[a] = Math.min(saturated[a], this.costs[a]);
+        }
+        return saturated;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        final double value = this.getCostValue(state, goal);
+        return value == Double.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(value - AbstractionHeuristic.EPSILON);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Computes the goal distances of the abstract states with a Dijkstra search backward from the abstract goal states.
+     */
+    private void computeGoalDistances() {
+        Arrays.fill(this.distances, Double.MAX_VALUE);
+        this.heapSize = 0;
+        for (int s = 0; s < this.goals.length; s++) {
+            if (this.goals[s]) {
+                this.distances[s] = 0.0;
+                this.push(s, 0.0);
+            }
+        }
+        while (this.heapSize > 0) {
+            final double d = this.keys[0];
+            final int t = this.poll();
+            if (d != this.distances[t]) {
+                continue;
+            }
+            for (int k = this.first[t]; k < this.first[t + 1]; k++) {
+                final int s = this.sources[k];
+                final double nd = d + this.costs[this.labels[k]];
+                if (nd < this.distances[s]) {
+                    this.distances[s] = nd;
+                    this.push(s, nd);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pushes an abstract state in the heap.
+     *
+     * @param state the abstract state.
+     * @param key   the key of the abstract state.
+     */
+    private void push(final int state, final double key) {
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heap.length * 2);
+            this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+        }
+        int i = this.heapSize++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (this.keys[parent] <= key) {
+                break;
+            }
+            this.heap[i] = this.heap[parent];
+            this.keys[i] = this.keys[parent];
+            i = parent;
+        }
+        this.heap[i] = state;
+        this.keys[i] = key;
+    }
+
+    /**
+     * Removes and returns the abstract state of minimal key from the heap.
+     *
+     * @return the abstract state of minimal key.
+     */
+    private int poll() {
+        final int min = this.heap[0];
+        final int last = this.heap[--this.heapSize];
+        final double key = this.keys[this.heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= this.heapSize) {
+                break;
+            }
+            if (child + 1 < this.heapSize && this.keys[child + 1] < this.keys[child]) {
+                child++;
+            }
+            if (key <= this.keys[child]) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            this.keys[i] = this.keys[child];
+            i = child;
+        }
+        if (this.heapSize > 0) {
+            this.heap[i] = last;
+            this.keys[i] = key;
+        }
+        return min;
+    }
+}
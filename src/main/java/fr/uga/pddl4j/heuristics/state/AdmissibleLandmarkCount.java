@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements the admissible landmark heuristic based on uniform cost partitioning. For more about this
+ * heuristic see E. Karpas and C. Domshlak, Cost-Optimal Planning with Landmarks, in: Proceedings of the 21st
+ * International Joint Conference on Artificial Intelligence, 2009.
+ * <p>
+ * The cost of each action is split uniformly between the landmarks it achieves among the landmarks that must still be
+ * achieved from the node. The cost of a landmark is the minimal share of its achievers and the heuristic value is the
+ * sum of the costs of the needed landmarks.
+ * </p>
+ * <p>
+ * The heuristic can be used as a component of a {@link CostPartitioning}. In this case, the cost function of the
+ * actions is the one given by the partitioning.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 12.02.2021
+ * @see LandmarkGraph
+ * @see LandmarkCount
+ * @see CostSensitiveHeuristic
+ */
+public final class AdmissibleLandmarkCount extends AbstractLandmarkHeuristic implements CostSensitiveHeuristic {
+
+    /**
+     * The tolerance used to round the sum of the costs of the landmarks.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * The cost of the actions.
+     */
+    private final double[] costs;
+
+    /**
+     * The array used to count for each action the number of needed landmarks it achieves.
+     */
+    private final int[] counters;
+
+    /**
+     * Creates a new <code>AdmissibleLandmarkCount</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public AdmissibleLandmarkCount(final Problem problem) {
+        super(problem);
+        super.setAdmissible(true);
+        final List<Action> actions = problem.getActions();
+        this.costs = new double[actions.size()];
+        for (int a = 0; a < actions.size(); a++) {
+            final Action action = actions.get(a);
+            this.costs[a] = action.getCost() == null ? 1.0 : action.getCost().getValue();
+        }
+        this.counters = new int[actions.size()];
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        final double value = this.getCostPartitioningValue(state, goal, null);
+        return value == Double.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(value - AdmissibleLandmarkCount.EPSILON);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Sets the cost function used by the heuristic.
+     *
+     * @param costs the costs of the actions of the problem indexed as the actions of the problem.
+     */
+    @Override
+    public void setCosts(final double[] costs) {
+        System.arraycopy(costs, 0, this.costs, 0, this.costs.length);
+    }
+
+    /**
+     * Returns the sum of the costs of the needed landmarks from the specified state with the current cost function.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the sum of the costs of the needed landmarks or <code>Double.MAX_VALUE</code> if one of them cannot be
+     *      achieved.
+     */
+    @Override
+    public double getCostValue(final State state, final Condition goal) {
+        return this.getCostPartitioningValue(state, goal, null);
+    }
+
+    /**
+     * Returns <code>true</code> if the specified action achieves at least one landmark.
+     *
+     * @param action the index of the action.
+     * @return <code>true</code> if the action is relevant to the heuristic.
+     */
+    @Override
+    public boolean isRelevant(final int action) {
+        final LandmarkGraph lg = super.getLandmarkGraph();
+        for (int lm = 0; lm < lg.size(); lm++) {
+            for (int a : lg.getAchievers(lm)) {
+                if (a == action) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the saturated cost function of the heuristic for a specified state. The saturated cost of an action is
+     * the number of needed landmarks it achieves multiplied by the highest cost among these landmarks. The actions that
+     * achieve no needed landmark have a null saturated cost.
+     *
+     * @param state the state whose estimation must be preserved.
+     * @param goal  the goal expression.
+     * @return the saturated costs of the actions.
+     */
+    @Override
+    public double[] getSaturatedCosts(final State state, final Condition goal) {
+        final double[] saturated = new double[this.costs.length];
+        this.getCostPartitioningValue(state, goal, saturated);
+        return saturated;
+    }
+
+    /**
+     * Computes the sum of the costs of the needed landmarks with a uniform partitioning of the cost of the actions.
+     * If the array <code>saturated</code> is not null, it is filled with the saturated costs of the actions.
+     *
+     * @param state     the state.
+     * @param goal      the goal.
+     * @param saturated the array used to store the saturated costs of the actions or <code>null</code>.
+     * @return the sum of the costs of the needed landmarks or <code>Double.MAX_VALUE</code> if one of them cannot be
+     *      achieved.
+     */
+    private double getCostPartitioningValue(final State state, final Condition goal, final double[] saturated) {
+        super.setGoal(goal);
+        final long[] accepted = super.getAcceptedLandmarks(state);
+        if (state.satisfy(goal)) {
+            return 0.0;
+        }
+        final LandmarkGraph lg = super.getLandmarkGraph();
+        final long[] needed = new long[super.getNumberOfWords()];
+        super.getNeededLandmarks(state, accepted, needed);
+        for (int lm = 0; lm < lg.size(); lm++) {
+            if (AbstractLandmarkHeuristic.isSet(needed, lm)) {
+                for (int a : lg.getAchievers(lm)) {
+                    this.counters[a]++;
+                }
+            }
+        }
+        double value = 0.0;
+        for (int lm = 0; lm < lg.size() && value != Double.MAX_VALUE; lm++) {
+            if (AbstractLandmarkHeuristic.isSet(needed, lm)) {
+                double min = Double.MAX_VALUE;
+                for (int a : lg.getAchievers(lm)) {
+                    min = Math.min(min, this.costs[a] / this.counters[a]);
+                }
+                value = min == Double.MAX_VALUE ? min : value + min;
+                if (saturated != null && min != Double.MAX_VALUE) {
+                    for (int a : lg.getAchievers(lm)) {
+                        saturated[a] = Math.max(saturated[a], min);
+                    }
+                }
+            }
+        }
+        if (saturated != null) {
+            for (int a = 0; a < saturated.length; a++) {
+                saturated[a] = Math.min(this.costs[a], saturated[a] * this.counters[a]);
+            }
+        }
+        Arrays.fill(this.counters, 0);
+        return value;
+    }
+}
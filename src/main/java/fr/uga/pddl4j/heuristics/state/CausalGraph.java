@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements the causal graph heuristic h<sub>cg</sub>. The value of a state is the sum over the goal
+ * variables of the cost of changing the value of the variable in the state into its goal value. The cost of a change
+ * is computed by a Dijkstra search in the domain transition graph of the variable: each node keeps the values of the
+ * parents of the variable in the causal graph reached so far, starting from their values in the state, and the cost
+ * of a transition is the cost of its operator plus the cost of changing the values of the parents into the values of
+ * its conditions, computed recursively. The causal graph is made acyclic by ignoring the conditions on the variables
+ * of higher levels. For more about this heuristic see M. Helmert, A Planning Heuristic Based on Causal Graph Analysis,
+ * Proceedings of ICAPS, 2004.
+ * <p>
+ * The costs computed by a Dijkstra search only depend on the start value of the variable and on the values in the
+ * state of its ancestors in the causal graph. They are cached between evaluations in a table per variable indexed by
+ * these values when the ancestors of the variable are not too many.
+ * </p>
+ * <b>Warning:</b> The heuristic is not admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.03.2021
+ * @see DomainTransitionGraphs
+ */
+public final class CausalGraph extends AbstractStateHeuristic {
+
+    /**
+     * The cost of an unreachable value.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The maximal number of entries of the table of a variable. The table is cleared when it is full.
+     */
+    private static final int MAX_CACHE_SIZE = 1 << 16;
+
+    /**
+     * The domain transition graphs of the problem.
+     */
+    private final DomainTransitionGraphs graphs;
+
+    /**
+     * The finite-domain variables of the problem.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The parents of each variable in the acyclic causal graph.
+     */
+    private final int[][] parents;
+
+    /**
+     * The index in the parents of the variable of each condition of each transition or -1 if the condition is
+     * ignored.
+     */
+    private final int[][][] slots;
+
+    /**
+     * The ancestors of each variable in the acyclic causal graph or <code>null</code> if the costs of the variable
+     * are not cached.
+     */
+    private final int[][] ancestors;
+
+    /**
+     * The tables of the costs cached between evaluations for each variable or <code>null</code> if the costs of the
+     * variable are not cached.
+     */
+    private final List<Map<Long, int[]>> caches;
+
+    /**
+     * The costs computed during the current evaluation for each variable and each start value.
+     */
+    private final int[][][] costs;
+
+    /**
+     * The evaluation during which the costs of each variable and each start value were computed.
+     */
+    private final int[][] stamps;
+
+    /**
+     * The values of the parents in each node of the Dijkstra search of each variable.
+     */
+    private final int[][][] contexts;
+
+    /**
+     * The flags used to mark the expanded nodes of the Dijkstra search of each variable.
+     */
+    private final boolean[][] expanded;
+
+    /**
+     * The values of the variables in the current state.
+     */
+    private final int[] values;
+
+    /**
+     * The current evaluation.
+     */
+    private int epoch;
+
+    /**
+     * Creates a new <code>CausalGraph</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public CausalGraph(final Problem problem) {
+        super(problem);
+        super.setAdmissible(false);
+        this.graphs = DomainTransitionGraphs.getInstance(problem);
+        this.variables = this.graphs.getVariables();
+        final int nbVariables = this.variables.size();
+        this.parents = new int[nbVariables][];
+        this.slots = new int[nbVariables][][];
+        for (int v = 0; v < nbVariables; v++) {
+            final int level = this.graphs.getLevel(v);
+            final int nbTransitions = this.graphs.getNumberOfTransitions(v);
+            final BitVector pv = new BitVector(nbVariables);
+            for (int t = 0; t < nbTransitions; t++) {
+                for (int u : this.graphs.getConditionVariables(v, t)) {
+                    if (this.graphs.getLevel(u) < level) {
+                        pv.set(u);
+                    }
+                }
+            }
+            this.parents[v] = UnconditionalOperators.toArray(pv);
+            this.slots[v] = new int[nbTransitions][];
+            for (int t = 0; t < nbTransitions; t++) {
+                final int[] cVars = this.graphs.getConditionVariables(v, t);
+                this.slots[v][t] = new int[cVars.length];
+                for (int k = 0; k < cVars.length; k++) {
+                    this.slots[v][t][k] = Arrays.binarySearch(this.parents[v], cVars[k]);
+                    if (this.slots[v][t][k] < 0) {
+                        this.slots[v][t][k] = -1;
+                    }
+                }
+            }
+        }
+        this.ancestors = new int[nbVariables][];
+        this.caches = new ArrayList<>(nbVariables);
+        for (int v = 0; v < nbVariables; v++) {
+            this.ancestors[v] = this.getAncestors(v);
+            this.caches.add(this.ancestors[v] != null ? new HashMap<>() : null);
+        }
+        this.costs = new int[nbVariables][][];
+        this.stamps = new int[nbVariables][];
+        this.contexts = new int[nbVariables][][];
+        this.expanded = new boolean[nbVariables][];
+        for (int v = 0; v < nbVariables; v++) {
+            final int size = this.variables.getDomainSize(v);
+            this.costs[v] = new int[size][];
+            this.stamps[v] = new int[size];
+            this.contexts[v] = new int[size][this.parents[v].length];
+            this.expanded[v] = new boolean[size];
+        }
+        this.values = new int[nbVariables];
+        this.epoch = 0;
+    }
+
+    /**
+     * Returns the ancestors of a variable in the acyclic causal graph if the start value of the variable and the
+     * values of its ancestors can be encoded in a key of a table.
+     *
+     * @param variable the variable.
+     * @return the ancestors of the variable or <code>null</code> if there are too many ancestors.
+     */
+    private int[] getAncestors(final int variable) {
+        final BitVector closure = new BitVector(this.parents.length);
+        final int[] stack = new int[this.parents.length];
+        int size = 0;
+        stack[size++] = variable;
+        while (size > 0) {
+            final int v = stack[--size];
+            for (int u : this.parents[v]) {
+                if (!closure.get(u)) {
+                    closure.set(u);
+                    stack[size++] = u;
+                }
+            }
+        }
+        long range = this.variables.getDomainSize(variable);
+        for (int u = closure.nextSetBit(0); u >= 0; u = closure.nextSetBit(u + 1)) {
+            range *= this.variables.getDomainSize(u);
+            if (range > 1L << 62) {
+                return null;
+            }
+        }
+        return UnconditionalOperators.toArray(closure);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        super.setGoal(goal);
+        this.epoch++;
+        for (int v = 0; v < this.values.length; v++) {
+            this.values[v] = this.variables.getNoneValue(v);
+        }
+        final int nbFluents = super.getRevelantFacts().size();
+        for (int f = state.nextSetBit(0); f >= 0 && f < nbFluents; f = state.nextSetBit(f + 1)) {
+            this.values[this.variables.getVariable(f)] = this.variables.getValue(f);
+        }
+        long value = 0;
+        final BitVector pGoal = goal.getPositiveFluents();
+        for (int g = pGoal.nextSetBit(0); g >= 0; g = pGoal.nextSetBit(g + 1)) {
+            final int v = this.variables.getVariable(g);
+            final int d = this.variables.getValue(g);
+            if (this.values[v] != d) {
+                final int c = this.getCosts(v, this.values[v])[d];
+                if (c == CausalGraph.INFINITY) {
+                    return Integer.MAX_VALUE;
+                }
+                value += c;
+            }
+        }
+        return (int) Math.min(value, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Returns the costs of changing the value of a variable from a specified value into each of its values, the
+     * parents of the variable having their values in the current state.
+     *
+     * @param variable the variable.
+     * @param from     the start value.
+     * @return the costs of the values of the variable.
+     */
+    private int[] getCosts(final int variable, final int from) {
+        if (this.stamps[variable][from] == this.epoch) {
+            return this.costs[variable][from];
+        }
+        int[] dist;
+        final int[] anc = this.ancestors[variable];
+        if (anc != null) {
+            long key = from;
+            for (int u : anc) {
+                key = key * this.variables.getDomainSize(u) + this.values[u];
+            }
+            final Map<Long, int[]> cache = this.caches.get(variable);
+            dist = cache.get(key);
+            if (dist == null) {
+                dist = new int[this.variables.getDomainSize(variable)];
+                this.dijkstra(variable, from, dist);
+                if (cache.size() >= CausalGraph.MAX_CACHE_SIZE) {
+                    cache.clear();
+                }
+                cache.put(key, dist);
+            }
+        } else {
+            dist = this.costs[variable][from];
+            if (dist == null) {
+                dist = new int[this.variables.getDomainSize(variable)];
+            }
+            this.dijkstra(variable, from, dist);
+        }
+        this.costs[variable][from] = dist;
+        this.stamps[variable][from] = this.epoch;
+        return dist;
+    }
+
+    /**
+     * Computes by a Dijkstra search in the domain transition graph of a variable the costs of changing the value of the
+     * variable from a specified value into each of its values.
+     *
+     * @param variable the variable.
+     * @param from     the start value.
+     * @param dist     the array where the costs are stored.
+     */
+    private void dijkstra(final int variable, final int from, final int[] dist) {
+        final int[] pv = this.parents[variable];
+        final int[][] ctx = this.contexts[variable];
+        final boolean[] closed = this.expanded[variable];
+        Arrays.fill(dist, CausalGraph.INFINITY);
+        Arrays.fill(closed, false);
+        dist[from] = 0;
+        for (int i = 0; i < pv.length; i++) {
+            ctx[from][i] = this.values[pv[i]];
+        }
+        while (true) {
+            int x = -1;
+            for (int d = 0; d < dist.length; d++) {
+                if (!closed[d] && dist[d] != CausalGraph.INFINITY && (x == -1 || dist[d] < dist[x])) {
+                    x = d;
+                }
+            }
+            if (x == -1) {
+                break;
+            }
+            closed[x] = true;
+            for (int t : this.graphs.getOutgoingTransitions(variable, x)) {
+                final int y = this.graphs.getTarget(variable, t);
+                if (closed[y]) {
+                    continue;
+                }
+                final int[] cVars = this.graphs.getConditionVariables(variable, t);
+                final int[] cVals = this.graphs.getConditionValues(variable, t);
+                final int[] slot = this.slots[variable][t];
+                long cost = (long) dist[x] + this.graphs.getCost(variable, t);
+                for (int k = 0; k < cVars.length && cost < CausalGraph.INFINITY; k++) {
+                    if (slot[k] >= 0 && ctx[x][slot[k]] != cVals[k]) {
+                        cost += this.getCosts(cVars[k], ctx[x][slot[k]])[cVals[k]];
+                    }
+                }
+                if (cost < dist[y]) {
+                    dist[y] = (int) cost;
+                    System.arraycopy(ctx[x], 0, ctx[y], 0, pv.length);
+                    for (int k = 0; k < cVars.length; k++) {
+                        if (slot[k] >= 0) {
+                            ctx[y][slot[k]] = cVals[k];
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,547 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the context-enhanced additive heuristic h<sub>cea</sub>. The heuristic generalizes the causal
+ * graph heuristic to cyclic causal graphs. The cost of changing the value of a variable from a start value is computed
+ * in a local problem: the nodes of the local problem are the values of the variable and each node keeps the values of
+ * the context of the variable reached so far, starting from their values in the state. The cost of a transition is
+ * the cost of its operator plus the cost of each of its conditions, i.e., the cost of changing the value of the
+ * variable of the condition from its value in the context of the source node into the value of the condition,
+ * computed in the local problem of the variable of the condition. All the local problems are solved together by a
+ * single Dijkstra search: a transition waits until the costs of its conditions are known. The value of a state is the
+ * sum of the costs of the goal values. For more about this heuristic see M. Helmert and H. Geffner, Unifying the
+ * Causal Graph and Additive Heuristics, Proceedings of ICAPS, 2008.
+ * <p>
+ * The local problems are created the first time they are needed and reused by the later evaluations: their nodes are
+ * only reset when they are needed again.
+ * </p>
+ * <b>Warning:</b> The heuristic is not admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.03.2021
+ * @see DomainTransitionGraphs
+ */
+public final class ContextEnhancedAdditive extends AbstractStateHeuristic {
+
+    /**
+     * The cost of an unreachable node.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The initial capacity of the arrays of the local problems and the nodes.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The domain transition graphs of the problem.
+     */
+    private final DomainTransitionGraphs graphs;
+
+    /**
+     * The finite-domain variables of the problem.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The index in the context of the variable of each condition of each transition.
+     */
+    private final int[][][] conditionSlots;
+
+    /**
+     * The index in the context of the variable of each side effect of each transition.
+     */
+    private final int[][][] sideEffectSlots;
+
+    /**
+     * The values of the variables in the current state.
+     */
+    private final int[] values;
+
+    /**
+     * The local problem of each variable and each start value or -1 if the local problem was never created.
+     */
+    private final int[][] localProblems;
+
+    /**
+     * The number of local problems.
+     */
+    private int nbLocalProblems;
+
+    /**
+     * The variable of each local problem.
+     */
+    private int[] lpVariable;
+
+    /**
+     * The first node of each local problem.
+     */
+    private int[] lpFirstNode;
+
+    /**
+     * The evaluation during which each local problem was reset.
+     */
+    private int[] lpStamp;
+
+    /**
+     * The cost accumulated by each transition of each local problem.
+     */
+    private long[][] lpTransitionCost;
+
+    /**
+     * The number of conditions not yet reached of each transition of each local problem.
+     */
+    private int[][] lpUnreached;
+
+    /**
+     * The number of nodes.
+     */
+    private int nbNodes;
+
+    /**
+     * The local problem of each node.
+     */
+    private int[] nodeProblem;
+
+    /**
+     * The cost of each node.
+     */
+    private int[] nodeCost;
+
+    /**
+     * The evaluation during which each node was expanded.
+     */
+    private int[] nodeStamp;
+
+    /**
+     * The values of the context of the variable in each node.
+     */
+    private int[][] nodeContext;
+
+    /**
+     * The local problems of the transitions waiting for each node. The local problem -1 denotes the goal.
+     */
+    private int[][] waitingProblems;
+
+    /**
+     * The transitions waiting for each node.
+     */
+    private int[][] waitingTransitions;
+
+    /**
+     * The number of transitions waiting for each node.
+     */
+    private int[] waitingSize;
+
+    /**
+     * The priority queue of the nodes: each entry is the cost of a node followed by the node.
+     */
+    private long[] heap;
+
+    /**
+     * The size of the priority queue.
+     */
+    private int heapSize;
+
+    /**
+     * The current evaluation.
+     */
+    private int epoch;
+
+    /**
+     * Creates a new <code>ContextEnhancedAdditive</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public ContextEnhancedAdditive(final Problem problem) {
+        super(problem);
+        super.setAdmissible(false);
+        this.graphs = DomainTransitionGraphs.getInstance(problem);
+        this.variables = this.graphs.getVariables();
+        final int nbVariables = this.variables.size();
+        this.conditionSlots = new int[nbVariables][][];
+        this.sideEffectSlots = new int[nbVariables][][];
+        for (int v = 0; v < nbVariables; v++) {
+            final int[] context = this.graphs.getContext(v);
+            final int nbTransitions = this.graphs.getNumberOfTransitions(v);
+            this.conditionSlots[v] = new int[nbTransitions][];
+            this.sideEffectSlots[v] = new int[nbTransitions][];
+            for (int t = 0; t < nbTransitions; t++) {
+                this.conditionSlots[v][t] = ContextEnhancedAdditive.getSlots(context,
+                    this.graphs.getConditionVariables(v, t));
+                this.sideEffectSlots[v][t] = ContextEnhancedAdditive.getSlots(context,
+                    this.graphs.getSideEffectVariables(v, t));
+            }
+        }
+        this.values = new int[nbVariables];
+        this.localProblems = new int[nbVariables][];
+        for (int v = 0; v < nbVariables; v++) {
+            this.localProblems[v] = new int[this.variables.getDomainSize(v)];
+            Arrays.fill(this.localProblems[v], -1);
+        }
+        final int capacity = ContextEnhancedAdditive.INITIAL_CAPACITY;
+        this.lpVariable = new int[capacity];
+        this.lpFirstNode = new int[capacity];
+        this.lpStamp = new int[capacity];
+        this.lpTransitionCost = new long[capacity][];
+        this.lpUnreached = new int[capacity][];
+        this.nodeProblem = new int[capacity];
+        this.nodeCost = new int[capacity];
+        this.nodeStamp = new int[capacity];
+        this.nodeContext = new int[capacity][];
+        this.waitingProblems = new int[capacity][];
+        this.waitingTransitions = new int[capacity][];
+        this.waitingSize = new int[capacity];
+        this.heap = new long[capacity];
+        this.nbLocalProblems = 0;
+        this.nbNodes = 0;
+        this.epoch = 0;
+    }
+
+    /**
+     * Returns the indexes in a context of some variables.
+     *
+     * @param context the context.
+     * @param vars    the variables of the context.
+     * @return the indexes of the variables in the context.
+     */
+    private static int[] getSlots(final int[] context, final int[] vars) {
+        final int[] slots = new int[vars.length];
+        for (int k = 0; k < vars.length; k++) {
+            slots[k] = Arrays.binarySearch(context, vars[k]);
+        }
+        return slots;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        super.setGoal(goal);
+        this.epoch++;
+        this.heapSize = 0;
+        for (int v = 0; v < this.values.length; v++) {
+            this.values[v] = this.variables.getNoneValue(v);
+        }
+        final int nbFluents = super.getRevelantFacts().size();
+        for (int f = state.nextSetBit(0); f >= 0 && f < nbFluents; f = state.nextSetBit(f + 1)) {
+            this.values[this.variables.getVariable(f)] = this.variables.getValue(f);
+        }
+        // The goal is a transition waiting for the goal values
+        long goalCost = 0;
+        int goalUnreached = 0;
+        final BitVector pGoal = goal.getPositiveFluents();
+        for (int g = pGoal.nextSetBit(0); g >= 0; g = pGoal.nextSetBit(g + 1)) {
+            final int v = this.variables.getVariable(g);
+            if (this.values[v] != this.variables.getValue(g)) {
+                final int lp = this.getLocalProblem(v, this.values[v]);
+                this.addWaiting(this.lpFirstNode[lp] + this.variables.getValue(g), -1, 0);
+                goalUnreached++;
+            }
+        }
+        if (goalUnreached == 0) {
+            return 0;
+        }
+        while (this.heapSize > 0) {
+            final long entry = this.poll();
+            final int node = (int) entry;
+            final int cost = (int) (entry >>> 32);
+            if (this.nodeStamp[node] == this.epoch || cost != this.nodeCost[node]) {
+                continue;
+            }
+            this.nodeStamp[node] = this.epoch;
+            // Update the transitions waiting for the node
+            final int[] wProblems = this.waitingProblems[node];
+            final int[] wTransitions = this.waitingTransitions[node];
+            for (int i = 0; i < this.waitingSize[node]; i++) {
+                final int lp = wProblems[i];
+                if (lp == -1) {
+                    goalCost += cost;
+                    if (--goalUnreached == 0) {
+                        return (int) Math.min(goalCost, Integer.MAX_VALUE - 1);
+                    }
+                } else {
+                    final int t = wTransitions[i];
+                    this.lpTransitionCost[lp][t] += cost;
+                    if (--this.lpUnreached[lp][t] == 0) {
+                        this.fire(lp, t);
+                    }
+                }
+            }
+            // Expand the transitions leaving the node
+            this.expand(node, cost);
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Expands a node: the transitions leaving the node wait for the nodes of their conditions.
+     *
+     * @param node the node.
+     * @param cost the cost of the node.
+     */
+    private void expand(final int node, final int cost) {
+        final int lp = this.nodeProblem[node];
+        final int v = this.lpVariable[lp];
+        final int first = this.lpFirstNode[lp];
+        for (int t : this.graphs.getOutgoingTransitions(v, node - first)) {
+            if (this.nodeStamp[first + this.graphs.getTarget(v, t)] == this.epoch) {
+                continue;
+            }
+            final int[] cVars = this.graphs.getConditionVariables(v, t);
+            final int[] cVals = this.graphs.getConditionValues(v, t);
+            final int[] slots = this.conditionSlots[v][t];
+            long tCost = (long) cost + this.graphs.getCost(v, t);
+            int unreached = 0;
+            for (int k = 0; k < cVars.length; k++) {
+                final int from = this.nodeContext[node][slots[k]];
+                if (from != cVals[k]) {
+                    final int lpu = this.getLocalProblem(cVars[k], from);
+                    final int condition = this.lpFirstNode[lpu] + cVals[k];
+                    if (this.nodeStamp[condition] == this.epoch) {
+                        tCost += this.nodeCost[condition];
+                    } else {
+                        this.addWaiting(condition, lp, t);
+                        unreached++;
+                    }
+                }
+            }
+            this.lpTransitionCost[lp][t] = tCost;
+            this.lpUnreached[lp][t] = unreached;
+            if (unreached == 0) {
+                this.fire(lp, t);
+            }
+        }
+    }
+
+    /**
+     * Fires a transition of a local problem whose conditions are all reached: the target node of the transition is
+     * updated if its cost decreases.
+     *
+     * @param lp the local problem.
+     * @param t  the transition.
+     */
+    private void fire(final int lp, final int t) {
+        final int v = this.lpVariable[lp];
+        final int first = this.lpFirstNode[lp];
+        final int target = first + this.graphs.getTarget(v, t);
+        final long cost = Math.min(this.lpTransitionCost[lp][t], ContextEnhancedAdditive.INFINITY - 1);
+        if (this.nodeStamp[target] != this.epoch && cost < this.nodeCost[target]) {
+            this.nodeCost[target] = (int) cost;
+            final int[] context = this.nodeContext[target];
+            System.arraycopy(this.nodeContext[first + this.graphs.getSource(v, t)], 0, context, 0, context.length);
+            final int[] cVals = this.graphs.getConditionValues(v, t);
+            final int[] cSlots = this.conditionSlots[v][t];
+            for (int k = 0; k < cSlots.length; k++) {
+                context[cSlots[k]] = cVals[k];
+            }
+            final int[] sVals = this.graphs.getSideEffectValues(v, t);
+            final int[] sSlots = this.sideEffectSlots[v][t];
+            for (int k = 0; k < sSlots.length; k++) {
+                context[sSlots[k]] = sVals[k];
+            }
+            this.push(target);
+        }
+    }
+
+    /**
+     * Returns the local problem of a variable from a specified start value. The local problem is created the first
+     * time and reset the first time it is needed during an evaluation: its start node is then added to the queue
+     * with the values of the context in the current state.
+     *
+     * @param variable the variable.
+     * @param start    the start value.
+     * @return the local problem.
+     */
+    private int getLocalProblem(final int variable, final int start) {
+        int lp = this.localProblems[variable][start];
+        final int size = this.variables.getDomainSize(variable);
+        final int[] context = this.graphs.getContext(variable);
+        if (lp == -1) {
+            lp = this.nbLocalProblems++;
+            this.ensureProblemCapacity(this.nbLocalProblems);
+            this.ensureNodeCapacity(this.nbNodes + size);
+            this.localProblems[variable][start] = lp;
+            this.lpVariable[lp] = variable;
+            this.lpFirstNode[lp] = this.nbNodes;
+            this.lpTransitionCost[lp] = new long[this.graphs.getNumberOfTransitions(variable)];
+            this.lpUnreached[lp] = new int[this.graphs.getNumberOfTransitions(variable)];
+            for (int d = 0; d < size; d++) {
+                final int node = this.nbNodes++;
+                this.nodeProblem[node] = lp;
+                this.nodeContext[node] = new int[context.length];
+                this.waitingProblems[node] = new int[4];
+                this.waitingTransitions[node] = new int[4];
+            }
+        }
+        if (this.lpStamp[lp] != this.epoch) {
+            this.lpStamp[lp] = this.epoch;
+            final int first = this.lpFirstNode[lp];
+            for (int node = first; node < first + size; node++) {
+                this.nodeCost[node] = ContextEnhancedAdditive.INFINITY;
+                this.waitingSize[node] = 0;
+            }
+            final int node = first + start;
+            this.nodeCost[node] = 0;
+            for (int k = 0; k < context.length; k++) {
+                this.nodeContext[node][k] = this.values[context[k]];
+            }
+            this.push(node);
+        }
+        return lp;
+    }
+
+    /**
+     * Adds a transition to the transitions waiting for a node.
+     *
+     * @param node the node.
+     * @param lp   the local problem of the transition or -1 for the goal.
+     * @param t    the transition.
+     */
+    private void addWaiting(final int node, final int lp, final int t) {
+        final int size = this.waitingSize[node];
+        if (size == this.waitingProblems[node].length) {
+            this.waitingProblems[node] = Arrays.copyOf(this.waitingProblems[node], size * 2);
+            this.waitingTransitions[node] = Arrays.copyOf(this.waitingTransitions[node], size * 2);
+        }
+        this.waitingProblems[node][size] = lp;
+        this.waitingTransitions[node][size] = t;
+        this.waitingSize[node] = size + 1;
+    }
+
+    /**
+     * Ensures that the arrays of the local problems can store a specified number of local problems.
+     *
+     * @param capacity the number of local problems.
+     */
+    private void ensureProblemCapacity(final int capacity) {
+        if (capacity > this.lpVariable.length) {
+            final int length = Math.max(capacity, this.lpVariable.length * 2);
+            this.lpVariable = Arrays.copyOf(this.lpVariable, length);
+            this.lpFirstNode = Arrays.copyOf(this.lpFirstNode, length);
+            this.lpStamp = Arrays.copyOf(this.lpStamp, length);
+            this.lpTransitionCost = Arrays.copyOf(this.lpTransitionCost, length);
+            this.lpUnreached = Arrays.copyOf(this.lpUnreached, length);
+        }
+    }
+
+    /**
+     * Ensures that the arrays of the nodes can store a specified number of nodes.
+     *
+     * @param capacity the number of nodes.
+     */
+    private void ensureNodeCapacity(final int capacity) {
+        if (capacity > this.nodeProblem.length) {
+            final int length = Math.max(capacity, this.nodeProblem.length * 2);
+            this.nodeProblem = Arrays.copyOf(this.nodeProblem, length);
+            this.nodeCost = Arrays.copyOf(this.nodeCost, length);
+            this.nodeStamp = Arrays.copyOf(this.nodeStamp, length);
+            this.nodeContext = Arrays.copyOf(this.nodeContext, length);
+            this.waitingProblems = Arrays.copyOf(this.waitingProblems, length);
+            this.waitingTransitions = Arrays.copyOf(this.waitingTransitions, length);
+            this.waitingSize = Arrays.copyOf(this.waitingSize, length);
+        }
+    }
+
+    /**
+     * Adds a node to the priority queue with its current cost.
+     *
+     * @param node the node.
+     */
+    private void push(final int node) {
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heap.length * 2);
+        }
+        final long entry = ((long) this.nodeCost[node] << 32) | node;
+        int i = this.heapSize++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (this.heap[parent] <= entry) {
+                break;
+            }
+            this.heap[i] = this.heap[parent];
+            i = parent;
+        }
+        this.heap[i] = entry;
+    }
+
+    /**
+     * Removes and returns the entry of the priority queue with the smallest cost.
+     *
+     * @return the entry with the smallest cost.
+     */
+    private long poll() {
+        final long min = this.heap[0];
+        final long last = this.heap[--this.heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= this.heapSize) {
+                break;
+            }
+            if (child + 1 < this.heapSize && this.heap[child + 1] < this.heap[child]) {
+                child++;
+            }
+            if (last <= this.heap[child]) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            i = child;
+        }
+        if (this.heapSize > 0) {
+            this.heap[i] = last;
+        }
+        return min;
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class implements the operator cost partitioning of a collection of admissible heuristics. The cost of each
+ * action is split between the heuristics so that the sum of the costs given to the heuristics does not exceed the
+ * cost of the action. Each heuristic then evaluates the states with its own cost function and the sum of their
+ * estimations is admissible. The partitioning is computed once from the initial state with one of the following
+ * strategies:
+ * <ul>
+ * <li>{@link Strategy#UNIFORM}: the cost of each action is split equally between the heuristics for which the
+ * action is relevant.</li>
+ * <li>{@link Strategy#SATURATED}: the heuristics are considered in order. Each heuristic receives the saturated
+ * cost function of the costs left by the previous heuristics, i.e., the minimal costs preserving its estimation of
+ * the initial state, and the remaining costs are passed to the next heuristic.</li>
+ * </ul>
+ * <p>
+ * By default, the heuristics are the projections of the problem on each goal variable extended with the variables of
+ * its causal graph context, the admissible landmark heuristic and the max heuristic with costs. For more about cost
+ * partitioning see J. Seipp, T. Keller and M. Helmert, Saturated Cost Partitioning for Optimal Classical Planning,
+ * Journal of Artificial Intelligence Research, 67, 2020.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.03.2021
+ * @see CostSensitiveHeuristic
+ * @see AbstractionHeuristic
+ * @see AdmissibleLandmarkCount
+ * @see MaxCost
+ */
+public final class CostPartitioning extends AbstractStateHeuristic {
+
+    /**
+     * The strategies of cost partitioning.
+     */
+    public enum Strategy {
+        /**
+         * The uniform cost partitioning.
+         */
+        UNIFORM,
+        /**
+         * The saturated cost partitioning.
+         */
+        SATURATED,
+    }
+
+    /**
+     * The default maximal number of abstract states of the projections.
+     */
+    public static final int DEFAULT_MAX_PATTERN_SIZE = 10000;
+
+    /**
+     * The tolerance used to round the sum of the estimations.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * The planning problem.
+     */
+    private final Problem problem;
+
+    /**
+     * The strategy of cost partitioning.
+     */
+    private final Strategy strategy;
+
+    /**
+     * The flag indicating if the heuristics are the default heuristics rebuilt when the goal changes.
+     */
+    private final boolean defaults;
+
+    /**
+     * The heuristics of the partitioning.
+     */
+    private List<CostSensitiveHeuristic> components;
+
+    /**
+     * The cost of the cheapest action of the problem.
+     */
+    private double minCost;
+
+    /**
+     * The time spent to build the heuristics and to compute the partitioning in milliseconds.
+     */
+    private long preprocessingTime;
+
+    /**
+     * Creates a new <code>CostPartitioning</code> heuristic for a specified planning problem with the saturated
+     * strategy and the default heuristics.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public CostPartitioning(final Problem problem) {
+        this(problem, Strategy.SATURATED);
+    }
+
+    /**
+     * Creates a new <code>CostPartitioning</code> heuristic for a specified planning problem with the default
+     * heuristics.
+     *
+     * @param problem  the planning problem.
+     * @param strategy the strategy of cost partitioning.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public CostPartitioning(final Problem problem, final Strategy strategy) {
+        super(problem);
+        this.problem = problem;
+        this.strategy = strategy;
+        this.defaults = true;
+        this.build();
+    }
+
+    /**
+     * Creates a new <code>CostPartitioning</code> heuristic for a specified planning problem and a list of heuristics.
+     * In the saturated strategy, the heuristics receive their costs in the order of the list.
+     *
+     * @param problem    the planning problem.
+     * @param strategy   the strategy of cost partitioning.
+     * @param components the heuristics of the partitioning.
+     * @throws NullPointerException     if <code>problem == null || components == null</code>.
+     * @throws IllegalArgumentException if the list of heuristics is empty.
+     */
+    public CostPartitioning(final Problem problem, final Strategy strategy,
+                            final List<CostSensitiveHeuristic> components) {
+        super(problem);
+        if (components.isEmpty()) {
+            throw new IllegalArgumentException("the list of heuristics must not be empty");
+        }
+        this.problem = problem;
+        this.strategy = strategy;
+        this.defaults = false;
+        this.components = new ArrayList<>(components);
+        this.build();
+    }
+
+    /**
+     * Returns the time spent to build the heuristics and to compute the partitioning in milliseconds.
+     *
+     * @return the time spent to build the heuristics and to compute the partitioning in milliseconds.
+     */
+    @Override
+    public long getPreprocessingTime() {
+        return this.preprocessingTime;
+    }
+
+    /**
+     * Returns <code>true</code> if one of the heuristics of the partitioning is path-dependent, e.g., the admissible
+     * landmark heuristic of the default heuristics.
+     *
+     * @return <code>true</code> if one of the heuristics of the partitioning is path-dependent; <code>false</code>
+     *          otherwise.
+     */
+    @Override
+    public boolean isPathDependent() {
+        for (CostSensitiveHeuristic h : this.components) {
+            if (h.isPathDependent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the heuristics of the partitioning.
+     *
+     * @return the heuristics of the partitioning.
+     */
+    public List<CostSensitiveHeuristic> getComponents() {
+        return this.components;
+    }
+
+    /**
+     * Set the goal of the problem to solve in order to compute the heuristic. The partitioning is computed again when
+     * the goal changes.
+     *
+     * @param goal the goal.
+     */
+    @Override
+    protected void setGoal(final Condition goal) {
+        if (!goal.equals(super.getGoal())) {
+            super.setGoal(goal);
+            this.build();
+        }
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state. The costs are saturated for the initial state only, so the sum of the estimations may be zero in a state
+     * that does not satisfy the goal. The estimation of such a state is at least the cost of the cheapest action.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        this.setGoal(goal);
+        double value = 0.0;
+        for (CostSensitiveHeuristic h : this.components) {
+            final double v = h.getCostValue(state, goal);
+            if (v == Double.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            value += v;
+        }
+        if (value < this.minCost && !state.satisfy(goal)) {
+            value = this.minCost;
+        }
+        return (int) Math.ceil(value - CostPartitioning.EPSILON);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Builds the default heuristics if needed and computes the partitioning of the costs from the initial state.
+     */
+    private void build() {
+        final long begin = System.currentTimeMillis();
+        if (this.defaults) {
+            this.components = this.createDefaultComponents();
+        }
+        final List<Action> actions = this.problem.getActions();
+        final double[] costs = new double[actions.size()];
+        this.minCost = actions.isEmpty() ? 0.0 : Double.MAX_VALUE;
+        for (int a = 0; a < actions.size(); a++) {
+            final Action action = actions.get(a);
+            costs[a] = action.getCost() == null ? 1.0 : action.getCost().getValue();
+            this.minCost = Math.min(this.minCost, costs[a]);
+        }
+        final State init = new State(this.problem.getInitialState());
+        final Condition goal = super.getGoal();
+        switch (this.strategy) {
+            case UNIFORM:
+                final int[] relevant = new int[costs.length];
+                for (CostSensitiveHeuristic h : this.components) {
+                    for (int a = 0; a < costs.length; a++) {
+                        if (h.isRelevant(a)) {
+                            relevant[a]++;
+                        }
+                    }
+                }
+                final double[] shares = new double[costs.length];
+                for (CostSensitiveHeuristic h : this.components) {
+                    for (int a = 0; a < costs.length; a++) {
+                        shares[a] = h.isRelevant(a) ? costs[a] / relevant[a] : 0.0;
+                    }
+                    h.setCosts(shares);
+                }
+                break;
+            case SATURATED:
+                for (CostSensitiveHeuristic h : this.components) {
+                    h.setCosts(costs);
+                    final double[] saturated = h.getSaturatedCosts(init, goal);
+                    h.setCosts(saturated);
+                    for (int a = 0; a < costs.length; a++) {
+                        costs[a] = Math.max(0.0, costs[a] - saturated[a]);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown cost partitioning strategy " + this.strategy);
+        }
+        boolean admissible = true;
+        for (CostSensitiveHeuristic h : this.components) {
+            admissible &= h.isAdmissible();
+        }
+        super.setAdmissible(admissible);
+        this.preprocessingTime = System.currentTimeMillis() - begin;
+    }
+
+    /**
+     * Creates the default heuristics: the projections on the goal variables, the admissible landmark heuristic and
+     * the max heuristic with costs. The projections are not admissible if the problem has conditional effects.
+     *
+     * @return the default heuristics.
+     */
+    private List<CostSensitiveHeuristic> createDefaultComponents() {
+        final List<CostSensitiveHeuristic> heuristics = new ArrayList<>();
+        final UnconditionalOperators operators = UnconditionalOperators.getInstance(this.problem);
+        final FiniteDomainVariables variables = PreprocessingCache.get(this.problem, FiniteDomainVariables.class,
+            FiniteDomainVariables::new);
+        final DomainTransitionGraphs graphs = DomainTransitionGraphs.getInstance(this.problem);
+        // The costs of the labels are not used by the projections which compute their own goal distances
+        final List<TransitionSystem> atomics = TransitionSystem.createAtomicSystems(operators, variables,
+            new int[operators.size()], super.getGoal(), new State(this.problem.getInitialState()));
+        final BitVector goalVariables = new BitVector();
+        final BitVector pGoal = super.getGoal().getPositiveFluents();
+        for (int f = pGoal.nextSetBit(0); f >= 0; f = pGoal.nextSetBit(f + 1)) {
+            goalVariables.set(variables.getVariable(f));
+        }
+        final BitVector nGoal = super.getGoal().getNegativeFluents();
+        for (int f = nGoal.nextSetBit(0); f >= 0; f = nGoal.nextSetBit(f + 1)) {
+            goalVariables.set(variables.getVariable(f));
+        }
+        final Set<List<Integer>> patterns = new HashSet<>();
+        for (int g = goalVariables.nextSetBit(0); g >= 0; g = goalVariables.nextSetBit(g + 1)) {
+            final int[] pattern = CostPartitioning.getPattern(g, graphs, variables);
+            final List<Integer> key = new ArrayList<>(pattern.length);
+            Arrays.stream(pattern).sorted().forEach(key::add);
+            if (patterns.add(key)) {
+                TransitionSystem projection = atomics.get(pattern[0]);
+                for (int i = 1; i < pattern.length; i++) {
+                    projection = TransitionSystem.product(projection, atomics.get(pattern[i]));
+                }
+                heuristics.add(new AbstractionHeuristic(this.problem, projection));
+            }
+        }
+        heuristics.add(new AdmissibleLandmarkCount(this.problem));
+        heuristics.add(new MaxCost(this.problem));
+        return heuristics;
+    }
+
+    /**
+     * Returns the pattern of the projection of a goal variable. The pattern is extended with the variables of the
+     * context of its variables in the causal graph, the variables of highest level first, as long as the number of
+     * abstract states does not exceed {@link #DEFAULT_MAX_PATTERN_SIZE}.
+     *
+     * @param goal      the goal variable.
+     * @param graphs    the domain transition graphs of the problem.
+     * @param variables the finite-domain variables of the problem.
+     * @return the variables of the pattern, the goal variable first.
+     */
+    private static int[] getPattern(final int goal, final DomainTransitionGraphs graphs,
+                                    final FiniteDomainVariables variables) {
+        final boolean[] chosen = new boolean[variables.size()];
+        int[] pattern = new int[] {goal};
+        chosen[goal] = true;
+        long size = variables.getDomainSize(goal);
+        boolean extended = true;
+        while (extended) {
+            extended = false;
+            int best = -1;
+            for (int v : pattern) {
+                for (int u : graphs.getContext(v)) {
+                    if (!chosen[u] && size * variables.getDomainSize(u) <= CostPartitioning.DEFAULT_MAX_PATTERN_SIZE
+                        && (best == -1 || graphs.getLevel(u) > graphs.getLevel(best))) {
+                        best = u;
+                    }
+                }
+            }
+            if (best != -1) {
+                pattern = Arrays.copyOf(pattern, pattern.length + 1);
+                pattern[pattern.length - 1] = best;
+                chosen[best] = true;
+                size *= variables.getDomainSize(best);
+                extended = true;
+            }
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+/**
+ * This interface defines the methods of the admissible heuristics whose estimation can be computed for any cost
+ * function over the actions of the problem. These heuristics are the components of a {@link CostPartitioning}: each
+ * component evaluates the states with its own cost function and the sum of the values of the components is admissible
+ * as long as the sum of the cost functions does not exceed the costs of the actions.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.03.2021
+ * @see CostPartitioning
+ */
+public interface CostSensitiveHeuristic extends StateHeuristic {
+
+    /**
+     * Sets the cost function used by the heuristic.
+     *
+     * @param costs the costs of the actions of the problem indexed as the actions of the problem.
+     */
+    void setCosts(final double[] costs);
+
+    /**
+     * Returns the estimated cost to reach the goal from the specified state with the current cost function. If the
+     * return value is <code>Double.MAX_VALUE</code>, it means that the goal is unreachable from the specified state.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the estimated cost to reach the goal from the state.
+     */
+    double getCostValue(final State state, final Condition goal);
+
+    /**
+     * Returns <code>true</code> if the cost of a specified action can change the estimations of the heuristic.
+     *
+     * @param action the index of the action.
+     * @return <code>true</code> if the action is relevant to the heuristic.
+     */
+    boolean isRelevant(final int action);
+
+    /**
+     * Returns the saturated cost function of the heuristic for a specified state, i.e., the minimal costs of the
+     * actions, lower than the current costs, that preserve the estimation of the state.
+     *
+     * @param state the state whose estimation must be preserved.
+     * @param goal  the goal expression.
+     * @return the saturated costs of the actions.
+     */
+    double[] getSaturatedCosts(final State state, final Condition goal);
+
+}
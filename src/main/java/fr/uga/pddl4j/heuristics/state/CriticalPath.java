@@ -20,194 +20,333 @@
 package fr.uga.pddl4j.heuristics.state;
 
 import fr.uga.pddl4j.planners.statespace.search.Node;
-
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
-import fr.uga.pddl4j.problem.operator.Action;
 import fr.uga.pddl4j.problem.operator.Condition;
-import fr.uga.pddl4j.problem.operator.Effect;
 import fr.uga.pddl4j.util.BitVector;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
- * This class will display the critical path based on the Delta Algorithm from the Automated Planning book.
- * Automated Planning: Theory &#38; Practice Book by Dana S. Nau, Malik Ghallab, and Paolo Traverso (Chapter 9).
- * At the minute it has a variation of the sum heuristic and max heuristic and the final method will have
- * the critical path.
+ * This class implements the critical path heuristic h<sup>2</sup>. For more about this heuristic see P. Haslum and H.
+ * Geffner, Admissible Heuristics for Optimal Planning, Proceedings of AIPS, 2000, and the Delta Algorithm from the
+ * Automated Planning book (Chapter 9) by Dana S. Nau, Malik Ghallab, and Paolo Traverso.
+ * <p>
+ * The heuristic estimates the cost of each set of at most two fluents. The costs of the pairs are stored in a flat
+ * triangular table allocated once and computed for each state by a worklist fixpoint: an operator is revisited only
+ * when the cost of a pair involving one of its preconditions decreases. The value of a state is the maximum cost of
+ * the pairs of the goal. The pairs unreachable from the initial state are mutex and can be queried with
+ * {@link #isMutex(int, int)}.
+ * </p>
+ * <p>
+ * Negative preconditions are ignored. The heuristic is admissible as long as no action of the problem has several
+ * conditional effects.
+ * </p>
  *
  * @author Aaron Boyd
  * @author Damien Pellier
- * @version 1.0 20.08.2010
+ * @version 1.1 20.08.2010
  */
-public final class CriticalPath extends RelaxedGraphHeuristic {
+public final class CriticalPath extends AbstractStateHeuristic {
+
+    /**
+     * The cost of an unreachable pair.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The unconditional operators of the problem.
+     */
+    private final UnconditionalOperators operators;
+
+    /**
+     * The positive fluents of the initial state of the problem.
+     */
+    private final BitVector init;
 
     /**
-     * The precondition set.
+     * The integer costs of the operators.
      */
-    private Condition[] precond;
+    private final int[] costs;
 
     /**
-     * The positive effect set.
+     * The number of fluents of the problem.
      */
-    private Condition[] effect;
+    private final int nbFluents;
 
     /**
-     * The negative effect set.
+     * The costs of the pairs of fluents. The cost of the pair (p, q) with p &#60;= q is stored at index
+     * <code>p * n - p * (p - 1) / 2 + q - p</code>. The cost of a fluent is the cost of the pair (p, p).
      */
-    private Condition[] neffect;
+    private final int[] table;
 
     /**
-     * The positive goal set.
+     * The worklist of the operators to revisit.
      */
-    private int[] pGoal;
+    private final int[] queue;
 
     /**
-     * The negative goal set.
+     * The flags of the operators in the worklist.
      */
-    private int[] nGoal;
+    private final boolean[] queued;
 
     /**
-     * The size of the set used to compute the critical path heuristic.
+     * The flags of the add effects of the operator being processed.
      */
-    private static final int COEF = 2;
+    private final boolean[] added;
 
     /**
-     * The cardinality of the goal.
+     * The flags of the delete effects of the operator being processed.
      */
-    private int goalCard;
+    private final boolean[] deleted;
 
     /**
-     * The critival path value.
+     * The mutex pairs of the problem computed lazily from the initial state.
      */
-    private int critical;
+    private long[] mutexes;
 
     /**
-     * Creates a new critical pah heuristic for a specific problem.
+     * Creates a new critical path heuristic for a specific problem.
      *
      * @param problem the problem.
+     * @throws IllegalArgumentException if the problem has too many fluents for the pairs to be stored.
      */
-    public CriticalPath(Problem problem) {
+    public CriticalPath(final Problem problem) {
         super(problem);
-        super.setAdmissible(true);
+        this.operators = UnconditionalOperators.getInstance(problem);
+        this.init = new BitVector(problem.getInitialState().getPositiveFluents());
+        this.nbFluents = this.operators.nbFluents();
+        final long size = (long) this.nbFluents * (this.nbFluents + 1) / 2;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many fluents to compute h2: " + this.nbFluents);
+        }
+        this.table = new int[(int) size];
+        final int nbOperators = this.operators.size();
+        this.costs = new int[nbOperators];
+        this.queue = new int[nbOperators];
+        this.queued = new boolean[nbOperators];
+        this.added = new boolean[this.nbFluents];
+        this.deleted = new boolean[this.nbFluents];
+        boolean split = false;
+        for (int op = 0; op < nbOperators; op++) {
+            this.costs[op] = (int) Math.floor(this.operators.getCost(op));
+            split |= op > 0 && this.operators.getAction(op) == this.operators.getAction(op - 1);
+        }
+        super.setAdmissible(!split);
     }
 
     /**
-     * Returns a estimation of the distance from a state to a goal.
+     * Returns the index of a pair of fluents in the table.
+     *
+     * @param p the first fluent.
+     * @param q the second fluent.
+     * @return the index of the pair in the table.
+     */
+    private int index(final int p, final int q) {
+        final long min = Math.min(p, q);
+        return (int) (min * this.nbFluents - min * (min - 1) / 2 + Math.max(p, q) - min);
+    }
+
+    /**
+     * Returns the cost of a pair of fluents computed for the last state evaluated. The cost of a single fluent is
+     * returned when the two fluents are equal.
+     *
+     * @param p the first fluent.
+     * @param q the second fluent.
+     * @return the cost of the pair or <code>Integer.MAX_VALUE</code> if the pair is unreachable.
+     */
+    public int getCost(final int p, final int q) {
+        return this.table[this.index(p, q)];
+    }
+
+    /**
+     * Returns <code>true</code> if two fluents are mutex, i.e., if they are never true together in a state reachable
+     * from the initial state of the problem. The mutex pairs are computed the first time this method is called.
+     *
+     * @param p the first fluent.
+     * @param q the second fluent.
+     * @return <code>true</code> if the two fluents are mutex; <code>false</code> otherwise.
+     */
+    public boolean isMutex(final int p, final int q) {
+        if (this.mutexes == null) {
+            this.mutexes = new long[(this.table.length + 63) >>> 6];
+            final int[] copy = this.table.clone();
+            this.compute(this.init);
+            for (int i = 0; i < this.table.length; i++) {
+                if (this.table[i] == CriticalPath.INFINITY) {
+                    this.mutexes[i >>> 6] |= 1L << i;
+                }
+            }
+            System.arraycopy(copy, 0, this.table, 0, copy.length);
+        }
+        final int i = this.index(p, q);
+        return (this.mutexes[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
      *
      * @param state the state from which the distance to the goal must be estimated.
      * @param goal  the goal expression.
-     * @return the estimated distance.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
      */
     @Override
-    public int estimate(State state, Condition goal) {
+    public int estimate(final State state, final Condition goal) {
         super.setGoal(goal);
-        //this.goalCard = super.getGoal().cardinality(); // Useless cause by next line affectation
-        goalCard = goal.cardinality();
-        final List<Action> actions = this.getActions();
-        int startPoint = 0;
-        for (Action op : actions) {
-            startPoint += op.getConditionalEffects().size();
+        if (state.satisfy(goal)) {
+            return 0;
         }
-        int nbRelevantFacts = super.getRevelantFacts().size();
-        this.pGoal = new int[nbRelevantFacts];
-        this.nGoal = new int[nbRelevantFacts];
-        this.precond = new Condition[startPoint];
-        this.effect = new Condition[startPoint];
-        this.neffect = new Condition[startPoint];
-        BitVector pGoalBitVector = super.getGoal().getPositiveFluents();
-        BitVector nGoalBitVector = super.getGoal().getNegativeFluents();
-
-
-        if (this.goalCard <= COEF) {
-
-            BitVector ppk = new BitVector(state);
-            for (int p = ppk.nextSetBit(0); p >= 0; p = ppk.nextSetBit(p + 1)) {
-                this.pGoal[p] = 0;
-                pGoalBitVector.set(p);
-            }
+        this.compute(state);
+        return this.getCost(UnconditionalOperators.toArray(goal.getPositiveFluents()));
+    }
 
-            BitVector nnk = new BitVector();
-            for (int p = nnk.nextSetBit(0); p >= 0; p = nnk.nextSetBit(p + 1)) {
-                this.nGoal[p] = 0;
-                nGoalBitVector.set(p);
-            }
-            //Compute the positive preconditions
-            for (Action op : this.getActions()) {
-                final Condition pre = new Condition(op.getPrecondition());
-                final Condition npre = new Condition(op.getPrecondition());
-                BitVector nprecon = npre.getNegativeFluents();
-                BitVector precon = pre.getPositiveFluents();
-                for (int p = precon.nextSetBit(0); p >= 0; p = precon.nextSetBit(p + 1)) {
-                    precon = this.precond[p].getPositiveFluents();
-                    precon.set(p);
-                }
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
 
-                for (int p = nprecon.nextSetBit(0); p >= 0; p = nprecon.nextSetBit(p + 1)) {
-                    nprecon = this.precond[p].getNegativeFluents();
-                    nprecon.set(p);
+    /**
+     * Returns the cost of a set of fluents, i.e., the maximum cost of its pairs.
+     *
+     * @param fluents the set of fluents.
+     * @return the cost of the set of fluents or <code>Integer.MAX_VALUE</code> if a pair is unreachable.
+     */
+    private int getCost(final int[] fluents) {
+        int cost = 0;
+        for (int i = 0; i < fluents.length; i++) {
+            for (int j = i; j < fluents.length; j++) {
+                final int c = this.table[this.index(fluents[i], fluents[j])];
+                if (c == CriticalPath.INFINITY) {
+                    return CriticalPath.INFINITY;
                 }
+                cost = Math.max(cost, c);
+            }
+        }
+        return cost;
+    }
 
-                //Get the positive and negative effects
-                Effect effects = op.getConditionalEffects().get(0).getEffect();
-                BitVector positiveEffect = effects.getPositiveFluents();
-                BitVector negativeEffect = effects.getNegativeFluents();
-                BitVector newProp = new BitVector();
-                for (int p = newProp.nextSetBit(0); p >= 0; p = newProp.nextSetBit(p + 1)) {
-                    positiveEffect.or(this.effect[p].getPositiveFluents());
-                    negativeEffect.or(this.effect[p].getNegativeFluents());
+    /**
+     * Computes the cost of the pairs of fluents from a specified state.
+     *
+     * @param state the state.
+     */
+    private void compute(final BitVector state) {
+        Arrays.fill(this.table, CriticalPath.INFINITY);
+        for (int p = state.nextSetBit(0); p >= 0; p = state.nextSetBit(p + 1)) {
+            for (int q = p; q >= 0; q = state.nextSetBit(q + 1)) {
+                this.table[this.index(p, q)] = 0;
+            }
+        }
+        int size = 0;
+        for (int op = 0; op < this.queue.length; op++) {
+            this.queue[size++] = op;
+            this.queued[op] = true;
+        }
+        int head = 0;
+        while (size > 0) {
+            final int op = this.queue[head];
+            head = head + 1 == this.queue.length ? 0 : head + 1;
+            size--;
+            this.queued[op] = false;
+            final int[] pre = this.operators.getPreconditions(op);
+            final int c = this.getCost(pre);
+            if (c == CriticalPath.INFINITY) {
+                continue;
+            }
+            final int[] add = this.operators.getAddEffects(op);
+            final int[] del = this.operators.getDeleteEffects(op);
+            final int cost = c + this.costs[op];
+            for (int p : add) {
+                this.added[p] = true;
+            }
+            for (int p : del) {
+                this.deleted[p] = true;
+            }
+            for (int i = 0; i < add.length; i++) {
+                for (int j = i; j < add.length; j++) {
+                    size = this.update(add[i], add[j], cost, head, size);
                 }
-                final BitVector nPos = negativeEffect;
-                for (int p = nPos.nextSetBit(0); p >= 0; p = nPos.nextSetBit(p + 1)) {
-                    this.neffect[p].getNegativeFluents().set(p);
-                    nPos.or(this.neffect[p].getNegativeFluents());
+            }
+            for (int q = 0; q < this.nbFluents; q++) {
+                if (this.added[q] || this.deleted[q]) {
+                    continue;
                 }
-                //A is relevant for G only if positive effect does not equal zero and negative effect equals zero
-                if (this.effect.length != 0 && this.neffect.length == 0) {
-                    //Remove the precondition and positive effect from the goal
-                    pGoalBitVector.andNot(positiveEffect);
-                    pGoalBitVector.andNot(precon);
+                int cq = Math.max(c, this.table[this.index(q, q)]);
+                for (int i = 0; i < pre.length && cq != CriticalPath.INFINITY; i++) {
+                    cq = Math.max(cq, this.table[this.index(q, pre[i])]);
                 }
-                critical++;
-            }
-
-        } else {
-            //place the cardinality of the goal in to an array
-            int[] combinations = new int[goalCard];
-            int m = combinations.length;
-            //Generate all subsets from the array
-            int list = (1 << m);
-            for (int i = 0; i < list; i++) {
-                List<Integer> sub = new ArrayList<>();
-                for (int j = 0; j < m; j++) {
-                    if ((i & (1 << j)) > 0) {
-                        sub.add(j);
+                if (cq != CriticalPath.INFINITY) {
+                    for (int p : add) {
+                        size = this.update(p, q, cq + this.costs[op], head, size);
                     }
                 }
-                //if the subset size equals COEF, print subset
-                if (sub.size() == COEF) {
-                    //System.out.println(sub);
-                    //Maximum distance to the goal
-                    critical = this.getMaxValue();
-                }
+            }
+            for (int p : add) {
+                this.added[p] = false;
+            }
+            for (int p : del) {
+                this.deleted[p] = false;
             }
         }
+    }
 
-        return super.isGoalReachable() ? critical : Integer.MAX_VALUE;
+    /**
+     * Updates the cost of a pair of fluents and enqueues the operators having one of the fluents as precondition if
+     * the cost decreases.
+     *
+     * @param p    the first fluent.
+     * @param q    the second fluent.
+     * @param cost the new cost of the pair.
+     * @param head the head of the worklist.
+     * @param size the size of the worklist.
+     * @return the new size of the worklist.
+     */
+    private int update(final int p, final int q, final int cost, final int head, final int size) {
+        final int i = this.index(p, q);
+        if (cost >= this.table[i]) {
+            return size;
+        }
+        this.table[i] = cost;
+        int s = this.enqueue(this.operators.getConsumers(p), head, size);
+        if (p != q) {
+            s = this.enqueue(this.operators.getConsumers(q), head, s);
+        }
+        return s;
     }
 
     /**
-     * Return the estimated distance to the goal to reach the specified state. If the return value is
-     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
-     * state.
+     * Enqueues a set of operators in the worklist.
      *
-     * @param node the state from which the distance to the goal must be estimated.
-     * @param goal the goal expression.
-     * @return the distance to the goal state from the specified state.
+     * @param ops  the operators.
+     * @param head the head of the worklist.
+     * @param size the size of the worklist.
+     * @return the new size of the worklist.
      */
-    @Override
-    public double estimate(final Node node, final Condition goal) {
-        return estimate((State) node, goal);
+    private int enqueue(final int[] ops, final int head, final int size) {
+        int s = size;
+        for (int op : ops) {
+            if (!this.queued[op]) {
+                this.queued[op] = true;
+                int tail = head + s;
+                if (tail >= this.queue.length) {
+                    tail -= this.queue.length;
+                }
+                this.queue[tail] = op;
+                s++;
+            }
+        }
+        return s;
     }
 }
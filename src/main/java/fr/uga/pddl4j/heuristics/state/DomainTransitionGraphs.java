@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements the domain transition graphs of the finite-domain variables of a problem and its causal graph.
+ * The domain transition graph of a variable has one node per value of the variable and one transition for each
+ * unconditional operator changing the value of the variable. A transition is labeled by the cost of its operator, by
+ * its conditions, i.e., the values required by the operator for the other variables, and by its side effects, i.e.,
+ * the values set by the operator for the other variables. An operator without precondition on the variable gives a
+ * transition from every other value. The negative preconditions and the transitions to the value meaning that none of
+ * the fluents of a variable is true are ignored: no condition or goal requires this value.
+ * <p>
+ * The context of a variable is the set of the variables appearing in the conditions or the side effects of its
+ * transitions. The causal graph has an arc from a variable u to a variable v if u is in the context of v. The
+ * variables are ordered by levels so that the arcs from a lower level to a higher level form an acyclic subgraph
+ * containing all the arcs of the causal graph when the causal graph is acyclic.
+ * </p>
+ * <p>
+ * The structure is immutable and is computed once per problem: use {@link #getInstance(Problem)} to get the structure
+ * of a problem from the {@link PreprocessingCache}.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.03.2021
+ * @see FiniteDomainVariables
+ */
+public final class DomainTransitionGraphs implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The finite-domain variables of the problem.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The source value of each transition of each variable.
+     */
+    private final int[][] sources;
+
+    /**
+     * The target value of each transition of each variable.
+     */
+    private final int[][] targets;
+
+    /**
+     * The cost of each transition of each variable.
+     */
+    private final int[][] costs;
+
+    /**
+     * The variables of the conditions of each transition of each variable.
+     */
+    private final int[][][] conditionVariables;
+
+    /**
+     * The values of the conditions of each transition of each variable.
+     */
+    private final int[][][] conditionValues;
+
+    /**
+     * The variables of the side effects of each transition of each variable.
+     */
+    private final int[][][] sideEffectVariables;
+
+    /**
+     * The values of the side effects of each transition of each variable.
+     */
+    private final int[][][] sideEffectValues;
+
+    /**
+     * The transitions leaving each value of each variable.
+     */
+    private final int[][][] outgoing;
+
+    /**
+     * The context of each variable sorted by increasing index.
+     */
+    private final int[][] contexts;
+
+    /**
+     * The level of each variable in the causal graph.
+     */
+    private final int[] levels;
+
+    /**
+     * Creates the domain transition graphs of a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public DomainTransitionGraphs(final Problem problem) {
+        this.variables = PreprocessingCache.get(problem, FiniteDomainVariables.class, FiniteDomainVariables::new);
+        final UnconditionalOperators operators = UnconditionalOperators.getInstance(problem);
+        final int nbVariables = this.variables.size();
+        // Each transition is stored as five arrays: its label (source, target and cost), the variables and the
+        // values of its conditions and the variables and the values of its side effects
+        final List<List<int[]>> transitions = new ArrayList<>(nbVariables);
+        for (int v = 0; v < nbVariables; v++) {
+            transitions.add(new ArrayList<>());
+        }
+        final int[] pre = new int[nbVariables];
+        final int[] eff = new int[nbVariables];
+        Arrays.fill(pre, -1);
+        Arrays.fill(eff, -1);
+        for (int op = 0; op < operators.size(); op++) {
+            // Project the operator on the variables
+            boolean applicable = true;
+            for (int f : operators.getPreconditions(op)) {
+                final int v = this.variables.getVariable(f);
+                applicable &= pre[v] == -1 || pre[v] == this.variables.getValue(f);
+                pre[v] = this.variables.getValue(f);
+            }
+            for (int f : operators.getAddEffects(op)) {
+                final int v = this.variables.getVariable(f);
+                if (eff[v] == -1) {
+                    eff[v] = this.variables.getValue(f);
+                }
+            }
+            if (applicable) {
+                final int cost = (int) Math.floor(operators.getCost(op));
+                for (int f : operators.getAddEffects(op)) {
+                    final int v = this.variables.getVariable(f);
+                    if (eff[v] != this.variables.getValue(f) || eff[v] == pre[v]) {
+                        continue;
+                    }
+                    final int[] cVars = this.getOtherVariables(operators.getPreconditions(op), v);
+                    final int[] cVals = this.getValues(cVars, pre);
+                    final int[] sVars = this.getOtherVariables(operators.getAddEffects(op), v);
+                    final int[] sVals = this.getValues(sVars, eff);
+                    if (pre[v] != -1) {
+                        transitions.get(v).add(new int[] {pre[v], eff[v], cost});
+                        transitions.get(v).add(cVars);
+                        transitions.get(v).add(cVals);
+                        transitions.get(v).add(sVars);
+                        transitions.get(v).add(sVals);
+                    } else {
+                        for (int s = 0; s < this.variables.getDomainSize(v); s++) {
+                            if (s != eff[v]) {
+                                transitions.get(v).add(new int[] {s, eff[v], cost});
+                                transitions.get(v).add(cVars);
+                                transitions.get(v).add(cVals);
+                                transitions.get(v).add(sVars);
+                                transitions.get(v).add(sVals);
+                            }
+                        }
+                    }
+                }
+            }
+            for (int f : operators.getPreconditions(op)) {
+                pre[this.variables.getVariable(f)] = -1;
+            }
+            for (int f : operators.getAddEffects(op)) {
+                eff[this.variables.getVariable(f)] = -1;
+            }
+        }
+
+        // Flatten the transitions and compute the contexts
+        this.sources = new int[nbVariables][];
+        this.targets = new int[nbVariables][];
+        this.costs = new int[nbVariables][];
+        this.conditionVariables = new int[nbVariables][][];
+        this.conditionValues = new int[nbVariables][][];
+        this.sideEffectVariables = new int[nbVariables][][];
+        this.sideEffectValues = new int[nbVariables][][];
+        this.outgoing = new int[nbVariables][][];
+        this.contexts = new int[nbVariables][];
+        for (int v = 0; v < nbVariables; v++) {
+            final List<int[]> list = transitions.get(v);
+            final int nbTransitions = list.size() / 5;
+            this.sources[v] = new int[nbTransitions];
+            this.targets[v] = new int[nbTransitions];
+            this.costs[v] = new int[nbTransitions];
+            this.conditionVariables[v] = new int[nbTransitions][];
+            this.conditionValues[v] = new int[nbTransitions][];
+            this.sideEffectVariables[v] = new int[nbTransitions][];
+            this.sideEffectValues[v] = new int[nbTransitions][];
+            final int[] count = new int[this.variables.getDomainSize(v)];
+            final BitVector context = new BitVector(nbVariables);
+            for (int t = 0; t < nbTransitions; t++) {
+                final int[] label = list.get(5 * t);
+                this.sources[v][t] = label[0];
+                this.targets[v][t] = label[1];
+                this.costs[v][t] = label[2];
+                this.conditionVariables[v][t] = list.get(5 * t + 1);
+                this.conditionValues[v][t] = list.get(5 * t + 2);
+                this.sideEffectVariables[v][t] = list.get(5 * t + 3);
+                this.sideEffectValues[v][t] = list.get(5 * t + 4);
+                count[label[0]]++;
+                for (int u : this.conditionVariables[v][t]) {
+                    context.set(u);
+                }
+                for (int u : this.sideEffectVariables[v][t]) {
+                    context.set(u);
+                }
+            }
+            this.outgoing[v] = new int[count.length][];
+            for (int d = 0; d < count.length; d++) {
+                this.outgoing[v][d] = new int[count[d]];
+                count[d] = 0;
+            }
+            for (int t = 0; t < nbTransitions; t++) {
+                final int s = this.sources[v][t];
+                this.outgoing[v][s][count[s]++] = t;
+            }
+            this.contexts[v] = UnconditionalOperators.toArray(context);
+        }
+        this.levels = this.computeLevels();
+    }
+
+    /**
+     * Returns the domain transition graphs of a specified problem. The graphs are computed the first time and then
+     * retrieved from the {@link PreprocessingCache}.
+     *
+     * @param problem the problem.
+     * @return the domain transition graphs of the problem.
+     */
+    public static DomainTransitionGraphs getInstance(final Problem problem) {
+        return PreprocessingCache.get(problem, DomainTransitionGraphs.class, DomainTransitionGraphs::new);
+    }
+
+    /**
+     * Returns the sorted variables of a set of fluents except a specified variable.
+     *
+     * @param fluents  the fluents.
+     * @param variable the variable to exclude.
+     * @return the variables of the fluents.
+     */
+    private int[] getOtherVariables(final int[] fluents, final int variable) {
+        final BitVector vars = new BitVector();
+        for (int f : fluents) {
+            final int u = this.variables.getVariable(f);
+            if (u != variable) {
+                vars.set(u);
+            }
+        }
+        return UnconditionalOperators.toArray(vars);
+    }
+
+    /**
+     * Returns the values of some variables.
+     *
+     * @param vars   the variables.
+     * @param values the values of all the variables.
+     * @return the values of the variables.
+     */
+    private int[] getValues(final int[] vars, final int[] values) {
+        final int[] array = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            array[i] = values[vars[i]];
+        }
+        return array;
+    }
+
+    /**
+     * Computes the levels of the variables in the causal graph. The variables are placed one by one: the next
+     * variable is the one having the fewest arcs from the variables not yet placed. The arcs of the causal graph from
+     * a lower level to a higher level hence form an acyclic graph containing all the arcs when the causal graph is
+     * acyclic, and the cycles are broken by removing as few arcs as possible at each step.
+     *
+     * @return the level of each variable.
+     */
+    private int[] computeLevels() {
+        final int nbVariables = this.contexts.length;
+        final int[] inDegree = new int[nbVariables];
+        final int[][] successors = DomainTransitionGraphs.invert(this.contexts);
+        for (int v = 0; v < nbVariables; v++) {
+            inDegree[v] = this.contexts[v].length;
+        }
+        final int[] levels = new int[nbVariables];
+        final boolean[] placed = new boolean[nbVariables];
+        for (int level = 0; level < nbVariables; level++) {
+            int best = -1;
+            for (int v = 0; v < nbVariables; v++) {
+                if (!placed[v] && (best == -1 || inDegree[v] < inDegree[best])) {
+                    best = v;
+                    if (inDegree[v] == 0) {
+                        break;
+                    }
+                }
+            }
+            placed[best] = true;
+            levels[best] = level;
+            for (int w : successors[best]) {
+                inDegree[w]--;
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Inverts the relation from the variables to their contexts.
+     *
+     * @param relation the relation to invert.
+     * @return for each variable the variables having the variable in their context.
+     */
+    private static int[][] invert(final int[][] relation) {
+        final int[] count = new int[relation.length];
+        for (int[] r : relation) {
+            for (int u : r) {
+                count[u]++;
+            }
+        }
+        final int[][] inverse = new int[relation.length][];
+        for (int u = 0; u < relation.length; u++) {
+            inverse[u] = new int[count[u]];
+            count[u] = 0;
+        }
+        for (int v = 0; v < relation.length; v++) {
+            for (int u : relation[v]) {
+                inverse[u][count[u]++] = v;
+            }
+        }
+        return inverse;
+    }
+
+    /**
+     * Returns the finite-domain variables of the problem.
+     *
+     * @return the finite-domain variables of the problem.
+     */
+    public FiniteDomainVariables getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Returns the number of transitions of a variable.
+     *
+     * @param variable the variable.
+     * @return the number of transitions of the variable.
+     */
+    public int getNumberOfTransitions(final int variable) {
+        return this.sources[variable].length;
+    }
+
+    /**
+     * Returns the source value of a transition.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the source value of the transition.
+     */
+    public int getSource(final int variable, final int transition) {
+        return this.sources[variable][transition];
+    }
+
+    /**
+     * Returns the target value of a transition.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the target value of the transition.
+     */
+    public int getTarget(final int variable, final int transition) {
+        return this.targets[variable][transition];
+    }
+
+    /**
+     * Returns the cost of a transition.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the cost of the transition.
+     */
+    public int getCost(final int variable, final int transition) {
+        return this.costs[variable][transition];
+    }
+
+    /**
+     * Returns the variables of the conditions of a transition sorted by increasing index.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the variables of the conditions of the transition.
+     */
+    public int[] getConditionVariables(final int variable, final int transition) {
+        return this.conditionVariables[variable][transition];
+    }
+
+    /**
+     * Returns the values of the conditions of a transition.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the values of the conditions of the transition.
+     */
+    public int[] getConditionValues(final int variable, final int transition) {
+        return this.conditionValues[variable][transition];
+    }
+
+    /**
+     * Returns the variables of the side effects of a transition sorted by increasing index.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the variables of the side effects of the transition.
+     */
+    public int[] getSideEffectVariables(final int variable, final int transition) {
+        return this.sideEffectVariables[variable][transition];
+    }
+
+    /**
+     * Returns the values of the side effects of a transition.
+     *
+     * @param variable   the variable.
+     * @param transition the transition of the variable.
+     * @return the values of the side effects of the transition.
+     */
+    public int[] getSideEffectValues(final int variable, final int transition) {
+        return this.sideEffectValues[variable][transition];
+    }
+
+    /**
+     * Returns the transitions leaving a value of a variable.
+     *
+     * @param variable the variable.
+     * @param value    the value.
+     * @return the transitions leaving the value.
+     */
+    public int[] getOutgoingTransitions(final int variable, final int value) {
+        return this.outgoing[variable][value];
+    }
+
+    /**
+     * Returns the context of a variable, i.e., the variables appearing in the conditions or the side effects of its
+     * transitions, sorted by increasing index.
+     *
+     * @param variable the variable.
+     * @return the context of the variable.
+     */
+    public int[] getContext(final int variable) {
+        return this.contexts[variable];
+    }
+
+    /**
+     * Returns the level of a variable in the causal graph.
+     *
+     * @param variable the variable.
+     * @return the level of the variable.
+     */
+    public int getLevel(final int variable) {
+        return this.levels[variable];
+    }
+}
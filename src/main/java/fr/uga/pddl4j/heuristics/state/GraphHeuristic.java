@@ -24,14 +24,9 @@ import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
 import fr.uga.pddl4j.problem.operator.Action;
 import fr.uga.pddl4j.problem.operator.Condition;
-import fr.uga.pddl4j.problem.operator.ConditionalEffect;
-import fr.uga.pddl4j.util.BitMatrix;
-import fr.uga.pddl4j.util.BitSet;
 import fr.uga.pddl4j.util.BitVector;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * This abstract class implements the basic methods used by all heuristics based on the computation
@@ -42,56 +37,125 @@ import java.util.List;
  * see D. Long, M. Fox (1999). Efficient Implementation of the Plan Graph in STAN. Journal of
  * Artificial Intelligence Research, 10(1):87-115.
  * </p>
+ * <p>
+ * All the sets and relations used during the expansion are stored in flat arrays of words. The
+ * static dependences between the operators, the achievers and the consumers of each proposition
+ * are computed once when the heuristic is created. The mutual exclusions of the operators at a
+ * level are derived from the dependences and the propositions mutex of the level by word-parallel
+ * unions. Since the propositions mutex can only disappear from a level to the next one, only the
+ * current mutex relation is kept and each level records the pairs of propositions no longer mutex.
+ * </p>
  *
  * @author Damien Pellier
- * @version 1.0 20.08.2010
+ * @version 1.1 20.08.2010
  */
 public abstract class GraphHeuristic extends AbstractStateHeuristic implements PlanningGraphHeuristic {
 
     /**
      * The array used to store the apparition level of the propositions.
      */
-    private int[] propositionsLevel;
+    private final int[] propositionsLevel;
 
     /**
      * The array used to store the preconditions of the operators.
      */
-    private BitVector[] preconditions;
+    private final int[][] preconditions;
 
     /**
      * The array used to store the effects of the operators.
      */
-    private BitVector[] effects;
+    private final int[][] effects;
+
+    /**
+     * The static dependences between the operators stored row by row.
+     */
+    private final long[] operatorsDependences;
+
+    /**
+     * The operators that produce each proposition stored row by row.
+     */
+    private final long[] producers;
+
+    /**
+     * The operators that require each proposition stored row by row.
+     */
+    private final long[] consumers;
+
+    /**
+     * The operators mutual exclusions of the current level of the planning graph stored row by row.
+     */
+    private final long[] operatorsMutex;
+
+    /**
+     * The propositions mutual exclusions of the current level of the planning graph stored row by
+     * row.
+     */
+    private final long[] propositionsMutex;
+
+    /**
+     * The pairs of propositions no longer mutex stored level by level.
+     */
+    private int[] mutexDeltas;
+
+    /**
+     * The number of pairs of propositions no longer mutex.
+     */
+    private int nbMutexDeltas;
+
+    /**
+     * The index of the first pair no longer mutex at each level.
+     */
+    private int[] levelDeltas;
+
+    /**
+     * The number of levels of the last expanded planning graph.
+     */
+    private int nbLevels;
+
+    /**
+     * The goal of the planning problem including the negative propositions.
+     */
+    private int[] bvgoal;
+
+    /**
+     * The words that represent the propositions layer of the planning graph.
+     */
+    private final long[] propsLayer;
 
     /**
-     * The dependences between the actions.
+     * The words that represent the operators layer of the planning graph.
      */
-    private BitMatrix operatorsDependences;
+    private final long[] opsLayer;
 
     /**
-     * The list of operators mutual exclusions of the planning graph stored by level.
+     * The words used to store the new propositions during the planning graph expansion.
      */
-    private List<BitMatrix> operatorsMutex;
+    private final long[] newPropositions;
 
     /**
-     * The list of propositions mutual exclusions of the planning graph stored by level.
+     * The array used to store the new operators during the planning graph expansion.
      */
-    private List<BitMatrix> propositionsMutex;
+    private final int[] newOperators;
 
     /**
-     * The bit vector that contains the goal of the planning problem.
+     * The words used to compute the operators mutex with all the achievers of a proposition.
      */
-    private BitVector bvgoal;
+    private final long[] operatorsMask;
 
     /**
-     * The bit vector that represents the propositions layer of the planning graph.
+     * The words used to compute the propositions mutex with a precondition of an operator.
      */
-    private BitVector propsLayer;
+    private final long[] propositionsMask;
 
     /**
-     * The bit vector that represents the operators layer of the planning graph.
+     * The number of words of a row of propositions.
      */
-    private BitVector opsLayer;
+    private final int propWords;
+
+    /**
+     * The number of words of a row of operators.
+     */
+    private final int opWords;
 
     /**
      * The array that contains the string representation of the propositions. This array can be used
@@ -115,30 +179,20 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
      */
     private boolean levelOff;
 
-    /**
-     * The list that contains for each level and for each proposition which operators produce it.
-     */
-    private List<BitMatrix> achievers;
-
     /**
      * The number of propositions of the problem.
      */
-    private int nbPropositions;
+    private final int nbPropositions;
 
     /**
      * The number of operators of the problem.
      */
-    private int nbOperators;
+    private final int nbOperators;
 
     /**
      * The index of first negative propositions.
      */
-    private int negOffset;
-
-    /**
-     * The bit vector used to store the new operators during the planning graph expansion.
-     */
-    private BitVector newOperators;
+    private final int negOffset;
 
     /**
      * The flag used to debug.
@@ -154,131 +208,66 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
         super(problem);
         this.debug = false;
 
+        // Get the static structures of the planning graphs shared by all the heuristics of the problem
+        final MutexGraphStructure structure = MutexGraphStructure.getInstance(problem);
+
         // Get the number of relevant facts of the problem
-        this.negOffset = super.getRevelantFacts().size();
+        this.negOffset = structure.getNegOffset();
 
         // The number of propositions of the problem
-        this.nbPropositions = this.negOffset * 2;
+        this.nbPropositions = structure.getNumberOfPropositions();
+
+        // The number of unconditional operators of the problem including the NOOP operators
+        this.nbOperators = structure.getNumberOfOperators();
 
         // If debug flag is true we compute the string representation of the problem propositions
+        // and of the unconditional operators of the planning problem
         if (this.debug) {
-            // The array that contains string representation of the problem propositions
             this.propositions = new String[this.nbPropositions];
+            this.operators = new String[this.nbOperators];
             for (int i = 0; i < this.negOffset; i++) {
-                Fluent prop = super.getRevelantFacts().get(i);
+                final Fluent prop = super.getRevelantFacts().get(i);
                 this.propositions[i] = problem.toString(prop);
                 this.propositions[i + this.negOffset] = "(not " + this.propositions[i] + ")";
+                this.operators[i] = "noop(" + this.propositions[i] + ")";
+                this.operators[i + this.negOffset] = "noop(not (" + this.propositions[i] + "))";
             }
-        }
-
-        // Compute the number of unconditional operators of the problem
-        this.nbOperators = this.nbPropositions;
-        final List<Action> pbOperators = problem.getActions();
-        for (Action op : pbOperators) {
-            this.nbOperators += op.getConditionalEffects().size();
-        }
-
-        // If debug flag is true we create the array that contains the string representation of the
-        // unconditional operators of the planning problem
-        if (debug) {
-            this.operators = new String[this.nbOperators];
-        }
-
-        // Initialize the two arrays that wil contain the preconditions and the effects of the
-        // unconditional operators of the planning problem
-        this.preconditions = new BitVector[this.nbOperators];
-        this.effects = new BitVector[this.nbOperators];
-
-        // Create the NOOP operators
-        for (int i = 0; i < this.negOffset; i++) {
-
-            // Positive NOOP actions
-            final Fluent proposition = super.getRevelantFacts().get(i);
-            if (debug) {
-                this.operators[i] = "noop(" + problem.toString(proposition) + ")";
-            }
-            final BitVector precond = new BitVector();
-            precond.set(i);
-            this.preconditions[i] = precond;
-            final BitVector effect = new BitVector();
-            effect.set(i);
-            this.effects[i] = effect;
-
-            // Negative NOOP action
-            int negI = i + this.negOffset;
-            if (debug) {
-                this.operators[negI] = "noop(not (" + problem.toString(proposition) + "))";
-            }
-            final BitVector negPrecond = new BitVector();
-            negPrecond.set(negI);
-            this.preconditions[negI] = negPrecond;
-            final BitVector negEffect = new BitVector();
-            negEffect.set(negI);
-            this.effects[negI] = negEffect;
-        }
-
-        // Start enumerating the unconditional opsLayer
-        int uncondOpIndex = this.nbPropositions;
-        for (final Action op : pbOperators) {
-            final List<ConditionalEffect> condEffects = op.getConditionalEffects();
-            // For each conditional effect we create a new operator
-            for (int ceIndex = 0; ceIndex < condEffects.size(); ceIndex++) {
-                final ConditionalEffect cEffect = condEffects.get(ceIndex);
-                if (debug) {
-                    this.operators[uncondOpIndex] = "(" + problem.toShortString(op) + ")_" + ceIndex;
+            int uncondOpIndex = this.nbPropositions;
+            for (final Action op : problem.getActions()) {
+                for (int ceIndex = 0; ceIndex < op.getConditionalEffects().size(); ceIndex++) {
+                    this.operators[uncondOpIndex++] = "(" + problem.toShortString(op) + ")_" + ceIndex;
                 }
-                final BitVector precond = new BitVector();
-                precond.or(op.getPrecondition().getPositiveFluents());
-                precond.or(cEffect.getCondition().getPositiveFluents());
-                BitVector neg = op.getPrecondition().getNegativeFluents();
-                for (int p = neg.nextSetBit(0); p >= 0; p = neg.nextSetBit(p + 1)) {
-                    precond.set(p + this.negOffset);
-                }
-                neg = cEffect.getCondition().getNegativeFluents();
-                for (int p = neg.nextSetBit(0); p >= 0; p = neg.nextSetBit(p + 1)) {
-                    precond.set(p + this.negOffset);
-                }
-                this.preconditions[uncondOpIndex] = precond;
-                final BitVector effect = new BitVector();
-                effect.or(cEffect.getEffect().getPositiveFluents());
-                neg = cEffect.getEffect().getNegativeFluents();
-                for (int p = neg.nextSetBit(0); p >= 0; p = neg.nextSetBit(p + 1)) {
-                    effect.set(p + this.negOffset);
-                }
-                this.effects[uncondOpIndex] = effect;
-                uncondOpIndex++;
             }
         }
 
+        // The static structures are shared and must not be modified
+        this.preconditions = structure.getPreconditions();
+        this.effects = structure.getEffects();
+        this.producers = structure.getProducers();
+        this.consumers = structure.getConsumers();
+        this.operatorsDependences = structure.getOperatorsDependences();
+
         // Set the goal to the state representation
-        this.bvgoal = new BitVector();
-        this.bvgoal.or(super.getGoal().getPositiveFluents());
-        final BitVector neg = super.getGoal().getNegativeFluents();
-        for (int p = neg.nextSetBit(0); p >= 0; p = neg.nextSetBit(p + 1)) {
-            this.bvgoal.set(p + this.negOffset);
-        }
+        this.bvgoal = this.toPropositions(super.getGoal());
 
-        // Compute static dependence between operators
-        this.operatorsDependences = new BitMatrix(this.nbOperators);
-        for (int i = 0; i < this.nbOperators; i++) {
-            for (int j = 0; j < this.nbOperators; j++) {
-                if (i > j && this.areDependent(i, j)) {
-                    this.operatorsDependences.set(i, j);
-                    this.operatorsDependences.set(j, i);
-                }
-            }
-        }
+        // Compute the number of words of the rows
+        this.propWords = (this.nbPropositions + 63) >>> 6;
+        this.opWords = (this.nbOperators + 63) >>> 6;
 
-        // Initialize the array that must contain the level of the positive propsLayer
+        // Initialize the array that must contain the level of the propositions
         this.propositionsLevel = new int[this.nbPropositions];
-        // Initialize the array that must contain propositions mutex
-        this.propositionsMutex = new ArrayList<>();
-        // Initialize the array that must contain operators mutex
-        this.operatorsMutex = new ArrayList<>();
-        // Initialize the array that must contain achievers
-        this.achievers = new ArrayList<>();
-        // The bit vector that is used to store the new operators during expansion
-        this.newOperators = new BitVector();
+        // Initialize the arrays that must contain the propositions and operators mutex
+        this.propositionsMutex = new long[this.nbPropositions * this.propWords];
+        this.operatorsMutex = new long[this.nbOperators * this.opWords];
+        this.mutexDeltas = new int[16];
+        this.levelDeltas = new int[16];
+        // Initialize the words used to represent the layers of the planning graph
+        this.propsLayer = new long[this.propWords];
+        this.opsLayer = new long[this.opWords];
+        this.newPropositions = new long[this.propWords];
+        this.newOperators = new int[this.nbOperators];
+        this.operatorsMask = new long[this.opWords];
+        this.propositionsMask = new long[this.propWords];
     }
 
     /**
@@ -288,14 +277,26 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
      */
     @Override
     protected final void setGoal(final Condition goal) {
-        super.setGoal(goal);
-        // Set the goal to the state representation
-        this.bvgoal = new BitVector();
-        this.bvgoal.or(super.getGoal().getPositiveFluents());
+        if (!goal.equals(super.getGoal())) {
+            super.setGoal(goal);
+            this.bvgoal = this.toPropositions(goal);
+        }
+    }
+
+    /**
+     * Returns the propositions of a goal, the negative fluents of the goal included.
+     *
+     * @param goal the goal.
+     * @return the propositions of the goal.
+     */
+    private int[] toPropositions(final Condition goal) {
+        final BitVector props = new BitVector();
+        props.or(goal.getPositiveFluents());
         final BitVector neg = goal.getNegativeFluents();
         for (int p = neg.nextSetBit(0); p >= 0; p = neg.nextSetBit(p + 1)) {
-            this.bvgoal.set(p + this.negOffset);
+            props.set(p + this.negOffset);
         }
+        return UnconditionalOperators.toArray(props);
     }
 
     /**
@@ -306,163 +307,198 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
      */
     protected final int expandPlanningGraph(final State state) {
 
-        // The array that contains the level of the positive proposition apparition
-        Arrays.fill(this.propositionsLevel, Integer.MAX_VALUE);
-
-        // Initialize the initial propsLayer level of the planning graph
-        this.propsLayer = new BitVector();
-        this.propsLayer.or(state);
-
         // Initialize the first proposition level with the specified state
-        this.propsLayer.flip(this.negOffset, this.nbPropositions);
-        for (int p = state.nextSetBit(0); p >= 0; p = state.nextSetBit(p + 1)) {
-            this.propsLayer.clear(p + this.negOffset);
-        }
-        for (int p = this.propsLayer.nextSetBit(0); p >= 0; p = this.propsLayer.nextSetBit(p + 1)) {
-            this.propositionsLevel[p] = 0;
+        Arrays.fill(this.propositionsLevel, Integer.MAX_VALUE);
+        Arrays.fill(this.propsLayer, 0L);
+        Arrays.fill(this.opsLayer, 0L);
+        Arrays.fill(this.propositionsMutex, 0L);
+        for (int p = 0; p < this.negOffset; p++) {
+            final int prop = state.get(p) ? p : p + this.negOffset;
+            this.propsLayer[prop >>> 6] |= 1L << prop;
+            this.propositionsLevel[prop] = 0;
         }
-
-        // Initialize the initial actions level of the planning graph
-        this.opsLayer = new BitVector();
+        this.nbMutexDeltas = 0;
 
         // The current level of the planning graph (the first level is 0)
         int k = 0;
-        // Initialize the propositions mutex at level with an empty bit matrix
-        this.propositionsMutex.add(new BitMatrix(this.nbPropositions));
-
-        // Initialize the boolean flag used to indicate if the goal is reached to false
-        this.goalReached = false;
+        // Check if the goal is reached in the initial level
+        this.goalReached = this.isMutexFree(this.bvgoal);
         // Initialize the boolean flag used to indicate if level of the graph is off to false
         this.levelOff = false;
 
         // Start the expansion of the planning graph
         while (!this.goalReached && !this.levelOff) {
-            this.levelOff = true;
-            // Update the achiever of the level by adding achiever at previous level
-            final BitMatrix lAchievers = new BitMatrix(this.nbPropositions, this.nbOperators);
-            this.achievers.add(lAchievers);
-            if (k > 0) {
-                final BitMatrix ak1 = this.achievers.get(k - 1);
-                for (int p = 0; p < this.nbPropositions; p++) {
-                    lAchievers.getRow(p).or(ak1.getRow(p));
+            // Add the NOOP operators
+            for (int w = 0; w < this.propWords; w++) {
+                this.opsLayer[w] |= this.propsLayer[w];
+            }
+            // Try only the operators not already in the planning graph
+            int nbNewOperators = 0;
+            for (int op = this.nbPropositions; op < this.nbOperators; op++) {
+                if ((this.opsLayer[op >>> 6] & (1L << op)) == 0 && this.isMutexFree(this.preconditions[op])) {
+                    this.opsLayer[op >>> 6] |= 1L << op;
+                    this.newOperators[nbNewOperators++] = op;
                 }
             }
-            // Clear the bit vector that will contain the operator to add at the next level
-            this.newOperators.clear();
-            // Initialize the bit vector that will contain the propositions to add at the next level
-            final BitVector newPropositions = new BitVector();
-            // Add the NOOP operators
-            this.opsLayer.or(this.propsLayer);
-            // try only the operator not already in the planning graph
-            for (int op = this.opsLayer.nextClearBit(this.nbPropositions); op > 0
-                && op < this.nbOperators; op = this.opsLayer.nextClearBit(op + 1)) {
-                if (this.propsLayer.include(this.preconditions[op])
-                    && this.isMutexFree(this.preconditions[op], k)) {
-                    this.opsLayer.set(op);
-                    newOperators.set(op);
-                    final BitVector effs = this.effects[op];
-                    newPropositions.or(effs);
-                    // Update the achiever to speed up the mutex computation
-                    for (int p = effs.nextSetBit(0); p >= 0; p = effs.nextSetBit(p + 1)) {
-                        lAchievers.set(p, op);
+            // Update the operators mutexes at level k
+            this.updateOperatorsMutex();
+
+            // Add the new effects of the applicable operators to the propositions layer
+            Arrays.fill(this.newPropositions, 0L);
+            boolean changed = false;
+            for (int i = 0; i < nbNewOperators; i++) {
+                for (int p : this.effects[this.newOperators[i]]) {
+                    if (this.propositionsLevel[p] == Integer.MAX_VALUE) {
+                        this.propositionsLevel[p] = k + 1;
+                        this.newPropositions[p >>> 6] |= 1L << p;
+                        changed = true;
                     }
-                    // If an operator is added so the graph is not level off
-                    this.levelOff = false;
                 }
             }
-
-            // Add the new effects of the applicable operator to the propositions layer
-            this.propsLayer.or(newPropositions);
-            // Update the level of the new propositions
-            for (int p = newPropositions.nextSetBit(0); p >= 0; p = newPropositions
-                .nextSetBit(p + 1)) {
-                if (this.propositionsLevel[p] == Integer.MAX_VALUE) {
-                    this.propositionsLevel[p] = k;
-                }
+            for (int w = 0; w < this.propWords; w++) {
+                this.propsLayer[w] |= this.newPropositions[w];
             }
-            // Update the operators mutexes at level k
-            this.updateOperatorsMutex(k);
             // Update the propositions mutexes at level k + 1
-            this.updatePropositionsMutex(k + 1);
+            changed |= this.updatePropositionsMutex(k + 1);
             // Increment the level of the planning graph
             k++;
+            // The graph is level off if neither the propositions nor their mutexes have changed
+            this.levelOff = !changed;
             // Check if the goal is reached
-            this.goalReached = this.propsLayer.include(this.bvgoal) && this.isMutexFree(this.bvgoal, k);
+            this.goalReached = this.isMutexFree(this.bvgoal);
         }
+        this.nbLevels = k;
         return k;
     }
 
     /**
-     * Updates the propositions mutex at a specified level of the planning graph.
+     * Updates the propositions mutex at a specified level of the planning graph. Two propositions
+     * are mutex if all the operators that produce them at the previous level are pairwise mutex.
+     * Only the pairs mutex at the previous level and the pairs involving a new proposition are
+     * tested.
      *
      * @param lev the level.
+     * @return <code>true</code> if the propositions mutex have changed; <code>false</code>
+     *          otherwise.
      */
-    private void updatePropositionsMutex(final int lev) {
-        this.propositionsMutex.add(new BitMatrix(this.nbPropositions));
-        final BitMatrix pmK = new BitMatrix(nbPropositions);
-        final BitMatrix pmk1 = this.propositionsMutex.get(lev - 1);
-        this.propositionsMutex.add(pmK);
-        for (int pi = this.propsLayer.nextSetBit(0); pi >= 0; pi = this.propsLayer
-            .nextSetBit(pi + 1)) {
-            for (int pj = this.propsLayer.nextSetBit(0); pj >= 0; pj = this.propsLayer
-                .nextSetBit(pj + 1)) {
-                if (pi > pj && this.arePropositionsMutex(pi, pj, lev)) {
-                    pmK.set(pi, pj);
-                    pmK.set(pj, pi);
+    private boolean updatePropositionsMutex(final int lev) {
+        if (lev >= this.levelDeltas.length) {
+            this.levelDeltas = Arrays.copyOf(this.levelDeltas, this.levelDeltas.length * 2);
+        }
+        this.levelDeltas[lev] = this.nbMutexDeltas;
+        boolean changed = false;
+        for (int pw = 0; pw < this.propWords; pw++) {
+            for (long pword = this.propsLayer[pw]; pword != 0; pword &= pword - 1) {
+                final int pi = (pw << 6) + Long.numberOfTrailingZeros(pword);
+                final int row = pi * this.propWords;
+                final boolean isNew = (this.newPropositions[pw] & (1L << pi)) != 0;
+                // Compute the operators mutex with all the achievers of pi
+                Arrays.fill(this.operatorsMask, -1L);
+                final int prow = pi * this.opWords;
+                for (int ow = 0; ow < this.opWords; ow++) {
+                    for (long a = this.producers[prow + ow] & this.opsLayer[ow]; a != 0; a &= a - 1) {
+                        final int orow = ((ow << 6) + Long.numberOfTrailingZeros(a)) * this.opWords;
+                        for (int w = 0; w < this.opWords; w++) {
+                            this.operatorsMask[w] &= this.operatorsMutex[orow + w];
+                        }
+                    }
+                }
+                final int opposite = pi < this.negOffset ? pi + this.negOffset : pi - this.negOffset;
+                // Test the propositions pj > pi mutex at the previous level or new
+                for (int w = pw; w < this.propWords; w++) {
+                    long candidates = isNew ? this.propsLayer[w]
+                        : this.propositionsMutex[row + w] | this.newPropositions[w];
+                    if (w == pw) {
+                        candidates &= (-1L << pi) << 1;
+                    }
+                    for (; candidates != 0; candidates &= candidates - 1) {
+                        final int pj = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                        final boolean mutex = pj == opposite || this.areAchievedBy(pj, this.operatorsMask);
+                        final boolean wasMutex = (this.propositionsMutex[row + w] & (1L << pj)) != 0;
+                        if (mutex && !wasMutex) {
+                            this.propositionsMutex[row + w] |= 1L << pj;
+                            this.propositionsMutex[pj * this.propWords + pw] |= 1L << pi;
+                            changed = true;
+                        } else if (!mutex && wasMutex) {
+                            this.propositionsMutex[row + w] &= ~(1L << pj);
+                            this.propositionsMutex[pj * this.propWords + pw] &= ~(1L << pi);
+                            this.addMutexDelta(pi, pj);
+                            changed = true;
+                        }
+                    }
                 }
             }
         }
-        this.levelOff = pmK.equals(pmk1);
+        return changed;
     }
 
     /**
-     * Updates the operators mutex at a specified level of the planning graph.
+     * Returns <code>true</code> if all the operators of the current layer that produce a
+     * proposition are in a specified set of operators.
      *
-     * @param lev the level.
+     * @param p   the proposition.
+     * @param ops the set of operators.
+     * @return <code>true</code> if all the operators of the current layer that produce the
+     *          proposition are in the set; <code>false</code> otherwise.
      */
-    private void updateOperatorsMutex(final int lev) {
-        if (lev > 1) {
-            // Update the old mutex first
-            final BitMatrix omk = new BitMatrix(this.nbOperators);
-            this.operatorsMutex.add(omk);
-            final BitMatrix omk1 = this.operatorsMutex.get(lev - 1);
-            for (int oi = this.opsLayer.nextSetBit(0); oi >= 0; oi = this.opsLayer
-                .nextSetBit(oi + 1)) {
-                for (int oj = this.opsLayer.nextSetBit(0); oj >= 0; oj = this.opsLayer
-                    .nextSetBit(oj + 1)) {
-                    if (oi > oj && omk1.get(oi, oj) && this.areOperatorsMutex(oi, oj, lev)) {
-                        omk.set(oi, oj);
-                        omk.set(oj, oi);
-                    } else {
-                        this.levelOff = false;
-                    }
-                }
+    private boolean areAchievedBy(final int p, final long[] ops) {
+        final int row = p * this.opWords;
+        for (int w = 0; w < this.opWords; w++) {
+            if ((this.producers[row + w] & this.opsLayer[w] & ~ops[w]) != 0) {
+                return false;
             }
-            // then update the mutex of the new operators
-            for (int oi = this.newOperators.nextSetBit(0); oi >= 0; oi = this.newOperators
-                .nextSetBit(oi + 1)) {
-                for (int oj = this.opsLayer.nextSetBit(0); oj >= 0; oj = this.opsLayer
-                    .nextSetBit(oj + 1)) {
-                    if (oi > oj && this.areOperatorsMutex(oi, oj, lev)) {
-                        omk.set(oi, oj);
-                        omk.set(oj, oi);
-                        this.levelOff = false;
+        }
+        return true;
+    }
+
+    /**
+     * Records a pair of propositions no longer mutex at the current level.
+     *
+     * @param pi the first proposition.
+     * @param pj the second proposition.
+     */
+    private void addMutexDelta(final int pi, final int pj) {
+        if (this.nbMutexDeltas + 2 > this.mutexDeltas.length) {
+            this.mutexDeltas = Arrays.copyOf(this.mutexDeltas, this.mutexDeltas.length * 2);
+        }
+        this.mutexDeltas[this.nbMutexDeltas++] = pi;
+        this.mutexDeltas[this.nbMutexDeltas++] = pj;
+    }
+
+    /**
+     * Updates the operators mutex at the current level of the planning graph. Two operators are
+     * mutex if they are dependent or if a precondition of the first operator is mutex with a
+     * precondition of the second one.
+     */
+    private void updateOperatorsMutex() {
+        for (int ow = 0; ow < this.opWords; ow++) {
+            for (long oword = this.opsLayer[ow]; oword != 0; oword &= oword - 1) {
+                final int oi = (ow << 6) + Long.numberOfTrailingZeros(oword);
+                final int row = oi * this.opWords;
+                // Compute the propositions mutex with a precondition of oi
+                Arrays.fill(this.propositionsMask, 0L);
+                for (int p : this.preconditions[oi]) {
+                    final int prow = p * this.propWords;
+                    for (int w = 0; w < this.propWords; w++) {
+                        this.propositionsMask[w] |= this.propositionsMutex[prow + w];
                     }
                 }
-            }
-        } else { // Special case of the level lev
-            final BitMatrix omk = new BitMatrix(this.nbOperators);
-            this.operatorsMutex.add(omk);
-            for (int oi = this.opsLayer.nextSetBit(0); oi >= 0; oi = this.opsLayer
-                .nextSetBit(oi + 1)) {
-                for (int oj = this.opsLayer.nextSetBit(0); oj >= 0; oj = this.opsLayer
-                    .nextSetBit(oj + 1)) {
-                    if (oi > oj && this.areOperatorsMutex(oi, oj, lev)) {
-                        omk.set(oi, oj);
-                        omk.set(oj, oi);
-                        this.levelOff = false;
+                // The operators mutex with oi are the dependent ones and the ones that require a
+                // proposition mutex with a precondition of oi
+                for (int w = 0; w < this.opWords; w++) {
+                    this.operatorsMutex[row + w] = this.operatorsDependences[row + w];
+                }
+                for (int pw = 0; pw < this.propWords; pw++) {
+                    for (long pword = this.propositionsMask[pw]; pword != 0; pword &= pword - 1) {
+                        final int crow = ((pw << 6) + Long.numberOfTrailingZeros(pword)) * this.opWords;
+                        for (int w = 0; w < this.opWords; w++) {
+                            this.operatorsMutex[row + w] |= this.consumers[crow + w];
+                        }
                     }
                 }
+                for (int w = 0; w < this.opWords; w++) {
+                    this.operatorsMutex[row + w] &= this.opsLayer[w];
+                }
             }
         }
     }
@@ -475,129 +511,56 @@ public abstract class GraphHeuristic extends AbstractStateHeuristic implements P
      */
     protected final int getSumValue() {
         int value = 0;
-        for (int p = this.bvgoal.nextSetBit(0); p >= 0; p = this.bvgoal.nextSetBit(p + 1)) {
+        for (int p : this.bvgoal) {
             value += this.propositionsLevel[p];
         }
         return value;
     }
 
     /**
-     * Returns <code>true</code> if two operator are mutex at a specified level. Two opsLayer are
-     * mutex if the opsLayer are dependent or an operator has a mutex precondition at level lev;
+     * Returns <code>true</code> if two propositions of a specified level of the last expanded
+     * planning graph are mutex. The propositions must belong to the level.
      *
-     * @param oi  the first fact.
-     * @param oj  the second fact.
-     * @param lev the level where the test must be done.
-     * @return <code>true</code> if two operator are mutex at a specified level;
-     * <code>false</code> otherwise.
-     */
-    private boolean areOperatorsMutex(final int oi, final int oj, final int lev) {
-        if (lev == 0) {
-            return this.operatorsDependences.get(oi, oj);
+     * @param pi    the first proposition.
+     * @param pj    the second proposition.
+     * @param level the level.
+     * @return <code>true</code> if the two propositions are mutex at the level;
+     *          <code>false</code> otherwise.
+     */
+    protected final boolean arePropositionsMutex(final int pi, final int pj, final int level) {
+        if ((this.propositionsMutex[pi * this.propWords + (pj >>> 6)] & (1L << pj)) != 0) {
+            return true;
         }
-        if (!this.operatorsDependences.get(oi, oj)) {
-            boolean mutex = false;
-            final BitVector ppi = this.preconditions[oi];
-            final BitVector ppj = this.preconditions[oj];
-            final BitMatrix mk = this.propositionsMutex.get(lev);
-            int mi = ppi.nextSetBit(0);
-            while (mi >= 0 && !mutex) {
-                mutex = mk.getRow(mi).intersects(ppj);
-                mi = ppi.nextSetBit(mi + 1);
+        final int from = level < this.nbLevels ? this.levelDeltas[level + 1] : this.nbMutexDeltas;
+        for (int i = from; i < this.nbMutexDeltas; i += 2) {
+            if (this.mutexDeltas[i] == pi && this.mutexDeltas[i + 1] == pj
+                || this.mutexDeltas[i] == pj && this.mutexDeltas[i + 1] == pi) {
+                return true;
             }
-            return mutex;
         }
-        return true;
+        return false;
     }
 
     /**
-     * Returns <code>true</code> if two facts are mutex at a specified level. Two facts are mutex
-     * if at least one operator that produce the facts are mutex in the previous level lev - 1.
+     * Returns <code>true</code> if a set of propositions is in the current propositions layer and
+     * mutex free.
      *
-     * @param pi  the first fact.
-     * @param pj  the second fact.
-     * @param lev the level where the test must be done.
-     * @return <code>true</code> if two facts are mutex at a specified level; <code>false</code>
-     *          otherwise.
+     * @param props the propositions to be tested.
+     * @return <code>true</code> if a set of propositions is in the current propositions layer and
+     *          mutex free, <code>false</code> otherwise.
      */
-    private boolean arePropositionsMutex(final int pi, final int pj, final int lev) {
-        boolean mutex = pj == (pi + super.getRevelantFacts().size());
-        if (!mutex && lev > 0) {
-            final BitMatrix ak = this.achievers.get(lev - 1);
-            final BitSet rak = ak.getRow(pi);
-            final BitSet rbk = ak.getRow(pj);
-            // Test if there is one operator that produce pi and pj
-            if (rak.intersects(rbk)) {
+    private boolean isMutexFree(final int[] props) {
+        for (int p : props) {
+            if ((this.propsLayer[p >>> 6] & (1L << p)) == 0) {
                 return false;
             }
-            final BitMatrix mak = this.operatorsMutex.get(lev - 1);
-            mutex = true;
-            int ra = rak.nextSetBit(0);
-            while (ra >= 0 && mutex) {
-                int rb = rbk.nextSetBit(0);
-                while (rb >= 0 && mutex) {
-                    mutex = mak.get(ra, rb);
-                    rb = rbk.nextSetBit(rb + 1);
-                }
-                ra = rak.nextSetBit(ra + 1);
-            }
         }
-        return mutex;
-    }
-
-    /**
-     * Returns <code>true</code> if a set of facts is mutex free in a specified proposition level
-     * of the planning graph.
-     *
-     * @param state the facts to be tested.
-     * @param level the level of the graph at which the test is done.
-     * @return <code>true</code> if a set of facts is mutex free in a specified proposition level
-     *          of the planning graph, <code>false</code> otherwise.
-     */
-    private boolean isMutexFree(final BitVector state, final int level) {
-        boolean free = true;
-        final BitMatrix mk = this.propositionsMutex.get(level);
-        int i = state.nextSetBit(0);
-        while (i >= 0 && free) {
-            free = !mk.getRow(i).intersects(state);
-            i = state.nextSetBit(i + 1);
-        }
-        return free;
-    }
-
-    /**
-     * Returns <code>true</code> if two opsLayer are dependent, i.e, if an operator delete an
-     * precondition or an add effect of the other.
-     *
-     * @param oi The first operator.
-     * @param oj The second operator
-     * @return <code>true</code> if two opsLayer are dependent, <code>false</code> otherwise.
-     */
-    private boolean areDependent(final int oi, final int oj) {
-        final BitVector effOi = this.effects[oi];
-        final BitVector effOj = this.effects[oj];
-        final BitVector preOi = this.preconditions[oi];
-        final BitVector preOj = this.preconditions[oj];
-        return !this.areConsistantStates(effOi, effOj)
-            || !this.areConsistantStates(effOi, preOj)
-            || !this.areConsistantStates(effOj, preOi)
-            || !this.areConsistantStates(preOi, preOj);
-    }
-
-    /**
-     * Returns <code>true</code> if two states are consistent.
-     *
-     * @param s1 The first state.
-     * @param s2 The second state.
-     * @return <code>true</code> if two states are consistent; <code>false</code> otherwise.
-     */
-    private boolean areConsistantStates(BitVector s1, BitVector s2) {
-        final BitVector state = new BitVector(s1);
-        state.or(s2);
-        final int offset = super.getRevelantFacts().size();
-        for (int p = state.nextSetBit(0); p >= 0 && p < offset; p = state.nextSetBit(p + 1)) {
-            if (state.get(p + offset)) {
-                return false;
+        for (int i = 0; i < props.length; i++) {
+            final int row = props[i] * this.propWords;
+            for (int j = i + 1; j < props.length; j++) {
+                if ((this.propositionsMutex[row + (props[j] >>> 6)] & (1L << props[j])) != 0) {
+                    return false;
+                }
             }
         }
         return true;
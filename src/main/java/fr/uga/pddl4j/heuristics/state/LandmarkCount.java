@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+/**
+ * This class implements the landmark-count heuristic of the LAMA planner. For more about this heuristic see S. Richter
+ * and M. Westphal, The LAMA Planner: Guiding Cost-based Anytime Planning with Landmarks, Journal of Artificial
+ * Intelligence Research 39, 2010.
+ * <p>
+ * The heuristic value of a node is the number of landmarks that must still be achieved from the node, i.e., the
+ * landmarks not accepted along the path leading to the node plus the accepted landmarks required again. The value is
+ * path-dependent: the more precise estimations are obtained when the heuristic is called on the nodes of the search
+ * with their parent already set.
+ * </p>
+ * <b>Warning:</b> The landmark-count heuristic is not admissible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 12.02.2021
+ * @see LandmarkGraph
+ * @see AdmissibleLandmarkCount
+ */
+public final class LandmarkCount extends AbstractLandmarkHeuristic {
+
+    /**
+     * Creates a new <code>LandmarkCount</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public LandmarkCount(final Problem problem) {
+        super(problem);
+        super.setAdmissible(false);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        super.setGoal(goal);
+        final long[] accepted = super.getAcceptedLandmarks(state);
+        if (state.satisfy(goal)) {
+            return 0;
+        }
+        final LandmarkGraph lg = super.getLandmarkGraph();
+        final long[] needed = new long[super.getNumberOfWords()];
+        final int value = super.getNeededLandmarks(state, accepted, needed);
+        for (int lm = 0; lm < lg.size(); lm++) {
+            if (AbstractLandmarkHeuristic.isSet(needed, lm) && lg.getAchievers(lm).length == 0
+                && !state.get(lg.getFluent(lm))) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        return Math.max(value, 1);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * This class implements a graph of fact landmarks. A fact landmark is a fluent that must be true at some point in
+ * every plan. The landmarks are extracted by backchaining from the goal on the delete relaxation of the problem in the
+ * style of S. Richter, M. Helmert and M. Westphal, Landmarks Revisited, in: Proceedings of the 23rd AAAI Conference on
+ * Artificial Intelligence, 2008.
+ * <p>
+ * For each landmark <code>p</code> that is not true in the initial state, the fluents reachable in the relaxed problem
+ * without using any achiever of <code>p</code> are computed. The first achievers of <code>p</code> are its achievers
+ * applicable from these fluents and the preconditions shared by all the first achievers are new landmarks, ordered
+ * greedy-necessarily before <code>p</code>. The same relaxed explorations are used to derive the natural orderings:
+ * a landmark <code>q</code> not reachable without achieving <code>p</code> must be preceded by <code>p</code>.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 12.02.2021
+ * @see LandmarkCount
+ * @see AdmissibleLandmarkCount
+ */
+public final class LandmarkGraph implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The fluent of each landmark.
+     */
+    private final int[] fluents;
+
+    /**
+     * The landmark index of each fluent or -1 if the fluent is not a landmark.
+     */
+    private final int[] landmarks;
+
+    /**
+     * The flags used to indicate if a landmark is a goal.
+     */
+    private final boolean[] goals;
+
+    /**
+     * The flags used to indicate if a landmark is true in the initial state.
+     */
+    private final boolean[] initial;
+
+    /**
+     * For each landmark the landmarks ordered before it, whatever the kind of ordering.
+     */
+    private final int[][] predecessors;
+
+    /**
+     * For each landmark the landmarks ordered greedy-necessarily after it.
+     */
+    private final int[][] greedyNecessarySuccessors;
+
+    /**
+     * For each landmark the distinct actions achieving it.
+     */
+    private final int[][] achievers;
+
+    /**
+     * The number of natural orderings of the graph, greedy-necessary orderings excluded.
+     */
+    private int nbNaturalOrderings;
+
+    /**
+     * The number of greedy-necessary orderings of the graph.
+     */
+    private int nbGreedyNecessaryOrderings;
+
+    /**
+     * Creates a new landmark graph for a specified initial state and goal.
+     *
+     * @param operators the unconditional operators of the problem.
+     * @param init      the positive fluents of the initial state.
+     * @param goal      the goal.
+     */
+    public LandmarkGraph(final UnconditionalOperators operators, final BitVector init, final Condition goal) {
+        final int nbFluents = operators.nbFluents();
+        this.landmarks = new int[nbFluents];
+        Arrays.fill(this.landmarks, -1);
+        final List<Integer> lmFluents = new ArrayList<>();
+        final List<BitVector> reachables = new ArrayList<>();
+        final List<List<Integer>> gnPredecessors = new ArrayList<>();
+        final Deque<Integer> open = new ArrayDeque<>();
+        final BitVector goalFluents = goal.getPositiveFluents();
+        for (int g = goalFluents.nextSetBit(0); g >= 0; g = goalFluents.nextSetBit(g + 1)) {
+            this.landmarks[g] = lmFluents.size();
+            lmFluents.add(g);
+            gnPredecessors.add(new ArrayList<>());
+            reachables.add(null);
+            open.add(g);
+        }
+        final int[] counters = new int[operators.size()];
+        final int[] shared = new int[nbFluents];
+        while (!open.isEmpty()) {
+            final int p = open.poll();
+            if (init.get(p)) {
+                continue;
+            }
+            final BitVector reachable = LandmarkGraph.explore(operators, init, p, counters);
+            reachables.set(this.landmarks[p], reachable);
+            int nbFirstAchievers = 0;
+            for (int op : operators.getAchievers(p)) {
+                if (LandmarkGraph.isApplicable(operators.getPreconditions(op), reachable)) {
+                    nbFirstAchievers++;
+                    for (int q : operators.getPreconditions(op)) {
+                        shared[q]++;
+                    }
+                }
+            }
+            for (int op : operators.getAchievers(p)) {
+                for (int q : operators.getPreconditions(op)) {
+                    if (shared[q] == nbFirstAchievers && nbFirstAchievers > 0) {
+                        if (this.landmarks[q] == -1) {
+                            this.landmarks[q] = lmFluents.size();
+                            lmFluents.add(q);
+                            gnPredecessors.add(new ArrayList<>());
+                            reachables.add(null);
+                            open.add(q);
+                        }
+                        final List<Integer> gn = gnPredecessors.get(this.landmarks[p]);
+                        if (!gn.contains(this.landmarks[q])) {
+                            gn.add(this.landmarks[q]);
+                        }
+                    }
+                    shared[q] = 0;
+                }
+            }
+        }
+
+        final int size = lmFluents.size();
+        this.fluents = new int[size];
+        this.goals = new boolean[size];
+        this.initial = new boolean[size];
+        this.achievers = new int[size][];
+        for (int i = 0; i < size; i++) {
+            final int f = lmFluents.get(i);
+            this.fluents[i] = f;
+            this.goals[i] = goalFluents.get(f);
+            this.initial[i] = init.get(f);
+            this.achievers[i] = Arrays.stream(operators.getAchievers(f)).map(operators::getAction).distinct()
+                .toArray();
+        }
+        // Compute the natural orderings from the relaxed explorations
+        final List<List<Integer>> preds = new ArrayList<>(size);
+        final int[] nbGnSuccessors = new int[size];
+        for (int q = 0; q < size; q++) {
+            final List<Integer> pred = new ArrayList<>(gnPredecessors.get(q));
+            for (int p : pred) {
+                nbGnSuccessors[p]++;
+            }
+            this.nbGreedyNecessaryOrderings += pred.size();
+            preds.add(pred);
+        }
+        for (int p = 0; p < size; p++) {
+            final BitVector reachable = reachables.get(p);
+            if (reachable == null) {
+                continue;
+            }
+            for (int q = 0; q < size; q++) {
+                if (q != p && !this.initial[q] && !reachable.get(this.fluents[q]) && !preds.get(q).contains(p)) {
+                    preds.get(q).add(p);
+                    this.nbNaturalOrderings++;
+                }
+            }
+        }
+        this.predecessors = new int[size][];
+        this.greedyNecessarySuccessors = new int[size][];
+        for (int i = 0; i < size; i++) {
+            this.predecessors[i] = preds.get(i).stream().mapToInt(Integer::intValue).toArray();
+            this.greedyNecessarySuccessors[i] = new int[nbGnSuccessors[i]];
+            nbGnSuccessors[i] = 0;
+        }
+        for (int q = 0; q < size; q++) {
+            for (int p : gnPredecessors.get(q)) {
+                this.greedyNecessarySuccessors[p][nbGnSuccessors[p]++] = q;
+            }
+        }
+    }
+
+    /**
+     * Computes the fluents reachable in the relaxed problem from a specified state without using the achievers of a
+     * specified fluent.
+     *
+     * @param operators the unconditional operators.
+     * @param init      the state from which the relaxed exploration starts.
+     * @param excluded  the fluent whose achievers are excluded.
+     * @param counters  the array used to count the unsatisfied preconditions of the operators.
+     * @return the reachable fluents.
+     */
+    private static BitVector explore(final UnconditionalOperators operators, final BitVector init,
+                                     final int excluded, final int[] counters) {
+        final BitVector reachable = new BitVector(operators.nbFluents());
+        final int[] queue = new int[operators.nbFluents()];
+        int head = 0;
+        int tail = 0;
+        for (int f = init.nextSetBit(0); f >= 0; f = init.nextSetBit(f + 1)) {
+            reachable.set(f);
+            queue[tail++] = f;
+        }
+        for (int op = 0; op < counters.length; op++) {
+            counters[op] = operators.getPreconditions(op).length;
+        }
+        for (int op : operators.getOperatorsWithoutPreconditions()) {
+            tail = LandmarkGraph.fire(operators, op, excluded, reachable, queue, tail);
+        }
+        while (head < tail) {
+            final int f = queue[head++];
+            for (int op : operators.getConsumers(f)) {
+                if (--counters[op] == 0) {
+                    tail = LandmarkGraph.fire(operators, op, excluded, reachable, queue, tail);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Applies the positive effects of an operator during a relaxed exploration unless the operator achieves the
+     * excluded fluent.
+     *
+     * @param operators the unconditional operators.
+     * @param op        the operator to apply.
+     * @param excluded  the excluded fluent.
+     * @param reachable the fluents already reached.
+     * @param queue     the queue of fluents to propagate.
+     * @param tail      the tail of the queue.
+     * @return the new tail of the queue.
+     */
+    private static int fire(final UnconditionalOperators operators, final int op, final int excluded,
+                            final BitVector reachable, final int[] queue, final int tail) {
+        final int[] add = operators.getAddEffects(op);
+        for (int f : add) {
+            if (f == excluded) {
+                return tail;
+            }
+        }
+        int t = tail;
+        for (int f : add) {
+            if (!reachable.get(f)) {
+                reachable.set(f);
+                queue[t++] = f;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Returns <code>true</code> if all the specified preconditions are in a set of fluents.
+     *
+     * @param preconditions the preconditions.
+     * @param fluents       the set of fluents.
+     * @return <code>true</code> if all the preconditions are in the set of fluents.
+     */
+    private static boolean isApplicable(final int[] preconditions, final BitVector fluents) {
+        for (int p : preconditions) {
+            if (!fluents.get(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of landmarks of the graph.
+     *
+     * @return the number of landmarks of the graph.
+     */
+    public int size() {
+        return this.fluents.length;
+    }
+
+    /**
+     * Returns the fluent of a specified landmark.
+     *
+     * @param landmark the landmark.
+     * @return the fluent of the landmark.
+     */
+    public int getFluent(final int landmark) {
+        return this.fluents[landmark];
+    }
+
+    /**
+     * Returns the landmark of a specified fluent or -1 if the fluent is not a landmark.
+     *
+     * @param fluent the fluent.
+     * @return the landmark of the fluent or -1 if the fluent is not a landmark.
+     */
+    public int getLandmark(final int fluent) {
+        return this.landmarks[fluent];
+    }
+
+    /**
+     * Returns <code>true</code> if a specified landmark is a goal.
+     *
+     * @param landmark the landmark.
+     * @return <code>true</code> if a specified landmark is a goal; <code>false</code> otherwise.
+     */
+    public boolean isGoal(final int landmark) {
+        return this.goals[landmark];
+    }
+
+    /**
+     * Returns <code>true</code> if a specified landmark is true in the initial state.
+     *
+     * @param landmark the landmark.
+     * @return <code>true</code> if a specified landmark is true in the initial state; <code>false</code> otherwise.
+     */
+    public boolean isInitial(final int landmark) {
+        return this.initial[landmark];
+    }
+
+    /**
+     * Returns the landmarks that must be achieved before a specified landmark.
+     *
+     * @param landmark the landmark.
+     * @return the landmarks that must be achieved before the landmark.
+     */
+    public int[] getPredecessors(final int landmark) {
+        return this.predecessors[landmark];
+    }
+
+    /**
+     * Returns the landmarks that a specified landmark must immediately precede the first time they are achieved.
+     *
+     * @param landmark the landmark.
+     * @return the greedy-necessary successors of the landmark.
+     */
+    public int[] getGreedyNecessarySuccessors(final int landmark) {
+        return this.greedyNecessarySuccessors[landmark];
+    }
+
+    /**
+     * Returns the distinct actions achieving a specified landmark.
+     *
+     * @param landmark the landmark.
+     * @return the actions achieving the landmark.
+     */
+    public int[] getAchievers(final int landmark) {
+        return this.achievers[landmark];
+    }
+
+    /**
+     * Returns the number of natural orderings of the graph, greedy-necessary orderings excluded.
+     *
+     * @return the number of natural orderings of the graph.
+     */
+    public int getNumberOfNaturalOrderings() {
+        return this.nbNaturalOrderings;
+    }
+
+    /**
+     * Returns the number of greedy-necessary orderings of the graph.
+     *
+     * @return the number of greedy-necessary orderings of the graph.
+     */
+    public int getNumberOfGreedyNecessaryOrderings() {
+        return this.nbGreedyNecessaryOrderings;
+    }
+}
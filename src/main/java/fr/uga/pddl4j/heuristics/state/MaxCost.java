@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements the max heuristic with the costs of the actions. Unlike {@link Max}, which counts the number
+ * of levels of the relaxed planning graph, the cost of a fluent is the minimal cost of its achievers, the cost of an
+ * operator being its cost plus the maximal cost of its preconditions. The costs of the fluents are computed by a
+ * generalized Dijkstra search over the unconditional operators of the problem.
+ * <p>
+ * The heuristic can be used as a component of a {@link CostPartitioning}. The saturated cost of an action is the
+ * highest difference between the cost of an add effect of one of its operators and the cost of the preconditions of
+ * this operator.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.03.2021
+ * @see Max
+ * @see CostPartitioning
+ */
+public final class MaxCost extends AbstractStateHeuristic implements CostSensitiveHeuristic {
+
+    /**
+     * The tolerance used to round the cost of the goal.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * The flat encoding of the unconditional operators of the problem.
+     */
+    private final UnconditionalOperators operators;
+
+    /**
+     * The cost of the actions.
+     */
+    private final double[] costs;
+
+    /**
+     * The cost of the fluents.
+     */
+    private final double[] values;
+
+    /**
+     * The cost of the preconditions of the operators.
+     */
+    private final double[] preconditions;
+
+    /**
+     * The number of preconditions of the operators not yet reached.
+     */
+    private final int[] counters;
+
+    /**
+     * The keys of the heap used by the Dijkstra search.
+     */
+    private double[] keys;
+
+    /**
+     * The fluents of the heap used by the Dijkstra search.
+     */
+    private int[] heap;
+
+    /**
+     * The number of entries in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * Creates a new <code>MaxCost</code> heuristic for a specified planning problem.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public MaxCost(final Problem problem) {
+        super(problem);
+        this.operators = UnconditionalOperators.getInstance(problem);
+        final List<Action> actions = problem.getActions();
+        this.costs = new double[actions.size()];
+        for (int a = 0; a < actions.size(); a++) {
+            final Action action = actions.get(a);
+            this.costs[a] = action.getCost() == null ? 1.0 : action.getCost().getValue();
+        }
+        this.values = new double[this.operators.nbFluents()];
+        this.preconditions = new double[this.operators.size()];
+        this.counters = new int[this.operators.size()];
+        this.keys = new double[Math.max(16, this.values.length)];
+        this.heap = new int[this.keys.length];
+        super.setAdmissible(true);
+    }
+
+    /**
+     * Sets the cost function used by the heuristic.
+     *
+     * @param costs the costs of the actions of the problem indexed as the actions of the problem.
+     */
+    @Override
+    public void setCosts(final double[] costs) {
+        System.arraycopy(costs, 0, this.costs, 0, this.costs.length);
+    }
+
+    /**
+     * Returns the maximal cost of the goal fluents from the specified state with the current cost function.
+     *
+     * @param state the state from which the cost to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the maximal cost of the goal fluents or <code>Double.MAX_VALUE</code> if one of them is unreachable.
+     */
+    @Override
+    public double getCostValue(final State state, final Condition goal) {
+        super.setGoal(goal);
+        this.compute(state);
+        double value = 0.0;
+        final BitVector positive = goal.getPositiveFluents();
+        for (int f = positive.nextSetBit(0); f >= 0 && value != Double.MAX_VALUE; f = positive.nextSetBit(f + 1)) {
+            value = Math.max(value, this.values[f]);
+        }
+        return value;
+    }
+
+    /**
+     * Returns <code>true</code> if one of the operators of the specified action has an add effect.
+     *
+     * @param action the index of the action.
+     * @return <code>true</code> if the action is relevant to the heuristic.
+     */
+    @Override
+    public boolean isRelevant(final int action) {
+        for (int op = 0; op < this.operators.size(); op++) {
+            if (this.operators.getAction(op) == action && this.operators.getAddEffects(op).length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the saturated cost function of the heuristic for a specified state. The saturated costs preserve the
+     * cost of all the fluents from the state.
+     *
+     * @param state the state whose estimation must be preserved.
+     * @param goal  the goal expression.
+     * @return the saturated costs of the actions.
+     */
+    @Override
+    public double[] getSaturatedCosts(final State state, final Condition goal) {
+        super.setGoal(goal);
+        this.compute(state);
+        final double[] saturated = new double[this.costs.length];
+        for (int op = 0; op < this.operators.size(); op++) {
+            if (this.counters[op] == 0) {
+                final int a = this.operators.getAction(op);
+                for (int f : this.operators.getAddEffects(op)) {
+                    if (this.values[f] != Double.MAX_VALUE) {
+                        saturated[a] = Math.max(saturated[a], this.values[f] - this.preconditions[op]);
+                    }
+                }
+            }
+        }
+        for (int a = 0; a < saturated.length; a++) {
+            saturated[a] = Math.min(saturated[a], this.costs[a]);
+        }
+        return saturated;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        final double value = this.getCostValue(state, goal);
+        return value == Double.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.ceil(value - MaxCost.EPSILON);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Computes the cost of the fluents and the cost of the preconditions of the operators from a specified state. An
+     * operator is reached when its counter of preconditions falls to zero.
+     *
+     * @param state the state.
+     */
+    private void compute(final State state) {
+        Arrays.fill(this.values, Double.MAX_VALUE);
+        for (int op = 0; op < this.counters.length; op++) {
+            this.counters[op] = this.operators.getPreconditions(op).length;
+            this.preconditions[op] = 0.0;
+        }
+        this.heapSize = 0;
+        final int nbFluents = this.values.length;
+        for (int f = state.nextSetBit(0); f >= 0 && f < nbFluents; f = state.nextSetBit(f + 1)) {
+            this.values[f] = 0.0;
+            this.push(f, 0.0);
+        }
+        for (int op : this.operators.getOperatorsWithoutPreconditions()) {
+            this.apply(op);
+        }
+        while (this.heapSize > 0) {
+            final double d = this.keys[0];
+            final int f = this.poll();
+            if (d != this.values[f]) {
+                continue;
+            }
+            for (int op : this.operators.getConsumers(f)) {
+                // The fluents are reached by increasing cost: the last precondition reached has the maximal cost
+                if (--this.counters[op] == 0) {
+                    this.preconditions[op] = d;
+                    this.apply(op);
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the cost of the add effects of a reached operator.
+     *
+     * @param op the operator.
+     */
+    private void apply(final int op) {
+        final double cost = this.preconditions[op] + this.costs[this.operators.getAction(op)];
+        for (int f : this.operators.getAddEffects(op)) {
+            if (cost < this.values[f]) {
+                this.values[f] = cost;
+                this.push(f, cost);
+            }
+        }
+    }
+
+    /**
+     * Pushes a fluent in the heap.
+     *
+     * @param fluent the fluent.
+     * @param key    the key of the fluent.
+     */
+    private void push(final int fluent, final double key) {
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heap.length * 2);
+            this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+        }
+        int i = this.heapSize++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (this.keys[parent] <= key) {
+                break;
+            }
+            this.heap[i] = this.heap[parent];
+            this.keys[i] = this.keys[parent];
+            i = parent;
+        }
+        this.heap[i] = fluent;
+        this.keys[i] = key;
+    }
+
+    /**
+     * Removes and returns the fluent of minimal key from the heap.
+     *
+     * @return the fluent of minimal key.
+     */
+    private int poll() {
+        final int min = this.heap[0];
+        final int last = this.heap[--this.heapSize];
+        final double key = this.keys[this.heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= this.heapSize) {
+                break;
+            }
+            if (child + 1 < this.heapSize && this.keys[child + 1] < this.keys[child]) {
+                child++;
+            }
+            if (key <= this.keys[child]) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            this.keys[i] = this.keys[child];
+            i = child;
+        }
+        if (this.heapSize > 0) {
+            this.heap[i] = last;
+            this.keys[i] = key;
+        }
+        return min;
+    }
+}
@@ -0,0 +1,671 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements the merge-and-shrink heuristic. The heuristic starts with one atomic transition system per
+ * finite-domain variable of the problem, the labels being the unconditional operators. It then repeatedly merges two
+ * transition systems into their synchronized product until a single system remains. Before each merge, the two
+ * systems are shrunk by a bisimulation so that their product does not exceed the maximal number of abstract states.
+ * The value of a state is the goal distance of its abstract state in the final system, stored in an <code>int</code>
+ * table indexed by the abstract states. For more about this heuristic see M. Helmert, P. Haslum, J. Hoffmann and R.
+ * Nissim, Merge-and-Shrink Abstraction: A Method for Generating Lower Bounds in Factored State Spaces, Journal of the
+ * ACM, 61(3), 2014.
+ * <p>
+ * Two merge strategies are available. The linear strategy merges the atomic systems one by one into a single
+ * composite system, in the order of the causal graph starting from the goal variables. The DFP strategy merges the
+ * two systems having the labels relevant to both that are the closest to the goal. The shrink strategy is a greedy
+ * bisimulation: the abstract states are first separated by goal distance and then split according to their outgoing
+ * transitions as long as the number of abstract states allows it. After each merge, the abstract states unreachable
+ * from the initial state or from which the goal is unreachable are pruned. The labels relevant to a single system and
+ * having the same cost are combined before shrinking this system.
+ * </p>
+ * <p>
+ * The abstraction is built once for the goal of the problem: the time and the memory needed to build it are returned
+ * by {@link #getPreprocessingTime()} and {@link #getPreprocessingMemory()}.
+ * </p>
+ * <b>Warning:</b> The heuristic is not admissible if an action of the problem has a conditional effect because the
+ * conditional effects are compiled into separate operators.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 08.03.2021
+ * @see TransitionSystem
+ */
+public final class MergeAndShrink extends AbstractStateHeuristic {
+
+    /**
+     * The merge strategies.
+     */
+    public enum MergeStrategy {
+        /**
+         * The linear strategy merging the atomic systems in the order of the causal graph.
+         */
+        LINEAR,
+        /**
+         * The strategy of Dräger, Finkbeiner and Podelski merging the systems with labels close to the goal.
+         */
+        DFP,
+    }
+
+    /**
+     * The default maximal number of abstract states.
+     */
+    public static final int DEFAULT_MAX_STATES = 50000;
+
+    /**
+     * The problem.
+     */
+    private final Problem problem;
+
+    /**
+     * The unconditional operators of the problem.
+     */
+    private final UnconditionalOperators operators;
+
+    /**
+     * The finite-domain variables of the problem.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The merge strategy.
+     */
+    private final MergeStrategy strategy;
+
+    /**
+     * The maximal number of abstract states.
+     */
+    private final int maxStates;
+
+    /**
+     * The representation of the final abstraction.
+     */
+    private TransitionSystem.Representation representation;
+
+    /**
+     * The goal distance of each abstract state of the final abstraction.
+     */
+    private int[] table;
+
+    /**
+     * The array used to store the values of the variables during an evaluation.
+     */
+    private final int[] values;
+
+    /**
+     * The time spent to build the abstraction in milliseconds.
+     */
+    private long preprocessingTime;
+
+    /**
+     * The memory used by the abstraction in bytes.
+     */
+    private long preprocessingMemory;
+
+    /**
+     * Creates a new <code>MergeAndShrink</code> heuristic for a specified planning problem with the DFP merge
+     * strategy and the default maximal number of abstract states.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public MergeAndShrink(final Problem problem) {
+        this(problem, MergeStrategy.DFP, MergeAndShrink.DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Creates a new <code>MergeAndShrink</code> heuristic for a specified planning problem.
+     *
+     * @param problem   the planning problem.
+     * @param strategy  the merge strategy.
+     * @param maxStates the maximal number of abstract states.
+     * @throws NullPointerException     if <code>problem == null</code>.
+     * @throws IllegalArgumentException if <code>maxStates &#60; 1</code>.
+     */
+    public MergeAndShrink(final Problem problem, final MergeStrategy strategy, final int maxStates) {
+        super(problem);
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("the maximal number of abstract states must be strictly positive");
+        }
+        this.problem = problem;
+        this.operators = UnconditionalOperators.getInstance(problem);
+        this.variables = PreprocessingCache.get(problem, FiniteDomainVariables.class, FiniteDomainVariables::new);
+        this.strategy = strategy;
+        this.maxStates = maxStates;
+        this.values = new int[this.variables.size()];
+        this.build();
+        super.setAdmissible(this.hasNoConditionalEffect());
+    }
+
+    /**
+     * Returns the time spent to build the abstraction in milliseconds.
+     *
+     * @return the time spent to build the abstraction in milliseconds.
+     */
+    @Override
+    public long getPreprocessingTime() {
+        return this.preprocessingTime;
+    }
+
+    /**
+     * Returns the memory used by the representation and the table of the abstraction in bytes.
+     *
+     * @return the memory used by the abstraction in bytes.
+     */
+    @Override
+    public long getPreprocessingMemory() {
+        return this.preprocessingMemory;
+    }
+
+    /**
+     * Returns the number of abstract states of the final abstraction.
+     *
+     * @return the number of abstract states of the final abstraction.
+     */
+    public int getNumberOfAbstractStates() {
+        return this.table.length;
+    }
+
+    /**
+     * Returns <code>true</code> if no action of the problem has a conditional effect.
+     *
+     * @return <code>true</code> if no action of the problem has a conditional effect.
+     */
+    private boolean hasNoConditionalEffect() {
+        for (Action a : this.problem.getActions()) {
+            for (ConditionalEffect ce : a.getConditionalEffects()) {
+                if (!ce.getCondition().isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the goal of the problem to solve in order to compute the heuristic. The abstraction is rebuilt when the goal
+     * changes.
+     *
+     * @param goal the goal.
+     */
+    @Override
+    protected void setGoal(final Condition goal) {
+        if (!goal.equals(super.getGoal())) {
+            super.setGoal(goal);
+            this.build();
+        }
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        this.setGoal(goal);
+        for (int v = 0; v < this.values.length; v++) {
+            this.values[v] = this.variables.getNoneValue(v);
+        }
+        final int nbFluents = this.operators.nbFluents();
+        for (int f = state.nextSetBit(0); f >= 0 && f < nbFluents; f = state.nextSetBit(f + 1)) {
+            this.values[this.variables.getVariable(f)] = this.variables.getValue(f);
+        }
+        final int s = this.representation.getAbstractState(this.values);
+        if (s < 0 || this.table[s] == TransitionSystem.INFINITY) {
+            return Integer.MAX_VALUE;
+        }
+        return this.table[s];
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Builds the abstraction for the current goal.
+     */
+    private void build() {
+        final long begin = System.currentTimeMillis();
+        final int[] costs = new int[this.operators.size()];
+        for (int op = 0; op < costs.length; op++) {
+            costs[op] = (int) Math.min(TransitionSystem.INFINITY - 1,
+                Math.max(0, Math.floor(this.operators.getCost(op) + 1e-9)));
+        }
+        final List<TransitionSystem> systems = TransitionSystem.createAtomicSystems(this.operators, this.variables,
+            costs, super.getGoal(), new State(this.problem.getInitialState()));
+        TransitionSystem unsolvable = null;
+        for (TransitionSystem ts : systems) {
+            MergeAndShrink.prune(ts);
+            if (ts.getInitialState() < 0) {
+                unsolvable = ts;
+            }
+        }
+        if (this.strategy == MergeStrategy.LINEAR) {
+            final int[] order = this.getLinearOrder();
+            final List<TransitionSystem> sorted = new ArrayList<>(systems.size());
+            for (int v : order) {
+                sorted.add(systems.get(v));
+            }
+            systems.clear();
+            systems.addAll(sorted);
+        }
+        while (unsolvable == null && systems.size() > 1) {
+            // The linear strategy merges the composite system in first position with the next atomic system
+            final int[] pair = this.strategy == MergeStrategy.LINEAR ? new int[] {0, 1} : this.selectPair(systems);
+            final TransitionSystem left = systems.get(pair[0]);
+            final TransitionSystem right = systems.get(pair[1]);
+            MergeAndShrink.reduceLabels(systems, pair[0]);
+            MergeAndShrink.reduceLabels(systems, pair[1]);
+            final int[] limits = this.getSizeLimits(left.size(), right.size());
+            MergeAndShrink.shrink(left, limits[0]);
+            MergeAndShrink.shrink(right, limits[1]);
+            final TransitionSystem product = TransitionSystem.product(left, right);
+            MergeAndShrink.prune(product);
+            systems.remove(pair[1]);
+            if (this.strategy == MergeStrategy.LINEAR) {
+                systems.set(0, product);
+            } else {
+                systems.remove(pair[0]);
+                systems.add(product);
+            }
+            if (product.getInitialState() < 0) {
+                unsolvable = product;
+            }
+        }
+        final TransitionSystem last = unsolvable != null ? unsolvable : systems.get(0);
+        this.representation = last.getRepresentation();
+        this.table = last.getGoalDistances();
+        this.preprocessingTime = System.currentTimeMillis() - begin;
+        this.preprocessingMemory = GraphLayout.parseInstance(this.representation, this.table).totalSize();
+    }
+
+    /**
+     * Returns the order of the variables used by the linear merge strategy. The first variable is the goal variable
+     * of highest level in the causal graph. The next variable is a variable causally connected to the variables
+     * already chosen or else a goal variable, the variables of highest level being preferred.
+     *
+     * @return the order of the variables.
+     */
+    private int[] getLinearOrder() {
+        final DomainTransitionGraphs graphs = DomainTransitionGraphs.getInstance(this.problem);
+        final int nbVariables = this.variables.size();
+        final boolean[] goal = new boolean[nbVariables];
+        final BitVector pGoal = super.getGoal().getPositiveFluents();
+        for (int f = pGoal.nextSetBit(0); f >= 0; f = pGoal.nextSetBit(f + 1)) {
+            goal[this.variables.getVariable(f)] = true;
+        }
+        final BitVector nGoal = super.getGoal().getNegativeFluents();
+        for (int f = nGoal.nextSetBit(0); f >= 0; f = nGoal.nextSetBit(f + 1)) {
+            goal[this.variables.getVariable(f)] = true;
+        }
+        final boolean[] connected = new boolean[nbVariables];
+        final boolean[] chosen = new boolean[nbVariables];
+        final int[] order = new int[nbVariables];
+        for (int i = 0; i < nbVariables; i++) {
+            int best = -1;
+            int bestRank = -1;
+            for (int v = 0; v < nbVariables; v++) {
+                if (!chosen[v]) {
+                    final int rank = connected[v] ? 2 : goal[v] ? 1 : 0;
+                    if (rank > bestRank || rank == bestRank && graphs.getLevel(v) > graphs.getLevel(best)) {
+                        best = v;
+                        bestRank = rank;
+                    }
+                }
+            }
+            order[i] = best;
+            chosen[best] = true;
+            for (int u : graphs.getContext(best)) {
+                connected[u] = true;
+            }
+            for (int v = 0; v < nbVariables; v++) {
+                if (!connected[v] && Arrays.binarySearch(graphs.getContext(v), best) >= 0) {
+                    connected[v] = true;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Selects the pair of transition systems to merge with the DFP strategy. The rank of a label in a system is the
+     * smallest goal distance of the targets of its transitions. The score of a pair of systems is the smallest over
+     * the labels relevant to both systems of the maximum of the ranks of the label. The pair with the smallest score
+     * is selected, the first two systems if no pair shares a relevant label.
+     *
+     * @param systems the transition systems.
+     * @return the indexes of the selected systems.
+     */
+    private int[] selectPair(final List<TransitionSystem> systems) {
+        final int n = systems.size();
+        final int[][] labels = new int[n][];
+        final int[][] ranks = new int[n][];
+        for (int i = 0; i < n; i++) {
+            final TransitionSystem ts = systems.get(i);
+            final int[] h = ts.getGoalDistances();
+            int nb = 0;
+            for (int l = 0; l < ts.getNumberOfLabels(); l++) {
+                if (ts.isRelevant(l) && ts.getTransitions(l).length > 0) {
+                    nb++;
+                }
+            }
+            labels[i] = new int[nb];
+            ranks[i] = new int[nb];
+            nb = 0;
+            for (int l = 0; l < ts.getNumberOfLabels(); l++) {
+                final int[] pairs = ts.getTransitions(l);
+                if (pairs != null && pairs.length > 0) {
+                    int rank = TransitionSystem.INFINITY;
+                    for (int k = 1; k < pairs.length; k += 2) {
+                        rank = Math.min(rank, h[pairs[k]]);
+                    }
+                    labels[i][nb] = l;
+                    ranks[i][nb] = rank;
+                    nb++;
+                }
+            }
+        }
+        final int[] best = new int[] {0, 1};
+        int bestScore = TransitionSystem.INFINITY;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int score = TransitionSystem.INFINITY;
+                int a = 0;
+                int b = 0;
+                while (a < labels[i].length && b < labels[j].length) {
+                    if (labels[i][a] < labels[j][b]) {
+                        a++;
+                    } else if (labels[i][a] > labels[j][b]) {
+                        b++;
+                    } else {
+                        score = Math.min(score, Math.max(ranks[i][a], ranks[j][b]));
+                        a++;
+                        b++;
+                    }
+                }
+                if (score < bestScore) {
+                    bestScore = score;
+                    best[0] = i;
+                    best[1] = j;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the maximal sizes of two transition systems so that their product does not exceed the maximal number
+     * of abstract states. The smallest system is kept as it is when possible.
+     *
+     * @param left  the number of states of the left system.
+     * @param right the number of states of the right system.
+     * @return the maximal sizes of the left and the right systems.
+     */
+    private int[] getSizeLimits(final int left, final int right) {
+        if ((long) left * right <= this.maxStates) {
+            return new int[] {left, right};
+        }
+        final int balanced = Math.max(1, (int) Math.sqrt(this.maxStates));
+        if (left <= balanced) {
+            return new int[] {left, Math.max(1, this.maxStates / left)};
+        } else if (right <= balanced) {
+            return new int[] {Math.max(1, this.maxStates / right), right};
+        }
+        return new int[] {balanced, Math.max(1, this.maxStates / balanced)};
+    }
+
+    /**
+     * Combines the labels relevant only to a transition system and having the same cost.
+     *
+     * @param systems the transition systems.
+     * @param index   the index of the system whose labels are combined.
+     */
+    private static void reduceLabels(final List<TransitionSystem> systems, final int index) {
+        final TransitionSystem ts = systems.get(index);
+        final int nbLabels = ts.getNumberOfLabels();
+        final boolean[] local = new boolean[nbLabels];
+        for (int l = 0; l < nbLabels; l++) {
+            local[l] = ts.isRelevant(l) && ts.getTransitions(l).length > 0;
+        }
+        for (int i = 0; i < systems.size(); i++) {
+            if (i != index) {
+                final TransitionSystem other = systems.get(i);
+                for (int l = 0; l < nbLabels; l++) {
+                    local[l] &= !other.isRelevant(l);
+                }
+            }
+        }
+        // Sort the local labels by cost and combine the labels of each cost
+        int nb = 0;
+        final long[] keys = new long[nbLabels];
+        for (int l = 0; l < nbLabels; l++) {
+            if (local[l]) {
+                keys[nb++] = ((long) ts.getCost(l) << 32) | l;
+            }
+        }
+        Arrays.sort(keys, 0, nb);
+        int first = 0;
+        while (first < nb) {
+            int last = first + 1;
+            while (last < nb && keys[last] >>> 32 == keys[first] >>> 32) {
+                last++;
+            }
+            if (last - first > 1) {
+                final int[] group = new int[last - first];
+                for (int k = first; k < last; k++) {
+                    group[k - first] = (int) keys[k];
+                }
+                ts.combine(group);
+            }
+            first = last;
+        }
+    }
+
+    /**
+     * Prunes the states of a transition system unreachable from the initial state or from which no goal state is
+     * reachable.
+     *
+     * @param ts the transition system.
+     */
+    private static void prune(final TransitionSystem ts) {
+        final int[] h = ts.getGoalDistances();
+        final boolean[] reachable = ts.getReachableStates();
+        final int[] abstraction = new int[ts.size()];
+        int size = 0;
+        for (int s = 0; s < ts.size(); s++) {
+            abstraction[s] = reachable[s] && h[s] != TransitionSystem.INFINITY ? size++ : -1;
+        }
+        if (size < ts.size()) {
+            ts.apply(abstraction, size);
+        }
+    }
+
+    /**
+     * Shrinks a transition system by a greedy bisimulation so that it has at most a specified number of states. The
+     * states are first separated by goal distance, the largest distances being grouped together if needed. The
+     * blocks of states are then split according to the signatures of their states, i.e., the pairs (label, block of
+     * the target) of their outgoing transitions, until no block can be split without exceeding the maximal size. The
+     * blocks of smallest goal distance are split first.
+     *
+     * @param ts      the transition system.
+     * @param maxSize the maximal number of states.
+     */
+    private static void shrink(final TransitionSystem ts, final int maxSize) {
+        final int size = ts.size();
+        if (size <= maxSize) {
+            return;
+        }
+        // Compute the initial blocks from the goal distances
+        final int[] h = ts.getGoalDistances();
+        final int[] distinct = h.clone();
+        Arrays.sort(distinct);
+        int nbDistinct = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[nbDistinct++] = distinct[i];
+            }
+        }
+        int nbBlocks = Math.min(nbDistinct, maxSize);
+        final int[] block = new int[size];
+        int[] blockH = new int[Math.max(nbBlocks, 16)];
+        for (int s = 0; s < size; s++) {
+            block[s] = Math.min(Arrays.binarySearch(distinct, 0, nbDistinct, h[s]), nbBlocks - 1);
+        }
+        System.arraycopy(distinct, 0, blockH, 0, nbBlocks);
+
+        // Build the outgoing transitions of the states
+        final int[] start = new int[size + 1];
+        for (int l = 0; l < ts.getNumberOfLabels(); l++) {
+            final int[] pairs = ts.getTransitions(l);
+            if (pairs != null) {
+                for (int k = 0; k < pairs.length; k += 2) {
+                    start[pairs[k] + 1]++;
+                }
+            }
+        }
+        int maxDegree = 0;
+        for (int s = 0; s < size; s++) {
+            maxDegree = Math.max(maxDegree, start[s + 1]);
+            start[s + 1] += start[s];
+        }
+        final int[] label = new int[start[size]];
+        final int[] target = new int[start[size]];
+        final int[] next = Arrays.copyOf(start, size);
+        for (int l = 0; l < ts.getNumberOfLabels(); l++) {
+            final int[] pairs = ts.getTransitions(l);
+            if (pairs != null) {
+                for (int k = 0; k < pairs.length; k += 2) {
+                    final int i = next[pairs[k]]++;
+                    label[i] = l;
+                    target[i] = pairs[k + 1];
+                }
+            }
+        }
+
+        // Refine the blocks until they are stable or the maximal size is reached
+        final long[] buffer = new long[maxDegree];
+        final long[] signatures = new long[size];
+        final int[] members = new int[size];
+        final int[] first = new int[size + 1];
+        final long[] sorted = new long[size];
+        boolean refined = true;
+        while (refined && nbBlocks < maxSize) {
+            refined = false;
+            for (int s = 0; s < size; s++) {
+                final int degree = start[s + 1] - start[s];
+                for (int k = 0; k < degree; k++) {
+                    buffer[k] = (long) label[start[s] + k] * nbBlocks + block[target[start[s] + k]];
+                }
+                Arrays.sort(buffer, 0, degree);
+                long signature = 0x9E3779B97F4A7C15L;
+                for (int k = 0; k < degree; k++) {
+                    if (k == 0 || buffer[k] != buffer[k - 1]) {
+                        signature = (signature ^ buffer[k]) * 0xBF58476D1CE4E5B9L;
+                        signature ^= signature >>> 31;
+                    }
+                }
+                signatures[s] = signature;
+            }
+            // Group the states by block
+            Arrays.fill(first, 0, nbBlocks + 1, 0);
+            for (int s = 0; s < size; s++) {
+                first[block[s] + 1]++;
+            }
+            for (int b = 0; b < nbBlocks; b++) {
+                first[b + 1] += first[b];
+            }
+            final int[] fill = Arrays.copyOf(first, nbBlocks);
+            for (int s = 0; s < size; s++) {
+                members[fill[block[s]]++] = s;
+            }
+            // Split the blocks by increasing goal distance
+            final long[] order = new long[nbBlocks];
+            for (int b = 0; b < nbBlocks; b++) {
+                order[b] = ((long) blockH[b] << 32) | b;
+            }
+            Arrays.sort(order);
+            final int oldNbBlocks = nbBlocks;
+            for (int i = 0; i < oldNbBlocks && nbBlocks < maxSize; i++) {
+                final int b = (int) order[i];
+                final int from = first[b];
+                final int to = first[b + 1];
+                for (int k = from; k < to; k++) {
+                    sorted[k] = signatures[members[k]];
+                }
+                Arrays.sort(sorted, from, to);
+                int nbSignatures = 0;
+                for (int k = from; k < to; k++) {
+                    if (k == from || sorted[k] != sorted[k - 1]) {
+                        sorted[from + nbSignatures++] = sorted[k];
+                    }
+                }
+                if (nbSignatures > 1 && nbBlocks + nbSignatures - 1 <= maxSize) {
+                    if (nbBlocks + nbSignatures - 1 > blockH.length) {
+                        blockH = Arrays.copyOf(blockH, Math.max(2 * blockH.length, nbBlocks + nbSignatures));
+                    }
+                    for (int k = from; k < to; k++) {
+                        final int s = members[k];
+                        final int index = Arrays.binarySearch(sorted, from, from + nbSignatures, signatures[s]) - from;
+                        if (index > 0) {
+                            block[s] = nbBlocks + index - 1;
+                        }
+                    }
+                    for (int k = 1; k < nbSignatures; k++) {
+                        blockH[nbBlocks + k - 1] = blockH[b];
+                    }
+                    nbBlocks += nbSignatures - 1;
+                    refined = true;
+                }
+            }
+        }
+        ts.apply(block, nbBlocks);
+    }
+}
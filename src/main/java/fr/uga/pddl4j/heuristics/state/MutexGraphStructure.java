@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * This class implements the static structures of the planning graphs with mutual exclusions of a problem used by the
+ * {@link GraphHeuristic}. The propositions are the fluents of the problem followed by their negations and the
+ * operators are the NOOP operators of the propositions, with the same index as their proposition, followed by the
+ * unconditional operators of the actions. The structure contains the preconditions and the effects of the operators,
+ * the achievers and the consumers of the propositions, and the static dependences between the operators stored row
+ * by row in flat arrays of words.
+ * <p>
+ * The operators are computed in parallel over chunks of actions, the achievers and the consumers over chunks of
+ * propositions and the dependences over chunks of operators. The structure is immutable and is computed once per
+ * problem: use {@link #getInstance(Problem)} to get the structure of a problem from the {@link PreprocessingCache}.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 27.02.2021
+ */
+public final class MutexGraphStructure implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The index of first negative propositions.
+     */
+    private final int negOffset;
+
+    /**
+     * The number of propositions of the problem.
+     */
+    private final int nbPropositions;
+
+    /**
+     * The number of operators of the problem.
+     */
+    private final int nbOperators;
+
+    /**
+     * The number of words of a row of operators.
+     */
+    private final int opWords;
+
+    /**
+     * The array used to store the preconditions of the operators.
+     */
+    private final int[][] preconditions;
+
+    /**
+     * The array used to store the effects of the operators.
+     */
+    private final int[][] effects;
+
+    /**
+     * The operators that produce each proposition stored row by row.
+     */
+    private final long[] producers;
+
+    /**
+     * The operators that require each proposition stored row by row.
+     */
+    private final long[] consumers;
+
+    /**
+     * The static dependences between the operators stored row by row.
+     */
+    private final long[] operatorsDependences;
+
+    /**
+     * Creates the structures of the planning graphs of a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public MutexGraphStructure(final Problem problem) {
+        this.negOffset = problem.getFluents().size();
+        this.nbPropositions = this.negOffset * 2;
+        final List<Action> actions = problem.getActions();
+        // Compute the index of the first unconditional operator of each action
+        final int[] offsets = new int[actions.size() + 1];
+        offsets[0] = this.nbPropositions;
+        for (int a = 0; a < actions.size(); a++) {
+            offsets[a + 1] = offsets[a] + actions.get(a).getConditionalEffects().size();
+        }
+        this.nbOperators = offsets[actions.size()];
+        this.opWords = (this.nbOperators + 63) >>> 6;
+        this.preconditions = new int[this.nbOperators][];
+        this.effects = new int[this.nbOperators][];
+
+        // Create the NOOP operators: the NOOP operator of a proposition has the same index
+        for (int i = 0; i < this.nbPropositions; i++) {
+            this.preconditions[i] = new int[] {i};
+            this.effects[i] = new int[] {i};
+        }
+
+        // Create an unconditional operator for each conditional effect of the actions
+        PreprocessingCache.forEachChunk(actions.size(), (from, to) -> {
+            for (int a = from; a < to; a++) {
+                final Action action = actions.get(a);
+                final List<ConditionalEffect> condEffects = action.getConditionalEffects();
+                for (int ceIndex = 0; ceIndex < condEffects.size(); ceIndex++) {
+                    final ConditionalEffect cEffect = condEffects.get(ceIndex);
+                    final BitVector precond = new BitVector();
+                    precond.or(action.getPrecondition().getPositiveFluents());
+                    precond.or(cEffect.getCondition().getPositiveFluents());
+                    this.setNegative(precond, action.getPrecondition().getNegativeFluents());
+                    this.setNegative(precond, cEffect.getCondition().getNegativeFluents());
+                    this.preconditions[offsets[a] + ceIndex] = UnconditionalOperators.toArray(precond);
+                    final BitVector effect = new BitVector();
+                    effect.or(cEffect.getEffect().getPositiveFluents());
+                    this.setNegative(effect, cEffect.getEffect().getNegativeFluents());
+                    this.effects[offsets[a] + ceIndex] = UnconditionalOperators.toArray(effect);
+                }
+            }
+        });
+
+        // Compute the achievers and the consumers: each chunk of rows is filled by a single task
+        this.producers = new long[this.nbPropositions * this.opWords];
+        this.consumers = new long[this.nbPropositions * this.opWords];
+        PreprocessingCache.forEachChunk(this.nbPropositions, (from, to) -> {
+            for (int op = 0; op < this.nbOperators; op++) {
+                for (int p : this.effects[op]) {
+                    if (p >= from && p < to) {
+                        this.producers[p * this.opWords + (op >>> 6)] |= 1L << op;
+                    }
+                }
+                for (int p : this.preconditions[op]) {
+                    if (p >= from && p < to) {
+                        this.consumers[p * this.opWords + (op >>> 6)] |= 1L << op;
+                    }
+                }
+            }
+        });
+
+        // Compute static dependence between operators, i.e., the operators that produce or require
+        // the opposite of a precondition or an effect
+        this.operatorsDependences = new long[this.nbOperators * this.opWords];
+        PreprocessingCache.forEachChunk(this.nbOperators, (from, to) -> {
+            for (int op = from; op < to; op++) {
+                final int row = op * this.opWords;
+                for (int[] props : new int[][] {this.preconditions[op], this.effects[op]}) {
+                    for (int p : props) {
+                        final int opp = (p < this.negOffset ? p + this.negOffset : p - this.negOffset) * this.opWords;
+                        for (int w = 0; w < this.opWords; w++) {
+                            this.operatorsDependences[row + w] |= this.producers[opp + w] | this.consumers[opp + w];
+                        }
+                    }
+                }
+                this.operatorsDependences[row + (op >>> 6)] &= ~(1L << op);
+            }
+        });
+    }
+
+    /**
+     * Returns the structures of the planning graphs of a specified problem. The structures are computed the first
+     * time and then retrieved from the {@link PreprocessingCache}.
+     *
+     * @param problem the problem.
+     * @return the structures of the planning graphs of the problem.
+     */
+    public static MutexGraphStructure getInstance(final Problem problem) {
+        return PreprocessingCache.get(problem, MutexGraphStructure.class, MutexGraphStructure::new);
+    }
+
+    /**
+     * Sets in a set of propositions the negations of the fluents of a specified set.
+     *
+     * @param propositions the set of propositions.
+     * @param fluents      the set of fluents.
+     */
+    private void setNegative(final BitVector propositions, final BitVector fluents) {
+        for (int p = fluents.nextSetBit(0); p >= 0; p = fluents.nextSetBit(p + 1)) {
+            propositions.set(p + this.negOffset);
+        }
+    }
+
+    /**
+     * Returns the index of first negative propositions.
+     *
+     * @return the index of first negative propositions.
+     */
+    int getNegOffset() {
+        return this.negOffset;
+    }
+
+    /**
+     * Returns the number of propositions of the problem.
+     *
+     * @return the number of propositions of the problem.
+     */
+    int getNumberOfPropositions() {
+        return this.nbPropositions;
+    }
+
+    /**
+     * Returns the number of operators of the problem including the NOOP operators.
+     *
+     * @return the number of operators of the problem.
+     */
+    int getNumberOfOperators() {
+        return this.nbOperators;
+    }
+
+    /**
+     * Returns the preconditions of the operators.
+     *
+     * @return the preconditions of the operators.
+     */
+    int[][] getPreconditions() {
+        return this.preconditions;
+    }
+
+    /**
+     * Returns the effects of the operators.
+     *
+     * @return the effects of the operators.
+     */
+    int[][] getEffects() {
+        return this.effects;
+    }
+
+    /**
+     * Returns the operators that produce each proposition stored row by row.
+     *
+     * @return the producers of the propositions.
+     */
+    long[] getProducers() {
+        return this.producers;
+    }
+
+    /**
+     * Returns the operators that require each proposition stored row by row.
+     *
+     * @return the consumers of the propositions.
+     */
+    long[] getConsumers() {
+        return this.consumers;
+    }
+
+    /**
+     * Returns the static dependences between the operators stored row by row.
+     *
+     * @return the static dependences between the operators.
+     */
+    long[] getOperatorsDependences() {
+        return this.operatorsDependences;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements a heuristic that evaluates the batches of states in parallel. The heuristics keep the data
+ * structures of their last evaluation and cannot be shared between threads. Hence, one instance of the heuristic is
+ * created for each thread of the pool and each thread evaluates a contiguous chunk of the batch with its own instance
+ * by calling {@link StateHeuristic#estimate(State[], Condition, int[])}. The single state evaluations are done by the
+ * first instance in the calling thread.
+ * <p>
+ * <b>Warning:</b> The path-dependent heuristics, e.g., the landmark heuristics, keep their information per instance
+ * and should not be evaluated in parallel.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.02.2021
+ */
+public final class ParallelStateHeuristic implements StateHeuristic {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The minimum number of states evaluated by a thread.
+     */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    /**
+     * The instances of the heuristic: one per thread.
+     */
+    private final StateHeuristic[] heuristics;
+
+    /**
+     * The pool of threads used to evaluate the batches of states.
+     */
+    private final transient ExecutorService pool;
+
+    /**
+     * Creates a new parallel heuristic for a specified planning problem.
+     *
+     * @param name      the name of the heuristic.
+     * @param problem   the planning problem.
+     * @param nbThreads the number of threads.
+     * @throws IllegalArgumentException if <code>nbThreads &#60; 1</code>.
+     */
+    public ParallelStateHeuristic(final StateHeuristic.Name name, final Problem problem, final int nbThreads) {
+        if (nbThreads < 1) {
+            throw new IllegalArgumentException("the number of threads must be strictly positive");
+        }
+        this.heuristics = new StateHeuristic[nbThreads];
+        for (int i = 0; i < nbThreads; i++) {
+            this.heuristics[i] = StateHeuristic.getInstance(name, problem);
+        }
+        this.pool = Executors.newFixedThreadPool(nbThreads, r -> {
+            final Thread thread = new Thread(r, "heuristic-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the number of threads used to evaluate the batches of states.
+     *
+     * @return the number of threads used to evaluate the batches of states.
+     */
+    public int getNumberOfThreads() {
+        return this.heuristics.length;
+    }
+
+    /**
+     * Returns <code>true</code> if this heuristic is admissible.
+     *
+     * @return <code>true</code> if this heuristic is admissible.
+     */
+    @Override
+    public boolean isAdmissible() {
+        return this.heuristics[0].isAdmissible();
+    }
+
+    /**
+     * Returns <code>true</code> if this heuristic is path-dependent.
+     *
+     * @return <code>true</code> if this heuristic is path-dependent.
+     */
+    @Override
+    public boolean isPathDependent() {
+        return this.heuristics[0].isPathDependent();
+    }
+
+    /**
+     * Returns the time spent to build the structures precomputed by the instances of the heuristic in milliseconds.
+     *
+     * @return the time spent to build the structures precomputed by the instances of the heuristic.
+     */
+    @Override
+    public long getPreprocessingTime() {
+        long time = 0;
+        for (StateHeuristic h : this.heuristics) {
+            time += h.getPreprocessingTime();
+        }
+        return time;
+    }
+
+    /**
+     * Returns the memory used by the structures precomputed by the instances of the heuristic in bytes.
+     *
+     * @return the memory used by the structures precomputed by the instances of the heuristic.
+     */
+    @Override
+    public long getPreprocessingMemory() {
+        long memory = 0;
+        for (StateHeuristic h : this.heuristics) {
+            memory += h.getPreprocessingMemory();
+        }
+        return memory;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        return this.heuristics[0].estimate(state, goal);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return this.heuristics[0].estimate(node, goal);
+    }
+
+    /**
+     * Estimates the distance to the goal of several states at once. The states are split in contiguous chunks
+     * evaluated in parallel.
+     *
+     * @param states the states from which the distance to the goal must be estimated.
+     * @param goal   the goal expression.
+     * @param out    the array where the estimated distances are stored.
+     * @throws IllegalStateException if the evaluation is interrupted or fails.
+     */
+    @Override
+    public void estimate(final State[] states, final Condition goal, final int[] out) {
+        final int nbChunks = Math.min(this.heuristics.length,
+            (states.length + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE);
+        if (nbChunks <= 1) {
+            this.heuristics[0].estimate(states, goal, out);
+            return;
+        }
+        final List<Future<?>> tasks = new ArrayList<>(nbChunks);
+        for (int i = 0; i < nbChunks; i++) {
+            final StateHeuristic heuristic = this.heuristics[i];
+            final int from = (int) ((long) states.length * i / nbChunks);
+            final int to = (int) ((long) states.length * (i + 1) / nbChunks);
+            tasks.add(this.pool.submit(() -> {
+                final State[] chunk = Arrays.copyOfRange(states, from, to);
+                final int[] values = new int[chunk.length];
+                heuristic.estimate(chunk, goal, values);
+                System.arraycopy(values, 0, out, from, values.length);
+            }));
+        }
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("heuristic evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("heuristic evaluation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Shutdowns the pool of threads used to evaluate the batches of states.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+}
@@ -0,0 +1,573 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class implements a pattern database. A pattern is a set of finite-domain variables, each variable being given
+ * by its fluents: the i-th value of a variable is its i-th fluent and its last value means that none of its fluents is
+ * true. The abstract states of a pattern are the assignments of its variables, encoded as integers in a mixed radix
+ * base. The pattern database stores for each abstract state the cost of an optimal plan in the abstract problem
+ * obtained by projecting the operators and the goal on the pattern. The costs are computed by regression from the
+ * abstract goal states and stored in one byte per abstract state: the value <code>255</code> denotes an abstract
+ * state from which the goal is unreachable and the other costs are bounded by <code>254</code>.
+ * <p>
+ * The table is held by a {@link ByteBuffer} so that a pattern database can be backed either by an array of bytes or by
+ * a memory-mapped file.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.02.2021
+ * @see PatternDatabaseHeuristic
+ */
+public final class PatternDatabase {
+
+    /**
+     * The value used to denote an abstract state from which the goal is unreachable.
+     */
+    public static final int UNREACHABLE = 255;
+
+    /**
+     * The maximal number of abstract states of a pattern database.
+     */
+    public static final int MAX_SIZE = 1 << 26;
+
+    /**
+     * The fluents of the variables of the pattern.
+     */
+    private final int[][] variables;
+
+    /**
+     * The multipliers of the variables used to compute the abstract states.
+     */
+    private final int[] multipliers;
+
+    /**
+     * The table of the abstract costs.
+     */
+    private final ByteBuffer table;
+
+    /**
+     * Creates a new pattern database from a pattern and a table of abstract costs.
+     *
+     * @param variables the fluents of the variables of the pattern.
+     * @param table     the table of abstract costs.
+     * @throws IllegalArgumentException if the size of the table does not match the size of the pattern.
+     */
+    public PatternDatabase(final int[][] variables, final ByteBuffer table) {
+        if (PatternDatabase.size(variables) != table.capacity()) {
+            throw new IllegalArgumentException("table size does not match the pattern size");
+        }
+        this.variables = variables;
+        this.multipliers = new int[variables.length];
+        int m = 1;
+        for (int i = 0; i < variables.length; i++) {
+            this.multipliers[i] = m;
+            m *= variables[i].length + 1;
+        }
+        this.table = table;
+    }
+
+    /**
+     * Returns the number of abstract states of a pattern or -1 if it exceeds {@link #MAX_SIZE}.
+     *
+     * @param variables the fluents of the variables of the pattern.
+     * @return the number of abstract states of the pattern.
+     */
+    public static long size(final int[][] variables) {
+        long size = 1;
+        for (int[] v : variables) {
+            size *= v.length + 1;
+            if (size > PatternDatabase.MAX_SIZE) {
+                return -1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the fluents of the variables of the pattern.
+     *
+     * @return the fluents of the variables of the pattern.
+     */
+    public int[][] getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Returns the table of the abstract costs.
+     *
+     * @return the table of the abstract costs.
+     */
+    public ByteBuffer getTable() {
+        return this.table;
+    }
+
+    /**
+     * Returns the number of abstract states of the pattern database.
+     *
+     * @return the number of abstract states of the pattern database.
+     */
+    public int size() {
+        return this.table.capacity();
+    }
+
+    /**
+     * Returns the abstract state of a specified state.
+     *
+     * @param state the state.
+     * @return the abstract state of the state.
+     */
+    public int getAbstractState(final BitVector state) {
+        int index = 0;
+        for (int i = 0; i < this.variables.length; i++) {
+            final int[] fluents = this.variables[i];
+            int value = fluents.length;
+            for (int j = 0; j < fluents.length; j++) {
+                if (state.get(fluents[j])) {
+                    value = j;
+                    break;
+                }
+            }
+            index += value * this.multipliers[i];
+        }
+        return index;
+    }
+
+    /**
+     * Returns the abstract cost of a specified state or <code>Integer.MAX_VALUE</code> if the abstract goal is
+     * unreachable from the state.
+     *
+     * @param state the state.
+     * @return the abstract cost of the state.
+     */
+    public int getValue(final BitVector state) {
+        final int value = this.table.get(this.getAbstractState(state)) & 0xFF;
+        return value == PatternDatabase.UNREACHABLE ? Integer.MAX_VALUE : value;
+    }
+
+    /**
+     * Returns the fluents of the pattern.
+     *
+     * @return the fluents of the pattern.
+     */
+    public BitVector getFluents() {
+        final BitVector fluents = new BitVector();
+        for (int[] v : this.variables) {
+            for (int f : v) {
+                fluents.set(f);
+            }
+        }
+        return fluents;
+    }
+
+    /**
+     * Returns <code>true</code> if no operator changes both the fluents of this pattern and the fluents of an other
+     * pattern. In that case the values of the two pattern databases can be summed without loosing admissibility.
+     *
+     * @param other     the other pattern database.
+     * @param operators the unconditional operators of the problem.
+     * @return <code>true</code> if the two pattern databases are additive.
+     */
+    public boolean isAdditive(final PatternDatabase other, final UnconditionalOperators operators) {
+        final BitVector mine = this.getFluents();
+        final BitVector others = other.getFluents();
+        for (int op = 0; op < operators.size(); op++) {
+            if (PatternDatabase.changes(operators, op, mine) && PatternDatabase.changes(operators, op, others)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if an operator changes a fluent of a set.
+     *
+     * @param operators the unconditional operators.
+     * @param op        the operator.
+     * @param fluents   the set of fluents.
+     * @return <code>true</code> if the operator changes a fluent of the set.
+     */
+    static boolean changes(final UnconditionalOperators operators, final int op, final BitVector fluents) {
+        for (int f : operators.getAddEffects(op)) {
+            if (fluents.get(f)) {
+                return true;
+            }
+        }
+        for (int f : operators.getDeleteEffects(op)) {
+            if (fluents.get(f)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the pattern database of a pattern. The operators are projected on the pattern and the projections that
+     * do not change the pattern are ignored. The negative preconditions are ignored by the projection. The abstract
+     * costs are computed by a backward uniform cost search (Dial's algorithm) from the abstract goal states: the
+     * predecessors of an abstract state by a projected operator are enumerated from the preimages of the values of
+     * the variables changed by the operator. The costs of the operators are rounded down to integers.
+     *
+     * @param operators the unconditional operators of the problem.
+     * @param variables the fluents of the variables of the pattern.
+     * @param goal      the goal of the problem.
+     * @return the pattern database of the pattern.
+     * @throws IllegalArgumentException if the pattern has more than {@link #MAX_SIZE} abstract states.
+     */
+    public static PatternDatabase build(final UnconditionalOperators operators, final int[][] variables,
+                                        final Condition goal) {
+        final long size = PatternDatabase.size(variables);
+        if (size < 0) {
+            throw new IllegalArgumentException("pattern too large");
+        }
+        final int n = variables.length;
+        final Map<Integer, int[]> position = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < variables[v].length; i++) {
+                position.put(variables[v][i], new int[] {v, i});
+            }
+        }
+        final int[] domains = new int[n];
+        final int[] multipliers = new int[n];
+        int m = 1;
+        for (int v = 0; v < n; v++) {
+            domains[v] = variables[v].length + 1;
+            multipliers[v] = m;
+            m *= domains[v];
+        }
+        // Project the operators on the pattern and keep the cheapest of the identical projections
+        final Map<Projection, Projection> projections = new HashMap<>();
+        for (int op = 0; op < operators.size(); op++) {
+            final Projection p = PatternDatabase.project(operators, op, position, domains);
+            if (p != null) {
+                final Projection q = projections.putIfAbsent(p, p);
+                if (q != null && p.cost < q.cost) {
+                    q.cost = p.cost;
+                }
+            }
+        }
+        final Projection[] abstractOps = projections.keySet().toArray(new Projection[0]);
+        // Compute the goal values allowed for each variable
+        final boolean[][] allowed = new boolean[n][];
+        for (int v = 0; v < n; v++) {
+            allowed[v] = new boolean[domains[v]];
+            Arrays.fill(allowed[v], true);
+        }
+        final BitVector pGoal = goal.getPositiveFluents();
+        for (int f = pGoal.nextSetBit(0); f >= 0; f = pGoal.nextSetBit(f + 1)) {
+            final int[] pos = position.get(f);
+            if (pos != null) {
+                for (int x = 0; x < domains[pos[0]]; x++) {
+                    allowed[pos[0]][x] &= x == pos[1];
+                }
+            }
+        }
+        final BitVector nGoal = goal.getNegativeFluents();
+        for (int f = nGoal.nextSetBit(0); f >= 0; f = nGoal.nextSetBit(f + 1)) {
+            final int[] pos = position.get(f);
+            if (pos != null) {
+                allowed[pos[0]][pos[1]] = false;
+            }
+        }
+
+        final byte[] dist = new byte[(int) size];
+        Arrays.fill(dist, (byte) PatternDatabase.UNREACHABLE);
+        final int[][] buckets = new int[PatternDatabase.UNREACHABLE][];
+        final int[] bucketSize = new int[PatternDatabase.UNREACHABLE];
+        final int[] values = new int[n];
+        for (int s = 0; s < size; s++) {
+            PatternDatabase.decode(s, domains, values);
+            boolean isGoal = true;
+            for (int v = 0; v < n && isGoal; v++) {
+                isGoal = allowed[v][values[v]];
+            }
+            if (isGoal) {
+                dist[s] = 0;
+                PatternDatabase.push(buckets, bucketSize, 0, s);
+            }
+        }
+        final int[] counters = new int[n];
+        for (int d = 0; d < PatternDatabase.UNREACHABLE; d++) {
+            for (int i = 0; i < bucketSize[d]; i++) {
+                final int s = buckets[d][i];
+                if ((dist[s] & 0xFF) != d) {
+                    continue;
+                }
+                PatternDatabase.decode(s, domains, values);
+                for (Projection o : abstractOps) {
+                    if (!o.isRegressable(values)) {
+                        continue;
+                    }
+                    final int nd = Math.min(d + o.cost, PatternDatabase.UNREACHABLE - 1);
+                    // Remove the changed variables from the abstract state
+                    int base = s;
+                    for (int k = 0; k < o.changed.length; k++) {
+                        base -= values[o.changed[k]] * multipliers[o.changed[k]];
+                        counters[k] = 0;
+                    }
+                    // Enumerate the cartesian product of the preimages of the changed variables
+                    while (true) {
+                        int pred = base;
+                        for (int k = 0; k < o.changed.length; k++) {
+                            final int v = o.changed[k];
+                            pred += o.preimages[k][values[v]][counters[k]] * multipliers[v];
+                        }
+                        if (nd < (dist[pred] & 0xFF)) {
+                            dist[pred] = (byte) nd;
+                            PatternDatabase.push(buckets, bucketSize, nd, pred);
+                        }
+                        int k = 0;
+                        while (k < o.changed.length && ++counters[k] == o.preimages[k][values[o.changed[k]]].length) {
+                            counters[k] = 0;
+                            k++;
+                        }
+                        if (k == o.changed.length) {
+                            break;
+                        }
+                    }
+                }
+            }
+            buckets[d] = null;
+        }
+        return new PatternDatabase(variables, ByteBuffer.wrap(dist));
+    }
+
+    /**
+     * Projects an operator on a pattern.
+     *
+     * @param operators the unconditional operators.
+     * @param op        the operator.
+     * @param position  the variable and the value of the fluents of the pattern.
+     * @param domains   the size of the domains of the variables of the pattern.
+     * @return the projection of the operator or <code>null</code> if the projection does not change the pattern or
+     *      is never applicable.
+     */
+    private static Projection project(final UnconditionalOperators operators, final int op,
+                                      final Map<Integer, int[]> position, final int[] domains) {
+        final int n = domains.length;
+        final int[] pre = new int[n];
+        Arrays.fill(pre, -1);
+        for (int f : operators.getPreconditions(op)) {
+            final int[] pos = position.get(f);
+            if (pos != null) {
+                if (pre[pos[0]] != -1 && pre[pos[0]] != pos[1]) {
+                    return null;
+                }
+                pre[pos[0]] = pos[1];
+            }
+        }
+        final int[] set = new int[n];
+        Arrays.fill(set, -1);
+        final boolean[][] deleted = new boolean[n][];
+        boolean changes = false;
+        for (int f : operators.getAddEffects(op)) {
+            final int[] pos = position.get(f);
+            if (pos != null) {
+                set[pos[0]] = pos[1];
+                changes = true;
+            }
+        }
+        for (int f : operators.getDeleteEffects(op)) {
+            final int[] pos = position.get(f);
+            if (pos != null && set[pos[0]] == -1) {
+                if (deleted[pos[0]] == null) {
+                    deleted[pos[0]] = new boolean[domains[pos[0]]];
+                }
+                deleted[pos[0]][pos[1]] = true;
+                changes = true;
+            }
+        }
+        if (!changes) {
+            return null;
+        }
+        int nbChanged = 0;
+        for (int v = 0; v < n; v++) {
+            if (set[v] != -1 || deleted[v] != null) {
+                nbChanged++;
+            }
+        }
+        final int[] changed = new int[nbChanged];
+        final int[][][] preimages = new int[nbChanged][][];
+        nbChanged = 0;
+        for (int v = 0; v < n; v++) {
+            if (set[v] != -1 || deleted[v] != null) {
+                final int none = domains[v] - 1;
+                final int[][] preimage = new int[domains[v]][];
+                final int[] count = new int[domains[v]];
+                final int[] image = new int[domains[v]];
+                for (int x = 0; x < domains[v]; x++) {
+                    if (set[v] != -1) {
+                        image[x] = set[v];
+                    } else {
+                        image[x] = deleted[v][x] ? none : x;
+                    }
+                    if (pre[v] == -1 || pre[v] == x) {
+                        count[image[x]]++;
+                    }
+                }
+                for (int t = 0; t < domains[v]; t++) {
+                    preimage[t] = new int[count[t]];
+                    count[t] = 0;
+                }
+                for (int x = 0; x < domains[v]; x++) {
+                    if (pre[v] == -1 || pre[v] == x) {
+                        preimage[image[x]][count[image[x]]++] = x;
+                    }
+                }
+                changed[nbChanged] = v;
+                preimages[nbChanged] = preimage;
+                pre[v] = -1;
+                nbChanged++;
+            }
+        }
+        final int cost = (int) Math.min(PatternDatabase.UNREACHABLE, Math.max(0, Math.floor(
+            operators.getCost(op) + 1e-9)));
+        return new Projection(pre, changed, preimages, cost);
+    }
+
+    /**
+     * Decodes an abstract state into the values of the variables.
+     *
+     * @param s       the abstract state.
+     * @param domains the size of the domains of the variables.
+     * @param values  the array where the values are stored.
+     */
+    private static void decode(final int s, final int[] domains, final int[] values) {
+        int r = s;
+        for (int v = 0; v < domains.length; v++) {
+            values[v] = r % domains[v];
+            r /= domains[v];
+        }
+    }
+
+    /**
+     * Pushes an abstract state in a bucket.
+     *
+     * @param buckets    the buckets.
+     * @param bucketSize the size of the buckets.
+     * @param d          the bucket.
+     * @param s          the abstract state.
+     */
+    private static void push(final int[][] buckets, final int[] bucketSize, final int d, final int s) {
+        if (buckets[d] == null) {
+            buckets[d] = new int[16];
+        } else if (bucketSize[d] == buckets[d].length) {
+            buckets[d] = Arrays.copyOf(buckets[d], bucketSize[d] << 1);
+        }
+        buckets[d][bucketSize[d]++] = s;
+    }
+
+    /**
+     * This class implements the projection of an operator on a pattern.
+     */
+    private static final class Projection {
+
+        /**
+         * The values required by the projection for the variables it does not change or -1.
+         */
+        private final int[] pre;
+
+        /**
+         * The variables changed by the projection.
+         */
+        private final int[] changed;
+
+        /**
+         * For each changed variable and each value the values from which the projection leads to the value.
+         */
+        private final int[][][] preimages;
+
+        /**
+         * The cost of the projection.
+         */
+        private int cost;
+
+        /**
+         * Creates a new projection.
+         *
+         * @param pre       the values required for the variables not changed.
+         * @param changed   the variables changed.
+         * @param preimages the preimages of the values of the changed variables.
+         * @param cost      the cost of the projection.
+         */
+        private Projection(final int[] pre, final int[] changed, final int[][][] preimages, final int cost) {
+            this.pre = pre;
+            this.changed = changed;
+            this.preimages = preimages;
+            this.cost = cost;
+        }
+
+        /**
+         * Returns <code>true</code> if an abstract state has a predecessor by this projection.
+         *
+         * @param values the values of the variables of the abstract state.
+         * @return <code>true</code> if the abstract state has a predecessor by this projection.
+         */
+        private boolean isRegressable(final int[] values) {
+            for (int k = 0; k < this.changed.length; k++) {
+                if (this.preimages[k][values[this.changed[k]]].length == 0) {
+                    return false;
+                }
+            }
+            for (int v = 0; v < this.pre.length; v++) {
+                if (this.pre[v] != -1 && this.pre[v] != values[v]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the hash code of the projection. The cost is not taken into account.
+         *
+         * @return the hash code of the projection.
+         */
+        @Override
+        public int hashCode() {
+            return (Arrays.hashCode(this.pre) * 31 + Arrays.hashCode(this.changed)) * 31
+                + Arrays.deepHashCode(this.preimages);
+        }
+
+        /**
+         * Returns <code>true</code> if the projection is equal to an other object. The cost is not taken into
+         * account.
+         *
+         * @param obj the other object.
+         * @return <code>true</code> if the projection is equal to the object.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Projection)) {
+                return false;
+            }
+            final Projection other = (Projection) obj;
+            return Arrays.equals(this.pre, other.pre) && Arrays.equals(this.changed, other.changed)
+                && Arrays.deepEquals(this.preimages, other.preimages);
+        }
+    }
+}
@@ -0,0 +1,820 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Fluent;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * This class implements an admissible heuristic based on a collection of pattern databases. The patterns are sets of
+ * the finite-domain variables built from the mutex groups of the problem. The value of a state is
+ * the canonical heuristic of the collection: the maximum over the maximal sets of additive pattern databases of the
+ * sum of their values. For more about this heuristic see P. Haslum, A. Botea, M. Helmert, B. Bonet and S. Koenig,
+ * Domain-Independent Construction of Pattern Database Heuristics for Cost-Optimal Planning, in: Proceedings of the
+ * 22nd AAAI Conference on Artificial Intelligence, 2007.
+ * <p>
+ * Two pattern selection strategies are available. The greedy strategy builds disjoint patterns by growing each
+ * pattern from a goal variable with the variables of the preconditions of the operators changing the pattern, until
+ * the maximal size of a pattern is reached. The iPDB strategy starts with one pattern per goal variable and performs a
+ * hill climbing search in the space of the pattern collections: at each step, the pattern extended with one causally
+ * relevant variable that improves the most the canonical heuristic value of a sample of states obtained by random
+ * walks is added to the collection.
+ * </p>
+ * <p>
+ * When a cache directory is given, the pattern databases are saved into a file named after a hash of the instantiated
+ * problem and the selection strategy, and loaded from this file through a memory-mapped buffer in the later runs.
+ * </p>
+ * <b>Warning:</b> The heuristic is not admissible if an action of the problem has a conditional effect changing a
+ * fluent of a pattern because the conditional effects are projected separately.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.02.2021
+ * @see PatternDatabase
+ */
+public final class PatternDatabaseHeuristic extends AbstractStateHeuristic {
+
+    /**
+     * The strategies of pattern selection.
+     */
+    public enum PatternSelection {
+        /**
+         * The greedy strategy building disjoint patterns from the goal.
+         */
+        GREEDY,
+        /**
+         * The hill climbing strategy of iPDB.
+         */
+        IPDB,
+    }
+
+    /**
+     * The default maximal number of abstract states of a pattern.
+     */
+    public static final int DEFAULT_MAX_PATTERN_SIZE = 1 << 20;
+
+    /**
+     * The default maximal number of abstract states of the collection.
+     */
+    public static final int DEFAULT_MAX_COLLECTION_SIZE = 1 << 22;
+
+    /**
+     * The default time allocated to the selection of the patterns in milliseconds.
+     */
+    public static final long DEFAULT_SELECTION_TIMEOUT = 20000;
+
+    /**
+     * The number of states sampled to evaluate the candidate patterns.
+     */
+    private static final int NUMBER_OF_SAMPLES = 200;
+
+    /**
+     * The minimal number of improved samples needed to add a pattern to the collection.
+     */
+    private static final int MIN_IMPROVEMENT = 3;
+
+    /**
+     * The magic number of the files of pattern databases.
+     */
+    private static final int MAGIC = 0x50444231;
+
+    /**
+     * The version of the format of the files of pattern databases.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The logger of the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(PatternDatabaseHeuristic.class.getName());
+
+    /**
+     * The problem.
+     */
+    private final Problem problem;
+
+    /**
+     * The unconditional operators of the problem.
+     */
+    private final UnconditionalOperators operators;
+
+    /**
+     * The finite-domain variables of the problem.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The strategy of pattern selection.
+     */
+    private final PatternSelection selection;
+
+    /**
+     * The maximal number of abstract states of a pattern.
+     */
+    private final int maxPatternSize;
+
+    /**
+     * The directory where the pattern databases are cached or <code>null</code>.
+     */
+    private final File cache;
+
+    /**
+     * The pattern databases of the collection.
+     */
+    private List<PatternDatabase> databases;
+
+    /**
+     * The maximal sets of additive pattern databases of the collection.
+     */
+    private int[][] additiveSets;
+
+    /**
+     * The array used to store the values of the pattern databases during an evaluation.
+     */
+    private int[] values;
+
+    /**
+     * Creates a new <code>PatternDatabaseHeuristic</code> for a specified planning problem with the iPDB pattern
+     * selection and without cache.
+     *
+     * @param problem the planning problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public PatternDatabaseHeuristic(final Problem problem) {
+        this(problem, PatternSelection.IPDB, PatternDatabaseHeuristic.DEFAULT_MAX_PATTERN_SIZE, null);
+    }
+
+    /**
+     * Creates a new <code>PatternDatabaseHeuristic</code> for a specified planning problem.
+     *
+     * @param problem        the planning problem.
+     * @param selection      the strategy of pattern selection.
+     * @param maxPatternSize the maximal number of abstract states of a pattern.
+     * @param cache          the directory where the pattern databases are cached or <code>null</code> to build them
+     *                       without cache.
+     * @throws NullPointerException     if <code>problem == null</code>.
+     * @throws IllegalArgumentException if the maximal size of the patterns is not in [2, {@link
+     *      PatternDatabase#MAX_SIZE}].
+     */
+    public PatternDatabaseHeuristic(final Problem problem, final PatternSelection selection,
+                                    final int maxPatternSize, final File cache) {
+        super(problem);
+        if (maxPatternSize < 2 || maxPatternSize > PatternDatabase.MAX_SIZE) {
+            throw new IllegalArgumentException("maximal pattern size must be in [2, " + PatternDatabase.MAX_SIZE + "]");
+        }
+        this.problem = problem;
+        this.operators = UnconditionalOperators.getInstance(problem);
+        this.variables = PreprocessingCache.get(problem, FiniteDomainVariables.class, FiniteDomainVariables::new);
+        this.selection = selection;
+        this.maxPatternSize = maxPatternSize;
+        this.cache = cache;
+        this.build();
+    }
+
+    /**
+     * Builds or loads the collection of pattern databases for the current goal.
+     */
+    private void build() {
+        File file = null;
+        List<PatternDatabase> collection = null;
+        if (this.cache != null) {
+            file = new File(this.cache, this.getProblemHash() + "-" + this.selection.name().toLowerCase() + ".pdb");
+            if (file.exists()) {
+                try {
+                    collection = PatternDatabaseHeuristic.load(file);
+                } catch (IOException e) {
+                    LOGGER.error("unable to load pattern databases from " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        if (collection == null) {
+            switch (this.selection) {
+                case GREEDY:
+                    collection = this.selectGreedyPatterns();
+                    break;
+                case IPDB:
+                default:
+                    collection = this.selectHillClimbingPatterns();
+                    break;
+            }
+            if (file != null) {
+                try {
+                    PatternDatabaseHeuristic.save(collection, file);
+                } catch (IOException e) {
+                    LOGGER.error("unable to save pattern databases into " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        this.setCollection(collection);
+        super.setAdmissible(this.isAdmissibleCollection());
+    }
+
+    /**
+     * Sets the collection of pattern databases and computes its maximal sets of additive pattern databases.
+     *
+     * @param collection the collection of pattern databases.
+     */
+    private void setCollection(final List<PatternDatabase> collection) {
+        this.databases = collection;
+        this.values = new int[collection.size()];
+        final int n = collection.size();
+        final BitVector[] additive = new BitVector[n];
+        for (int i = 0; i < n; i++) {
+            additive[i] = new BitVector(n);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (collection.get(i).isAdditive(collection.get(j), this.operators)) {
+                    additive[i].set(j);
+                    additive[j].set(i);
+                }
+            }
+        }
+        final List<int[]> cliques = new ArrayList<>();
+        final BitVector all = new BitVector(n);
+        all.set(0, n);
+        PatternDatabaseHeuristic.maximalCliques(new BitVector(n), all, new BitVector(n), additive, cliques);
+        this.additiveSets = cliques.toArray(new int[cliques.size()][]);
+    }
+
+    /**
+     * Enumerates the maximal cliques of a graph with the Bron-Kerbosch algorithm with pivoting.
+     *
+     * @param r         the current clique.
+     * @param p         the candidate vertices.
+     * @param x         the excluded vertices.
+     * @param neighbors the neighbors of the vertices.
+     * @param cliques   the list where the maximal cliques are added.
+     */
+    private static void maximalCliques(final BitVector r, final BitVector p, final BitVector x,
+                                       final BitVector[] neighbors, final List<int[]> cliques) {
+        if (p.isEmpty() && x.isEmpty()) {
+            if (!r.isEmpty()) {
+                cliques.add(UnconditionalOperators.toArray(r));
+            }
+            return;
+        }
+        final BitVector px = new BitVector(p);
+        px.or(x);
+        final int pivot = px.nextSetBit(0);
+        final BitVector candidates = new BitVector(p);
+        candidates.andNot(neighbors[pivot]);
+        for (int v = candidates.nextSetBit(0); v >= 0; v = candidates.nextSetBit(v + 1)) {
+            final BitVector nr = new BitVector(r);
+            nr.set(v);
+            final BitVector np = new BitVector(p);
+            np.and(neighbors[v]);
+            final BitVector nx = new BitVector(x);
+            nx.and(neighbors[v]);
+            PatternDatabaseHeuristic.maximalCliques(nr, np, nx, neighbors, cliques);
+            p.clear(v);
+            x.set(v);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if no action with conditional effects changes a fluent of the patterns.
+     *
+     * @return <code>true</code> if the collection of pattern databases is admissible.
+     */
+    private boolean isAdmissibleCollection() {
+        final BitVector patterns = new BitVector();
+        for (PatternDatabase pdb : this.databases) {
+            patterns.or(pdb.getFluents());
+        }
+        for (Action a : this.problem.getActions()) {
+            for (ConditionalEffect ce : a.getConditionalEffects()) {
+                if (!ce.getCondition().isEmpty()
+                    && (ce.getEffect().getPositiveFluents().intersects(patterns)
+                    || ce.getEffect().getNegativeFluents().intersects(patterns))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the goal of the relaxed problem to solve in order to compute the heuristic. The pattern databases are
+     * rebuilt when the goal changes.
+     *
+     * @param goal the goal.
+     */
+    @Override
+    protected void setGoal(final Condition goal) {
+        if (!goal.equals(super.getGoal())) {
+            super.setGoal(goal);
+            this.build();
+        }
+    }
+
+    /**
+     * Returns the pattern databases of the collection.
+     *
+     * @return the pattern databases of the collection.
+     */
+    public List<PatternDatabase> getPatternDatabases() {
+        return this.databases;
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param state the state from which the distance to the goal must be estimated.
+     * @param goal  the goal expression.
+     * @return the distance to the goal state from the specified state.
+     * @throws NullPointerException if <code>state == null &#38;&#38; goal == null</code>.
+     */
+    @Override
+    public int estimate(final State state, final Condition goal) {
+        this.setGoal(goal);
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = this.databases.get(i).getValue(state);
+            if (this.values[i] == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        return this.getCanonicalValue(this.values);
+    }
+
+    /**
+     * Return the estimated distance to the goal to reach the specified state. If the return value is
+     * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
+     * state.
+     *
+     * @param node the state from which the distance to the goal must be estimated.
+     * @param goal the goal expression.
+     * @return the distance to the goal state from the specified state.
+     */
+    @Override
+    public double estimate(final Node node, final Condition goal) {
+        return estimate((State) node, goal);
+    }
+
+    /**
+     * Returns the canonical heuristic value from the values of the pattern databases.
+     *
+     * @param values the values of the pattern databases.
+     * @return the canonical heuristic value.
+     */
+    private int getCanonicalValue(final int[] values) {
+        int max = 0;
+        for (int[] set : this.additiveSets) {
+            int sum = 0;
+            for (int i : set) {
+                sum += values[i];
+            }
+            max = Math.max(max, sum);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the canonical heuristic value of the collection extended with a new pattern database.
+     *
+     * @param values   the values of the pattern databases of the collection.
+     * @param value    the value of the new pattern database.
+     * @param additive the flags indicating the pattern databases of the collection additive with the new one.
+     * @return the canonical heuristic value of the extended collection.
+     */
+    private int getCanonicalValue(final int[] values, final int value, final boolean[] additive) {
+        if (value == Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        int max = this.getCanonicalValue(values);
+        for (int[] set : this.additiveSets) {
+            int sum = value;
+            for (int i : set) {
+                if (additive[i]) {
+                    sum += values[i];
+                }
+            }
+            max = Math.max(max, sum);
+        }
+        return max;
+    }
+
+    /**
+     * Selects disjoint patterns greedily from the goal variables.
+     *
+     * @return the pattern databases of the selected patterns.
+     */
+    private List<PatternDatabase> selectGreedyPatterns() {
+        final List<PatternDatabase> collection = new ArrayList<>();
+        final BitVector used = new BitVector();
+        for (int g : this.getGoalVariables()) {
+            if (used.get(g)) {
+                continue;
+            }
+            final List<Integer> pattern = new ArrayList<>();
+            pattern.add(g);
+            used.set(g);
+            for (int i = 0; i < pattern.size(); i++) {
+                for (int v : this.getRelevantVariables(new int[] {pattern.get(i)})) {
+                    if (!used.get(v)) {
+                        pattern.add(v);
+                        if (this.size(PatternDatabaseHeuristic.toArray(pattern)) < 0) {
+                            pattern.remove(pattern.size() - 1);
+                        } else {
+                            used.set(v);
+                        }
+                    }
+                }
+            }
+            collection.add(this.build(PatternDatabaseHeuristic.toArray(pattern)));
+        }
+        return collection;
+    }
+
+    /**
+     * Selects the patterns with the hill climbing search of iPDB.
+     *
+     * @return the pattern databases of the selected patterns.
+     */
+    private List<PatternDatabase> selectHillClimbingPatterns() {
+        final long begin = System.currentTimeMillis();
+        final List<PatternDatabase> collection = new ArrayList<>();
+        final List<int[]> patterns = new ArrayList<>();
+        long size = 0;
+        for (int g : this.getGoalVariables()) {
+            final int[] pattern = new int[] {g};
+            final PatternDatabase pdb = this.build(pattern);
+            patterns.add(pattern);
+            collection.add(pdb);
+            size += pdb.size();
+        }
+        this.setCollection(collection);
+        final Set<String> tried = new HashSet<>();
+        final Random random = new Random(0);
+        boolean improved = true;
+        while (improved && System.currentTimeMillis() - begin < PatternDatabaseHeuristic.DEFAULT_SELECTION_TIMEOUT) {
+            improved = false;
+            final List<State> samples = this.sample(random);
+            final int[] current = new int[samples.size()];
+            final int[][] sampleValues = new int[samples.size()][];
+            for (int i = 0; i < samples.size(); i++) {
+                current[i] = this.estimate(samples.get(i), super.getGoal());
+                sampleValues[i] = this.values.clone();
+            }
+            PatternDatabase best = null;
+            int[] bestPattern = null;
+            int bestImprovement = PatternDatabaseHeuristic.MIN_IMPROVEMENT - 1;
+            final int nbPatterns = patterns.size();
+            for (int p = 0; p < nbPatterns; p++) {
+                final int[] pattern = patterns.get(p);
+                for (int v : this.getRelevantVariables(pattern)) {
+                    final int[] candidate = Arrays.copyOf(pattern, pattern.length + 1);
+                    candidate[pattern.length] = v;
+                    Arrays.sort(candidate);
+                    final long candidateSize = this.size(candidate);
+                    if (candidateSize < 0
+                        || size + candidateSize > PatternDatabaseHeuristic.DEFAULT_MAX_COLLECTION_SIZE
+                        || !tried.add(Arrays.toString(candidate))) {
+                        continue;
+                    }
+                    final PatternDatabase pdb = this.build(candidate);
+                    final boolean[] additive = new boolean[collection.size()];
+                    for (int q = 0; q < collection.size(); q++) {
+                        additive[q] = pdb.isAdditive(collection.get(q), this.operators);
+                    }
+                    int improvement = 0;
+                    for (int i = 0; i < samples.size(); i++) {
+                        if (current[i] != Integer.MAX_VALUE
+                            && this.getCanonicalValue(sampleValues[i], pdb.getValue(samples.get(i)), additive)
+                            > current[i]) {
+                            improvement++;
+                        }
+                    }
+                    if (improvement > bestImprovement) {
+                        bestImprovement = improvement;
+                        best = pdb;
+                        bestPattern = candidate;
+                    }
+                    if (System.currentTimeMillis() - begin > PatternDatabaseHeuristic.DEFAULT_SELECTION_TIMEOUT) {
+                        break;
+                    }
+                }
+            }
+            if (best != null) {
+                patterns.add(bestPattern);
+                collection.add(best);
+                size += best.size();
+                this.setCollection(collection);
+                improved = true;
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("iPDB: " + collection.size() + " patterns, " + size + " abstract states, "
+                + (System.currentTimeMillis() - begin) + " ms");
+        }
+        return collection;
+    }
+
+    /**
+     * Builds the pattern database of a pattern of variables.
+     *
+     * @param pattern the variables of the pattern.
+     * @return the pattern database of the pattern.
+     */
+    private PatternDatabase build(final int[] pattern) {
+        final int[][] vars = new int[pattern.length][];
+        for (int i = 0; i < pattern.length; i++) {
+            vars[i] = this.variables.getFluents(pattern[i]);
+        }
+        return PatternDatabase.build(this.operators, vars, super.getGoal());
+    }
+
+    /**
+     * Returns the number of abstract states of a pattern of variables or -1 if it exceeds the maximal size of a
+     * pattern.
+     *
+     * @param pattern the variables of the pattern.
+     * @return the number of abstract states of the pattern.
+     */
+    private long size(final int[] pattern) {
+        long size = 1;
+        for (int v : pattern) {
+            size *= this.variables.getDomainSize(v);
+            if (size > this.maxPatternSize) {
+                return -1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Samples states with random walks from the initial state. The length of the walks follows a binomial
+     * distribution whose mean is twice the heuristic value of the initial state.
+     *
+     * @param random the random generator.
+     * @return the sampled states.
+     */
+    private List<State> sample(final Random random) {
+        final State init = new State(this.problem.getInitialState());
+        final int h = this.estimate(init, super.getGoal());
+        final int length = 4 * (h == Integer.MAX_VALUE || h == 0 ? 1 : h);
+        final List<Action> actions = this.problem.getActions();
+        final List<State> samples = new ArrayList<>(PatternDatabaseHeuristic.NUMBER_OF_SAMPLES);
+        final List<Action> applicable = new ArrayList<>();
+        for (int i = 0; i < PatternDatabaseHeuristic.NUMBER_OF_SAMPLES; i++) {
+            State state = new State(init);
+            int steps = 0;
+            for (int j = 0; j < length; j++) {
+                if (random.nextBoolean()) {
+                    steps++;
+                }
+            }
+            for (int j = 0; j < steps; j++) {
+                applicable.clear();
+                for (Action a : actions) {
+                    if (a.isApplicable(state)) {
+                        applicable.add(a);
+                    }
+                }
+                if (applicable.isEmpty()) {
+                    state = new State(init);
+                    continue;
+                }
+                final Action a = applicable.get(random.nextInt(applicable.size()));
+                final State next = new State(state);
+                for (ConditionalEffect ce : a.getConditionalEffects()) {
+                    if (state.satisfy(ce.getCondition())) {
+                        next.apply(ce.getEffect());
+                    }
+                }
+                state = next;
+                if (this.estimate(state, super.getGoal()) == Integer.MAX_VALUE) {
+                    state = new State(init);
+                }
+            }
+            samples.add(state);
+        }
+        return samples;
+    }
+
+    /**
+     * Returns the variables of the goal.
+     *
+     * @return the variables of the goal.
+     */
+    private int[] getGoalVariables() {
+        final BitVector goal = new BitVector(super.getGoal().getPositiveFluents());
+        goal.or(super.getGoal().getNegativeFluents());
+        final BitVector vars = new BitVector();
+        for (int f = goal.nextSetBit(0); f >= 0; f = goal.nextSetBit(f + 1)) {
+            vars.set(this.variables.getVariable(f));
+        }
+        return UnconditionalOperators.toArray(vars);
+    }
+
+    /**
+     * Returns the variables causally relevant to a pattern, i.e., the variables of the preconditions of the
+     * operators changing a variable of the pattern and not in the pattern.
+     *
+     * @param pattern the variables of the pattern.
+     * @return the variables causally relevant to the pattern.
+     */
+    private int[] getRelevantVariables(final int[] pattern) {
+        final BitVector inPattern = new BitVector();
+        final BitVector fluents = new BitVector();
+        for (int v : pattern) {
+            inPattern.set(v);
+            for (int f : this.variables.getFluents(v)) {
+                fluents.set(f);
+            }
+        }
+        final BitVector relevant = new BitVector();
+        for (int op = 0; op < this.operators.size(); op++) {
+            if (PatternDatabase.changes(this.operators, op, fluents)) {
+                for (int f : this.operators.getPreconditions(op)) {
+                    relevant.set(this.variables.getVariable(f));
+                }
+                for (int f : this.operators.getNegativePreconditions(op)) {
+                    relevant.set(this.variables.getVariable(f));
+                }
+            }
+        }
+        relevant.andNot(inPattern);
+        return UnconditionalOperators.toArray(relevant);
+    }
+
+    /**
+     * Returns a hash of the instantiated problem computed from its fluents, its actions, its initial state and its
+     * goal.
+     *
+     * @return the hash of the problem as an hexadecimal string.
+     */
+    private String getProblemHash() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Fluent f : this.problem.getFluents()) {
+                digest.update(this.problem.toString(f).getBytes(StandardCharsets.UTF_8));
+            }
+            for (Action a : this.problem.getActions()) {
+                digest.update(this.problem.toString(a).getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(this.problem.toString(this.problem.getInitialState()).getBytes(StandardCharsets.UTF_8));
+            digest.update(this.problem.toString(super.getGoal()).getBytes(StandardCharsets.UTF_8));
+            digest.update(Integer.toString(this.maxPatternSize).getBytes(StandardCharsets.UTF_8));
+            final StringBuilder str = new StringBuilder();
+            for (byte b : digest.digest()) {
+                str.append(String.format("%02x", b));
+            }
+            return str.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Saves a collection of pattern databases into a file.
+     *
+     * @param collection the collection of pattern databases.
+     * @param file       the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void save(final List<PatternDatabase> collection, final File file) throws IOException {
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("cannot create directory " + dir);
+        }
+        final File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+            out.writeInt(PatternDatabaseHeuristic.MAGIC);
+            out.writeInt(PatternDatabaseHeuristic.VERSION);
+            out.writeInt(collection.size());
+            for (PatternDatabase pdb : collection) {
+                out.writeInt(pdb.getVariables().length);
+                for (int[] v : pdb.getVariables()) {
+                    out.writeInt(v.length);
+                    for (int f : v) {
+                        out.writeInt(f);
+                    }
+                }
+            }
+            for (PatternDatabase pdb : collection) {
+                final ByteBuffer table = pdb.getTable().duplicate();
+                table.clear();
+                final byte[] bytes = new byte[table.capacity()];
+                table.get(bytes);
+                out.write(bytes);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("cannot rename " + tmp + " into " + file);
+        }
+    }
+
+    /**
+     * Loads a collection of pattern databases from a file. The tables of the pattern databases are slices of a
+     * read-only memory-mapped buffer of the file.
+     *
+     * @param file the file.
+     * @return the collection of pattern databases.
+     * @throws IOException if the file cannot be read or is not a file of pattern databases.
+     */
+    private static List<PatternDatabase> load(final File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != PatternDatabaseHeuristic.MAGIC
+                || buffer.getInt() != PatternDatabaseHeuristic.VERSION) {
+                throw new IOException("unsupported format");
+            }
+            final int nbPatterns = buffer.getInt();
+            final int[][][] patterns = new int[nbPatterns][][];
+            for (int i = 0; i < nbPatterns; i++) {
+                patterns[i] = new int[PatternDatabaseHeuristic.readLength(buffer)][];
+                for (int j = 0; j < patterns[i].length; j++) {
+                    patterns[i][j] = new int[PatternDatabaseHeuristic.readLength(buffer)];
+                    for (int k = 0; k < patterns[i][j].length; k++) {
+                        patterns[i][j][k] = buffer.getInt();
+                    }
+                }
+            }
+            final List<PatternDatabase> collection = new ArrayList<>(nbPatterns);
+            int offset = buffer.position();
+            for (int[][] pattern : patterns) {
+                final long size = PatternDatabase.size(pattern);
+                if (size < 0 || offset + size > buffer.capacity()) {
+                    throw new IOException("corrupted file");
+                }
+                final ByteBuffer table = buffer.duplicate();
+                table.limit(offset + (int) size);
+                table.position(offset);
+                collection.add(new PatternDatabase(pattern, table.slice()));
+                offset += size;
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * Reads a length from a buffer.
+     *
+     * @param buffer the buffer.
+     * @return the length read.
+     * @throws IOException if the length read is negative or too large.
+     */
+    private static int readLength(final ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("corrupted file");
+        }
+        return length;
+    }
+
+    /**
+     * Converts a list of integers into an array.
+     *
+     * @param list the list.
+     * @return the array.
+     */
+    private static int[] toArray(final List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * This class implements the cache of the data structures precomputed by the heuristics, e.g., the
+ * {@link UnconditionalOperators}, the {@link RelaxedGraphStructure} or the {@link MutexGraphStructure}. The structures
+ * are immutable and shared by all the heuristics created for the same problem instance, so that the strategies of a
+ * planner and the threads of a {@link ParallelStateHeuristic} pay the preprocessing once. The structures are
+ * serializable: a structure saved from a previous run can be put back in the cache for a new instance of the same
+ * problem with {@link #put(Problem, Serializable)}.
+ * <p>
+ * The problems are weakly referenced: the structures of a problem are released when the problem is no longer used.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 27.02.2021
+ */
+public final class PreprocessingCache {
+
+    /**
+     * The minimum number of elements processed by a task of a parallel preprocessing.
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    /**
+     * The structures precomputed for each problem indexed by class.
+     */
+    private static final Map<Problem, Map<Class<?>, Serializable>> CACHE = new WeakHashMap<>();
+
+    /**
+     * Creates a new cache. This constructor is private because the class only contains static methods.
+     */
+    private PreprocessingCache() {
+        super();
+    }
+
+    /**
+     * Returns the structure of a specified class precomputed for a problem. If the structure is not in the cache, it
+     * is computed with a specified function and added to the cache.
+     *
+     * @param problem the problem.
+     * @param type    the class of the structure.
+     * @param builder the function used to compute the structure.
+     * @param <T>     the type of the structure.
+     * @return the structure of the problem.
+     * @throws NullPointerException if <code>problem == null</code>.
+     */
+    public static synchronized <T extends Serializable> T get(final Problem problem, final Class<T> type,
+                                                              final Function<Problem, T> builder) {
+        Objects.requireNonNull(problem);
+        final Map<Class<?>, Serializable> structures = PreprocessingCache.CACHE.computeIfAbsent(problem,
+            p -> new HashMap<>());
+        Serializable structure = structures.get(type);
+        if (structure == null) {
+            structure = builder.apply(problem);
+            structures.put(type, structure);
+        }
+        return type.cast(structure);
+    }
+
+    /**
+     * Puts a precomputed structure in the cache for a specified problem. This method can be used to reuse a
+     * structure deserialized from a previous run.
+     *
+     * @param problem   the problem.
+     * @param structure the structure.
+     * @throws NullPointerException if <code>problem == null || structure == null</code>.
+     */
+    public static synchronized void put(final Problem problem, final Serializable structure) {
+        Objects.requireNonNull(problem);
+        Objects.requireNonNull(structure);
+        PreprocessingCache.CACHE.computeIfAbsent(problem, p -> new HashMap<>()).put(structure.getClass(), structure);
+    }
+
+    /**
+     * Removes all the structures precomputed for a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public static synchronized void remove(final Problem problem) {
+        PreprocessingCache.CACHE.remove(problem);
+    }
+
+    /**
+     * Removes all the structures of the cache.
+     */
+    public static synchronized void clear() {
+        PreprocessingCache.CACHE.clear();
+    }
+
+    /**
+     * Splits the range <code>[0, size[</code> in contiguous chunks and processes the chunks in parallel. The function
+     * is called with the bounds, inclusive and exclusive, of each chunk. The chunks are processed sequentially when the
+     * range is too small to be split.
+     *
+     * @param size the size of the range.
+     * @param task the function used to process a chunk.
+     */
+    static void forEachChunk(final int size, final BiConsumer<Integer, Integer> task) {
+        final int nbChunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4,
+            size / PreprocessingCache.MIN_CHUNK_SIZE));
+        if (nbChunks == 1) {
+            task.accept(0, size);
+        } else {
+            IntStream.range(0, nbChunks).parallel().forEach(i -> task.accept(
+                (int) ((long) size * i / nbChunks), (int) ((long) size * (i + 1) / nbChunks)));
+        }
+    }
+}
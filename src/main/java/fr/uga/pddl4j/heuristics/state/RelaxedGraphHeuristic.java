@@ -21,14 +21,10 @@ package fr.uga.pddl4j.heuristics.state;
 
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
-import fr.uga.pddl4j.problem.operator.Action;
 import fr.uga.pddl4j.problem.operator.Condition;
-import fr.uga.pddl4j.problem.operator.ConditionalEffect;
-import fr.uga.pddl4j.problem.operator.Effect;
 import fr.uga.pddl4j.util.BitVector;
 
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * This abstract class implements the basic methods used by all heuristics based on the computation
@@ -43,15 +39,10 @@ import java.util.List;
  */
 public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic implements PlanningGraphHeuristic {
 
-    /**
-     * The array of unconditional operators of the problem.
-     */
-    private int[][] unconditionalOperators;
-
     /**
      * The array used to store for each operator its number of preconditions.
      */
-    private int[] precondCardinality;
+    private final int[] precondCardinality;
 
     /**
      * The array used to store the first level of apparition of an operator.
@@ -79,44 +70,163 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
     private int[] nPropLevel;
 
     /**
-     * The array used to store the preconditions' edges for each operator.
+     * The array used to store the preconditions' edges for each proposition.
      */
-    private Condition[] precondEdges;
+    private final Condition[] precondEdges;
 
     /**
-     * The array used to store the effects' edges for each operator.
+     * The array used to store the effects' edges for each proposition.
      */
-    private Condition[] effectsEdges;
+    private final Condition[] effectsEdges;
 
     /**
-     * The array used to store the preconditions of the operators.
+     * The counter used to count the number of goal propositions reached.
      */
-    private Condition[] preconditions;
+    private int goalCounter;
 
     /**
-     * The array used to store the effects of the operators.
+     * The number of goal propositions to reach.
      */
-    private Effect[] effects;
+    private int goalCardinality;
 
     /**
-     * The array used to store the unconditional effect of the operators.
+     * The level of the graph.
      */
-    private Effect[] unconditionalEffects;
+    private int level;
 
     /**
-     * The counter used to count the number of goal propositions reached.
+     * The positive preconditions of the unconditional operators used to expand several graphs at
+     * once.
      */
-    private int goalCounter;
+    private final int[][] positivePreconditions;
 
     /**
-     * The number of goal propositions to reach.
+     * The negative preconditions of the unconditional operators used to expand several graphs at
+     * once.
      */
-    private int goalCardinality;
+    private final int[][] negativePreconditions;
 
     /**
-     * The level of the graph.
+     * The positive effects of the unconditional operators used to expand several graphs at once.
      */
-    private int level;
+    private final int[][] positiveEffects;
+
+    /**
+     * The negative effects of the unconditional operators used to expand several graphs at once.
+     */
+    private final int[][] negativeEffects;
+
+    /**
+     * The words of the positive propositions: the bit i of the word of a proposition is set if the
+     * proposition is reached in the i-th graph.
+     */
+    private long[] positiveWords;
+
+    /**
+     * The words of the negative propositions: the bit i of the word of a proposition is set if the
+     * proposition is reached in the i-th graph.
+     */
+    private long[] negativeWords;
+
+    /**
+     * The words of the positive propositions at the next level.
+     */
+    private long[] nextPositiveWords;
+
+    /**
+     * The words of the negative propositions at the next level.
+     */
+    private long[] nextNegativeWords;
+
+    /**
+     * The positive propositions of the current level of the graph.
+     */
+    private int[] pFrontier;
+
+    /**
+     * The negative propositions of the current level of the graph.
+     */
+    private int[] nFrontier;
+
+    /**
+     * The positive propositions of the next level of the graph.
+     */
+    private int[] pNextFrontier;
+
+    /**
+     * The negative propositions of the next level of the graph.
+     */
+    private int[] nNextFrontier;
+
+    /**
+     * The operators appearing at the current level of the graph.
+     */
+    private final int[] newOperators;
+
+    /**
+     * The number of positive propositions appearing at each level of the graph.
+     */
+    private final int[] pLevelSize;
+
+    /**
+     * The number of negative propositions appearing at each level of the graph.
+     */
+    private final int[] nLevelSize;
+
+    /**
+     * The index of the first positive goal of each level in the stack of positive goals.
+     */
+    private final int[] pLevelStart;
+
+    /**
+     * The index of the first negative goal of each level in the stack of negative goals.
+     */
+    private final int[] nLevelStart;
+
+    /**
+     * The index of the top of the stack of positive goals of each level.
+     */
+    private final int[] pLevelTop;
+
+    /**
+     * The index of the top of the stack of negative goals of each level.
+     */
+    private final int[] nLevelTop;
+
+    /**
+     * The stacks of positive goals of the levels of the graph used to extract the relaxed plan.
+     */
+    private final int[] pGoals;
+
+    /**
+     * The stacks of negative goals of the levels of the graph used to extract the relaxed plan.
+     */
+    private final int[] nGoals;
+
+    /**
+     * The marks of the positive propositions that are goals of the current extraction.
+     */
+    private final int[] pGoalMarks;
+
+    /**
+     * The marks of the negative propositions that are goals of the current extraction.
+     */
+    private final int[] nGoalMarks;
+
+    /**
+     * The marks of the positive propositions already pushed during the current extraction.
+     */
+    private final int[] pStackMarks;
+
+    /**
+     * The marks of the negative propositions already pushed during the current extraction.
+     */
+    private final int[] nStackMarks;
+
+    /**
+     * The epoch of the current extraction: a proposition is marked if its mark is equal to the epoch.
+     */
+    private int epoch;
 
     /**
      * Creates a new RelaxedGraphHeuristic heuristic.
@@ -125,16 +235,12 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
      */
     protected RelaxedGraphHeuristic(final Problem problem) {
         super(problem);
+        // Get the static structures of the relaxed planning graphs shared by all the heuristics of the problem
+        final RelaxedGraphStructure structure = RelaxedGraphStructure.getInstance(problem);
         // Get the number of relevant facts of the problem
-        final int nbRelevantFacts = super.getRevelantFacts().size();
-        // Get the number of operators of the problem
-        final int nbOperators = super.getActions().size();
-        // Compute the number of unconditional operators
-        int nbUncondOperators = 0;
-        final List<Action> operators = problem.getActions();
-        for (Action op : operators) {
-            nbUncondOperators += op.getConditionalEffects().size();
-        }
+        final int nbRelevantFacts = structure.getNumberOfPropositions();
+        // Get the number of unconditional operators
+        final int nbUncondOperators = structure.getNumberOfOperators();
         // Initialize the array that must contain the level of the positive propositions
         this.pPropLevel = new int[nbRelevantFacts];
         // Initialize the array that must contain the level of the negative propositions
@@ -146,102 +252,38 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         // Initialize the array that must contain for each operator the number of its precondition
         // reached
         this.precondCounters = new int[nbUncondOperators];
-        // Initialize the array that must contain for each operator its preconditions
-        this.preconditions = new Condition[nbUncondOperators];
-        // Initialize the array that must contain for each operator its effects
-        this.effects = new Effect[nbUncondOperators];
-        // Initialize the array that must contain for each operator its unconditional effects
-        this.unconditionalEffects = new Effect[nbOperators];
-        for (int i = 0; i < this.unconditionalEffects.length; i++) {
-            this.unconditionalEffects[i] = new Effect();
-        }
-        // The array that contains for each proposition the list of its unconditional operators
-        this.unconditionalOperators = new int[nbUncondOperators][];
-        // Initialize the array that must contain for each operator its preconditions' edges
-        this.precondEdges = new Condition[nbRelevantFacts];
-        for (int i = 0; i < this.precondEdges.length; i++) {
-            this.precondEdges[i] = new Condition();
-        }
-        // Initialize the array that must contain for each operator its effects' edges
-        this.effectsEdges = new Condition[nbRelevantFacts];
-        for (int i = 0; i < this.effectsEdges.length; i++) {
-            this.effectsEdges[i] = new Condition();
-        }
         // Initialize the number of proposition of the goal
         this.goalCardinality = super.getGoal().cardinality();
-        // The array that contains for each operator the number of propositions of its preconditions
-        this.precondCardinality = new int[nbUncondOperators];
-
-        // The index of the unconditional operators
-        int uncondOpIndex = 0;
-
-        // Start enumerating the unconditional operators
-        for (int opIndex = 0; opIndex < operators.size(); opIndex++) {
-            final Action op = operators.get(opIndex);
-            final List<ConditionalEffect> condEffects = op.getConditionalEffects();
-
-            // For each conditional effect we create a new operator
-            for (int ceIndex = 0; ceIndex < condEffects.size(); ceIndex++) {
-                final ConditionalEffect cEffect = condEffects.get(ceIndex);
-                final int[] eff = {opIndex, ceIndex};
-                this.unconditionalOperators[uncondOpIndex] = eff;
-
-                // We pre-compute the preconditions' edges
-                final Condition pre = new Condition(op.getPrecondition());
-                final BitVector pPre = pre.getPositiveFluents();
-                final BitVector nPre = pre.getNegativeFluents();
-                pPre.or(cEffect.getCondition().getPositiveFluents());
-                nPre.or(cEffect.getCondition().getNegativeFluents());
-                for (int p = pPre.nextSetBit(0); p >= 0; p = pPre.nextSetBit(p + 1)) {
-                    this.precondEdges[p].getPositiveFluents().set(uncondOpIndex);
-                }
-                for (int p = nPre.nextSetBit(0); p >= 0; p = nPre.nextSetBit(p + 1)) {
-                    this.precondEdges[p].getNegativeFluents().set(uncondOpIndex);
-                }
-
-                // We set the preconditions of the unconditional operator
-                this.preconditions[uncondOpIndex] = pre;
-
-                // We pre-compute the effects' edges
-                final Effect effect = cEffect.getEffect();
-                final BitVector pEff = effect.getPositiveFluents();
-                final BitVector nEff = effect.getNegativeFluents();
-                for (int p = pEff.nextSetBit(0); p >= 0; p = pEff.nextSetBit(p + 1)) {
-                    this.effectsEdges[p].getPositiveFluents().set(uncondOpIndex);
-                }
-                for (int p = nEff.nextSetBit(0); p >= 0; p = nEff.nextSetBit(p + 1)) {
-                    this.effectsEdges[p].getNegativeFluents().set(uncondOpIndex);
-                }
-
-                // We set the effects of the unconditional operator
-                this.effects[uncondOpIndex] = effect;
-
-                // We initialize the number of precondition of the unconditional operator
-                this.precondCardinality[uncondOpIndex] = pre.cardinality();
-
-                // We initialize the unconditional effects of the operator
-                if (cEffect.getCondition().isEmpty()) {
-                    final Effect uncondEff = this.unconditionalEffects[opIndex];
-                    final Effect condEff = cEffect.getEffect();
-                    uncondEff.getPositiveFluents().or(condEff.getPositiveFluents());
-                    uncondEff.getNegativeFluents().or(condEff.getNegativeFluents());
-                }
-
-                // We increment the counter of unconditional operator
-                uncondOpIndex++;
-            }
-        }
-
-        // A hack for the operator without precondition
-        for (int i = 0; i < nbUncondOperators; i++) {
-            if (this.preconditions[i].isEmpty()) {
-                for (Condition pEdge : precondEdges) {
-                    pEdge.getPositiveFluents().set(i);
-                    pEdge.getNegativeFluents().set(i);
-                }
-            }
-        }
-
+        // The static structures are shared and must not be modified
+        this.precondCardinality = structure.getPrecondCardinality();
+        this.precondEdges = structure.getPrecondEdges();
+        this.effectsEdges = structure.getEffectsEdges();
+        this.positivePreconditions = structure.getPositivePreconditions();
+        this.negativePreconditions = structure.getNegativePreconditions();
+        this.positiveEffects = structure.getPositiveEffects();
+        this.negativeEffects = structure.getNegativeEffects();
+        // Initialize the preallocated structures used to expand the graph and extract the relaxed plan. A
+        // proposition appears at most once at each level and at least one proposition appears at each
+        // level except the last one
+        this.pFrontier = new int[nbRelevantFacts];
+        this.nFrontier = new int[nbRelevantFacts];
+        this.pNextFrontier = new int[nbRelevantFacts];
+        this.nNextFrontier = new int[nbRelevantFacts];
+        this.newOperators = new int[nbUncondOperators];
+        final int nbLevels = 2 * nbRelevantFacts + 2;
+        this.pLevelSize = new int[nbLevels];
+        this.nLevelSize = new int[nbLevels];
+        this.pLevelStart = new int[nbLevels];
+        this.nLevelStart = new int[nbLevels];
+        this.pLevelTop = new int[nbLevels];
+        this.nLevelTop = new int[nbLevels];
+        this.pGoals = new int[nbRelevantFacts];
+        this.nGoals = new int[nbRelevantFacts];
+        this.pGoalMarks = new int[nbRelevantFacts];
+        this.nGoalMarks = new int[nbRelevantFacts];
+        this.pStackMarks = new int[nbRelevantFacts];
+        this.nStackMarks = new int[nbRelevantFacts];
+        this.epoch = 0;
     }
 
     /**
@@ -283,129 +325,241 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
 
         // The current level of the connectivity graph (the first level is 0)
         this.level = 0;
-        // The bit vector used to store the positive propositions of the graph
-        BitVector ppk = new BitVector(state);
-        // The bit vector used to store the negative propositions of the graph
-        BitVector npk = new BitVector();
-        npk.flip(0, super.getRevelantFacts().size());
-        npk.andNot(state);
-        // All positive goal of the initial state are set to appear at level 0
-        for (int p = ppk.nextSetBit(0); p >= 0; p = ppk.nextSetBit(p + 1)) {
-            this.pPropLevel[p] = 0;
-            if (pGoal.get(p)) {
-                this.goalCounter++;
-            }
-        }
-        // All negative goal of the initial state are set to appear at level 0
-        for (int p = npk.nextSetBit(0); p >= 0; p = npk.nextSetBit(p + 1)) {
-            this.nPropLevel[p] = 0;
-            if (nGoal.get(p)) {
-                this.goalCounter++;
+        // All the propositions of the initial state are set to appear at level 0 and the others are negative
+        // propositions that appear at level 0
+        int pSize = 0;
+        int nSize = 0;
+        for (int p = 0; p < this.pPropLevel.length; p++) {
+            if (state.get(p)) {
+                this.pPropLevel[p] = 0;
+                this.pFrontier[pSize++] = p;
+                if (pGoal.get(p)) {
+                    this.goalCounter++;
+                }
+            } else {
+                this.nPropLevel[p] = 0;
+                this.nFrontier[nSize++] = p;
+                if (nGoal.get(p)) {
+                    this.goalCounter++;
+                }
             }
         }
+        this.pLevelSize[0] = pSize;
+        this.nLevelSize[0] = nSize;
 
-        // The positive accumulator used to store the set of positive proposition already reached
-        final BitVector pAcc = new BitVector();
-        // The negative accumulator used to store the set of negative proposition already reached
-        final BitVector nAcc = new BitVector();
-
-        // We start building_the_library.rst the relaxed planning graph
+        // We start building the relaxed planning graph
         // The graph is expanded until the goal and the fixed point of the graph is not reached
-        while (this.goalCounter != this.goalCardinality && (!ppk.isEmpty() || !npk.isEmpty())) {
-            // A bit vector used to store the new operator to add
-            final BitVector newOps = new BitVector();
+        while (this.goalCounter != this.goalCardinality && (pSize != 0 || nSize != 0)) {
+            // The number of new operators of the level
+            int opSize = 0;
             // For each positive proposition of the proposition layer
-            for (int p = ppk.nextSetBit(0); p >= 0; p = ppk.nextSetBit(p + 1)) {
-                // We getActionSet the operator that have this positive proposition as precondition
-                final BitVector pEdges = this.precondEdges[p].getPositiveFluents();
-                // We mark the positive proposition p has explored
-                pAcc.set(p);
-                // We update the counter associated to the operator precondition
+            for (int i = 0; i < pSize; i++) {
+                // We get the operators that have this positive proposition as precondition
+                final BitVector pEdges = this.precondEdges[this.pFrontier[i]].getPositiveFluents();
                 for (int pe = pEdges.nextSetBit(0); pe >= 0; pe = pEdges.nextSetBit(pe + 1)) {
-                    // If the operator has a no-empty set of preconditions we increment its counter
-                    if (this.precondCardinality[pe] != 0) {
-                        this.precondCounters[pe]++;
-                    }
-                    // Finally, if the all the preconditions of an operator hold we mark the
-                    // operator has new operator for the level
-                    if (this.precondCounters[pe] == this.precondCardinality[pe]) {
-                        newOps.set(pe);
-                    }
+                    opSize = this.reach(pe, opSize);
                 }
             }
             // For each negative proposition of the proposition layer
-            for (int p = npk.nextSetBit(0); p >= 0; p = npk.nextSetBit(p + 1)) {
-                // We getActionSet the operator that have this positive proposition as precondition
-                final BitVector nEdges = this.precondEdges[p].getNegativeFluents();
-                // We mark the negative proposition p has explored
-                nAcc.set(p);
-                // We update the counter associated to the operator precondition
+            for (int i = 0; i < nSize; i++) {
+                // We get the operators that have this negative proposition as precondition
+                final BitVector nEdges = this.precondEdges[this.nFrontier[i]].getNegativeFluents();
                 for (int pe = nEdges.nextSetBit(0); pe >= 0; pe = nEdges.nextSetBit(pe + 1)) {
-                    // If the operator has a no-empty set of preconditions we increment its counter
-                    if (this.precondCardinality[pe] != 0) {
-                        this.precondCounters[pe]++;
-                    }
-                    // Finally, if the all the preconditions of an operator hold we mark the
-                    // operator has new operator for the level
-                    if (this.precondCounters[pe] == this.precondCardinality[pe]) {
-                        newOps.set(pe);
-                    }
+                    opSize = this.reach(pe, opSize);
                 }
             }
-            // The bit vector used to the store the new positive proposition at the next level
-            final BitVector pNewProps = new BitVector();
-            // The bit vector used to the store the new negative proposition at the next level
-            final BitVector nNewProps = new BitVector();
-            // For each new operator at level k
-            for (int o = newOps.nextSetBit(0); o >= 0; o = newOps.nextSetBit(o + 1)) {
-                // We mark o as appearing at the level k
-                this.operatorsLevel[o] = this.level;
-                // We accumulate the positive effects of o for the next proposition level k
-                pNewProps.or(this.effects[o].getPositiveFluents());
-                // We accumulate the negative effects of o for the next proposition level k
-                nNewProps.or(this.effects[o].getNegativeFluents());
+
+            // Now, we compute the new proposition level just by adding positive and negative
+            // propositions that was not yet encounter in the planning graph
+            final int next = this.level + 1;
+            int pNextSize = 0;
+            int nNextSize = 0;
+            for (int i = 0; i < opSize; i++) {
+                final int o = this.newOperators[i];
                 // Then we compute the difficulty of operator as the sum of the level of their
                 // preconditions
-                this.operatorsDifficulty[o] = 0;
-                // First the sum of the positive preconditions
-                final BitVector pPre = this.preconditions[o].getPositiveFluents();
-                for (int p = pPre.nextSetBit(0); p >= 0; p = pPre.nextSetBit(p + 1)) {
-                    this.operatorsDifficulty[o] += this.pPropLevel[p];
+                int difficulty = 0;
+                for (int p : this.positivePreconditions[o]) {
+                    difficulty += this.pPropLevel[p];
+                }
+                for (int p : this.negativePreconditions[o]) {
+                    difficulty += this.nPropLevel[p];
+                }
+                this.operatorsDifficulty[o] = difficulty;
+                // For each positive new proposition we set its level to k + 1
+                for (int p : this.positiveEffects[o]) {
+                    if (this.pPropLevel[p] == Integer.MAX_VALUE) {
+                        this.pPropLevel[p] = next;
+                        this.pNextFrontier[pNextSize++] = p;
+                        // Update the goal counter if a positive goal proposition is reached
+                        if (pGoal.get(p)) {
+                            this.goalCounter++;
+                        }
+                    }
                 }
-                // First the sum of the negative preconditions
-                final BitVector nPre = this.preconditions[o].getNegativeFluents();
-                for (int p = nPre.nextSetBit(0); p >= 0; p = nPre.nextSetBit(p + 1)) {
-                    this.operatorsDifficulty[o] += this.nPropLevel[p];
+                // For each negative new proposition we set its level to k + 1
+                for (int p : this.negativeEffects[o]) {
+                    if (this.nPropLevel[p] == Integer.MAX_VALUE) {
+                        this.nPropLevel[p] = next;
+                        this.nNextFrontier[nNextSize++] = p;
+                        // Update the goal counter if a negative goal proposition is reached
+                        if (nGoal.get(p)) {
+                            this.goalCounter++;
+                        }
+                    }
                 }
             }
 
-            // Now, we compute the new proposition level just by adding positive and negative
-            // propositions that was not yet encounter in the planning graph
-            ppk = pNewProps;
-            npk = nNewProps;
-            ppk.andNot(pAcc);
-            npk.andNot(nAcc);
+            // The new propositions become the proposition layer of the next level
+            int[] tmp = this.pFrontier;
+            this.pFrontier = this.pNextFrontier;
+            this.pNextFrontier = tmp;
+            tmp = this.nFrontier;
+            this.nFrontier = this.nNextFrontier;
+            this.nNextFrontier = tmp;
+            pSize = pNextSize;
+            nSize = nNextSize;
 
             // We increment the counter level
-            this.level++;
-            // For each positive new proposition we set its level to k + 1
-            for (int p = ppk.nextSetBit(0); p >= 0; p = ppk.nextSetBit(p + 1)) {
-                this.pPropLevel[p] = this.level;
-                // Update the goal counter if a positive goal proposition is reached
-                if (pGoal.get(p)) {
-                    this.goalCounter++;
+            this.level = next;
+            this.pLevelSize[next] = pSize;
+            this.nLevelSize[next] = nSize;
+        }
+        return this.level;
+    }
+
+    /**
+     * Increments the counter of preconditions of an operator having a precondition in the current
+     * proposition layer. The operator is pushed on the stack of the new operators of the level when all
+     * its preconditions hold. The operators without precondition are attached to every proposition and
+     * are pushed only once at the first level.
+     *
+     * @param op     the operator.
+     * @param opSize the number of new operators of the level.
+     * @return the number of new operators of the level after the update.
+     */
+    private int reach(final int op, final int opSize) {
+        // If the operator has a no-empty set of preconditions we increment its counter
+        if (this.precondCardinality[op] != 0) {
+            this.precondCounters[op]++;
+        }
+        // Finally, if the all the preconditions of an operator hold we mark the
+        // operator has new operator for the level
+        if (this.precondCounters[op] == this.precondCardinality[op]
+                && this.operatorsLevel[op] == Integer.MAX_VALUE) {
+            this.operatorsLevel[op] = this.level;
+            this.newOperators[opSize] = op;
+            return opSize + 1;
+        }
+        return opSize;
+    }
+
+    /**
+     * Expands at once the relaxed planning graphs of up to 64 states. The propositions of the
+     * graphs are stored as words: the bit i of the word of a proposition is set if the
+     * proposition is reached in the graph of the i-th state. An operator is thus applied to all
+     * the graphs by a few word operations. The value computed for each state is either the max or
+     * the sum of the levels of the goal propositions, or <code>Integer.MAX_VALUE</code> if the
+     * goal is unreachable from the state.
+     *
+     * @param states the states.
+     * @param offset the index of the first state to consider.
+     * @param out    the array where the value of the i-th state is stored at index i.
+     * @param sum    <code>true</code> to compute the sum of the levels of the goal propositions;
+     *               <code>false</code> to compute the max.
+     */
+    protected final void expandRelaxedPlanningGraphs(final State[] states, final int offset, final int[] out,
+                                                     final boolean sum) {
+        if (this.positiveWords == null) {
+            this.initWords();
+        }
+        final int nbFacts = this.pPropLevel.length;
+        final int nbStates = Math.min(Long.SIZE, states.length - offset);
+        final long all = nbStates == Long.SIZE ? -1L : (1L << nbStates) - 1;
+        Arrays.fill(this.positiveWords, 0L);
+        for (int i = 0; i < nbStates; i++) {
+            final State state = states[offset + i];
+            for (int p = state.nextSetBit(0); p >= 0 && p < nbFacts; p = state.nextSetBit(p + 1)) {
+                this.positiveWords[p] |= 1L << i;
+            }
+            out[offset + i] = 0;
+        }
+        for (int p = 0; p < nbFacts; p++) {
+            this.negativeWords[p] = all & ~this.positiveWords[p];
+        }
+        final int[] pGoal = UnconditionalOperators.toArray(super.getGoal().getPositiveFluents());
+        final int[] nGoal = UnconditionalOperators.toArray(super.getGoal().getNegativeFluents());
+        final long[] seen = new long[pGoal.length + nGoal.length];
+        long done = 0;
+        int lev = 0;
+        boolean changed = true;
+        while (true) {
+            // Update the values of the states whose goal propositions are reached at this level
+            long reached = all;
+            for (int g = 0; g < seen.length; g++) {
+                final long word = g < pGoal.length ? this.positiveWords[pGoal[g]]
+                    : this.negativeWords[nGoal[g - pGoal.length]];
+                if (sum) {
+                    for (long n = word & ~seen[g]; n != 0; n &= n - 1) {
+                        out[offset + Long.numberOfTrailingZeros(n)] += lev;
+                    }
+                    seen[g] = word;
                 }
+                reached &= word;
             }
-            // For each positive new proposition we set its level to k + 1
-            for (int p = npk.nextSetBit(0); p >= 0; p = npk.nextSetBit(p + 1)) {
-                this.nPropLevel[p] = this.level;
-                // Update the goal counter if a negative goal proposition is reached
-                if (nGoal.get(p)) {
-                    this.goalCounter++;
+            if (!sum) {
+                for (long n = reached & ~done; n != 0; n &= n - 1) {
+                    out[offset + Long.numberOfTrailingZeros(n)] = lev;
                 }
             }
+            done |= reached;
+            if (done == all || !changed) {
+                break;
+            }
+            // Apply the operators to the graphs whose goal is not yet reached
+            System.arraycopy(this.positiveWords, 0, this.nextPositiveWords, 0, nbFacts);
+            System.arraycopy(this.negativeWords, 0, this.nextNegativeWords, 0, nbFacts);
+            for (int o = 0; o < this.positivePreconditions.length; o++) {
+                long app = all & ~done;
+                for (int p : this.positivePreconditions[o]) {
+                    app &= this.positiveWords[p];
+                }
+                for (int p : this.negativePreconditions[o]) {
+                    app &= this.negativeWords[p];
+                }
+                if (app != 0) {
+                    for (int p : this.positiveEffects[o]) {
+                        this.nextPositiveWords[p] |= app;
+                    }
+                    for (int p : this.negativeEffects[o]) {
+                        this.nextNegativeWords[p] |= app;
+                    }
+                }
+            }
+            changed = !Arrays.equals(this.positiveWords, this.nextPositiveWords)
+                || !Arrays.equals(this.negativeWords, this.nextNegativeWords);
+            long[] tmp = this.positiveWords;
+            this.positiveWords = this.nextPositiveWords;
+            this.nextPositiveWords = tmp;
+            tmp = this.negativeWords;
+            this.negativeWords = this.nextNegativeWords;
+            this.nextNegativeWords = tmp;
+            lev++;
+        }
+        for (long n = all & ~done; n != 0; n &= n - 1) {
+            out[offset + Long.numberOfTrailingZeros(n)] = Integer.MAX_VALUE;
         }
-        return this.level;
+    }
+
+    /**
+     * Initializes the words used to expand several relaxed planning graphs at once.
+     */
+    private void initWords() {
+        final int nbFacts = this.pPropLevel.length;
+        this.positiveWords = new long[nbFacts];
+        this.negativeWords = new long[nbFacts];
+        this.nextPositiveWords = new long[nbFacts];
+        this.nextNegativeWords = new long[nbFacts];
     }
 
     /**
@@ -463,7 +617,10 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
     }
 
     /**
-     * Compute the relaxed plan heuristic value.
+     * Compute the relaxed plan heuristic value. The goals of each level are stored on a stack of
+     * propositions preallocated from the number of propositions appearing at this level. A proposition
+     * is a goal of the current extraction if its mark is equal to the current epoch, so that no goal
+     * set has to be allocated or cleared between two calls.
      *
      * @return the relaxed plan heuristic value.
      * @see FastForward
@@ -472,104 +629,135 @@ public abstract class RelaxedGraphHeuristic extends AbstractStateHeuristic imple
         // The integer used to counter the number of actions of the relaxed plan
         int value = 0;
 
-        // We initialize the for each level of the graph the goal to reach
-        final Condition[] goals = new Condition[this.level + 1];
+        // A new epoch unmarks all the propositions at once
+        this.epoch++;
+        if (this.epoch == Integer.MAX_VALUE) {
+            Arrays.fill(this.pGoalMarks, 0);
+            Arrays.fill(this.nGoalMarks, 0);
+            Arrays.fill(this.pStackMarks, 0);
+            Arrays.fill(this.nStackMarks, 0);
+            this.epoch = 1;
+        }
+        // We initialize the stack of goals of each level of the graph
+        int pOffset = 0;
+        int nOffset = 0;
         for (int k = 0; k <= this.level; k++) {
-            goals[k] = new Condition();
+            this.pLevelStart[k] = pOffset;
+            this.pLevelTop[k] = pOffset;
+            pOffset += this.pLevelSize[k];
+            this.nLevelStart[k] = nOffset;
+            this.nLevelTop[k] = nOffset;
+            nOffset += this.nLevelSize[k];
         }
         final BitVector pGoal = super.getGoal().getPositiveFluents();
         final BitVector nGoal = super.getGoal().getNegativeFluents();
         for (int g = pGoal.nextSetBit(0); g >= 0; g = pGoal.nextSetBit(g + 1)) {
-            goals[this.pPropLevel[g]].getPositiveFluents().set(g);
+            this.pushPositiveGoal(g);
         }
         for (int g = nGoal.nextSetBit(0); g >= 0; g = nGoal.nextSetBit(g + 1)) {
-            goals[this.nPropLevel[g]].getNegativeFluents().set(g);
+            this.pushNegativeGoal(g);
         }
 
         // We start the extraction of the relaxed plan
         for (int k = level; k > 0; k--) {
-            // goals at level k
-            final Condition gk = goals[k];
-            final BitVector pGk = gk.getPositiveFluents();
-            final BitVector nGk = gk.getNegativeFluents();
-            // goals at level k - 1
-            final Condition gk1 = goals[k - 1];
-            final BitVector pGk1 = gk1.getPositiveFluents();
-            final BitVector nGk1 = gk1.getNegativeFluents();
-            // Each positive goal at level k we need to find a resolver to support it
-            for (int pg = pGk.nextSetBit(0); pg >= 0; pg = pGk.nextSetBit(pg + 1)) {
-                // Select the best resolver according to the difficulty heuristic
-                final int resolverIndex = this.select(this.effectsEdges[pg].getPositiveFluents(), k);
-                if (resolverIndex != -1) {
-                    final Condition pre = this.preconditions[resolverIndex];
-                    final BitVector pPre = pre.getPositiveFluents();
-                    for (int p = pPre.nextSetBit(0); p >= 0; p = pPre.nextSetBit(p + 1)) {
-                        final int pLevel = this.pPropLevel[p];
-                        if (pLevel != 0 && !pGk1.get(p)) {
-                            goals[pLevel].getPositiveFluents().set(p);
-                        }
+            // The goals of level k are all pushed: they are sorted to be supported by increasing index
+            Arrays.sort(this.pGoals, this.pLevelStart[k], this.pLevelTop[k]);
+            Arrays.sort(this.nGoals, this.nLevelStart[k], this.nLevelTop[k]);
+            // Each positive goal at level k we need to find a resolver to support it. The goals
+            // pushed while the level is processed belong to lower levels.
+            for (int i = this.pLevelStart[k]; i < this.pLevelTop[k]; i++) {
+                final int pg = this.pGoals[i];
+                if (this.pGoalMarks[pg] == this.epoch) {
+                    // Select the best resolver according to the difficulty heuristic
+                    final int resolverIndex = this.select(this.effectsEdges[pg].getPositiveFluents(), k);
+                    if (resolverIndex != -1) {
+                        this.apply(resolverIndex, k);
+                        // We increment the number of action of the relaxed plan
+                        value++;
+                    } else { // NOOP case
+                        this.pGoalMarks[pg] = 0;
                     }
-                    final BitVector nPre = pre.getNegativeFluents();
-                    for (int p = nPre.nextSetBit(0); p >= 0; p = nPre.nextSetBit(p + 1)) {
-                        final int pLevel = this.nPropLevel[p];
-                        if (pLevel != 0 && !nGk1.get(p)) {
-                            goals[pLevel].getNegativeFluents().set(p);
-                        }
-                    }
-                    // Get the effects of the operator marked them as true
-                    final Effect effect = this.effects[resolverIndex];
-                    final BitVector pEffect = effect.getPositiveFluents();
-                    final BitVector nEffect = effect.getNegativeFluents();
-                    pGk1.andNot(pEffect);
-                    nGk1.andNot(nEffect);
-                    pGk.andNot(pEffect);
-                    nGk.andNot(nEffect);
-                    // We increment the number of action of the relaxed plan
-                    //System.out.println(resolverIndex +  " " + this.getActions().size());
-                    value++;//= this.getActions().get(resolverIndex).getCost().getValue();
-                } else { // NOOP case
-                    pGk1.clear(pg);
-                    pGk.clear(pg);
                 }
             }
             // Each negative goal at level k we need to find a resolver to support it
-            for (int ng = nGk.nextSetBit(0); ng >= 0; ng = nGk.nextSetBit(ng + 1)) {
-                final int resolverIndex = this.select(this.effectsEdges[ng].getNegativeFluents(), k);
-                if (resolverIndex != -1) {
-                    final Condition pre = this.preconditions[resolverIndex];
-                    final BitVector pPre = pre.getPositiveFluents();
-                    for (int p = pPre.nextSetBit(0); p >= 0; p = pPre.nextSetBit(p + 1)) {
-                        final int pLevel = this.pPropLevel[p];
-                        if (pLevel != 0 && !pGk1.get(p)) {
-                            goals[pLevel].getPositiveFluents().set(p);
-                        }
+            for (int i = this.nLevelStart[k]; i < this.nLevelTop[k]; i++) {
+                final int ng = this.nGoals[i];
+                if (this.nGoalMarks[ng] == this.epoch) {
+                    final int resolverIndex = this.select(this.effectsEdges[ng].getNegativeFluents(), k);
+                    if (resolverIndex != -1) {
+                        this.apply(resolverIndex, k);
+                        // We increment the number of action of the relaxed plan
+                        value++;
+                    } else { // NOOP case
+                        this.nGoalMarks[ng] = 0;
                     }
-                    final BitVector nPre = pre.getNegativeFluents();
-                    for (int p = nPre.nextSetBit(0); p >= 0; p = nPre.nextSetBit(p + 1)) {
-                        final int pLevel = this.nPropLevel[p];
-                        if (pLevel != 0 && !nGk1.get(p)) {
-                            goals[pLevel].getNegativeFluents().set(p);
-                        }
-                    }
-                    // Get the effects of the operator marked them as true
-                    final Effect effect = this.effects[resolverIndex];
-                    final BitVector pEffect = effect.getPositiveFluents();
-                    final BitVector nEffect = effect.getNegativeFluents();
-                    pGk1.andNot(pEffect);
-                    nGk1.andNot(nEffect);
-                    pGk.andNot(pEffect);
-                    nGk.andNot(nEffect);
-                    // We increment the number of action of the relaxed plan
-                    value++;//= this.getActions().get(resolverIndex).getCost().getValue();
-                } else { // NOOP case
-                    nGk1.set(ng);
-                    nGk.clear(ng);
                 }
             }
         }
         return value;
     }
 
+    /**
+     * Adds the preconditions of a resolver selected at a specified level to the goals of their level
+     * and marks its effects as achieved at this level and at the previous one.
+     *
+     * @param resolver the resolver.
+     * @param k        the level of the goal supported by the resolver.
+     */
+    private void apply(final int resolver, final int k) {
+        for (int p : this.positivePreconditions[resolver]) {
+            if (this.pPropLevel[p] != 0) {
+                this.pushPositiveGoal(p);
+            }
+        }
+        for (int p : this.negativePreconditions[resolver]) {
+            if (this.nPropLevel[p] != 0) {
+                this.pushNegativeGoal(p);
+            }
+        }
+        // Get the effects of the operator marked them as true
+        for (int p : this.positiveEffects[resolver]) {
+            final int pLevel = this.pPropLevel[p];
+            if (pLevel == k || pLevel == k - 1) {
+                this.pGoalMarks[p] = 0;
+            }
+        }
+        for (int p : this.negativeEffects[resolver]) {
+            final int nLevel = this.nPropLevel[p];
+            if (nLevel == k || nLevel == k - 1) {
+                this.nGoalMarks[p] = 0;
+            }
+        }
+    }
+
+    /**
+     * Marks a positive proposition as goal and pushes it on the stack of goals of its level if it was
+     * not pushed yet during the current extraction.
+     *
+     * @param p the positive proposition.
+     */
+    private void pushPositiveGoal(final int p) {
+        this.pGoalMarks[p] = this.epoch;
+        if (this.pStackMarks[p] != this.epoch) {
+            this.pStackMarks[p] = this.epoch;
+            this.pGoals[this.pLevelTop[this.pPropLevel[p]]++] = p;
+        }
+    }
+
+    /**
+     * Marks a negative proposition as goal and pushes it on the stack of goals of its level if it was
+     * not pushed yet during the current extraction.
+     *
+     * @param p the negative proposition.
+     */
+    private void pushNegativeGoal(final int p) {
+        this.nGoalMarks[p] = this.epoch;
+        if (this.nStackMarks[p] != this.epoch) {
+            this.nStackMarks[p] = this.epoch;
+            this.nGoals[this.nLevelTop[this.nPropLevel[p]]++] = p;
+        }
+    }
+
     /**
      * Select an effect according to the unconditional operators difficulty heuristic. The question
      * is, which achiever should be choose when no NOOP is available ? It is certainly a good idea
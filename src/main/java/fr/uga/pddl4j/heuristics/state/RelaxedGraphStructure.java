@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.problem.operator.Effect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * This class implements the static structures of the relaxed planning graphs of a problem used by the
+ * {@link RelaxedGraphHeuristic}: the preconditions and the effects of the unconditional operators and, for each
+ * proposition, the operators having the proposition as precondition or effect. The operators are computed in parallel
+ * over chunks of actions and the edges in parallel over chunks of propositions.
+ * <p>
+ * The structure is immutable and is computed once per problem: use {@link #getInstance(Problem)} to get the structure
+ * of a problem from the {@link PreprocessingCache}.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 27.02.2021
+ */
+public final class RelaxedGraphStructure implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of propositions of the problem.
+     */
+    private final int nbPropositions;
+
+    /**
+     * The array used to store for each operator its number of preconditions.
+     */
+    private final int[] precondCardinality;
+
+    /**
+     * The array used to store the preconditions of the operators.
+     */
+    private final Condition[] preconditions;
+
+    /**
+     * The array used to store the effects of the operators.
+     */
+    private final Effect[] effects;
+
+    /**
+     * The array used to store the preconditions' edges for each proposition.
+     */
+    private final Condition[] precondEdges;
+
+    /**
+     * The array used to store the effects' edges for each proposition.
+     */
+    private final Condition[] effectsEdges;
+
+    /**
+     * The positive preconditions of the operators.
+     */
+    private final int[][] positivePreconditions;
+
+    /**
+     * The negative preconditions of the operators.
+     */
+    private final int[][] negativePreconditions;
+
+    /**
+     * The positive effects of the operators.
+     */
+    private final int[][] positiveEffects;
+
+    /**
+     * The negative effects of the operators.
+     */
+    private final int[][] negativeEffects;
+
+    /**
+     * Creates the structures of the relaxed planning graphs of a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public RelaxedGraphStructure(final Problem problem) {
+        this.nbPropositions = problem.getFluents().size();
+        final List<Action> actions = problem.getActions();
+        // Compute the index of the first unconditional operator of each action
+        final int[] offsets = new int[actions.size() + 1];
+        for (int a = 0; a < actions.size(); a++) {
+            offsets[a + 1] = offsets[a] + actions.get(a).getConditionalEffects().size();
+        }
+        final int nbOperators = offsets[actions.size()];
+        this.preconditions = new Condition[nbOperators];
+        this.effects = new Effect[nbOperators];
+        this.precondCardinality = new int[nbOperators];
+        this.positivePreconditions = new int[nbOperators][];
+        this.negativePreconditions = new int[nbOperators][];
+        this.positiveEffects = new int[nbOperators][];
+        this.negativeEffects = new int[nbOperators][];
+
+        // Create an unconditional operator for each conditional effect of the actions
+        PreprocessingCache.forEachChunk(actions.size(), (from, to) -> {
+            for (int a = from; a < to; a++) {
+                final Action action = actions.get(a);
+                final List<ConditionalEffect> condEffects = action.getConditionalEffects();
+                for (int ceIndex = 0; ceIndex < condEffects.size(); ceIndex++) {
+                    final int op = offsets[a] + ceIndex;
+                    final ConditionalEffect cEffect = condEffects.get(ceIndex);
+                    final Condition pre = new Condition(action.getPrecondition());
+                    pre.getPositiveFluents().or(cEffect.getCondition().getPositiveFluents());
+                    pre.getNegativeFluents().or(cEffect.getCondition().getNegativeFluents());
+                    final Effect effect = cEffect.getEffect();
+                    this.preconditions[op] = pre;
+                    this.effects[op] = effect;
+                    this.precondCardinality[op] = pre.cardinality();
+                    this.positivePreconditions[op] = UnconditionalOperators.toArray(pre.getPositiveFluents());
+                    this.negativePreconditions[op] = UnconditionalOperators.toArray(pre.getNegativeFluents());
+                    this.positiveEffects[op] = UnconditionalOperators.toArray(effect.getPositiveFluents());
+                    this.negativeEffects[op] = UnconditionalOperators.toArray(effect.getNegativeFluents());
+                }
+            }
+        });
+
+        // Compute the edges: each chunk of propositions is filled by a single task
+        this.precondEdges = new Condition[this.nbPropositions];
+        this.effectsEdges = new Condition[this.nbPropositions];
+        PreprocessingCache.forEachChunk(this.nbPropositions, (from, to) -> {
+            for (int p = from; p < to; p++) {
+                this.precondEdges[p] = new Condition();
+                this.effectsEdges[p] = new Condition();
+            }
+            for (int op = 0; op < nbOperators; op++) {
+                if (this.preconditions[op].isEmpty()) {
+                    // A hack for the operator without precondition
+                    for (int p = from; p < to; p++) {
+                        this.precondEdges[p].getPositiveFluents().set(op);
+                        this.precondEdges[p].getNegativeFluents().set(op);
+                    }
+                } else {
+                    RelaxedGraphStructure.setEdges(this.precondEdges, true, this.preconditions[op]
+                        .getPositiveFluents(), op, from, to);
+                    RelaxedGraphStructure.setEdges(this.precondEdges, false, this.preconditions[op]
+                        .getNegativeFluents(), op, from, to);
+                }
+                RelaxedGraphStructure.setEdges(this.effectsEdges, true, this.effects[op].getPositiveFluents(),
+                    op, from, to);
+                RelaxedGraphStructure.setEdges(this.effectsEdges, false, this.effects[op].getNegativeFluents(),
+                    op, from, to);
+            }
+        });
+    }
+
+    /**
+     * Returns the structures of the relaxed planning graphs of a specified problem. The structures are computed the
+     * first time and then retrieved from the {@link PreprocessingCache}.
+     *
+     * @param problem the problem.
+     * @return the structures of the relaxed planning graphs of the problem.
+     */
+    public static RelaxedGraphStructure getInstance(final Problem problem) {
+        return PreprocessingCache.get(problem, RelaxedGraphStructure.class, RelaxedGraphStructure::new);
+    }
+
+    /**
+     * Adds an operator to the edges of the propositions of a specified set in the range <code>[from, to[</code>.
+     *
+     * @param edges        the edges.
+     * @param positive     <code>true</code> to update the positive edges; <code>false</code> otherwise.
+     * @param propositions the set of propositions.
+     * @param op           the index of the operator.
+     * @param from         the first proposition of the range.
+     * @param to           the last proposition of the range, exclusive.
+     */
+    private static void setEdges(final Condition[] edges, final boolean positive, final BitVector propositions,
+                                 final int op, final int from, final int to) {
+        for (int p = propositions.nextSetBit(from); p >= 0 && p < to; p = propositions.nextSetBit(p + 1)) {
+            if (positive) {
+                edges[p].getPositiveFluents().set(op);
+            } else {
+                edges[p].getNegativeFluents().set(op);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of propositions of the problem.
+     *
+     * @return the number of propositions of the problem.
+     */
+    int getNumberOfPropositions() {
+        return this.nbPropositions;
+    }
+
+    /**
+     * Returns the number of unconditional operators of the problem.
+     *
+     * @return the number of unconditional operators of the problem.
+     */
+    int getNumberOfOperators() {
+        return this.preconditions.length;
+    }
+
+    /**
+     * Returns for each operator its number of preconditions.
+     *
+     * @return the number of preconditions of the operators.
+     */
+    int[] getPrecondCardinality() {
+        return this.precondCardinality;
+    }
+
+    /**
+     * Returns the preconditions of the operators.
+     *
+     * @return the preconditions of the operators.
+     */
+    Condition[] getPreconditions() {
+        return this.preconditions;
+    }
+
+    /**
+     * Returns the effects of the operators.
+     *
+     * @return the effects of the operators.
+     */
+    Effect[] getEffects() {
+        return this.effects;
+    }
+
+    /**
+     * Returns for each proposition the operators having the proposition as precondition.
+     *
+     * @return the preconditions' edges.
+     */
+    Condition[] getPrecondEdges() {
+        return this.precondEdges;
+    }
+
+    /**
+     * Returns for each proposition the operators having the proposition as effect.
+     *
+     * @return the effects' edges.
+     */
+    Condition[] getEffectsEdges() {
+        return this.effectsEdges;
+    }
+
+    /**
+     * Returns the positive preconditions of the operators.
+     *
+     * @return the positive preconditions of the operators.
+     */
+    int[][] getPositivePreconditions() {
+        return this.positivePreconditions;
+    }
+
+    /**
+     * Returns the negative preconditions of the operators.
+     *
+     * @return the negative preconditions of the operators.
+     */
+    int[][] getNegativePreconditions() {
+        return this.negativePreconditions;
+    }
+
+    /**
+     * Returns the positive effects of the operators.
+     *
+     * @return the positive effects of the operators.
+     */
+    int[][] getPositiveEffects() {
+        return this.positiveEffects;
+    }
+
+    /**
+     * Returns the negative effects of the operators.
+     *
+     * @return the negative effects of the operators.
+     */
+    int[][] getNegativeEffects() {
+        return this.negativeEffects;
+    }
+}
@@ -64,7 +64,8 @@ public final class SetLevel extends GraphHeuristic {
     @Override
     public int estimate(final State state, final Condition goal) {
         super.setGoal(goal);
-        return this.expandPlanningGraph(state);
+        final int level = super.expandPlanningGraph(state);
+        return super.isGoalReachable() ? level : Integer.MAX_VALUE;
     }
 
     /**
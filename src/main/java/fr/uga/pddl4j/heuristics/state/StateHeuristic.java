@@ -39,6 +39,10 @@ public interface StateHeuristic extends Heuristic {
      * The name of heuristics.
      */
     public enum Name {
+        /**
+         * The type for the <code>AdmissibleLandmarkCount</code> heuristic.
+         */
+        ADMISSIBLE_LANDMARK_COUNT,
         /**
          * The type for the <code>AdjustedSum</code> heuristic.
          */
@@ -51,10 +55,26 @@ public interface StateHeuristic extends Heuristic {
          * The type for the <code>AdjustedSum2M</code> heuristic.
          */
         AJUSTED_SUM2M,
+        /**
+         * The type for the <code>CausalGraph</code> heuristic.
+         */
+        CAUSAL_GRAPH,
         /**
          * The type for the <code>Combo</code> heuristic.
          */
         COMBO,
+        /**
+         * The type for the <code>ContextEnhancedAdditive</code> heuristic.
+         */
+        CONTEXT_ENHANCED_ADDITIVE,
+        /**
+         * The type for the <code>CostPartitioning</code> heuristic.
+         */
+        COST_PARTITIONING,
+        /**
+         * The type for the <code>CriticalPath</code> heuristic.
+         */
+        CRITICAL_PATH,
         /**
          * The type for the <code>Max</code> heuristic.
          */
@@ -63,6 +83,22 @@ public interface StateHeuristic extends Heuristic {
          * The type for the <code>FF</code> heuristic.
          */
         FAST_FORWARD,
+        /**
+         * The type for the <code>GoalCount</code> heuristic.
+         */
+        GOAL_COUNT,
+        /**
+         * The type for the <code>LandmarkCount</code> heuristic.
+         */
+        LANDMARK_COUNT,
+        /**
+         * The type for the <code>MergeAndShrink</code> heuristic.
+         */
+        MERGE_AND_SHRINK,
+        /**
+         * The type for the <code>PatternDatabaseHeuristic</code> heuristic.
+         */
+        PATTERN_DATABASE,
         /**
          * The type for the <code>SetLevel</code> heuristic.
          */
@@ -99,6 +135,23 @@ public interface StateHeuristic extends Heuristic {
      */
     double estimate(final Node node, final Condition goal);
 
+    /**
+     * Estimates the distance to the goal of several states at once. The estimation of the i-th state is stored at
+     * index i of the array <code>out</code>. The default implementation evaluates the states one by one. A heuristic
+     * can override this method to share the work done for the different states. Use
+     * {@link #getInstance(Name, Problem, int)} to evaluate the states in parallel.
+     *
+     * @param states the states from which the distance to the goal must be estimated.
+     * @param goal   the goal expression.
+     * @param out    the array where the estimated distances are stored.
+     * @throws IndexOutOfBoundsException if <code>out.length &#60; states.length</code>.
+     */
+    default void estimate(final State[] states, final Condition goal, final int[] out) {
+        for (int i = 0; i < states.length; i++) {
+            out[i] = this.estimate(states[i], goal);
+        }
+    }
+
     /**
      * Returns <code>true</code> if this heuristic is admissible.
      *
@@ -106,6 +159,37 @@ public interface StateHeuristic extends Heuristic {
      */
     boolean isAdmissible();
 
+    /**
+     * Returns <code>true</code> if the estimation of a node depends on the path leading to the node and not only on its
+     * state, e.g., for the landmark heuristics. The searches evaluate again the nodes of a path-dependent heuristic
+     * when they reach a state by a new path. The default implementation returns <code>false</code>.
+     *
+     * @return <code>true</code> if this heuristic is path-dependent; <code>false</code> otherwise.
+     */
+    default boolean isPathDependent() {
+        return false;
+    }
+
+    /**
+     * Returns the time spent to build the structures precomputed by this heuristic in milliseconds. The default
+     * implementation returns 0 for the heuristics without costly precomputation.
+     *
+     * @return the time spent to build the structures precomputed by this heuristic in milliseconds.
+     */
+    default long getPreprocessingTime() {
+        return 0;
+    }
+
+    /**
+     * Returns the memory used by the structures precomputed by this heuristic in bytes. The default implementation
+     * returns 0 for the heuristics without costly precomputation.
+     *
+     * @return the memory used by the structures precomputed by this heuristic in bytes.
+     */
+    default long getPreprocessingMemory() {
+        return 0;
+    }
+
     /**
      * Create an instance of a goal cost heuristic for a specified problem.
      *
@@ -133,9 +217,45 @@ public interface StateHeuristic extends Heuristic {
                 return new Max(problem);
             case SET_LEVEL:
                 return new SetLevel(problem);
+            case CRITICAL_PATH:
+                return new CriticalPath(problem);
+            case CAUSAL_GRAPH:
+                return new CausalGraph(problem);
+            case CONTEXT_ENHANCED_ADDITIVE:
+                return new ContextEnhancedAdditive(problem);
+            case LANDMARK_COUNT:
+                return new LandmarkCount(problem);
+            case ADMISSIBLE_LANDMARK_COUNT:
+                return new AdmissibleLandmarkCount(problem);
+            case PATTERN_DATABASE:
+                return new PatternDatabaseHeuristic(problem);
+            case MERGE_AND_SHRINK:
+                return new MergeAndShrink(problem);
+            case COST_PARTITIONING:
+                return new CostPartitioning(problem);
+            case GOAL_COUNT:
+                return new GoalCount(problem);
             default:
                 return null;
         }
     }
 
+    /**
+     * Create an instance of a goal cost heuristic for a specified problem that evaluates the batches of states in
+     * parallel with a specified number of threads.
+     *
+     * @param name      the name of the heuristic to create.
+     * @param problem   the problem for which the heuristic is created.
+     * @param nbThreads the number of threads used to evaluate the batches of states.
+     * @return the heuristic created.
+     * @see ParallelStateHeuristic
+     */
+    public static StateHeuristic getInstance(final StateHeuristic.Name name, final Problem problem,
+                                             final int nbThreads) {
+        if (nbThreads <= 1) {
+            return StateHeuristic.getInstance(name, problem);
+        }
+        return new ParallelStateHeuristic(name, problem, nbThreads);
+    }
+
 }
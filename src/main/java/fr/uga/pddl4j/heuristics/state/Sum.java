@@ -88,6 +88,22 @@ public final class Sum extends RelaxedGraphHeuristic {
         return super.isGoalReachable() ? super.getSumValue() : Integer.MAX_VALUE;
     }
 
+    /**
+     * Estimates the distance to the goal of several states at once. The relaxed planning graphs of
+     * the states are expanded 64 at a time.
+     *
+     * @param states the states from which the distance to the goal must be estimated.
+     * @param goal   the goal expression.
+     * @param out    the array where the estimated distances are stored.
+     */
+    @Override
+    public void estimate(final State[] states, final Condition goal, final int[] out) {
+        super.setGoal(goal);
+        for (int i = 0; i < states.length; i += Long.SIZE) {
+            super.expandRelaxedPlanningGraphs(states, i, out, true);
+        }
+    }
+
     /**
      * Return the estimated distance to the goal to reach the specified state. If the return value is
      * <code>DOUBLE.MAX_VALUE</code>, it means that the goal is unreachable from the specified
@@ -51,9 +51,9 @@ public final class SumMutex extends GraphHeuristic {
     /**
      * Return the distance to the goal state from the specified state. If the return value is
      * <code>Integer.MAX_VALUE</code>, it means that the goal is unreachable from the specified
-     * state. More precisely, this method returns the level of the planning graph where all the
-     * propositions of the goal are reached without any mutex or <code>Integer.MAX_VALUE</code>
-     * otherwise.
+     * state. More precisely, this method returns the sum of the levels where the propositions of
+     * the goal first appear in the planning graph if the graph reaches a level where all of them
+     * are reached without any mutex and <code>Integer.MAX_VALUE</code> otherwise.
      *
      * @param state the state from which the distance to the goal must be estimated.
      * @param goal  the goal expression.
@@ -0,0 +1,756 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements a labeled transition system used by the merge-and-shrink heuristic. The states of the system
+ * are the integers in [0, size[ and the labels are the unconditional operators of the problem. The transitions of a
+ * label are stored in a flat array of pairs (source, target) without duplicates. A label whose transitions
+ * are <code>null</code> is irrelevant to the system, i.e., it induces a self loop on every state; a label whose
+ * transitions are empty is never applicable.
+ * <p>
+ * Each system keeps its {@link Representation}, i.e., the function mapping the values of the finite-domain variables
+ * of a state of the problem to an abstract state of the system. The product of two systems and the abstraction of a
+ * system by a mapping of its states update the representation accordingly.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 08.03.2021
+ * @see MergeAndShrink
+ */
+public final class TransitionSystem implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The distance of a state from which no goal state is reachable.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The empty array of transitions of a label never applicable.
+     */
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The costs of the labels.
+     */
+    private final int[] costs;
+
+    /**
+     * The number of states of the system.
+     */
+    private int size;
+
+    /**
+     * The flags marking the goal states.
+     */
+    private boolean[] goals;
+
+    /**
+     * The initial state or -1 if the initial state was pruned.
+     */
+    private int init;
+
+    /**
+     * The transitions of each label.
+     */
+    private final int[][] transitions;
+
+    /**
+     * The representation of the system.
+     */
+    private final Representation representation;
+
+    /**
+     * The goal distances of the states or <code>null</code> if they are not yet computed.
+     */
+    private int[] distances;
+
+    /**
+     * Creates a new transition system.
+     *
+     * @param costs          the costs of the labels.
+     * @param size           the number of states.
+     * @param goals          the flags marking the goal states.
+     * @param init           the initial state.
+     * @param transitions    the transitions of each label.
+     * @param representation the representation of the system.
+     */
+    private TransitionSystem(final int[] costs, final int size, final boolean[] goals, final int init,
+                             final int[][] transitions, final Representation representation) {
+        this.costs = costs;
+        this.size = size;
+        this.goals = goals;
+        this.init = init;
+        this.transitions = transitions;
+        this.representation = representation;
+        this.distances = null;
+    }
+
+    /**
+     * Creates the atomic transition system of a finite-domain variable. The states of the system are the values of
+     * the variable.
+     *
+     * @param costs       the costs of the labels.
+     * @param variable    the variable.
+     * @param size        the size of the domain of the variable.
+     * @param goals       the flags marking the goal values of the variable.
+     * @param init        the value of the variable in the initial state.
+     * @param transitions the transitions of each label as pairs (source, target) in any order.
+     * @return the atomic transition system of the variable.
+     */
+    public static TransitionSystem atomic(final int[] costs, final int variable, final int size,
+                                          final boolean[] goals, final int init, final int[][] transitions) {
+        final int[][] normalized = new int[transitions.length][];
+        for (int l = 0; l < transitions.length; l++) {
+            if (transitions[l] != null) {
+                normalized[l] = TransitionSystem.normalize(transitions[l], transitions[l].length / 2, size);
+            }
+        }
+        final int[] table = new int[size];
+        for (int s = 0; s < size; s++) {
+            table[s] = s;
+        }
+        return new TransitionSystem(costs, size, goals, init, normalized,
+            new Representation(variable, null, null, 0, table));
+    }
+
+    /**
+     * Creates the atomic transition systems of the finite-domain variables. An operator induces in the system of a
+     * variable a transition from each value allowed by its precondition to the value set by its effects. The negative
+     * preconditions are ignored.
+     *
+     * @param operators the unconditional operators of the problem, i.e., the labels.
+     * @param variables the finite-domain variables of the problem.
+     * @param costs     the costs of the labels.
+     * @param goal      the goal of the problem.
+     * @param init      the initial state of the problem.
+     * @return the atomic transition systems indexed by variable.
+     */
+    public static List<TransitionSystem> createAtomicSystems(final UnconditionalOperators operators,
+                                                             final FiniteDomainVariables variables,
+                                                             final int[] costs, final Condition goal,
+                                                             final BitVector init) {
+        final int nbVariables = variables.size();
+        final int nbLabels = operators.size();
+        final int[][][] transitions = new int[nbVariables][nbLabels][];
+        final int[] pre = new int[nbVariables];
+        final int[] set = new int[nbVariables];
+        final boolean[][] deleted = new boolean[nbVariables][];
+        final boolean[] touched = new boolean[nbVariables];
+        final int[] touchedVariables = new int[nbVariables];
+        Arrays.fill(pre, -1);
+        Arrays.fill(set, -1);
+        for (int op = 0; op < nbLabels; op++) {
+            int nbTouched = 0;
+            boolean applicable = true;
+            for (int f : operators.getPreconditions(op)) {
+                final int v = variables.getVariable(f);
+                final int x = variables.getValue(f);
+                applicable &= pre[v] == -1 || pre[v] == x;
+                pre[v] = x;
+                if (!touched[v]) {
+                    touched[v] = true;
+                    touchedVariables[nbTouched++] = v;
+                }
+            }
+            for (int f : operators.getAddEffects(op)) {
+                final int v = variables.getVariable(f);
+                set[v] = variables.getValue(f);
+                if (!touched[v]) {
+                    touched[v] = true;
+                    touchedVariables[nbTouched++] = v;
+                }
+            }
+            for (int f : operators.getDeleteEffects(op)) {
+                final int v = variables.getVariable(f);
+                if (set[v] == -1) {
+                    if (deleted[v] == null) {
+                        deleted[v] = new boolean[variables.getDomainSize(v)];
+                    }
+                    deleted[v][variables.getValue(f)] = true;
+                    if (!touched[v]) {
+                        touched[v] = true;
+                        touchedVariables[nbTouched++] = v;
+                    }
+                }
+            }
+            for (int i = 0; i < nbTouched; i++) {
+                final int v = touchedVariables[i];
+                final int size = variables.getDomainSize(v);
+                final int none = variables.getNoneValue(v);
+                final int[] pairs = new int[applicable ? 2 * (pre[v] == -1 ? size : 1) : 0];
+                int k = 0;
+                for (int x = 0; x < size && applicable; x++) {
+                    if (pre[v] == -1 || pre[v] == x) {
+                        pairs[k++] = x;
+                        if (set[v] != -1) {
+                            pairs[k++] = set[v];
+                        } else {
+                            pairs[k++] = deleted[v] != null && deleted[v][x] ? none : x;
+                        }
+                    }
+                }
+                transitions[v][op] = pairs;
+                pre[v] = -1;
+                set[v] = -1;
+                deleted[v] = null;
+                touched[v] = false;
+            }
+        }
+        // Compute the goal values of each variable and the initial state
+        final boolean[][] goals = new boolean[nbVariables][];
+        for (int v = 0; v < nbVariables; v++) {
+            goals[v] = new boolean[variables.getDomainSize(v)];
+            Arrays.fill(goals[v], true);
+        }
+        final BitVector pGoal = goal.getPositiveFluents();
+        for (int f = pGoal.nextSetBit(0); f >= 0; f = pGoal.nextSetBit(f + 1)) {
+            final int v = variables.getVariable(f);
+            for (int x = 0; x < goals[v].length; x++) {
+                goals[v][x] &= x == variables.getValue(f);
+            }
+        }
+        final BitVector nGoal = goal.getNegativeFluents();
+        for (int f = nGoal.nextSetBit(0); f >= 0; f = nGoal.nextSetBit(f + 1)) {
+            goals[variables.getVariable(f)][variables.getValue(f)] = false;
+        }
+        final List<TransitionSystem> systems = new ArrayList<>(nbVariables);
+        for (int v = 0; v < nbVariables; v++) {
+            systems.add(TransitionSystem.atomic(costs, v, variables.getDomainSize(v), goals[v],
+                variables.getValue(init, v), transitions[v]));
+        }
+        return systems;
+    }
+
+    /**
+     * Computes the synchronized product of two transition systems. The state (a, b) of the product is encoded as
+     * <code>a * right.size() + b</code>.
+     *
+     * @param left  the left transition system.
+     * @param right the right transition system.
+     * @return the product of the transition systems.
+     * @throws IllegalArgumentException if the product has too many states or transitions to be stored in arrays.
+     */
+    public static TransitionSystem product(final TransitionSystem left, final TransitionSystem right) {
+        final long product = (long) left.size * right.size;
+        if (product > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("product too large");
+        }
+        final int size = (int) product;
+        final int nb = right.size;
+        final boolean[] goals = new boolean[size];
+        for (int a = 0; a < left.size; a++) {
+            if (left.goals[a]) {
+                for (int b = 0; b < nb; b++) {
+                    goals[a * nb + b] = right.goals[b];
+                }
+            }
+        }
+        final int init = left.init < 0 || right.init < 0 ? -1 : left.init * nb + right.init;
+        final int[][] transitions = new int[left.transitions.length][];
+        for (int l = 0; l < transitions.length; l++) {
+            final int[] ta = left.transitions[l];
+            final int[] tb = right.transitions[l];
+            if (ta == null && tb == null) {
+                continue;
+            }
+            if (ta != null && ta.length == 0 || tb != null && tb.length == 0) {
+                transitions[l] = TransitionSystem.EMPTY;
+                continue;
+            }
+            final int nbA = ta == null ? left.size : ta.length / 2;
+            final int nbB = tb == null ? right.size : tb.length / 2;
+            if (2L * nbA * nbB > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("product too large");
+            }
+            final int[] pairs = new int[2 * nbA * nbB];
+            int k = 0;
+            for (int i = 0; i < nbA; i++) {
+                final int sa = ta == null ? i : ta[2 * i];
+                final int da = ta == null ? i : ta[2 * i + 1];
+                for (int j = 0; j < nbB; j++) {
+                    pairs[k++] = sa * nb + (tb == null ? j : tb[2 * j]);
+                    pairs[k++] = da * nb + (tb == null ? j : tb[2 * j + 1]);
+                }
+            }
+            // The product of pairs without duplicates has no duplicates
+            transitions[l] = pairs;
+        }
+        final int[] table = new int[size];
+        for (int s = 0; s < size; s++) {
+            table[s] = s;
+        }
+        return new TransitionSystem(left.costs, size, goals, init, transitions,
+            new Representation(-1, left.representation, right.representation, nb, table));
+    }
+
+    /**
+     * Returns the number of states of the system.
+     *
+     * @return the number of states of the system.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of labels.
+     *
+     * @return the number of labels.
+     */
+    public int getNumberOfLabels() {
+        return this.transitions.length;
+    }
+
+    /**
+     * Returns the cost of a label.
+     *
+     * @param label the label.
+     * @return the cost of the label.
+     */
+    public int getCost(final int label) {
+        return this.costs[label];
+    }
+
+    /**
+     * Returns <code>true</code> if a state is a goal state.
+     *
+     * @param state the state.
+     * @return <code>true</code> if the state is a goal state.
+     */
+    public boolean isGoal(final int state) {
+        return this.goals[state];
+    }
+
+    /**
+     * Returns the initial state of the system or -1 if the initial state was pruned.
+     *
+     * @return the initial state of the system.
+     */
+    public int getInitialState() {
+        return this.init;
+    }
+
+    /**
+     * Returns the transitions of a label as pairs (source, target) or <code>null</code> if the label is irrelevant to
+     * the system. The returned array must not be modified.
+     *
+     * @param label the label.
+     * @return the transitions of the label.
+     */
+    public int[] getTransitions(final int label) {
+        return this.transitions[label];
+    }
+
+    /**
+     * Returns <code>true</code> if a label is relevant to the system, i.e., if it does not induce a self loop on every
+     * state.
+     *
+     * @param label the label.
+     * @return <code>true</code> if the label is relevant to the system.
+     */
+    public boolean isRelevant(final int label) {
+        return this.transitions[label] != null;
+    }
+
+    /**
+     * Returns the number of transitions of the system, the irrelevant labels excepted.
+     *
+     * @return the number of transitions of the system.
+     */
+    public long getNumberOfTransitions() {
+        long nb = 0;
+        for (int[] t : this.transitions) {
+            if (t != null) {
+                nb += t.length / 2;
+            }
+        }
+        return nb;
+    }
+
+    /**
+     * Returns the representation of the system.
+     *
+     * @return the representation of the system.
+     */
+    public Representation getRepresentation() {
+        return this.representation;
+    }
+
+    /**
+     * Combines some labels of the system into the first one: the transitions of the first label become the union of
+     * the transitions of the labels and the other labels become never applicable. The labels must have the same cost
+     * and must be irrelevant to all the other transition systems of the merge-and-shrink process.
+     *
+     * @param labels the labels to combine.
+     */
+    public void combine(final int[] labels) {
+        int nbPairs = 0;
+        for (int l : labels) {
+            nbPairs += this.transitions[l].length / 2;
+        }
+        final int[] pairs = new int[2 * nbPairs];
+        int k = 0;
+        for (int l : labels) {
+            System.arraycopy(this.transitions[l], 0, pairs, k, this.transitions[l].length);
+            k += this.transitions[l].length;
+            this.transitions[l] = TransitionSystem.EMPTY;
+        }
+        this.transitions[labels[0]] = TransitionSystem.normalize(pairs, nbPairs, this.size);
+    }
+
+    /**
+     * Applies an abstraction to the system. The abstraction maps each state to an abstract state in [0, size[ or to
+     * -1 if the state is pruned.
+     *
+     * @param abstraction the abstraction.
+     * @param size        the number of abstract states.
+     */
+    public void apply(final int[] abstraction, final int size) {
+        final boolean[] goals = new boolean[size];
+        for (int s = 0; s < this.size; s++) {
+            if (abstraction[s] >= 0) {
+                goals[abstraction[s]] |= this.goals[s];
+            }
+        }
+        for (int l = 0; l < this.transitions.length; l++) {
+            final int[] pairs = this.transitions[l];
+            if (pairs == null || pairs.length == 0) {
+                continue;
+            }
+            int k = 0;
+            for (int i = 0; i < pairs.length; i += 2) {
+                final int s = abstraction[pairs[i]];
+                final int t = abstraction[pairs[i + 1]];
+                if (s >= 0 && t >= 0) {
+                    pairs[k++] = s;
+                    pairs[k++] = t;
+                }
+            }
+            this.transitions[l] = k == 0 ? TransitionSystem.EMPTY : TransitionSystem.normalize(pairs, k / 2, size);
+        }
+        this.init = this.init < 0 ? -1 : abstraction[this.init];
+        this.goals = goals;
+        this.size = size;
+        this.representation.apply(abstraction);
+        this.distances = null;
+    }
+
+    /**
+     * Returns the goal distances of the states. The distances are computed by a Dijkstra search backward from the
+     * goal states and cached until the next abstraction. The returned array must not be modified.
+     *
+     * @return the goal distances of the states.
+     */
+    public int[] getGoalDistances() {
+        if (this.distances != null) {
+            return this.distances;
+        }
+        // Build the backward graph: the incoming arcs of each state with their costs
+        final int[] count = new int[this.size + 1];
+        for (int[] pairs : this.transitions) {
+            if (pairs != null) {
+                for (int i = 1; i < pairs.length; i += 2) {
+                    count[pairs[i] + 1]++;
+                }
+            }
+        }
+        for (int s = 0; s < this.size; s++) {
+            count[s + 1] += count[s];
+        }
+        final int[] sources = new int[count[this.size]];
+        final int[] weights = new int[count[this.size]];
+        final int[] next = Arrays.copyOf(count, this.size);
+        for (int l = 0; l < this.transitions.length; l++) {
+            final int[] pairs = this.transitions[l];
+            if (pairs != null) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    final int k = next[pairs[i + 1]]++;
+                    sources[k] = pairs[i];
+                    weights[k] = this.costs[l];
+                }
+            }
+        }
+        final int[] dist = new int[this.size];
+        Arrays.fill(dist, TransitionSystem.INFINITY);
+        long[] heap = new long[Math.max(16, this.size)];
+        int heapSize = 0;
+        for (int s = 0; s < this.size; s++) {
+            if (this.goals[s]) {
+                dist[s] = 0;
+                heap[heapSize++] = s;
+            }
+        }
+        while (heapSize > 0) {
+            final long entry = heap[0];
+            heap[0] = heap[--heapSize];
+            TransitionSystem.siftDown(heap, heapSize);
+            final int t = (int) entry;
+            final int d = (int) (entry >>> 32);
+            if (d != dist[t]) {
+                continue;
+            }
+            for (int k = count[t]; k < count[t + 1]; k++) {
+                final int s = sources[k];
+                final long nd = Math.min((long) d + weights[k], TransitionSystem.INFINITY - 1);
+                if (nd < dist[s]) {
+                    dist[s] = (int) nd;
+                    if (heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heap.length * 2);
+                    }
+                    heap[heapSize++] = (nd << 32) | s;
+                    TransitionSystem.siftUp(heap, heapSize - 1);
+                }
+            }
+        }
+        this.distances = dist;
+        return dist;
+    }
+
+    /**
+     * Returns the flags marking the states reachable from the initial state.
+     *
+     * @return the flags marking the states reachable from the initial state.
+     */
+    public boolean[] getReachableStates() {
+        final boolean[] reached = new boolean[this.size];
+        if (this.init < 0) {
+            return reached;
+        }
+        final int[] count = new int[this.size + 1];
+        for (int[] pairs : this.transitions) {
+            if (pairs != null) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    count[pairs[i] + 1]++;
+                }
+            }
+        }
+        for (int s = 0; s < this.size; s++) {
+            count[s + 1] += count[s];
+        }
+        final int[] targets = new int[count[this.size]];
+        final int[] next = Arrays.copyOf(count, this.size);
+        for (int[] pairs : this.transitions) {
+            if (pairs != null) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    targets[next[pairs[i]]++] = pairs[i + 1];
+                }
+            }
+        }
+        final int[] queue = new int[this.size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = this.init;
+        reached[this.init] = true;
+        while (head < tail) {
+            final int s = queue[head++];
+            for (int k = count[s]; k < count[s + 1]; k++) {
+                final int t = targets[k];
+                if (!reached[t]) {
+                    reached[t] = true;
+                    queue[tail++] = t;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Sorts an array of pairs (source, target) and removes the duplicates.
+     *
+     * @param pairs   the pairs.
+     * @param nbPairs the number of pairs.
+     * @param size    the number of states.
+     * @return the sorted pairs without duplicates.
+     */
+    private static int[] normalize(final int[] pairs, final int nbPairs, final int size) {
+        final long[] keys = new long[nbPairs];
+        for (int i = 0; i < nbPairs; i++) {
+            keys[i] = (long) pairs[2 * i] * size + pairs[2 * i + 1];
+        }
+        Arrays.sort(keys);
+        int n = 0;
+        for (int i = 0; i < nbPairs; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[n++] = keys[i];
+            }
+        }
+        final int[] normalized = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            normalized[2 * i] = (int) (keys[i] / size);
+            normalized[2 * i + 1] = (int) (keys[i] % size);
+        }
+        return normalized;
+    }
+
+    /**
+     * Moves up an entry of a binary heap.
+     *
+     * @param heap the heap.
+     * @param i    the index of the entry.
+     */
+    private static void siftUp(final long[] heap, final int i) {
+        final long entry = heap[i];
+        int k = i;
+        while (k > 0) {
+            final int parent = (k - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[k] = heap[parent];
+            k = parent;
+        }
+        heap[k] = entry;
+    }
+
+    /**
+     * Moves down the first entry of a binary heap.
+     *
+     * @param heap the heap.
+     * @param size the size of the heap.
+     */
+    private static void siftDown(final long[] heap, final int size) {
+        if (size == 0) {
+            return;
+        }
+        final long entry = heap[0];
+        int k = 0;
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (entry <= heap[child]) {
+                break;
+            }
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = entry;
+    }
+
+    /**
+     * This class implements the representation of a transition system: a tree whose leaves are the variables of the
+     * atomic systems and whose inner nodes are the products. Each node holds a table mapping the values of its
+     * variable, or the pairs of abstract states of its children, to its abstract states. The value -1 denotes a
+     * pruned state.
+     */
+    public static final class Representation implements Serializable {
+
+        /**
+         * The serial id of the class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The variable of a leaf or -1 for an inner node.
+         */
+        private final int variable;
+
+        /**
+         * The left child of an inner node.
+         */
+        private final Representation left;
+
+        /**
+         * The right child of an inner node.
+         */
+        private final Representation right;
+
+        /**
+         * The table of the abstract states.
+         */
+        private final int[] table;
+
+        /**
+         * The number of abstract states of the right child.
+         */
+        private final int rightSize;
+
+        /**
+         * Creates a new node of representation.
+         *
+         * @param variable  the variable of a leaf or -1 for an inner node.
+         * @param left      the left child of an inner node.
+         * @param right     the right child of an inner node.
+         * @param rightSize the number of abstract states of the right child.
+         * @param table     the table of the abstract states.
+         */
+        private Representation(final int variable, final Representation left, final Representation right,
+                               final int rightSize, final int[] table) {
+            this.variable = variable;
+            this.left = left;
+            this.right = right;
+            this.rightSize = rightSize;
+            this.table = table;
+        }
+
+        /**
+         * Composes the table of the node with an abstraction.
+         *
+         * @param abstraction the abstraction.
+         */
+        private void apply(final int[] abstraction) {
+            for (int i = 0; i < this.table.length; i++) {
+                if (this.table[i] >= 0) {
+                    this.table[i] = abstraction[this.table[i]];
+                }
+            }
+        }
+
+        /**
+         * Returns the abstract state of a state given by the values of its finite-domain variables.
+         *
+         * @param values the values of the variables.
+         * @return the abstract state or -1 if the state is pruned.
+         */
+        public int getAbstractState(final int[] values) {
+            if (this.variable >= 0) {
+                return this.table[values[this.variable]];
+            }
+            final int a = this.left.getAbstractState(values);
+            if (a < 0) {
+                return -1;
+            }
+            final int b = this.right.getAbstractState(values);
+            if (b < 0) {
+                return -1;
+            }
+            return this.table[a * this.rightSize + b];
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.heuristics.state;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements a flat, primitive encoding of the unconditional operators of a problem. Each action is
+ * compiled into one operator for its unconditional effects and one operator for each of its conditional effects. The
+ * precondition of an operator compiled from a conditional effect is the union of the precondition of the action and
+ * the condition of the effect, and its effects contain the unconditional effects of the action. Negative
+ * preconditions are kept apart so that the heuristics working on the delete relaxation can simply ignore them.
+ * <p>
+ * The encoding is computed once per problem and shared by the heuristics that need to iterate over the preconditions
+ * and the effects of the operators with <code>int</code> arrays rather than bit vectors: use
+ * {@link #getInstance(Problem)} to get the encoding of a problem from the {@link PreprocessingCache}.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 12.02.2021
+ */
+public final class UnconditionalOperators implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of fluents of the problem.
+     */
+    private final int nbFluents;
+
+    /**
+     * The positive preconditions of the operators.
+     */
+    private final int[][] preconditions;
+
+    /**
+     * The negative preconditions of the operators.
+     */
+    private final int[][] negativePreconditions;
+
+    /**
+     * The positive effects of the operators.
+     */
+    private final int[][] addEffects;
+
+    /**
+     * The negative effects of the operators.
+     */
+    private final int[][] deleteEffects;
+
+    /**
+     * The cost of the operators.
+     */
+    private final double[] costs;
+
+    /**
+     * The index of the action from which each operator was compiled.
+     */
+    private final int[] actions;
+
+    /**
+     * For each fluent the operators having the fluent as positive effect.
+     */
+    private final int[][] achievers;
+
+    /**
+     * For each fluent the operators having the fluent as positive precondition.
+     */
+    private final int[][] consumers;
+
+    /**
+     * The indexes of the operators without positive precondition.
+     */
+    private final int[] withoutPreconditions;
+
+    /**
+     * Creates a new flat encoding of the unconditional operators of a specified problem. The actions are compiled in
+     * parallel over chunks of actions.
+     *
+     * @param problem the problem.
+     */
+    public UnconditionalOperators(final Problem problem) {
+        this.nbFluents = problem.getFluents().size();
+        final List<Action> operators = problem.getActions();
+        // For each action, the positive and negative preconditions and effects of its operators
+        final int[][][][] compiled = new int[operators.size()][][][];
+        PreprocessingCache.forEachChunk(operators.size(), (from, to) -> {
+            for (int a = from; a < to; a++) {
+                compiled[a] = UnconditionalOperators.compile(operators.get(a));
+            }
+        });
+        int size = 0;
+        for (int[][][] ops : compiled) {
+            size += ops.length;
+        }
+        this.preconditions = new int[size][];
+        this.negativePreconditions = new int[size][];
+        this.addEffects = new int[size][];
+        this.deleteEffects = new int[size][];
+        this.costs = new double[size];
+        this.actions = new int[size];
+        int op = 0;
+        for (int a = 0; a < compiled.length; a++) {
+            final Action action = operators.get(a);
+            final double c = action.getCost() == null ? 1.0 : action.getCost().getValue();
+            for (int[][] o : compiled[a]) {
+                this.preconditions[op] = o[0];
+                this.negativePreconditions[op] = o[1];
+                this.addEffects[op] = o[2];
+                this.deleteEffects[op] = o[3];
+                this.costs[op] = c;
+                this.actions[op] = a;
+                op++;
+            }
+        }
+        this.achievers = UnconditionalOperators.invert(this.addEffects, this.nbFluents);
+        this.consumers = UnconditionalOperators.invert(this.preconditions, this.nbFluents);
+        int nbEmpty = 0;
+        for (int[] p : this.preconditions) {
+            if (p.length == 0) {
+                nbEmpty++;
+            }
+        }
+        this.withoutPreconditions = new int[nbEmpty];
+        nbEmpty = 0;
+        for (int i = 0; i < size; i++) {
+            if (this.preconditions[i].length == 0) {
+                this.withoutPreconditions[nbEmpty++] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the flat encoding of the unconditional operators of a specified problem. The encoding is computed the
+     * first time and then retrieved from the {@link PreprocessingCache}.
+     *
+     * @param problem the problem.
+     * @return the flat encoding of the unconditional operators of the problem.
+     */
+    public static UnconditionalOperators getInstance(final Problem problem) {
+        return PreprocessingCache.get(problem, UnconditionalOperators.class, UnconditionalOperators::new);
+    }
+
+    /**
+     * Compiles an action into its unconditional operators. Each operator is described by an array containing its
+     * positive preconditions, its negative preconditions, its positive effects and its negative effects.
+     *
+     * @param action the action.
+     * @return the unconditional operators of the action.
+     */
+    private static int[][][] compile(final Action action) {
+        final BitVector ucAdd = new BitVector();
+        final BitVector ucDel = new BitVector();
+        final List<ConditionalEffect> conditional = new ArrayList<>();
+        for (ConditionalEffect ce : action.getConditionalEffects()) {
+            if (ce.getCondition().isEmpty()) {
+                ucAdd.or(ce.getEffect().getPositiveFluents());
+                ucDel.or(ce.getEffect().getNegativeFluents());
+            } else {
+                conditional.add(ce);
+            }
+        }
+        final BitVector pPre = action.getPrecondition().getPositiveFluents();
+        final BitVector nPre = action.getPrecondition().getNegativeFluents();
+        final List<int[][]> ops = new ArrayList<>();
+        if (!ucAdd.isEmpty() || !ucDel.isEmpty() || conditional.isEmpty()) {
+            ops.add(new int[][] {
+                UnconditionalOperators.toArray(pPre),
+                UnconditionalOperators.toArray(nPre),
+                UnconditionalOperators.toArray(ucAdd),
+                UnconditionalOperators.toArray(ucDel)});
+        }
+        for (ConditionalEffect ce : conditional) {
+            final BitVector p = new BitVector(pPre);
+            p.or(ce.getCondition().getPositiveFluents());
+            final BitVector n = new BitVector(nPre);
+            n.or(ce.getCondition().getNegativeFluents());
+            final BitVector e = new BitVector(ucAdd);
+            e.or(ce.getEffect().getPositiveFluents());
+            final BitVector d = new BitVector(ucDel);
+            d.or(ce.getEffect().getNegativeFluents());
+            ops.add(new int[][] {
+                UnconditionalOperators.toArray(p),
+                UnconditionalOperators.toArray(n),
+                UnconditionalOperators.toArray(e),
+                UnconditionalOperators.toArray(d)});
+        }
+        return ops.toArray(new int[ops.size()][][]);
+    }
+
+    /**
+     * Returns the number of fluents of the problem.
+     *
+     * @return the number of fluents of the problem.
+     */
+    public int nbFluents() {
+        return this.nbFluents;
+    }
+
+    /**
+     * Returns the number of unconditional operators.
+     *
+     * @return the number of unconditional operators.
+     */
+    public int size() {
+        return this.preconditions.length;
+    }
+
+    /**
+     * Returns the positive preconditions of a specified operator.
+     *
+     * @param op the index of the operator.
+     * @return the positive preconditions of the operator.
+     */
+    public int[] getPreconditions(final int op) {
+        return this.preconditions[op];
+    }
+
+    /**
+     * Returns the negative preconditions of a specified operator.
+     *
+     * @param op the index of the operator.
+     * @return the negative preconditions of the operator.
+     */
+    public int[] getNegativePreconditions(final int op) {
+        return this.negativePreconditions[op];
+    }
+
+    /**
+     * Returns the positive effects of a specified operator.
+     *
+     * @param op the index of the operator.
+     * @return the positive effects of the operator.
+     */
+    public int[] getAddEffects(final int op) {
+        return this.addEffects[op];
+    }
+
+    /**
+     * Returns the negative effects of a specified operator.
+     *
+     * @param op the index of the operator.
+     * @return the negative effects of the operator.
+     */
+    public int[] getDeleteEffects(final int op) {
+        return this.deleteEffects[op];
+    }
+
+    /**
+     * Returns the cost of a specified operator.
+     *
+     * @param op the index of the operator.
+     * @return the cost of the operator.
+     */
+    public double getCost(final int op) {
+        return this.costs[op];
+    }
+
+    /**
+     * Returns the index of the action from which a specified operator was compiled.
+     *
+     * @param op the index of the operator.
+     * @return the index of the action.
+     */
+    public int getAction(final int op) {
+        return this.actions[op];
+    }
+
+    /**
+     * Returns the operators having a specified fluent as positive effect.
+     *
+     * @param fluent the fluent.
+     * @return the operators achieving the fluent.
+     */
+    public int[] getAchievers(final int fluent) {
+        return this.achievers[fluent];
+    }
+
+    /**
+     * Returns the operators having a specified fluent as positive precondition.
+     *
+     * @param fluent the fluent.
+     * @return the operators requiring the fluent.
+     */
+    public int[] getConsumers(final int fluent) {
+        return this.consumers[fluent];
+    }
+
+    /**
+     * Returns the operators without positive precondition.
+     *
+     * @return the operators without positive precondition.
+     */
+    public int[] getOperatorsWithoutPreconditions() {
+        return this.withoutPreconditions;
+    }
+
+    /**
+     * Converts a bit vector into a sorted array of the indexes of its set bits.
+     *
+     * @param vector the bit vector.
+     * @return the array of indexes.
+     */
+    static int[] toArray(final BitVector vector) {
+        final int[] array = new int[vector.cardinality()];
+        int j = 0;
+        for (int i = vector.nextSetBit(0); i >= 0; i = vector.nextSetBit(i + 1)) {
+            array[j++] = i;
+        }
+        return array;
+    }
+
+    /**
+     * Inverts a relation from operators to fluents.
+     *
+     * @param relation  the relation to invert.
+     * @param nbFluents the number of fluents.
+     * @return for each fluent the operators in relation with the fluent.
+     */
+    private static int[][] invert(final int[][] relation, final int nbFluents) {
+        final int[] count = new int[nbFluents];
+        for (int[] r : relation) {
+            for (int f : r) {
+                count[f]++;
+            }
+        }
+        final int[][] inverse = new int[nbFluents][];
+        for (int f = 0; f < nbFluents; f++) {
+            inverse[f] = new int[count[f]];
+            count[f] = 0;
+        }
+        for (int op = 0; op < relation.length; op++) {
+            for (int f : relation[op]) {
+                inverse[f][count[f]++] = op;
+            }
+        }
+        return inverse;
+    }
+}
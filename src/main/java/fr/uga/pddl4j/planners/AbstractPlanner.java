@@ -21,6 +21,7 @@ import fr.uga.pddl4j.parser.Message;
 import fr.uga.pddl4j.parser.Parser;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.ProblemCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
@@ -65,6 +66,11 @@ public abstract class AbstractPlanner implements Planner {
      */
     private int timeout;
 
+    /**
+     * The directory of the cache of the instantiated problems.
+     */
+    private String cache;
+
     /**
      * The parser of the planner.
      */
@@ -218,6 +224,29 @@ public abstract class AbstractPlanner implements Planner {
         return this.timeout;
     }
 
+    /**
+     * Sets the directory of the cache of the instantiated problems. When the cache is set, the problem instantiated
+     * from a domain and a problem file is saved in the cache and loaded from the cache in the later runs on the same
+     * files.
+     *
+     * @param cache the path to the directory of the cache or null to disable the cache.
+     * @see ProblemCache
+     */
+    @Option(names = { "-c", "--cache" }, paramLabel = "<directory>", description = "Set the directory of the cache "
+        + "of the instantiated problems (preset none).")
+    public final void setCache(final String cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the directory of the cache of the instantiated problems.
+     *
+     * @return the path to the directory of the cache or null if the cache is disabled.
+     */
+    public final String getCache() {
+        return this.cache;
+    }
+
     /**
      * Parses the domain and the problem description from the specified parameters.
      *
@@ -296,6 +325,9 @@ public abstract class AbstractPlanner implements Planner {
         config.setProperty(Planner.PROBLEM_SETTING, this.getProblem());
         config.setProperty(Planner.TIME_OUT_SETTING, Integer.toString(this.getTimeout()));
         config.setProperty(Planner.LOG_LEVEL_SETTING, this.getLogLevel().toString());
+        if (this.getCache() != null) {
+            config.setProperty(Planner.CACHE_SETTING, this.getCache());
+        }
         return config;
     }
 
@@ -326,6 +358,7 @@ public abstract class AbstractPlanner implements Planner {
         } else {
             this.setLogLevel(new LogLevel(configuration.getProperty(Planner.LOG_LEVEL_SETTING)));
         }
+        this.setCache(configuration.getProperty(Planner.CACHE_SETTING));
     }
 
     /**
@@ -359,52 +392,8 @@ public abstract class AbstractPlanner implements Planner {
             this.throwInvalidConfigurationException();
         }
 
-        // Parses the PDDL domain and problem description
-        long begin = System.currentTimeMillis();
-
-        DefaultParsedProblem parsedProblem = null;
-        try {
-            parsedProblem = this.parser.parse(this.getDomain(), this.getProblem());
-        } catch (FileNotFoundException e) {
-            LOGGER.fatal(e.getMessage());
-        }
-
-        ErrorManager errorManager = this.parser.getErrorManager();
-        this.getStatistics().setTimeToParse(System.currentTimeMillis() - begin);
-        if (!errorManager.isEmpty()) {
-            for (Message m : errorManager.getMessages()) {
-                if (LOGGER.isFatalEnabled()
-                    && (m.getType().equals(Message.Type.LEXICAL_ERROR)
-                    || m.getType().equals(Message.Type.PARSER_ERROR))) {
-                    LOGGER.fatal(m.toString());
-                } else if (LOGGER.isWarnEnabled()
-                    && m.getType().equals(Message.Type.PARSER_WARNING)) {
-                    LOGGER.warn(m.toString());
-                }
-            }
-            if (!errorManager.getMessages(Message.Type.LEXICAL_ERROR).isEmpty()
-                || !errorManager.getMessages(Message.Type.PARSER_ERROR).isEmpty()) {
-                return null;
-            }
-        } else if (LOGGER.isInfoEnabled()) {
-            StringBuilder strb = new StringBuilder();
-            strb.append("\nparsing domain file \"");
-            strb.append(this.getDomainFile().getName());
-            strb.append("\" done successfully");
-            strb.append("\nparsing problem file \"");
-            strb.append(this.getProblemFile().getName());
-            strb.append("\" done successfully");
-            strb.append("\n");
-            LOGGER.info(strb);
-        }
-
-
-        // Encodes and instantiates the problem in a compact representation
-
-        begin = System.currentTimeMillis();
-
-        Problem pb = this.instantiate(parsedProblem);
-        this.getStatistics().setTimeToEncode(System.currentTimeMillis() - begin);
+        // Loads the problem from the cache or parses and instantiates it in a compact representation
+        final Problem pb = this.loadOrInstantiate();
         this.getStatistics().setMemoryUsedForProblemRepresentation(GraphLayout.parseInstance(pb).totalSize());
 
         if (pb != null) {
@@ -451,6 +440,10 @@ public abstract class AbstractPlanner implements Planner {
                 strb.append(String.format("              %8.2f seconds encoding %n", timeToEncodeInSeconds));
                 double timeToSearchInSeconds = Statistics.millisecondToSecond(this.getStatistics().getTimeToSearch());
                 strb.append(String.format("              %8.2f seconds searching%n", timeToSearchInSeconds));
+                if (this.getStatistics().getTimeToPreprocessHeuristic() > 0) {
+                    strb.append(String.format("              %8.2f seconds of which preprocessing the heuristic%n",
+                        Statistics.millisecondToSecond(this.getStatistics().getTimeToPreprocessHeuristic())));
+                }
                 double totalTimeInSeconds = timeToParseInSeconds + timeToEncodeInSeconds + timeToSearchInSeconds;
                 strb.append(String.format("              %8.2f seconds total time%n", totalTimeInSeconds));
 
@@ -463,6 +456,10 @@ public abstract class AbstractPlanner implements Planner {
                     this.getStatistics().getMemoryUsedToSearch());
                 strb.append(String.format("              %8.2f MBytes for searching%n",
                     memoryUsedToSearchInMBytes));
+                if (this.getStatistics().getMemoryUsedForHeuristic() > 0) {
+                    strb.append(String.format("              %8.2f MBytes for the heuristic%n",
+                        Statistics.byteToMByte(this.getStatistics().getMemoryUsedForHeuristic())));
+                }
                 double totalMemoryInMBytes = memoryForProblemInMBytes + memoryUsedToSearchInMBytes;
                 strb.append(String.format("              %8.2f MBytes total%n%n%n", totalMemoryInMBytes));
 
@@ -474,6 +471,97 @@ public abstract class AbstractPlanner implements Planner {
         }
     }
 
+    /**
+     * Loads the problem of the planner configuration from the cache or parses and instantiates it when the cache is
+     * disabled or does not contain the problem. In the latter case, the problem instantiated is saved in the cache.
+     *
+     * @return the problem or null if the domain or the problem cannot be parsed.
+     * @see ProblemCache
+     */
+    protected final Problem loadOrInstantiate() {
+        File cache = null;
+        Problem pb = null;
+        if (this.getCache() != null) {
+            try {
+                cache = ProblemCache.getFile(new File(this.getCache()), this.getDomainFile(), this.getProblemFile());
+                if (cache.exists()) {
+                    final long begin = System.currentTimeMillis();
+                    pb = ProblemCache.load(cache);
+                    this.getStatistics().setTimeToParse(0);
+                    this.getStatistics().setTimeToEncode(System.currentTimeMillis() - begin);
+                    if (LOGGER.isInfoEnabled()) {
+                        LOGGER.info("\nproblem loaded from cache file \"" + cache.getName() + "\"\n");
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.error("unable to load problem from cache: " + e.getMessage());
+            }
+        }
+        if (pb == null) {
+            pb = this.parseAndInstantiate();
+            if (cache != null && ProblemCache.isSupported(pb)) {
+                try {
+                    ProblemCache.save(pb, cache);
+                } catch (IOException e) {
+                    LOGGER.error("unable to save problem into " + cache + ": " + e.getMessage());
+                }
+            }
+        }
+        return pb;
+    }
+
+    /**
+     * Parses the domain and the problem of the planner configuration and instantiates the problem.
+     *
+     * @return the problem instantiated or null if the domain or the problem cannot be parsed.
+     */
+    private Problem parseAndInstantiate() {
+        // Parses the PDDL domain and problem description
+        long begin = System.currentTimeMillis();
+
+        DefaultParsedProblem parsedProblem = null;
+        try {
+            parsedProblem = this.parser.parse(this.getDomain(), this.getProblem());
+        } catch (FileNotFoundException e) {
+            LOGGER.fatal(e.getMessage());
+        }
+
+        ErrorManager errorManager = this.parser.getErrorManager();
+        this.getStatistics().setTimeToParse(System.currentTimeMillis() - begin);
+        if (!errorManager.isEmpty()) {
+            for (Message m : errorManager.getMessages()) {
+                if (LOGGER.isFatalEnabled()
+                    && (m.getType().equals(Message.Type.LEXICAL_ERROR)
+                    || m.getType().equals(Message.Type.PARSER_ERROR))) {
+                    LOGGER.fatal(m.toString());
+                } else if (LOGGER.isWarnEnabled()
+                    && m.getType().equals(Message.Type.PARSER_WARNING)) {
+                    LOGGER.warn(m.toString());
+                }
+            }
+            if (!errorManager.getMessages(Message.Type.LEXICAL_ERROR).isEmpty()
+                || !errorManager.getMessages(Message.Type.PARSER_ERROR).isEmpty()) {
+                return null;
+            }
+        } else if (LOGGER.isInfoEnabled()) {
+            StringBuilder strb = new StringBuilder();
+            strb.append("\nparsing domain file \"");
+            strb.append(this.getDomainFile().getName());
+            strb.append("\" done successfully");
+            strb.append("\nparsing problem file \"");
+            strb.append(this.getProblemFile().getName());
+            strb.append("\" done successfully");
+            strb.append("\n");
+            LOGGER.info(strb);
+        }
+
+        // Encodes and instantiates the problem in a compact representation
+        begin = System.currentTimeMillis();
+        final Problem pb = this.instantiate(parsedProblem);
+        this.getStatistics().setTimeToEncode(System.currentTimeMillis() - begin);
+        return pb;
+    }
+
     /**
      * This method contains the code called by the main method of the planner when planner are launched from
      * command line.
@@ -82,6 +82,12 @@ public interface Planner extends Serializable, Callable<Integer> {
      */
     static final LogLevel DEFAULT_LOG_LEVEL = new LogLevel(Level.INFO);
 
+    /**
+     * The CACHE setting used for planner configuration, i.e., the directory of the cache of the instantiated
+     * problems. By default, the setting is not defined and the problems are not cached.
+     */
+    static final String CACHE_SETTING = "CACHE";
+
     /**
      * The enumeration of the planners.
      */
@@ -184,6 +190,20 @@ public interface Planner extends Serializable, Callable<Integer> {
      */
     int getTimeout();
 
+    /**
+     * Sets the directory of the cache of the instantiated problems.
+     *
+     * @param cache the path to the directory of the cache or null to disable the cache.
+     */
+    void setCache(final String cache);
+
+    /**
+     * Returns the directory of the cache of the instantiated problems.
+     *
+     * @return the path to the directory of the cache or null if the cache is disabled.
+     */
+    String getCache();
+
     /**
      * Returns the configuration of the planner.
      *
@@ -57,6 +57,26 @@ public interface SearchStrategy extends Serializable {
          * The hill climbing first search strategy.
          */
         HILL_CLIMBING,
+        /**
+         * The IW(1) search strategy.
+         */
+        IW1,
+        /**
+         * The IW(2) search strategy.
+         */
+        IW2,
+        /**
+         * The serialized IW search strategy.
+         */
+        SIW,
+        /**
+         * The best first width search strategy.
+         */
+        BFWS,
+        /**
+         * The Monte-Carlo random walk search strategy.
+         */
+        MONTE_CARLO_RANDOM_WALK,
     }
 
     /**
@@ -41,6 +41,11 @@ public class Statistics implements Serializable {
      */
     private long timeToParse;
 
+    /**
+     * The time spent to build the structures precomputed by the heuristic in ms.
+     */
+    private long timeToPreprocessHeuristic;
+
     /**
      * The memory used to store the problem in bytes.
      */
@@ -51,6 +56,11 @@ public class Statistics implements Serializable {
      */
     private long memoryUsedToSearch;
 
+    /**
+     * The memory used by the structures precomputed by the heuristic in bytes.
+     */
+    private long memoryUsedForHeuristic;
+
     /**
      * The number of actions of the problem solved.
      */
@@ -74,8 +84,10 @@ public class Statistics implements Serializable {
         this.timeToEncode = 0;
         this.timeToSearch = 0;
         this.timeToParse = 0;
+        this.timeToPreprocessHeuristic = 0;
         this.memoryForProblem = 0;
         this.memoryUsedToSearch = 0;
+        this.memoryUsedForHeuristic = 0;
         this.numberOfActions = 0;
         this.numberOfRelevantFacts = 0;
         this.problem = null;
@@ -139,6 +151,25 @@ public class Statistics implements Serializable {
         this.memoryUsedToSearch = memory;
     }
 
+    /**
+     * Returns the memory used by the structures precomputed by the heuristic in bytes, e.g., the abstraction of the
+     * merge-and-shrink heuristic.
+     *
+     * @return the memory used by the structures precomputed by the heuristic.
+     */
+    public final long getMemoryUsedForHeuristic() {
+        return this.memoryUsedForHeuristic;
+    }
+
+    /**
+     * Sets the memory used by the structures precomputed by the heuristic in bytes.
+     *
+     * @param memory the memory used by the structures precomputed by the heuristic in bytes.
+     */
+    public final void setMemoryUsedForHeuristic(final long memory) {
+        this.memoryUsedForHeuristic = memory;
+    }
+
     /**
      * Returns the number of actions contained in the solved problem .
      *
@@ -202,6 +233,25 @@ public class Statistics implements Serializable {
         return this.timeToParse;
     }
 
+    /**
+     * Returns the time spent to build the structures precomputed by the heuristic. This time is included in the search
+     * time.
+     *
+     * @return the time spent to build the structures precomputed by the heuristic in ms.
+     */
+    public final long getTimeToPreprocessHeuristic() {
+        return this.timeToPreprocessHeuristic;
+    }
+
+    /**
+     * Sets the time spent to build the structures precomputed by the heuristic.
+     *
+     * @param time the time spent to build the structures precomputed by the heuristic in ms.
+     */
+    public final void setTimeToPreprocessHeuristic(final long time) {
+        this.timeToPreprocessHeuristic = time;
+    }
+
     /**
      * Sets the encoding time, i.e., the time to encode the planning problem in a compact representation.
      *
@@ -253,10 +303,18 @@ public class Statistics implements Serializable {
         strb.append(String.format("%8.2f seconds parsing %n", timeToParseInSeconds));
         strb.append(String.format("%8.2f seconds encoding %n", timeToEncodeInSeconds));
         strb.append(String.format("%8.2f seconds searching%n", timeToSearchInSeconds));
+        if (this.timeToPreprocessHeuristic > 0) {
+            strb.append(String.format("%8.2f seconds of which preprocessing the heuristic%n",
+                Statistics.millisecondToSecond(this.timeToPreprocessHeuristic)));
+        }
         strb.append(String.format("%8.2f seconds total time%n", totalTimeInSeconds));
         strb.append(String.format("%n* Memory used:%n"));
         strb.append(String.format("%8.2f MBytes for problem representation%n", memoryForProblemInMBytes));
         strb.append(String.format("%8.2f MBytes for searching%n", memoryUsedToSearchInMBytes));
+        if (this.memoryUsedForHeuristic > 0) {
+            strb.append(String.format("%8.2f MBytes for the heuristic%n",
+                Statistics.byteToMByte(this.memoryUsedForHeuristic)));
+        }
         strb.append(String.format("%8.2f MBytes total%n%n%n", totalMemoryInMBytes));
 
         return strb.toString();
@@ -16,9 +16,6 @@
 package fr.uga.pddl4j.planners.htn.stn;
 
 import fr.uga.pddl4j.parser.DefaultParsedProblem;
-import fr.uga.pddl4j.parser.ErrorManager;
-import fr.uga.pddl4j.parser.Message;
-import fr.uga.pddl4j.parser.Parser;
 import fr.uga.pddl4j.parser.RequireKey;
 import fr.uga.pddl4j.plan.Hierarchy;
 import fr.uga.pddl4j.plan.Plan;
@@ -36,7 +33,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import picocli.CommandLine;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -376,51 +372,13 @@ public abstract class AbstractSTNPlanner extends AbstractHTNPlanner implements S
             super.throwInvalidConfigurationException();
         }
 
-        // Parses the PDDL domain and problem description
-        long begin = System.currentTimeMillis();
-        final Parser parser = this.getParser();
-        DefaultParsedProblem parsedProblem = null;
-        try {
-            parsedProblem = parser.parse(this.getDomain(), this.getProblem());
-        } catch (FileNotFoundException e) {
-            LOGGER.fatal(e.getMessage());
-        }
-        ErrorManager errorManager = parser.getErrorManager();
-        this.getStatistics().setTimeToParse(System.currentTimeMillis() - begin);
-        if (!errorManager.isEmpty()) {
-            for (Message m : errorManager.getMessages()) {
-                if (LOGGER.isFatalEnabled()
-                    && (m.getType().equals(Message.Type.LEXICAL_ERROR)
-                    || m.getType().equals(Message.Type.PARSER_ERROR))) {
-                    LOGGER.fatal(m.toString());
-                } else if (LOGGER.isWarnEnabled()
-                    && m.getType().equals(Message.Type.PARSER_WARNING)) {
-                    LOGGER.warn(m.toString());
-                }
-            }
-            if (!errorManager.getMessages(Message.Type.LEXICAL_ERROR).isEmpty()
-                || !errorManager.getMessages(Message.Type.PARSER_ERROR).isEmpty()) {
-                return null;
-            }
-        } else if (LOGGER.isInfoEnabled()) {
-            StringBuilder strb = new StringBuilder();
-            strb.append("\nparsing domain file \"");
-            strb.append(this.getDomainFile().getName());
-            strb.append("\" done successfully");
-            strb.append("\nparsing problem file \"");
-            strb.append(this.getProblemFile().getName());
-            strb.append("\" done successfully");
-            strb.append("\n");
-            LOGGER.info(strb);
+        // Loads the problem from the cache or parses and instantiates it in a compact representation
+        final Problem pb = this.loadOrInstantiate();
+        if (pb == null) {
+            return null;
         }
-
-        // Encodes and instantiates the problem in a compact representation
-        begin = System.currentTimeMillis();
-        Problem pb = this.instantiate(parsedProblem);
-        this.getStatistics().setTimeToEncode(System.currentTimeMillis() - begin);
         //this.getStatistics().setMemoryUsedForProblemRepresentation(MemoryAgent.getDeepSizeOf(pb));
-        long end = System.currentTimeMillis();
-        final double instantiationTime = (end - begin) / 1000.0;
+        final double instantiationTime = this.getStatistics().getTimeToEncode() / 1000.0;
 
         // Print instantiation information
         if (LOGGER.isInfoEnabled()) {
@@ -445,9 +403,9 @@ public abstract class AbstractSTNPlanner extends AbstractHTNPlanner implements S
             double searchTime = 0.0;
             try {
                 LOGGER.info("Searching a solution plan....\n\n");
-                begin = System.currentTimeMillis();
+                final long begin = System.currentTimeMillis();
                 plan = this.solve(pb);
-                end = System.currentTimeMillis();
+                final long end = System.currentTimeMillis();
                 searchTime = (end - begin) / 1000.0;
             } catch (OutOfMemoryError err) {
                 if (LOGGER.isFatalEnabled()) {
@@ -25,8 +25,10 @@ import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.ProblemNotSupportedException;
 import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.DeadEndStore;
 import fr.uga.pddl4j.planners.statespace.search.Node;
 import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
 import fr.uga.pddl4j.problem.Problem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -65,6 +67,21 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
      */
     private StateHeuristic.Name heuristic;
 
+    /**
+     * The filter used by the greedy searches to select the successors evaluated with the heuristic.
+     */
+    private StateSpaceSearch.EvaluationFilter evaluationFilter;
+
+    /**
+     * The flag used to pack the states registered by the searches with the finite-domain variables of the problem.
+     */
+    private boolean statePacking;
+
+    /**
+     * The number of threads used by the searches to evaluate the successors of a node with the heuristic.
+     */
+    private int heuristicThreads;
+
     /**
      * Creates a new planner.
      */
@@ -151,11 +168,66 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         return this.heuristicWeight;
     }
 
+    /**
+     * Sets the filter used by the greedy searches to select the successors evaluated with the heuristic.
+     *
+     * @param filter the filter.
+     */
+    public void setEvaluationFilter(final StateSpaceSearch.EvaluationFilter filter) {
+        this.evaluationFilter = filter;
+    }
+
+    /**
+     * Returns the filter used by the greedy searches to select the successors evaluated with the heuristic.
+     *
+     * @return the filter used by the greedy searches to select the successors evaluated with the heuristic.
+     */
+    public final StateSpaceSearch.EvaluationFilter getEvaluationFilter() {
+        return this.evaluationFilter;
+    }
+
+    /**
+     * Sets if the states registered by the searches are packed with the finite-domain variables of the problem.
+     *
+     * @param packing <code>true</code> to pack the states registered by the searches.
+     */
+    public void setStatePacking(final boolean packing) {
+        this.statePacking = packing;
+    }
+
+    /**
+     * Returns if the states registered by the searches are packed with the finite-domain variables of the problem.
+     *
+     * @return <code>true</code> if the states registered by the searches are packed; <code>false</code> otherwise.
+     */
+    public final boolean isStatePacking() {
+        return this.statePacking;
+    }
+
+    /**
+     * Sets the number of threads used by the searches to evaluate the successors of a node with the heuristic.
+     *
+     * @param threads the number of threads.
+     */
+    public void setHeuristicThreads(final int threads) {
+        this.heuristicThreads = threads;
+    }
+
+    /**
+     * Returns the number of threads used by the searches to evaluate the successors of a node with the heuristic.
+     *
+     * @return the number of threads used by the searches to evaluate the successors of a node with the heuristic.
+     */
+    public final int getHeuristicThreads() {
+        return this.heuristicThreads;
+    }
+
     /**
      * Checks the planner configuration and returns if the configuration is valid. A configuration is valid if (1) the
      * domain and the problem files exist and can be read, (2) the timeout is greater than 0, (3) the weight of the
-     * heuristic is greater than 0, (4) the heuristic is a not null and (5) the list of search strategies to use to
-     * solve a planning problem is not empty.
+     * heuristic is greater than 0, (4) the heuristic is a not null, (5) the list of search strategies to use to
+     * solve a planning problem is not empty, (6) the evaluation filter is not null and (7) the number of threads
+     * used to evaluate the heuristic is greater than 0.
      *
      * @return <code>true</code> if the configuration is valid <code>false</code> otherwise.
      */
@@ -163,7 +235,9 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         return super.hasValidConfiguration()
             && this.getHeuristicWeight() > 0.0
             && this.getHeuristic() != null
-            && !this.getSearchStrategies().isEmpty();
+            && !this.getSearchStrategies().isEmpty()
+            && this.getEvaluationFilter() != null
+            && this.getHeuristicThreads() > 0;
     }
 
     /**
@@ -178,6 +252,10 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
             throw new InvalidConfigurationException("Undefined heuristic");
         } else if (this.getSearchStrategies().isEmpty()) {
             throw new InvalidConfigurationException("Undefined search strategies");
+        } else if (this.getEvaluationFilter() == null) {
+            throw new InvalidConfigurationException("Undefined evaluation filter");
+        } else if (this.getHeuristicThreads() <= 0) {
+            throw new InvalidConfigurationException("Invalid number of heuristic threads");
         }
     }
 
@@ -194,6 +272,12 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         config.setProperty(StateSpacePlanner.HEURISTIC_SETTING, StateSpacePlanner.DEFAULT_HEURISTIC.toString());
         config.setProperty(StateSpacePlanner.WEIGHT_HEURISTIC_SETTING,
             Double.toString(StateSpacePlanner.DEFAULT_WEIGHT_HEURISTIC));
+        config.setProperty(StateSpacePlanner.EVALUATION_FILTER_SETTING,
+            StateSpacePlanner.DEFAULT_EVALUATION_FILTER.toString());
+        config.setProperty(StateSpacePlanner.STATE_PACKING_SETTING,
+            Boolean.toString(StateSpacePlanner.DEFAULT_STATE_PACKING));
+        config.setProperty(StateSpacePlanner.HEURISTIC_THREADS_SETTING,
+            Integer.toString(StateSpacePlanner.DEFAULT_HEURISTIC_THREADS));
         return config;
     }
 
@@ -208,6 +292,9 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         config.setProperty(StateSpacePlanner.SEARCH_STRATEGIES_SETTING, this.getSearchStrategies().toString());
         config.setProperty(StateSpacePlanner.HEURISTIC_SETTING, this.getHeuristic().toString());
         config.setProperty(StateSpacePlanner.WEIGHT_HEURISTIC_SETTING, Double.toString(this.getHeuristicWeight()));
+        config.setProperty(StateSpacePlanner.EVALUATION_FILTER_SETTING, this.getEvaluationFilter().toString());
+        config.setProperty(StateSpacePlanner.STATE_PACKING_SETTING, Boolean.toString(this.isStatePacking()));
+        config.setProperty(StateSpacePlanner.HEURISTIC_THREADS_SETTING, Integer.toString(this.getHeuristicThreads()));
         return config;
     }
 
@@ -238,6 +325,23 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
             this.setHeuristic(StateHeuristic.Name.valueOf(configuration.getProperty(
                 StateSpacePlanner.HEURISTIC_SETTING)));
         }
+        if (configuration.getProperty(StateSpacePlanner.EVALUATION_FILTER_SETTING) == null) {
+            this.setEvaluationFilter(StateSpacePlanner.DEFAULT_EVALUATION_FILTER);
+        } else {
+            this.setEvaluationFilter(StateSpaceSearch.EvaluationFilter.valueOf(configuration.getProperty(
+                StateSpacePlanner.EVALUATION_FILTER_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.STATE_PACKING_SETTING) == null) {
+            this.setStatePacking(StateSpacePlanner.DEFAULT_STATE_PACKING);
+        } else {
+            this.setStatePacking(Boolean.valueOf(configuration.getProperty(StateSpacePlanner.STATE_PACKING_SETTING)));
+        }
+        if (configuration.getProperty(StateSpacePlanner.HEURISTIC_THREADS_SETTING) == null) {
+            this.setHeuristicThreads(StateSpacePlanner.DEFAULT_HEURISTIC_THREADS);
+        } else {
+            this.setHeuristicThreads(Integer.parseInt(configuration.getProperty(
+                StateSpacePlanner.HEURISTIC_THREADS_SETTING)));
+        }
     }
 
     /**
@@ -254,6 +358,10 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
         }
 
         Plan plan = null;
+        // The dead ends are shared by all the search strategies
+        final DeadEndStore deadEnds = new DeadEndStore(problem);
+        // The finite-domain variables are also shared since the mutex groups are costly to synthesize
+        final FiniteDomainVariables variables = this.isStatePacking() ? new FiniteDomainVariables(problem) : null;
         final Iterator<SearchStrategy.Name> i = this.getSearchStrategies().iterator();
         int timeout = this.getTimeout();
         while (plan == null && i.hasNext()) {
@@ -263,6 +371,10 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
                 + this.getConfiguration().getProperty(AbstractStateSpacePlanner.HEURISTIC_SETTING) + " heuristic \n");
             StateSpaceSearch search = StateSpaceSearch.getInstance(strategy, this.getHeuristic(),
                 this.getHeuristicWeight(), timeout);
+            search.setDeadEndStore(deadEnds);
+            search.setEvaluationFilter(this.getEvaluationFilter());
+            search.setFiniteDomainVariables(variables);
+            search.setHeuristicThreads(this.getHeuristicThreads());
             final Node solution = search.searchSolutionNode(problem);
             plan = (SequentialPlan) search.extractPlan(solution, problem);
             if (solution != null) {
@@ -274,6 +386,8 @@ public abstract class AbstractStateSpacePlanner extends AbstractPlanner implemen
             }
             final long end = System.currentTimeMillis();
             this.getStatistics().setMemoryUsedToSearch(search.getMemoryUsed());
+            this.getStatistics().setTimeToPreprocessHeuristic(search.getHeuristicPreprocessingTime());
+            this.getStatistics().setMemoryUsedForHeuristic(search.getHeuristicPreprocessingMemory());
             timeout -= ((end - begin) / 1000);
         }
         return plan;
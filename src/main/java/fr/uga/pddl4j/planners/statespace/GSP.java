@@ -24,6 +24,7 @@ import fr.uga.pddl4j.parser.DefaultParsedProblem;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.SearchStrategy;
 
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
 import fr.uga.pddl4j.problem.DefaultProblem;
 import fr.uga.pddl4j.problem.Problem;
 import org.apache.logging.log4j.LogManager;
@@ -41,7 +42,7 @@ import java.util.List;
  * <pre>
  * {@code
  * GSP [-hV] [-e="<heuristic>] [-l=<logLevel>]
- *                                [-t=<timeout>] [-w=<weight>] [-s
+ *                                [-t=<timeout>] [-w=<weight>] [-f=<filter>] [-p] [-s
  *                                [=<strategies>...]]... <domain> <problem>
  *
  * Description:
@@ -62,12 +63,26 @@ import java.util.List;
  *   -e, --heuristic=<heuristic>
  *                             Set the heuristics: AJUSTED_SUM, AJUSTED_SUM2,
  *                               AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD,
- *                               SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)
+ *                               SET_LEVEL, SUM, SUM_MUTEX, LANDMARK_COUNT,
+ *                               ADMISSIBLE_LANDMARK_COUNT, PATTERN_DATABASE,
+ *                               CRITICAL_PATH, CAUSAL_GRAPH,
+ *                               CONTEXT_ENHANCED_ADDITIVE, MERGE_AND_SHRINK,
+ *                               COST_PARTITIONING, GOAL_COUNT
+ *                               (preset: FAST_FORWARD)
  *   -s, --search-strategies[=<strategies>...]
  *                             Set the search strategies: ASTAR,
  *                               ENFORCED_HILL_CLIMBING, BREADTH_FIRST,
- *                               GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING
+ *                               GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING,
+ *                               IW1, IW2, SIW, BFWS, MONTE_CARLO_RANDOM_WALK
  *                               (preset: ASTAR)
+ *   -f, --filter=<filter>     Set the filter of the successors evaluated with
+ *                               the heuristic by the greedy searches: NONE,
+ *                               GOAL_COUNT, NOVELTY (preset: NONE)
+ *   -p, --packing             Pack the states registered by the searches with
+ *                               the finite-domain variables of the problem
+ *   -j, --threads=<threads>   Set the number of threads used by the searches
+ *                               to evaluate the successors of a node with the
+ *                               heuristic (preset: 1)
  *   -h, --help                Show this help message and exit.
  *   -V, --version             Print version information and exit.
  * }
@@ -146,7 +161,10 @@ public final class GSP extends AbstractStateSpacePlanner {
      */
     @CommandLine.Option(names = { "-e", "--heuristic" }, defaultValue = "FAST_FORWARD",
         description = "Set the heuristics: AJUSTED_SUM, AJUSTED_SUM2, AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD, "
-            +  "SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)")
+            +  "SET_LEVEL, SUM, SUM_MUTEX, LANDMARK_COUNT, ADMISSIBLE_LANDMARK_COUNT, PATTERN_DATABASE, "
+            + "CRITICAL_PATH, CAUSAL_GRAPH, CONTEXT_ENHANCED_ADDITIVE, "
+            + "MERGE_AND_SHRINK, COST_PARTITIONING, GOAL_COUNT "
+            + "(preset: FAST_FORWARD)")
     @Override
     public final void setHeuristic(StateHeuristic.Name heuristic)  {
         super.setHeuristic(heuristic);
@@ -159,11 +177,53 @@ public final class GSP extends AbstractStateSpacePlanner {
      */
     @CommandLine.Option(names = { "-s", "--search-strategies" }, paramLabel = "<strategies>", arity = "0..*",
         defaultValue = "ASTAR", description = "Set the search strategies: ASTAR, ENFORCED_HILL_CLIMBING, "
-        + "BREADTH_FIRST, GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING (preset: ASTAR)")
+        + "BREADTH_FIRST, GREEDY_BEST_FIRST, DEPTH_FIRST, HILL_CLIMBING, IW1, IW2, SIW, BFWS, "
+        + "MONTE_CARLO_RANDOM_WALK (preset: ASTAR)")
     public final void setSearchStrategies(List<SearchStrategy.Name> strategies)  {
         super.setSearchStrategies(strategies);
     }
 
+    /**
+     * Sets the filter used by the greedy searches to select the successors evaluated with the heuristic. This method
+     * is overrided to add the command line option of the planner.
+     *
+     * @param filter the filter.
+     */
+    @CommandLine.Option(names = { "-f", "--filter" }, defaultValue = "NONE", paramLabel = "<filter>",
+        description = "Set the filter of the successors evaluated with the heuristic by the greedy searches: NONE, "
+            + "GOAL_COUNT, NOVELTY (preset: NONE)")
+    @Override
+    public final void setEvaluationFilter(final StateSpaceSearch.EvaluationFilter filter) {
+        super.setEvaluationFilter(filter);
+    }
+
+    /**
+     * Sets if the states registered by the searches are packed with the finite-domain variables of the problem. This
+     * method is overrided to add the command line option of the planner.
+     *
+     * @param packing <code>true</code> to pack the states registered by the searches.
+     */
+    @CommandLine.Option(names = { "-p", "--packing" },
+        description = "Pack the states registered by the searches with the finite-domain variables of the problem")
+    @Override
+    public final void setStatePacking(final boolean packing) {
+        super.setStatePacking(packing);
+    }
+
+    /**
+     * Sets the number of threads used by the searches to evaluate the successors of a node with the heuristic. This
+     * method is overrided to add the command line option of the planner.
+     *
+     * @param threads the number of threads.
+     */
+    @CommandLine.Option(names = { "-j", "--threads" }, defaultValue = "1", paramLabel = "<threads>",
+        description = "Set the number of threads used by the searches to evaluate the successors of a node with the "
+            + "heuristic (preset: 1)")
+    @Override
+    public final void setHeuristicThreads(final int threads) {
+        super.setHeuristicThreads(threads);
+    }
+
     /**
      * Instantiates the planning problem from a parsed problem.
      *
@@ -58,7 +58,12 @@ import picocli.CommandLine;
  *   -e, --heuristic=<heuristic>
  *                             Set the heuristic : AJUSTED_SUM, AJUSTED_SUM2,
  *                               AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD,
- *                               SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)
+ *                               SET_LEVEL, SUM, SUM_MUTEX, LANDMARK_COUNT,
+ *                               ADMISSIBLE_LANDMARK_COUNT, PATTERN_DATABASE,
+ *                               CRITICAL_PATH, CAUSAL_GRAPH,
+ *                               CONTEXT_ENHANCED_ADDITIVE, MERGE_AND_SHRINK,
+ *                               COST_PARTITIONING, GOAL_COUNT
+ *                               (preset: FAST_FORWARD)
  *   -h, --help                Show this help message and exit.
  *   -V, --version             Print version information and exit.
  *  }
@@ -132,7 +137,10 @@ public final class HSP extends AbstractStateSpacePlanner  {
      */
     @CommandLine.Option(names = { "-e", "--heuristic" }, defaultValue = "FAST_FORWARD",
         description = "Set the heuristic : AJUSTED_SUM, AJUSTED_SUM2, AJUSTED_SUM2M, COMBO, MAX, FAST_FORWARD, "
-            + "SET_LEVEL, SUM, SUM_MUTEX (preset: FAST_FORWARD)")
+            + "SET_LEVEL, SUM, SUM_MUTEX, LANDMARK_COUNT, ADMISSIBLE_LANDMARK_COUNT, PATTERN_DATABASE, "
+            + "CRITICAL_PATH, CAUSAL_GRAPH, CONTEXT_ENHANCED_ADDITIVE, "
+            + "MERGE_AND_SHRINK, COST_PARTITIONING, GOAL_COUNT "
+            + "(preset: FAST_FORWARD)")
     public final void setHeuristic(StateHeuristic.Name heuristic)  {
         super.setHeuristic(heuristic);
     }
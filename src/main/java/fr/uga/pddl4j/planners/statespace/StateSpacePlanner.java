@@ -19,6 +19,7 @@ import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.planners.Planner;
 
 import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
 import fr.uga.pddl4j.problem.Problem;
 
 import java.util.Arrays;
@@ -63,4 +64,34 @@ public interface StateSpacePlanner extends Planner {
      */
     static final double DEFAULT_WEIGHT_HEURISTIC = 1.0;
 
+    /**
+     * The EVALUATION_FILTER property used for planner configuration.
+     */
+    static final String EVALUATION_FILTER_SETTING = "EVALUATION_FILTER";
+
+    /**
+     * The default value of the EVALUATION_FILTER property used for planner configuration.
+     */
+    static final StateSpaceSearch.EvaluationFilter DEFAULT_EVALUATION_FILTER = StateSpaceSearch.EvaluationFilter.NONE;
+
+    /**
+     * The STATE_PACKING property used for planner configuration.
+     */
+    static final String STATE_PACKING_SETTING = "STATE_PACKING";
+
+    /**
+     * The default value of the STATE_PACKING property used for planner configuration.
+     */
+    static final boolean DEFAULT_STATE_PACKING = false;
+
+    /**
+     * The HEURISTIC_THREADS property used for planner configuration.
+     */
+    static final String HEURISTIC_THREADS_SETTING = "HEURISTIC_THREADS";
+
+    /**
+     * The default value of the HEURISTIC_THREADS property used for planner configuration.
+     */
+    static final int DEFAULT_HEURISTIC_THREADS = 1;
+
 }
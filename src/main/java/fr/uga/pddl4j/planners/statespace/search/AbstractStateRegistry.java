@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This abstract class implements the storage of the search data of a registry of states. The search data of the
+ * states are stored in parallel arrays indexed by the index of the states. The subclasses store the states and give
+ * them their index.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ */
+public abstract class AbstractStateRegistry implements StateRegistry {
+
+    /**
+     * The default initial capacity of the registry.
+     */
+    protected static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The index of the state of the parent of each node registered.
+     */
+    private int[] parents;
+
+    /**
+     * The action of each node registered.
+     */
+    private int[] actions;
+
+    /**
+     * The cost of each node registered.
+     */
+    private double[] costs;
+
+    /**
+     * The depth of each node registered.
+     */
+    private int[] depths;
+
+    /**
+     * The heuristic value of each node registered.
+     */
+    private double[] heuristics;
+
+    /**
+     * Creates a new empty registry.
+     */
+    protected AbstractStateRegistry() {
+        this.parents = new int[AbstractStateRegistry.DEFAULT_CAPACITY];
+        this.actions = new int[AbstractStateRegistry.DEFAULT_CAPACITY];
+        this.costs = new double[AbstractStateRegistry.DEFAULT_CAPACITY];
+        this.depths = new int[AbstractStateRegistry.DEFAULT_CAPACITY];
+        this.heuristics = new double[AbstractStateRegistry.DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Registers a specified state if it is not already registered.
+     *
+     * @param state the state.
+     * @return the index of the state.
+     */
+    protected abstract int register(final State state);
+
+    /**
+     * Registers the state of a node with the search data of the node. The search data replace the search data
+     * previously registered for the same state. The node itself is not kept.
+     *
+     * @param node   the node.
+     * @param parent the index of the state of the parent of the node or -1 if the node is the root.
+     * @return the index of the state of the node.
+     */
+    @Override
+    public final int put(final Node node, final int parent) {
+        final int index = this.register(node);
+        if (index == this.parents.length) {
+            final int capacity = this.parents.length << 1;
+            this.parents = Arrays.copyOf(this.parents, capacity);
+            this.actions = Arrays.copyOf(this.actions, capacity);
+            this.costs = Arrays.copyOf(this.costs, capacity);
+            this.depths = Arrays.copyOf(this.depths, capacity);
+            this.heuristics = Arrays.copyOf(this.heuristics, capacity);
+        }
+        this.parents[index] = parent;
+        this.actions[index] = node.getAction();
+        this.costs[index] = node.getCost();
+        this.depths[index] = node.getDepth();
+        this.heuristics[index] = node.getHeuristic();
+        return index;
+    }
+
+    /**
+     * Returns the index of the state of the parent of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the index of the state of the parent or -1 if the node is the root.
+     */
+    @Override
+    public final int getParent(final int index) {
+        return this.parents[index];
+    }
+
+    /**
+     * Returns the action of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the action of the node.
+     */
+    @Override
+    public final int getAction(final int index) {
+        return this.actions[index];
+    }
+
+    /**
+     * Returns the cost of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the cost of the node.
+     */
+    @Override
+    public final double getCost(final int index) {
+        return this.costs[index];
+    }
+
+    /**
+     * Returns the depth of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the depth of the node.
+     */
+    @Override
+    public final int getDepth(final int index) {
+        return this.depths[index];
+    }
+
+    /**
+     * Returns the heuristic value of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the heuristic value of the node.
+     */
+    @Override
+    public final double getHeuristic(final int index) {
+        return this.heuristics[index];
+    }
+
+    /**
+     * Rebuilds the node registered at a specified index and the nodes of its path from the root. The path is walked
+     * iteratively since it can be as long as the number of states registered.
+     *
+     * @param index the index of the state.
+     * @return the node registered at the index linked to its parents.
+     */
+    @Override
+    public final Node getNode(final int index) {
+        final List<Integer> path = new ArrayList<>();
+        for (int i = index; i != -1; i = this.parents[i]) {
+            path.add(i);
+        }
+        Node node = null;
+        for (int k = path.size() - 1; k >= 0; k--) {
+            final int i = path.get(k);
+            node = new Node(this.getState(i), node, this.actions[i], this.costs[i], this.depths[i],
+                this.heuristics[i]);
+        }
+        return node;
+    }
+}
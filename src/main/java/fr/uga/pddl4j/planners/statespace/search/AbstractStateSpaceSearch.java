@@ -15,12 +15,16 @@
 
 package fr.uga.pddl4j.planners.statespace.search;
 
+import fr.uga.pddl4j.heuristics.state.ParallelStateHeuristic;
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.plan.SequentialPlan;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.operator.Action;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -57,6 +61,16 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
      */
     private long memoryUsed;
 
+    /**
+     * The time spent to build the structures precomputed by the heuristic.
+     */
+    private long heuristicPreprocessingTime;
+
+    /**
+     * The memory used by the structures precomputed by the heuristic.
+     */
+    private long heuristicPreprocessingMemory;
+
     /**
      * The number of explored nodes.
      */
@@ -72,6 +86,31 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
      */
     private int createdNodes;
 
+    /**
+     * The store of the dead ends met by the search.
+     */
+    private DeadEndStore deadEnds;
+
+    /**
+     * The filter used to select the successors evaluated with the heuristic.
+     */
+    private EvaluationFilter evaluationFilter;
+
+    /**
+     * The number of threads used to evaluate the successors of a node with the heuristic.
+     */
+    private int heuristicThreads;
+
+    /**
+     * The heuristics evaluating in parallel created by the current search and stopped at its end.
+     */
+    private final List<ParallelStateHeuristic> parallelHeuristics;
+
+    /**
+     * The finite-domain variables used to pack the states registered by the search.
+     */
+    private FiniteDomainVariables variables;
+
     /**
      * Returns the heuristic to use to solve the planning problem.
      *
@@ -173,6 +212,114 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         this.memoryUsed = memoryUsed;
     }
 
+    /**
+     * Returns the time spent to build the structures precomputed by the heuristic of the search in milliseconds.
+     *
+     * @return the time spent to build the structures precomputed by the heuristic of the search.
+     */
+    @Override
+    public long getHeuristicPreprocessingTime() {
+        return this.heuristicPreprocessingTime;
+    }
+
+    /**
+     * Returns the memory used by the structures precomputed by the heuristic of the search in bytes.
+     *
+     * @return the memory used by the structures precomputed by the heuristic of the search.
+     */
+    @Override
+    public long getHeuristicPreprocessingMemory() {
+        return this.heuristicPreprocessingMemory;
+    }
+
+    /**
+     * Returns the filter used to select the successors evaluated with the heuristic of the search.
+     *
+     * @return the filter used to select the successors evaluated with the heuristic of the search.
+     */
+    @Override
+    public final EvaluationFilter getEvaluationFilter() {
+        return this.evaluationFilter;
+    }
+
+    /**
+     * Sets the filter used to select the successors evaluated with the heuristic of the search.
+     *
+     * @param filter the filter. The filter cannot be null.
+     */
+    @Override
+    public final void setEvaluationFilter(final EvaluationFilter filter) {
+        Objects.requireNonNull(filter);
+        this.evaluationFilter = filter;
+    }
+
+    /**
+     * Returns the number of threads used to evaluate the successors of a node with the heuristic of the search.
+     *
+     * @return the number of threads used to evaluate the successors of a node with the heuristic of the search.
+     */
+    @Override
+    public final int getHeuristicThreads() {
+        return this.heuristicThreads;
+    }
+
+    /**
+     * Sets the number of threads used to evaluate the successors of a node with the heuristic of the search.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     * @throws IllegalArgumentException if <code>threads &#60; 1</code>.
+     */
+    @Override
+    public final void setHeuristicThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("the number of threads must be strictly positive");
+        }
+        this.heuristicThreads = threads;
+    }
+
+    /**
+     * Creates the heuristic of the search for a specified problem and records the time and the memory needed by its
+     * precomputed structures. With more than one heuristic thread, the heuristic evaluates the batches of states in
+     * parallel until the end of the search.
+     *
+     * @param problem the problem.
+     * @return the heuristic of the search.
+     */
+    protected final StateHeuristic createHeuristic(final Problem problem) {
+        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), problem,
+            this.heuristicThreads);
+        if (heuristic instanceof ParallelStateHeuristic) {
+            this.parallelHeuristics.add((ParallelStateHeuristic) heuristic);
+        }
+        this.heuristicPreprocessingTime = heuristic.getPreprocessingTime();
+        this.heuristicPreprocessingMemory = heuristic.getPreprocessingMemory();
+        return heuristic;
+    }
+
+    /**
+     * Creates the evaluator of the nodes of the search for a specified problem. The evaluator uses the heuristic of
+     * the search, the store of the dead ends of the problem and the filter of the successors of the search.
+     *
+     * @param problem the problem.
+     * @return the evaluator of the nodes of the search.
+     */
+    protected final HeuristicEvaluator createEvaluator(final Problem problem) {
+        return this.createEvaluator(problem, this.evaluationFilter);
+    }
+
+    /**
+     * Creates the evaluator of the nodes of the search for a specified problem with a specified filter of the
+     * successors.
+     *
+     * @param problem the problem.
+     * @param filter  the filter of the successors evaluated with the heuristic.
+     * @return the evaluator of the nodes of the search.
+     */
+    protected final HeuristicEvaluator createEvaluator(final Problem problem, final EvaluationFilter filter) {
+        return new HeuristicEvaluator(this.createHeuristic(problem), problem.getGoal(),
+            this.getDeadEndStore(problem), filter, problem.getFluents().size());
+    }
+
     /**
      * Returns the number of explored nodes.
      *
@@ -233,6 +380,73 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         this.createdNodes = createdNodes;
     }
 
+    /**
+     * Returns the store of the dead ends met by the search.
+     *
+     * @return the store of the dead ends met by the search or <code>null</code> if no store is set.
+     */
+    @Override
+    public DeadEndStore getDeadEndStore() {
+        return this.deadEnds;
+    }
+
+    /**
+     * Sets the store of the dead ends met by the search. A store can be shared by several searches of the same
+     * problem.
+     *
+     * @param store the store of the dead ends.
+     */
+    @Override
+    public void setDeadEndStore(final DeadEndStore store) {
+        this.deadEnds = store;
+    }
+
+    /**
+     * Returns the store of the dead ends of a specified problem. A new store is created if no store is set or if the
+     * store set is bound to another problem.
+     *
+     * @param problem the problem.
+     * @return the store of the dead ends of the problem.
+     */
+    protected final DeadEndStore getDeadEndStore(final Problem problem) {
+        if (this.deadEnds == null || this.deadEnds.getProblem() != problem) {
+            this.deadEnds = new DeadEndStore(problem);
+        }
+        return this.deadEnds;
+    }
+
+    /**
+     * Returns the finite-domain variables used to pack the states registered by the search.
+     *
+     * @return the finite-domain variables used to pack the states registered by the search or <code>null</code> if
+     *          the states are registered unpacked.
+     */
+    @Override
+    public FiniteDomainVariables getFiniteDomainVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Sets the finite-domain variables used to pack the states registered by the search. The variables must be built
+     * from the problem solved by the search. The variables can be shared by several searches of the same problem.
+     *
+     * @param variables the finite-domain variables or <code>null</code> to register the states unpacked.
+     */
+    @Override
+    public void setFiniteDomainVariables(final FiniteDomainVariables variables) {
+        this.variables = variables;
+    }
+
+    /**
+     * Creates the registry of the states of the search. The states are packed with the finite-domain variables of the
+     * search if they are set.
+     *
+     * @return the registry of the states of the search.
+     */
+    protected final StateRegistry createRegistry() {
+        return this.variables == null ? new HashStateRegistry() : new PackedStateRegistry(this.variables);
+    }
+
     /**
      * Create a new search strategy.
      */
@@ -264,6 +478,11 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         this.weight = weight;
         this.searchingTime = 0;
         this.memoryUsed = 0;
+        this.heuristicPreprocessingTime = 0;
+        this.heuristicPreprocessingMemory = 0;
+        this.evaluationFilter = StateSpaceSearch.DEFAULT_EVALUATION_FILTER;
+        this.heuristicThreads = 1;
+        this.parallelHeuristics = new ArrayList<>();
         resetNodesStatistics();
     }
 
@@ -276,7 +495,11 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
     @Override
     public Node searchSolutionNode(final Problem codedProblem) {
         Objects.requireNonNull(codedProblem);
-        return search(codedProblem);
+        try {
+            return search(codedProblem);
+        } finally {
+            this.shutdownHeuristics();
+        }
     }
 
     /**
@@ -287,8 +510,7 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
      */
     @Override
     public Plan searchPlan(final Problem codedProblem) {
-        Objects.requireNonNull(codedProblem);
-        final Node solutionNode = search(codedProblem);
+        final Node solutionNode = this.searchSolutionNode(codedProblem);
         if (solutionNode != null) {
             return extractPlan(solutionNode, codedProblem);
         } else {
@@ -319,6 +541,34 @@ public abstract class AbstractStateSpaceSearch implements StateSpaceSearch {
         }
     }
 
+    /**
+     * Searches a solution node of a specified problem with a search engine and records the statistics of the search.
+     *
+     * @param problem the problem to be solved.
+     * @param engine  the search engine.
+     * @return the solution node or <code>null</code> if no solution was found.
+     */
+    protected final Node search(final Problem problem, final SearchEngine engine) {
+        this.resetNodesStatistics();
+        final Node solution = engine.search(problem, this.getTimeout() * 1000L);
+        this.setExploredNodes(engine.getExploredNodes());
+        this.setCreatedNodes(engine.getCreatedNodes());
+        this.setPendingNodes(engine.getPendingNodes());
+        this.setMemoryUsed(engine.getMemoryUsed());
+        this.setSearchingTime(engine.getSearchingTime());
+        return solution;
+    }
+
+    /**
+     * Stops the threads of the heuristics evaluating in parallel created by the search.
+     */
+    private void shutdownHeuristics() {
+        for (ParallelStateHeuristic heuristic : this.parallelHeuristics) {
+            heuristic.shutdown();
+        }
+        this.parallelHeuristics.clear();
+    }
+
     /**
      * Reset Nodes statistics.
      */
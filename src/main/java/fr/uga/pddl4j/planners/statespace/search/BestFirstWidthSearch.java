@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.GoalCount;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * This class implements the best first width search strategy BFWS. The nodes are ordered by their novelty, then by
+ * their heuristic value and finally by the number of goal fluents not yet achieved. The novelty of a node is computed
+ * with a table of width 2 with respect to the nodes having the same heuristic value and the same goal count. When no
+ * heuristic is given, the goal count is used as heuristic. Unlike IW(k), the nodes that are not novel are not pruned:
+ * they are expanded after the novel ones and the search is complete. For more about this search strategy see N.
+ * Lipovetzky and H. Geffner, Best-First Width Search: Exploration and Exploitation in Classical Planning, Proceedings
+ * of AAAI, 2017.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.02.2021
+ * @see NoveltyTable
+ */
+public final class BestFirstWidthSearch extends AbstractStateSpaceSearch {
+
+    /**
+     * The width of the novelty table used by the search.
+     */
+    private static final int WIDTH = 2;
+
+    /**
+     * Creates a new BFWS search strategy with default parameters.
+     */
+    public BestFirstWidthSearch() {
+        super();
+    }
+
+    /**
+     * Creates a new BFWS search strategy.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic to use to solve the planning problem or <code>null</code> to use only the goal
+     *                  count.
+     * @param weight    the weight set to the heuristic.
+     */
+    public BestFirstWidthSearch(final int timeout, final StateHeuristic.Name heuristic, final double weight) {
+        super(timeout, heuristic, weight);
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution node or null if no solution was found.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final Condition goal = codedProblem.getGoal();
+        final StateHeuristic heuristic = this.getHeuristic() == null ? null
+            : this.createHeuristic(codedProblem);
+        final NoveltyTable novelty = new NoveltyTable(codedProblem.getFluents().size(), BestFirstWidthSearch.WIDTH);
+        final SearchEngine engine = new SearchEngine(new NoveltyOpenList(goal, novelty), this.createRegistry(),
+            new DefaultSuccessorGenerator(codedProblem), new WidthEvaluator(goal, heuristic, this.getWeight()));
+        return this.search(codedProblem, engine);
+    }
+
+    /**
+     * This class implements the evaluator of the search: it computes the weighted heuristic value of the nodes or
+     * their goal count when no heuristic is given. The successors of a node are evaluated at once with the batch
+     * evaluation of the heuristic, unless the heuristic is path-dependent.
+     */
+    private static final class WidthEvaluator implements Evaluator {
+
+        /**
+         * The goal of the problem.
+         */
+        private final Condition goal;
+
+        /**
+         * The heuristic or <code>null</code> to use the goal count.
+         */
+        private final StateHeuristic heuristic;
+
+        /**
+         * The weight of the heuristic.
+         */
+        private final double weight;
+
+        /**
+         * Creates a new evaluator.
+         *
+         * @param goal      the goal of the problem.
+         * @param heuristic the heuristic or <code>null</code> to use the goal count.
+         * @param weight    the weight of the heuristic.
+         */
+        private WidthEvaluator(final Condition goal, final StateHeuristic heuristic, final double weight) {
+            this.goal = goal;
+            this.heuristic = heuristic;
+            this.weight = weight;
+        }
+
+        /**
+         * Evaluates a node, i.e., computes its heuristic value or its goal count when no heuristic is given.
+         *
+         * @param node the node.
+         * @return <code>true</code> if the node is not a dead end; <code>false</code> otherwise.
+         */
+        @Override
+        public boolean evaluate(final Node node) {
+            final int value = this.heuristic == null ? GoalCount.count(node, this.goal)
+                : this.weigh(this.heuristic.estimate(node, this.goal));
+            node.setHeuristic(value);
+            return value != Integer.MAX_VALUE;
+        }
+
+        /**
+         * Evaluates the successors of a node.
+         *
+         * @param parent     the parent of the successors.
+         * @param successors the successors to evaluate.
+         * @return the successors that are not dead ends.
+         */
+        @Override
+        public List<Node> evaluate(final Node parent, final List<Node> successors) {
+            if (this.heuristic == null || this.heuristic.isPathDependent()) {
+                return Evaluator.super.evaluate(parent, successors);
+            }
+            final int[] values = new int[successors.size()];
+            this.heuristic.estimate(successors.toArray(new State[0]), this.goal, values);
+            final List<Node> evaluated = new ArrayList<>(successors.size());
+            for (int i = 0; i < values.length; i++) {
+                final Node successor = successors.get(i);
+                final int value = this.weigh(values[i]);
+                successor.setHeuristic(value);
+                if (value != Integer.MAX_VALUE) {
+                    evaluated.add(successor);
+                }
+            }
+            return evaluated;
+        }
+
+        /**
+         * Returns <code>true</code> if the heuristic is path-dependent.
+         *
+         * @return <code>true</code> if the heuristic is path-dependent; <code>false</code> otherwise.
+         */
+        @Override
+        public boolean isPathDependent() {
+            return this.heuristic != null && this.heuristic.isPathDependent();
+        }
+
+        /**
+         * Returns the weighted value of an estimation of the heuristic.
+         *
+         * @param estimate the estimation of the heuristic.
+         * @return the weighted value of the estimation.
+         */
+        private int weigh(final double estimate) {
+            return (int) Math.min(Integer.MAX_VALUE, Math.ceil(this.weight * estimate));
+        }
+    }
+
+    /**
+     * This class implements the open list of the search. The novelty of a node is computed when the node is added
+     * with respect to the nodes having the same heuristic value and the same goal count.
+     */
+    private static final class NoveltyOpenList implements OpenList {
+
+        /**
+         * The goal of the problem.
+         */
+        private final Condition goal;
+
+        /**
+         * The novelty table.
+         */
+        private final NoveltyTable novelty;
+
+        /**
+         * The entries of the open list.
+         */
+        private final PriorityQueue<Entry> entries;
+
+        /**
+         * Creates a new empty open list.
+         *
+         * @param goal    the goal of the problem.
+         * @param novelty the novelty table.
+         */
+        private NoveltyOpenList(final Condition goal, final NoveltyTable novelty) {
+            this.goal = goal;
+            this.novelty = novelty;
+            this.entries = new PriorityQueue<>();
+        }
+
+        /**
+         * Adds an evaluated node to the open list.
+         *
+         * @param node the node.
+         */
+        @Override
+        public void add(final Node node) {
+            final int count = GoalCount.count(node, this.goal);
+            final int value = (int) node.getHeuristic();
+            final int width = this.novelty.update(node, ((long) value << 32) | count);
+            this.entries.add(new Entry(node, width, value, count));
+        }
+
+        /**
+         * Removes and returns the node of the open list with the lowest novelty, heuristic value, goal count and
+         * cost.
+         *
+         * @return the next node to expand or <code>null</code> if the open list is empty.
+         */
+        @Override
+        public Node poll() {
+            final Entry entry = this.entries.poll();
+            return entry == null ? null : entry.node;
+        }
+
+        /**
+         * Returns <code>true</code> if the open list is empty.
+         *
+         * @return <code>true</code> if the open list is empty.
+         */
+        @Override
+        public boolean isEmpty() {
+            return this.entries.isEmpty();
+        }
+
+        /**
+         * Returns the number of nodes of the open list.
+         *
+         * @return the number of nodes of the open list.
+         */
+        @Override
+        public int size() {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * This class implements the entries of the open list of the search.
+     */
+    private static final class Entry implements Comparable<Entry>, Serializable {
+
+        /**
+         * The serial id of the class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The node of the entry.
+         */
+        private final Node node;
+
+        /**
+         * The novelty of the node.
+         */
+        private final int novelty;
+
+        /**
+         * The heuristic value of the node.
+         */
+        private final int value;
+
+        /**
+         * The goal count of the node.
+         */
+        private final int count;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param node    the node.
+         * @param novelty the novelty of the node.
+         * @param value   the heuristic value of the node.
+         * @param count   the goal count of the node.
+         */
+        private Entry(final Node node, final int novelty, final int value, final int count) {
+            this.node = node;
+            this.novelty = novelty;
+            this.value = value;
+            this.count = count;
+        }
+
+        /**
+         * Compares the entries by novelty, heuristic value, goal count and cost.
+         *
+         * @param other the other entry.
+         * @return a negative integer, zero, or a positive integer as this entry is less than, equal to, or greater
+         *          than the other entry.
+         */
+        @Override
+        public int compareTo(final Entry other) {
+            int cmp = Integer.compare(this.novelty, other.novelty);
+            if (cmp == 0) {
+                cmp = Integer.compare(this.value, other.value);
+            }
+            if (cmp == 0) {
+                cmp = Integer.compare(this.count, other.count);
+            }
+            if (cmp == 0) {
+                cmp = Double.compare(this.node.getCost(), other.node.getCost());
+            }
+            return cmp;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.UnconditionalOperators;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class implements a store of the dead ends met during the search of a problem. When a state is recognized as a
+ * dead end, the store computes the fluents reachable from the state when the negative effects and the negative
+ * preconditions are ignored. If the positive goal of the problem is not among them, this set of fluents is recorded:
+ * every state whose positive fluents are included in the set is a dead end, since the fluents reachable from such a
+ * state are also included in the set.
+ * <p>
+ * The dead ends are indexed by fluent: for each fluent, the store keeps the bit set of the dead ends containing the
+ * fluent. A state is subsumed by a dead end if the intersection of the bit sets of its fluents is not empty. The store
+ * is bound to the goal of the problem and can be shared by all the searches of the problem.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 26.02.2021
+ */
+public final class DeadEndStore implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The problem of the store.
+     */
+    private final Problem problem;
+
+    /**
+     * The positive goal of the problem.
+     */
+    private final int[] goal;
+
+    /**
+     * The unconditional operators of the problem, computed the first time a dead end is added.
+     */
+    private UnconditionalOperators operators;
+
+    /**
+     * For each fluent, the bit set of the dead ends containing the fluent.
+     */
+    private long[][] index;
+
+    /**
+     * The number of dead ends stored.
+     */
+    private int size;
+
+    /**
+     * Creates a new empty dead end store for a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public DeadEndStore(final Problem problem) {
+        this.problem = problem;
+        final BitVector pGoal = problem.getGoal().getPositiveFluents();
+        this.goal = new int[pGoal.cardinality()];
+        int i = 0;
+        for (int f = pGoal.nextSetBit(0); f >= 0; f = pGoal.nextSetBit(f + 1)) {
+            this.goal[i++] = f;
+        }
+        this.index = new long[problem.getFluents().size()][1];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the problem of the store.
+     *
+     * @return the problem of the store.
+     */
+    public Problem getProblem() {
+        return this.problem;
+    }
+
+    /**
+     * Returns the number of dead ends stored.
+     *
+     * @return the number of dead ends stored.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns <code>true</code> if a state is subsumed by a dead end of the store, i.e., if the positive fluents of the
+     * state are included in a dead end.
+     *
+     * @param state the state.
+     * @return <code>true</code> if the state is subsumed by a dead end; <code>false</code> otherwise.
+     */
+    public boolean isDeadEnd(final BitVector state) {
+        if (this.size == 0) {
+            return false;
+        }
+        final int nbWords = (this.size + 63) >>> 6;
+        for (int w = 0; w < nbWords; w++) {
+            long candidates = w == nbWords - 1 && (this.size & 63) != 0 ? (1L << this.size) - 1 : -1L;
+            for (int f = state.nextSetBit(0); f >= 0 && candidates != 0; f = state.nextSetBit(f + 1)) {
+                candidates &= this.index[f][w];
+            }
+            if (candidates != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a state recognized as a dead end to the store. The state is recorded only if the positive goal of the
+     * problem is not reachable from the state when the negative effects and the negative preconditions are ignored.
+     *
+     * @param state the state.
+     * @return <code>true</code> if a dead end was added to the store; <code>false</code> otherwise.
+     */
+    public boolean add(final BitVector state) {
+        if (this.isDeadEnd(state)) {
+            return false;
+        }
+        final BitVector reachable = this.getReachableFluents(state);
+        for (int g : this.goal) {
+            if (!reachable.get(g)) {
+                if ((this.size & 63) == 0 && (this.size >>> 6) == this.index[0].length) {
+                    final int length = this.index[0].length * 2;
+                    for (int f = 0; f < this.index.length; f++) {
+                        this.index[f] = Arrays.copyOf(this.index[f], length);
+                    }
+                }
+                final int word = this.size >>> 6;
+                final long bit = 1L << this.size;
+                for (int f = reachable.nextSetBit(0); f >= 0; f = reachable.nextSetBit(f + 1)) {
+                    this.index[f][word] |= bit;
+                }
+                this.size++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the fluents reachable from a state when the negative effects and the negative preconditions are ignored.
+     *
+     * @param state the state.
+     * @return the fluents reachable from the state.
+     */
+    private BitVector getReachableFluents(final BitVector state) {
+        if (this.operators == null) {
+            this.operators = UnconditionalOperators.getInstance(this.problem);
+        }
+        final UnconditionalOperators ops = this.operators;
+        final BitVector reachable = new BitVector(ops.nbFluents());
+        final int[] counters = new int[ops.size()];
+        final int[] queue = new int[ops.nbFluents()];
+        int head = 0;
+        int tail = 0;
+        for (int f = state.nextSetBit(0); f >= 0 && f < ops.nbFluents(); f = state.nextSetBit(f + 1)) {
+            reachable.set(f);
+            queue[tail++] = f;
+        }
+        for (int op : ops.getOperatorsWithoutPreconditions()) {
+            for (int f : ops.getAddEffects(op)) {
+                if (!reachable.get(f)) {
+                    reachable.set(f);
+                    queue[tail++] = f;
+                }
+            }
+        }
+        while (head < tail) {
+            final int p = queue[head++];
+            for (int op : ops.getConsumers(p)) {
+                if (++counters[op] == ops.getPreconditions(op).length) {
+                    for (int f : ops.getAddEffects(op)) {
+                        if (!reachable.get(f)) {
+                            reachable.set(f);
+                            queue[tail++] = f;
+                        }
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+}
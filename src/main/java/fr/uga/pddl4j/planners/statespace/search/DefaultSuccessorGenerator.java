@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+
+import java.util.List;
+
+/**
+ * This class implements the default generator of successors: a successor is created for each action of the problem
+ * applicable in the node expanded. The conditions of the conditional effects of the actions are evaluated in the node
+ * expanded.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ */
+public final class DefaultSuccessorGenerator implements SuccessorGenerator {
+
+    /**
+     * The actions of the problem.
+     */
+    private final Action[] actions;
+
+    /**
+     * The cost of the actions of the problem.
+     */
+    private final double[] costs;
+
+    /**
+     * Creates a new generator of successors for a specified problem.
+     *
+     * @param problem the problem.
+     */
+    public DefaultSuccessorGenerator(final Problem problem) {
+        final List<Action> list = problem.getActions();
+        this.actions = list.toArray(new Action[0]);
+        this.costs = new double[this.actions.length];
+        for (int i = 0; i < this.actions.length; i++) {
+            this.costs[i] = this.actions[i].getCost().getValue();
+        }
+    }
+
+    /**
+     * Generates the successors of a node. The successors have their parent, their action, their cost and their depth
+     * set.
+     *
+     * @param parent     the node to expand.
+     * @param successors the list where the successors are added.
+     */
+    @Override
+    public void generate(final Node parent, final List<Node> successors) {
+        for (int index = 0; index < this.actions.length; index++) {
+            final Action op = this.actions[index];
+            // Test if a specified operator is applicable in the current state
+            if (op.isApplicable(parent)) {
+                final Node successor = new Node(parent);
+                // Apply the effects whose condition holds in the current state
+                for (ConditionalEffect ce : op.getConditionalEffects()) {
+                    if (parent.satisfy(ce.getCondition())) {
+                        successor.apply(ce.getEffect());
+                    }
+                }
+                successor.setCost(parent.getCost() + this.costs[index]);
+                successor.setParent(parent);
+                successor.setAction(index);
+                successor.setDepth(parent.getDepth() + 1);
+                successors.add(successor);
+            }
+        }
+    }
+}
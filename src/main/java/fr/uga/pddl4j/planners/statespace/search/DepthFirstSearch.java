@@ -16,11 +16,7 @@
 package fr.uga.pddl4j.planners.statespace.search;
 
 import fr.uga.pddl4j.problem.Problem;
-import fr.uga.pddl4j.problem.State;
-import fr.uga.pddl4j.problem.operator.Action;
-import org.openjdk.jol.info.GraphLayout;
 
-import java.util.LinkedList;
 import java.util.Objects;
 
 /**
@@ -48,75 +44,15 @@ public final class DepthFirstSearch extends AbstractStateSpaceSearch {
     }
 
     /**
-     * The greedy best first search algorithm. Solves the planning problem and returns the first solution plan found.
-     * This method must be completed.
+     * The depth first search algorithm. Solves the planning problem and returns the first solution plan found.
      *
      * @param codedProblem the problem to be solved. The problem cannot be null.
      * @return a solution plan or null if it does not exist.
      */
     public Node search(final Problem codedProblem) {
         Objects.requireNonNull(codedProblem);
-        final long begin = System.currentTimeMillis();
-
-        final LinkedList<Node> closeSet = new LinkedList<>();
-        final LinkedList<Node> openSet = new LinkedList<>();
-        final long timeout = this.getTimeout() * 1000;
-
-        State init = new State(codedProblem.getInitialState());
-        Node root = new Node(init, null, 0, 0, 0);
-        root.setDepth(0);
-        openSet.add(root);
-
-        this.resetNodesStatistics();
-        Node solution = null;
-        long searchingTime = 0;
-        while (!openSet.isEmpty() && solution == null && searchingTime < timeout) {
-            // Pop the first node in the pending list open
-            final Node current = openSet.pollFirst();
-
-            if (current.satisfy(codedProblem.getGoal())) {
-                solution = current;
-            } else {
-                closeSet.add(current);
-                int index = 0;
-                for (Action op : codedProblem.getActions()) {
-
-                    // Test if a specified operator is applicable in the current state
-                    if (op.isApplicable(current)) {
-                        final State nextState = new State(current);
-                        //nextState.or(op.getConditionalEffects().get(0).getEffect().getPositive());
-                        //nextState.andNot(op.getConditionalEffects().get(0).getEffect().getNegative());
-
-                        op.getConditionalEffects().stream().filter(ce -> current.satisfy(ce.getCondition()))
-                            .forEach(ce -> nextState.apply(ce.getEffect()));
-
-                        // Apply the effect of the applicable operator
-                        final Node successor = new Node(nextState);
-                        this.setCreatedNodes(this.getCreatedNodes() + 1);
-                        successor.setCost(current.getCost() + op.getCost().getValue());
-                        successor.setHeuristic(0);
-                        successor.setParent(current);
-                        successor.setAction(index);
-                        successor.setDepth(current.getDepth() + 1);
-
-                        if (!closeSet.contains(successor) && !openSet.contains(successor)) {
-                            openSet.addFirst(successor);
-                        }
-                    }
-                    index++;
-                }
-            }
-            // Take time to compute the searching time
-            long end = System.currentTimeMillis();
-            searchingTime = end - begin;
-        }
-
-        this.setExploredNodes(closeSet.size());
-        this.setPendingNodes(openSet.size());
-        this.setMemoryUsed(GraphLayout.parseInstance(closeSet).totalSize()
-            + GraphLayout.parseInstance(openSet).totalSize());
-        this.setSearchingTime(searchingTime);
-
-        return solution;
+        final SearchEngine engine = new SearchEngine(new LifoOpenList(), this.createRegistry(),
+            new DefaultSuccessorGenerator(codedProblem), Evaluator.BLIND);
+        return this.search(codedProblem, engine);
     }
 }
@@ -22,10 +22,11 @@ package fr.uga.pddl4j.planners.statespace.search;
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.problem.State;
-import fr.uga.pddl4j.problem.operator.Action;
 import org.openjdk.jol.info.GraphLayout;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -66,12 +67,13 @@ public final class EnforcedHillClimbing extends AbstractStateSpaceSearch {
         Objects.requireNonNull(codedProblem);
         final long begin = System.currentTimeMillis();
 
-        final StateHeuristic heuristic = StateHeuristic.getInstance(this.getHeuristic(), codedProblem);
+        final HeuristicEvaluator evaluator = this.createEvaluator(codedProblem);
+        final SuccessorGenerator generator = new DefaultSuccessorGenerator(codedProblem);
         final LinkedList<Node> openList = new LinkedList<>();
         final long timeout = this.getTimeout() * 1000;
 
         State init = new State(codedProblem.getInitialState());
-        Node root = new Node(init, null, 0, 0, heuristic.estimate(init, codedProblem.getGoal()));
+        Node root = new Node(init, null, 0, 0, evaluator.getHeuristic().estimate(init, codedProblem.getGoal()));
         openList.add(root);
 
         double bestHeuristic = root.getHeuristic();
@@ -83,7 +85,7 @@ public final class EnforcedHillClimbing extends AbstractStateSpaceSearch {
         long searchingTime = 0;
         while (!openList.isEmpty() && solution == null && deadEndFree && searchingTime < timeout) {
             final Node currentState = openList.pop();
-            final LinkedList<Node> successors = getSuccessors(currentState, codedProblem, heuristic);
+            final LinkedList<Node> successors = getSuccessors(currentState, generator, evaluator);
             deadEndFree = !successors.isEmpty();
 
             while (!successors.isEmpty() && solution == null) {
@@ -116,35 +118,16 @@ public final class EnforcedHillClimbing extends AbstractStateSpaceSearch {
      * Get the successors from a node.
      *
      * @param parent    the parent node.
-     * @param problem   the coded problem to solve.
-     * @param heuristic the heuristic used.
+     * @param generator the generator of the successors.
+     * @param evaluator the evaluator of the successors.
      * @return the list of successors from the parent node.
      */
-    private LinkedList<Node> getSuccessors(Node parent, Problem problem, StateHeuristic heuristic) {
-        final LinkedList<Node> successors = new LinkedList<>();
-
-        int index = 0;
-        for (Action op : problem.getActions()) {
-            // Test if a specified operator is applicable in the current state
-            if (op.isApplicable(parent)) {
-                final State nextState = new State(parent);
-                op.getConditionalEffects().stream().filter(ce -> parent.satisfy(ce.getCondition())).forEach(ce ->
-                        // Apply the effect to the successor node
-                        nextState.apply(ce.getEffect())
-                );
-                // Apply the effect of the applicable operator
-                final Node successor = new Node(nextState);
-                this.setCreatedNodes(this.getCreatedNodes() + 1);
-                successor.setCost(parent.getCost() + op.getCost().getValue());
-                successor.setHeuristic(heuristic.estimate(nextState, problem.getGoal()));
-                successor.setParent(parent);
-                successor.setAction(index);
-                successor.setDepth(parent.getDepth() + 1);
-                successors.add(successor);
-            }
-            index++;
-        }
-
-        return successors;
+    private LinkedList<Node> getSuccessors(final Node parent, final SuccessorGenerator generator,
+                                           final HeuristicEvaluator evaluator) {
+        final List<Node> candidates = new ArrayList<>();
+        generator.generate(parent, candidates);
+        this.setCreatedNodes(this.getCreatedNodes() + candidates.size());
+        // Evaluate the successors and prune the dead ends
+        return new LinkedList<>(evaluator.evaluate(parent, candidates));
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This interface defines the evaluator of the nodes of a search: it sets the heuristic value of the nodes and detects
+ * the dead ends.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ * @see SearchEngine
+ */
+public interface Evaluator {
+
+    /**
+     * The evaluator of the blind searches: the heuristic value of the nodes is left unchanged and no node is a dead
+     * end.
+     */
+    Evaluator BLIND = node -> true;
+
+    /**
+     * Evaluates a node.
+     *
+     * @param node the node to evaluate.
+     * @return <code>true</code> if the node is not a dead end; <code>false</code> otherwise.
+     */
+    boolean evaluate(final Node node);
+
+    /**
+     * Evaluates the successors of a node. By default, the successors are evaluated one by one.
+     *
+     * @param parent     the parent of the successors.
+     * @param successors the successors to evaluate.
+     * @return the successors that are not dead ends.
+     */
+    default List<Node> evaluate(final Node parent, final List<Node> successors) {
+        final List<Node> evaluated = new ArrayList<>(successors.size());
+        for (Node successor : successors) {
+            if (this.evaluate(successor)) {
+                evaluated.add(successor);
+            }
+        }
+        return evaluated;
+    }
+
+    /**
+     * Returns <code>true</code> if the value given to a node depends on the path leading to the node and not only on
+     * its state. By default, the evaluators are not path-dependent.
+     *
+     * @return <code>true</code> if the value given to a node depends on the path leading to the node;
+     *          <code>false</code> otherwise.
+     */
+    default boolean isPathDependent() {
+        return false;
+    }
+
+}
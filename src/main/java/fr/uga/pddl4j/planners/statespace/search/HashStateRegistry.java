@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a registry of the states based on a hash map. The states registered are copies of the states
+ * of the nodes, so that the registry does not keep the nodes.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ */
+public final class HashStateRegistry extends AbstractStateRegistry {
+
+    /**
+     * The index of the states registered.
+     */
+    private final Map<State, Integer> indices;
+
+    /**
+     * The states registered in the order of their index.
+     */
+    private final List<State> states;
+
+    /**
+     * Creates a new empty registry.
+     */
+    public HashStateRegistry() {
+        super();
+        this.indices = new HashMap<>(AbstractStateRegistry.DEFAULT_CAPACITY);
+        this.states = new ArrayList<>(AbstractStateRegistry.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the index of a specified state.
+     *
+     * @param state the state.
+     * @return the index of the state or -1 if the state was never met.
+     */
+    @Override
+    public int indexOf(final State state) {
+        final Integer index = this.indices.get(state);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Registers a copy of a specified state if the state is not already registered.
+     *
+     * @param state the state.
+     * @return the index of the state.
+     */
+    @Override
+    protected int register(final State state) {
+        final Integer index = this.indices.get(state);
+        if (index != null) {
+            return index;
+        }
+        final State copy = new State(state);
+        this.indices.put(copy, this.states.size());
+        this.states.add(copy);
+        return this.states.size() - 1;
+    }
+
+    /**
+     * Returns the state registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the state registered at the index.
+     */
+    @Override
+    public State getState(final int index) {
+        return this.states.get(index);
+    }
+
+    /**
+     * Returns the number of states registered.
+     *
+     * @return the number of states registered.
+     */
+    @Override
+    public int size() {
+        return this.states.size();
+    }
+}
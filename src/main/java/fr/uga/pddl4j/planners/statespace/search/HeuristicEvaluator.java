@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.GoalCount;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements the evaluator of the nodes with a heuristic. The nodes subsumed by a dead end of a store are
+ * not evaluated and the nodes recognized as dead ends by the heuristic are added to the store. The successors of a node
+ * can be evaluated in two tiers according to the filter of the evaluator.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ * @see StateSpaceSearch.EvaluationFilter
+ */
+public final class HeuristicEvaluator implements Evaluator {
+
+    /**
+     * The heuristic.
+     */
+    private final StateHeuristic heuristic;
+
+    /**
+     * The goal of the problem.
+     */
+    private final Condition goal;
+
+    /**
+     * The store of the dead ends of the problem.
+     */
+    private final DeadEndStore store;
+
+    /**
+     * The filter of the successors evaluated with the heuristic.
+     */
+    private final StateSpaceSearch.EvaluationFilter filter;
+
+    /**
+     * The novelty table used by the filter <code>NOVELTY</code>.
+     */
+    private final NoveltyTable novelty;
+
+    /**
+     * Creates a new evaluator.
+     *
+     * @param heuristic the heuristic.
+     * @param goal      the goal of the problem.
+     * @param store     the store of the dead ends of the problem.
+     * @param filter    the filter of the successors evaluated with the heuristic.
+     * @param nbFluents the number of fluents of the problem.
+     */
+    public HeuristicEvaluator(final StateHeuristic heuristic, final Condition goal, final DeadEndStore store,
+                              final StateSpaceSearch.EvaluationFilter filter, final int nbFluents) {
+        this.heuristic = heuristic;
+        this.goal = goal;
+        this.store = store;
+        this.filter = filter;
+        this.novelty = filter == StateSpaceSearch.EvaluationFilter.NOVELTY ? new NoveltyTable(nbFluents, 1) : null;
+    }
+
+    /**
+     * Returns the heuristic of the evaluator.
+     *
+     * @return the heuristic of the evaluator.
+     */
+    public StateHeuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Returns <code>true</code> if the heuristic of the evaluator is path-dependent.
+     *
+     * @return <code>true</code> if the heuristic of the evaluator is path-dependent; <code>false</code> otherwise.
+     * @see StateHeuristic#isPathDependent()
+     */
+    @Override
+    public boolean isPathDependent() {
+        return this.heuristic.isPathDependent();
+    }
+
+    /**
+     * Evaluates a node with the heuristic unless the node is subsumed by a dead end of the store. The nodes recognized
+     * as dead ends by the heuristic are added to the store.
+     *
+     * @param node the node to evaluate.
+     * @return <code>true</code> if the node is not a dead end; <code>false</code> otherwise.
+     */
+    @Override
+    public boolean evaluate(final Node node) {
+        if (this.store.isDeadEnd(node)) {
+            return false;
+        }
+        node.setHeuristic(this.heuristic.estimate(node, this.goal));
+        if (node.getHeuristic() >= Integer.MAX_VALUE) {
+            this.store.add(node);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the successors of a node in two tiers. The successors are first ranked with the cheap estimate of the
+     * filter: the number of goal fluents not satisfied for <code>GOAL_COUNT</code> or the novelty with respect to the
+     * states of same goal count for <code>NOVELTY</code>. Only the successors improving the cheap estimate, i.e.,
+     * decreasing the goal count of the parent or novel, and the goal states are evaluated with the heuristic. The other
+     * successors inherit the heuristic value of their parent. When the cheap estimate plateaus, i.e., no successor
+     * improves it, all the successors are evaluated with the heuristic.
+     * <p>
+     * The successors returned are ordered by increasing cheap estimate, the successors evaluated with the heuristic
+     * first. The successors recognized as dead ends are removed. Without filter, the successors are all evaluated at
+     * once with {@link StateHeuristic#estimate(State[], Condition, int[])}, or one by one if the heuristic is
+     * path-dependent, and returned in their initial order.
+     * </p>
+     *
+     * @param parent     the parent of the successors.
+     * @param successors the successors to evaluate.
+     * @return the successors that are not dead ends.
+     */
+    @Override
+    public List<Node> evaluate(final Node parent, final List<Node> successors) {
+        if (this.filter == StateSpaceSearch.EvaluationFilter.NONE) {
+            return this.heuristic.isPathDependent() ? Evaluator.super.evaluate(parent, successors)
+                : this.evaluate(successors);
+        }
+        final List<Node> evaluated = new ArrayList<>(successors.size());
+        final int size = successors.size();
+        // The cheap estimate of a successor and its index are packed to sort the successors by cheap estimate
+        final long[] ranks = new long[size];
+        final int bound = this.filter == StateSpaceSearch.EvaluationFilter.GOAL_COUNT
+            ? GoalCount.count(parent, this.goal) : 2;
+        boolean plateau = true;
+        for (int i = 0; i < size; i++) {
+            final Node successor = successors.get(i);
+            final int count = GoalCount.count(successor, this.goal);
+            final int rank = this.filter == StateSpaceSearch.EvaluationFilter.GOAL_COUNT ? count
+                : this.novelty.update(successor, count);
+            plateau &= rank >= bound && count > 0;
+            ranks[i] = ((long) rank << 32) | i;
+        }
+        Arrays.sort(ranks);
+        final List<Node> deferred = new ArrayList<>();
+        for (long entry : ranks) {
+            final Node successor = successors.get((int) entry);
+            if (plateau || (int) (entry >>> 32) < bound || successor.satisfy(this.goal)) {
+                if (this.evaluate(successor)) {
+                    evaluated.add(successor);
+                }
+            } else if (!this.store.isDeadEnd(successor)) {
+                successor.setHeuristic(parent.getHeuristic());
+                deferred.add(successor);
+            }
+        }
+        evaluated.addAll(deferred);
+        return evaluated;
+    }
+
+    /**
+     * Evaluates a list of nodes at once with the batch evaluation of the heuristic. The nodes subsumed by a dead end of
+     * the store are not evaluated and the nodes recognized as dead ends by the heuristic are added to the store.
+     *
+     * @param nodes the nodes to evaluate.
+     * @return the nodes that are not dead ends in their initial order.
+     */
+    private List<Node> evaluate(final List<Node> nodes) {
+        final List<Node> candidates = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (!this.store.isDeadEnd(node)) {
+                candidates.add(node);
+            }
+        }
+        final State[] states = candidates.toArray(new State[0]);
+        final int[] values = new int[states.length];
+        this.heuristic.estimate(states, this.goal, values);
+        final List<Node> evaluated = new ArrayList<>(states.length);
+        for (int i = 0; i < values.length; i++) {
+            final Node node = candidates.get(i);
+            node.setHeuristic(values[i]);
+            if (values[i] == Integer.MAX_VALUE) {
+                this.store.add(node);
+            } else {
+                evaluated.add(node);
+            }
+        }
+        return evaluated;
+    }
+}
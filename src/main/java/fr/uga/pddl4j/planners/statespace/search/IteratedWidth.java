@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+
+import java.util.Objects;
+
+/**
+ * This class implements the IW(k) search strategy. IW(k) is a breadth first search that prunes the states whose
+ * novelty is greater than k, i.e., the states that make true no new tuple of at most k fluents. IW(k) runs in time
+ * exponential in k and solves the problems of width at most k. For more about this search strategy see N. Lipovetzky
+ * and H. Geffner, Width and Serialization of Classical Planning Problems, Proceedings of ECAI, 2012.
+ * <p>
+ * <b>Warning:</b> IW(k) is not complete: it returns <code>null</code> when all the novel states are explored. The
+ * conjunctive goals usually have a width greater than 2 and are solved with {@link SerializedIteratedWidth}.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.02.2021
+ * @see NoveltyTable
+ * @see SerializedIteratedWidth
+ */
+public final class IteratedWidth extends AbstractStateSpaceSearch {
+
+    /**
+     * The width of the search.
+     */
+    private final int width;
+
+    /**
+     * Creates a new IW(1) search strategy with default parameters.
+     */
+    public IteratedWidth() {
+        this(StateSpaceSearch.DEFAULT_TIMEOUT, 1);
+    }
+
+    /**
+     * Creates a new IW(k) search strategy. The search is blind: it uses no heuristic.
+     *
+     * @param timeout the time out of the planner.
+     * @param width   the width k of the search, i.e., 1 or 2.
+     * @throws IllegalArgumentException if the width is not 1 or 2.
+     */
+    public IteratedWidth(final int timeout, final int width) {
+        super(timeout, null, StateSpaceSearch.DEFAULT_HEURISTIC_WEIGHT);
+        if (width < 1 || width > 2) {
+            throw new IllegalArgumentException("width must be 1 or 2");
+        }
+        this.width = width;
+    }
+
+    /**
+     * Returns the width of the search.
+     *
+     * @return the width of the search.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution found. The search is a breadth first search that
+     * prunes the nodes whose novelty is greater than the width and tests the goal when the nodes are generated.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution node or null if no solution was found.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final NoveltyTable novelty = new NoveltyTable(codedProblem.getFluents().size(), this.width);
+        final SearchEngine engine = new SearchEngine(new FifoOpenList(), this.createRegistry(),
+            new DefaultSuccessorGenerator(codedProblem), Evaluator.BLIND);
+        // Prune the successors that are not novel
+        engine.setPruningMethod(node -> novelty.update(node) > this.width);
+        engine.setGoalTestOnGeneration(true);
+        return this.search(codedProblem, engine);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import java.util.ArrayDeque;
+
+/**
+ * This class implements an open list that returns the last node inserted first. It is the open list of the depth first
+ * searches.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ */
+public final class LifoOpenList implements OpenList {
+
+    /**
+     * The nodes of the open list.
+     */
+    private final ArrayDeque<Node> nodes;
+
+    /**
+     * Creates a new empty open list.
+     */
+    public LifoOpenList() {
+        this.nodes = new ArrayDeque<>();
+    }
+
+    /**
+     * Adds a node at the top of the open list.
+     *
+     * @param node the node.
+     */
+    @Override
+    public void add(final Node node) {
+        this.nodes.addFirst(node);
+    }
+
+    /**
+     * Removes and returns the last node added to the open list.
+     *
+     * @return the last node added to the open list or <code>null</code> if the open list is empty.
+     */
+    @Override
+    public Node poll() {
+        return this.nodes.pollFirst();
+    }
+
+    /**
+     * Returns <code>true</code> if the open list is empty.
+     *
+     * @return <code>true</code> if the open list is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.nodes.isEmpty();
+    }
+
+    /**
+     * Returns the number of nodes of the open list.
+     *
+     * @return the number of nodes of the open list.
+     */
+    @Override
+    public int size() {
+        return this.nodes.size();
+    }
+}
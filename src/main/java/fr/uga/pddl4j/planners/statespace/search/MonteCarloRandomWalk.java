@@ -0,0 +1,609 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class implements the Monte-Carlo random walk search strategy of the planner Arvand. At each step, the search
+ * runs a number of random walks of bounded length from the current state and evaluates only their endpoints with the
+ * heuristic. The search then jumps to the endpoint of minimal heuristic value. The walks are lengthened when they do
+ * not improve the best heuristic value and the search restarts from the initial state after a number of steps without
+ * improvement. The walks of a step are shared between several threads: each thread has its own random generator and
+ * its own instance of the heuristic. For more about this search strategy see H. Nakhost and M. Müller, Monte-Carlo
+ * Exploration for Deterministic Planning, Proceedings of IJCAI, 2009.
+ * <p>
+ * <b>Warning:</b> The search is not complete and the plans found are not optimal. With more than one thread, the
+ * search is not deterministic.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 30.03.2021
+ */
+public final class MonteCarloRandomWalk extends AbstractStateSpaceSearch {
+
+    /**
+     * The default length of the walks.
+     */
+    public static final int DEFAULT_WALK_LENGTH = 10;
+
+    /**
+     * The default number of walks of a step.
+     */
+    public static final int DEFAULT_NUMBER_OF_WALKS = 2000;
+
+    /**
+     * The default number of steps without improvement before a restart.
+     */
+    public static final int DEFAULT_MAX_STEPS = 7;
+
+    /**
+     * The default seed of the random generators.
+     */
+    public static final long DEFAULT_SEED = 0;
+
+    /**
+     * The number of walks without improvement before the walks of a thread are lengthened.
+     */
+    private static final int EXTENDING_PERIOD = 300;
+
+    /**
+     * The rate used to lengthen the walks.
+     */
+    private static final double EXTENDING_RATE = 1.5;
+
+    /**
+     * The length of the walks.
+     */
+    private int walkLength;
+
+    /**
+     * The number of walks of a step.
+     */
+    private int numberOfWalks;
+
+    /**
+     * The number of steps without improvement before a restart.
+     */
+    private int maxSteps;
+
+    /**
+     * The number of threads running the walks.
+     */
+    private int numberOfThreads;
+
+    /**
+     * The seed of the random generators.
+     */
+    private long seed;
+
+    /**
+     * Creates a new Monte-Carlo random walk search strategy with default parameters.
+     */
+    public MonteCarloRandomWalk() {
+        this(StateSpaceSearch.DEFAULT_TIMEOUT, StateSpaceSearch.DEFAULT_HEURISTIC,
+            StateSpaceSearch.DEFAULT_HEURISTIC_WEIGHT);
+    }
+
+    /**
+     * Creates a new Monte-Carlo random walk search strategy. The walks are shared between as many threads as
+     * available processors.
+     *
+     * @param timeout   the time out of the planner.
+     * @param heuristic the heuristic used to evaluate the endpoints of the walks.
+     * @param weight    the weight set to the heuristic.
+     */
+    public MonteCarloRandomWalk(final int timeout, final StateHeuristic.Name heuristic, final double weight) {
+        super(timeout, heuristic, weight);
+        this.walkLength = MonteCarloRandomWalk.DEFAULT_WALK_LENGTH;
+        this.numberOfWalks = MonteCarloRandomWalk.DEFAULT_NUMBER_OF_WALKS;
+        this.maxSteps = MonteCarloRandomWalk.DEFAULT_MAX_STEPS;
+        this.numberOfThreads = Runtime.getRuntime().availableProcessors();
+        this.seed = MonteCarloRandomWalk.DEFAULT_SEED;
+    }
+
+    /**
+     * Returns the length of the walks.
+     *
+     * @return the length of the walks.
+     */
+    public int getWalkLength() {
+        return this.walkLength;
+    }
+
+    /**
+     * Sets the length of the walks.
+     *
+     * @param length the length of the walks.
+     * @throws IllegalArgumentException if <code>length &#60; 1</code>.
+     */
+    public void setWalkLength(final int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("the length of the walks must be strictly positive");
+        }
+        this.walkLength = length;
+    }
+
+    /**
+     * Returns the number of walks of a step.
+     *
+     * @return the number of walks of a step.
+     */
+    public int getNumberOfWalks() {
+        return this.numberOfWalks;
+    }
+
+    /**
+     * Sets the number of walks of a step.
+     *
+     * @param walks the number of walks of a step.
+     * @throws IllegalArgumentException if <code>walks &#60; 1</code>.
+     */
+    public void setNumberOfWalks(final int walks) {
+        if (walks < 1) {
+            throw new IllegalArgumentException("the number of walks must be strictly positive");
+        }
+        this.numberOfWalks = walks;
+    }
+
+    /**
+     * Returns the number of steps without improvement before a restart.
+     *
+     * @return the number of steps without improvement before a restart.
+     */
+    public int getMaxSteps() {
+        return this.maxSteps;
+    }
+
+    /**
+     * Sets the number of steps without improvement before a restart.
+     *
+     * @param steps the number of steps without improvement before a restart.
+     * @throws IllegalArgumentException if <code>steps &#60; 1</code>.
+     */
+    public void setMaxSteps(final int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("the number of steps must be strictly positive");
+        }
+        this.maxSteps = steps;
+    }
+
+    /**
+     * Returns the number of threads running the walks.
+     *
+     * @return the number of threads running the walks.
+     */
+    public int getNumberOfThreads() {
+        return this.numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads running the walks.
+     *
+     * @param threads the number of threads running the walks.
+     * @throws IllegalArgumentException if <code>threads &#60; 1</code>.
+     */
+    public void setNumberOfThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("the number of threads must be strictly positive");
+        }
+        this.numberOfThreads = threads;
+    }
+
+    /**
+     * Returns the seed of the random generators.
+     *
+     * @return the seed of the random generators.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Sets the seed of the random generators. The generator of the i-th thread is seeded with
+     * <code>seed + i</code>.
+     *
+     * @param seed the seed of the random generators.
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution node or null if no solution was found.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        final long begin = System.currentTimeMillis();
+        final long deadline = begin + this.getTimeout() * 1000L;
+        final Condition goal = codedProblem.getGoal();
+
+        // Each thread has its own random generator and its own instance of the heuristic
+        final int nbThreads = Math.min(this.numberOfThreads, this.numberOfWalks);
+        final Walker[] walkers = new Walker[nbThreads];
+        walkers[0] = new Walker(codedProblem, this.createHeuristic(codedProblem), new Random(this.seed));
+        for (int i = 1; i < nbThreads; i++) {
+            walkers[i] = new Walker(codedProblem, StateHeuristic.getInstance(this.getHeuristic(), codedProblem),
+                new Random(this.seed + i));
+        }
+        final ExecutorService pool = nbThreads > 1 ? Executors.newFixedThreadPool(nbThreads, r -> {
+            final Thread thread = new Thread(r, "random-walk-worker");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        this.resetNodesStatistics();
+        final State init = new State(codedProblem.getInitialState());
+        final int hinit = walkers[0].heuristic.estimate(init, goal);
+        final Node root = new Node(init, null, -1, 0, 0, hinit);
+        Node solution = null;
+        try {
+            Node current = root;
+            int hmin = hinit;
+            int steps = 0;
+            final AtomicBoolean improved = new AtomicBoolean();
+            while (solution == null && hinit != Integer.MAX_VALUE && System.currentTimeMillis() < deadline) {
+                if (current.satisfy(goal)) {
+                    solution = current;
+                    break;
+                }
+                // Run the walks of the step from the current state
+                improved.set(false);
+                final Walk best = this.step(walkers, pool, current, hmin, improved, deadline);
+                if (best == null) {
+                    // All the walks met dead ends: restart from the initial state
+                    current = root;
+                    hmin = hinit;
+                    steps = 0;
+                    continue;
+                }
+                // Jump to the best endpoint
+                current = this.jump(current, best, codedProblem);
+                if (best.heuristic < hmin) {
+                    hmin = best.heuristic;
+                    steps = 0;
+                } else if (++steps >= this.maxSteps) {
+                    current = root;
+                    hmin = hinit;
+                    steps = 0;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+
+        int explored = 0;
+        for (Walker walker : walkers) {
+            explored += walker.explored;
+        }
+        this.setExploredNodes(explored);
+        this.setCreatedNodes(explored);
+        if (solution != null) {
+            this.setMemoryUsed(GraphLayout.parseInstance(solution).totalSize());
+        }
+        this.setSearchingTime(System.currentTimeMillis() - begin);
+        return solution;
+    }
+
+    /**
+     * Runs the walks of a step from a specified node and returns the walk whose endpoint has the minimal heuristic
+     * value.
+     *
+     * @param walkers  the walkers of the threads.
+     * @param pool     the pool of threads or <code>null</code> if the walks run in the calling thread.
+     * @param node     the node from which the walks start.
+     * @param hmin     the best heuristic value met since the last restart.
+     * @param improved the flag set when a walk improves the best heuristic value.
+     * @param deadline the time at which the search must stop.
+     * @return the best walk of the step or <code>null</code> if all the walks met dead ends.
+     * @throws IllegalStateException if the walks are interrupted or fail.
+     */
+    private Walk step(final Walker[] walkers, final ExecutorService pool, final Node node, final int hmin,
+                      final AtomicBoolean improved, final long deadline) {
+        final int nbThreads = walkers.length;
+        if (pool == null) {
+            return walkers[0].run(node, this.numberOfWalks, this.walkLength, hmin, improved, deadline);
+        }
+        final List<Future<Walk>> tasks = new ArrayList<>(nbThreads);
+        for (int i = 0; i < nbThreads; i++) {
+            final Walker walker = walkers[i];
+            final int walks = this.numberOfWalks / nbThreads + (i < this.numberOfWalks % nbThreads ? 1 : 0);
+            tasks.add(pool.submit(() -> walker.run(node, walks, this.walkLength, hmin, improved, deadline)));
+        }
+        Walk best = null;
+        try {
+            for (Future<Walk> task : tasks) {
+                final Walk walk = task.get();
+                if (walk != null && (best == null || walk.heuristic < best.heuristic)) {
+                    best = walk;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("random walks interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("random walks failed", e.getCause());
+        }
+        return best;
+    }
+
+    /**
+     * Creates the nodes of a walk from a specified node and returns the node of its endpoint.
+     *
+     * @param node    the node from which the walk starts.
+     * @param walk    the walk.
+     * @param problem the problem.
+     * @return the node of the endpoint of the walk.
+     */
+    private Node jump(final Node node, final Walk walk, final Problem problem) {
+        Node current = node;
+        for (int i = 0; i < walk.length; i++) {
+            final Node parent = current;
+            final Action op = problem.getActions().get(walk.actions[i]);
+            final Node successor = new Node(parent);
+            for (ConditionalEffect ce : op.getConditionalEffects()) {
+                if (parent.satisfy(ce.getCondition())) {
+                    successor.apply(ce.getEffect());
+                }
+            }
+            successor.setCost(parent.getCost() + op.getCost().getValue());
+            successor.setParent(parent);
+            successor.setAction(walk.actions[i]);
+            successor.setDepth(parent.getDepth() + 1);
+            successor.setHeuristic(i == walk.length - 1 ? walk.heuristic : parent.getHeuristic());
+            current = successor;
+        }
+        return current;
+    }
+
+    /**
+     * This class implements a walk: the sequence of actions applied from the starting node and the heuristic value of
+     * its endpoint.
+     */
+    private static final class Walk {
+
+        /**
+         * The actions of the walk.
+         */
+        private int[] actions;
+
+        /**
+         * The number of actions of the walk.
+         */
+        private int length;
+
+        /**
+         * The heuristic value of the endpoint of the walk.
+         */
+        private int heuristic;
+
+        /**
+         * Creates a new empty walk.
+         *
+         * @param capacity the initial capacity of the walk.
+         */
+        private Walk(final int capacity) {
+            this.actions = new int[capacity];
+            this.length = 0;
+            this.heuristic = Integer.MAX_VALUE;
+        }
+
+        /**
+         * Adds an action at the end of the walk.
+         *
+         * @param action the action.
+         */
+        private void add(final int action) {
+            if (this.length == this.actions.length) {
+                this.actions = Arrays.copyOf(this.actions, this.actions.length * 2);
+            }
+            this.actions[this.length++] = action;
+        }
+
+        /**
+         * Copies a walk into this walk.
+         *
+         * @param other the walk to copy.
+         */
+        private void copy(final Walk other) {
+            if (this.actions.length < other.length) {
+                this.actions = new int[other.actions.length];
+            }
+            System.arraycopy(other.actions, 0, this.actions, 0, other.length);
+            this.length = other.length;
+            this.heuristic = other.heuristic;
+        }
+    }
+
+    /**
+     * This class implements the workspace of a thread running walks: its random generator, its instance of the
+     * heuristic and the states of the walks.
+     */
+    private static final class Walker {
+
+        /**
+         * The problem.
+         */
+        private final Problem problem;
+
+        /**
+         * The heuristic used to evaluate the endpoints of the walks.
+         */
+        private final StateHeuristic heuristic;
+
+        /**
+         * The random generator used to select the actions.
+         */
+        private final Random random;
+
+        /**
+         * The state of the current walk.
+         */
+        private State state;
+
+        /**
+         * The state reached by the last action of the current walk.
+         */
+        private State next;
+
+        /**
+         * The current walk.
+         */
+        private final Walk walk;
+
+        /**
+         * The number of states explored by the walks.
+         */
+        private int explored;
+
+        /**
+         * Creates a new walker.
+         *
+         * @param problem   the problem.
+         * @param heuristic the heuristic used to evaluate the endpoints of the walks.
+         * @param random    the random generator used to select the actions.
+         */
+        private Walker(final Problem problem, final StateHeuristic heuristic, final Random random) {
+            this.problem = problem;
+            this.heuristic = heuristic;
+            this.random = random;
+            this.state = new State();
+            this.next = new State();
+            this.walk = new Walk(MonteCarloRandomWalk.DEFAULT_WALK_LENGTH);
+            this.explored = 0;
+        }
+
+        /**
+         * Runs a number of walks from a specified node and returns the walk whose endpoint has the minimal heuristic
+         * value. The walks stop as soon as a walk reaches the goal, or when the best heuristic value is improved by
+         * the walks of another thread. The walks are lengthened when they do not improve the best heuristic value.
+         *
+         * @param node     the node from which the walks start.
+         * @param walks    the number of walks.
+         * @param length   the initial length of the walks.
+         * @param hmin     the best heuristic value met since the last restart.
+         * @param improved the flag set when a walk improves the best heuristic value.
+         * @param deadline the time at which the walks must stop.
+         * @return the best walk or <code>null</code> if all the walks met dead ends.
+         */
+        private Walk run(final Node node, final int walks, final int length, final int hmin,
+                         final AtomicBoolean improved, final long deadline) {
+            final Condition goal = this.problem.getGoal();
+            Walk best = null;
+            int currentLength = length;
+            int withoutImprovement = 0;
+            for (int w = 0; w < walks && !improved.get() && System.currentTimeMillis() < deadline; w++) {
+                if (this.randomWalk(node, currentLength, goal) && this.walk.heuristic != Integer.MAX_VALUE) {
+                    if (best == null || this.walk.heuristic < best.heuristic) {
+                        if (best == null) {
+                            best = new Walk(this.walk.length);
+                        }
+                        best.copy(this.walk);
+                    }
+                    if (this.walk.heuristic == 0 || this.walk.heuristic < hmin) {
+                        // The walks of the step can be stopped: the other threads are notified
+                        improved.set(true);
+                    }
+                }
+                // Lengthen the walks that do not improve the best heuristic value
+                if (++withoutImprovement == MonteCarloRandomWalk.EXTENDING_PERIOD) {
+                    currentLength = (int) Math.ceil(currentLength * MonteCarloRandomWalk.EXTENDING_RATE);
+                    withoutImprovement = 0;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Runs a walk of a specified length from a node. The walk stops when it reaches the goal or when no action
+         * is applicable. The endpoint of the walk is evaluated with the heuristic.
+         *
+         * @param node   the node from which the walk starts.
+         * @param length the length of the walk.
+         * @param goal   the goal.
+         * @return <code>true</code> if the walk has at least one action; <code>false</code> otherwise.
+         */
+        private boolean randomWalk(final Node node, final int length, final Condition goal) {
+            final List<Action> actions = this.problem.getActions();
+            this.state.clear();
+            this.state.or(node);
+            this.walk.length = 0;
+            for (int i = 0; i < length; i++) {
+                // Select an applicable action uniformly by reservoir sampling
+                int selected = -1;
+                int count = 0;
+                for (int a = 0; a < actions.size(); a++) {
+                    if (actions.get(a).isApplicable(this.state)) {
+                        count++;
+                        if (this.random.nextInt(count) == 0) {
+                            selected = a;
+                        }
+                    }
+                }
+                if (selected == -1) {
+                    break;
+                }
+                // The conditions of the effects are evaluated in the state before the action
+                this.next.clear();
+                this.next.or(this.state);
+                for (ConditionalEffect ce : actions.get(selected).getConditionalEffects()) {
+                    if (this.state.satisfy(ce.getCondition())) {
+                        this.next.apply(ce.getEffect());
+                    }
+                }
+                final State tmp = this.state;
+                this.state = this.next;
+                this.next = tmp;
+                this.walk.add(selected);
+                this.explored++;
+                if (this.state.satisfy(goal)) {
+                    break;
+                }
+            }
+            if (this.walk.length == 0) {
+                return false;
+            }
+            this.walk.heuristic = this.state.satisfy(goal) ? 0 : this.heuristic.estimate(this.state, goal);
+            return true;
+        }
+    }
+}
@@ -54,6 +54,12 @@ public final class Node extends State {
      */
     private int depth;
 
+    /**
+     * The landmarks accepted along the path leading to this node. This field is used by the path-dependent landmark
+     * heuristics.
+     */
+    private long[] landmarks;
+
     /**
      * Creates a new node from a specified state.
      *
@@ -191,6 +197,24 @@ public final class Node extends State {
         this.depth = depth;
     }
 
+    /**
+     * Returns the landmarks accepted along the path leading to this node or <code>null</code> if they are not known.
+     *
+     * @return the landmarks accepted along the path leading to this node.
+     */
+    public final long[] getLandmarks() {
+        return this.landmarks;
+    }
+
+    /**
+     * Sets the landmarks accepted along the path leading to this node.
+     *
+     * @param landmarks the landmarks accepted along the path leading to this node.
+     */
+    public final void setLandmarks(final long[] landmarks) {
+        this.landmarks = landmarks;
+    }
+
     /**
      * Returns the value of the heuristic function, i.e.,
      * <code>this.node.getCost() + this.node.getHeuristic()</code>.
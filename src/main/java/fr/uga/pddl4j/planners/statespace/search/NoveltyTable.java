@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * This class implements the tables used to compute the novelty of the states. The novelty of a state is the size of
+ * the smallest tuple of fluents true in the state and true in no state seen before. A table of width 1 records the
+ * fluents seen and a table of width 2 records in addition the pairs of fluents seen. The fluents and the pairs are
+ * identified by their indexes in the list of the fluents of the problem and stored as bits in an array of words: the
+ * pair (i, j) with i &#60; j is stored at bit <code>n + j * (j - 1) / 2 + i</code> where n is the number of fluents.
+ * <p>
+ * The states can be partitioned: the novelty of a state is then computed with respect to the states of the same
+ * partition only. The table of a partition is allocated the first time a state of the partition is seen. The tables
+ * of width 2 grow with the square of the number of fluents, so the number of tables kept is bounded by a memory
+ * budget: when the bound is reached, the table of the partition used the least recently is reused for the new
+ * partition. The states of a forgotten partition may look novel again, but a novel state never looks not novel.
+ * </p>
+ * For more about novelty see N. Lipovetzky and H. Geffner, Width and Serialization of Classical Planning Problems,
+ * Proceedings of ECAI, 2012.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.02.2021
+ */
+public final class NoveltyTable implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximal number of bytes of the tables of the partitions.
+     */
+    private static final long MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /**
+     * The maximal number of partitions whose table is kept.
+     */
+    private static final int MAX_PARTITIONS = 1024;
+
+    /**
+     * The number of fluents of the problem.
+     */
+    private final int nbFluents;
+
+    /**
+     * The width of the table.
+     */
+    private final int width;
+
+    /**
+     * The number of words of the table of a partition.
+     */
+    private final int nbWords;
+
+    /**
+     * The maximal number of partitions whose table is kept.
+     */
+    private final int maxPartitions;
+
+    /**
+     * The tables of the partitions in the order of their last use.
+     */
+    private final LinkedHashMap<Long, long[]> tables;
+
+    /**
+     * The array used to store the fluents of a state.
+     */
+    private final int[] fluents;
+
+    /**
+     * Creates a new novelty table.
+     *
+     * @param nbFluents the number of fluents of the problem.
+     * @param width     the width of the table, i.e., 1 or 2.
+     * @throws IllegalArgumentException if the width is not 1 or 2 or if the table is too large.
+     */
+    public NoveltyTable(final int nbFluents, final int width) {
+        if (width < 1 || width > 2) {
+            throw new IllegalArgumentException("novelty width must be 1 or 2");
+        }
+        final long nbBits = width == 1 ? nbFluents : nbFluents + (long) nbFluents * (nbFluents - 1) / 2;
+        if ((nbBits + 63) >>> 6 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many fluents for a novelty table of width " + width);
+        }
+        this.nbFluents = nbFluents;
+        this.width = width;
+        this.nbWords = (int) ((nbBits + 63) >>> 6);
+        this.maxPartitions = (int) Math.max(1, Math.min(NoveltyTable.MAX_PARTITIONS,
+            NoveltyTable.MEMORY_BUDGET / (8L * Math.max(1, this.nbWords))));
+        this.tables = new LinkedHashMap<>(16, 0.75f, true);
+        this.fluents = new int[nbFluents];
+    }
+
+    /**
+     * Returns the width of the table.
+     *
+     * @return the width of the table.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the maximal number of partitions whose table is kept.
+     *
+     * @return the maximal number of partitions whose table is kept.
+     */
+    public int getMaxPartitions() {
+        return this.maxPartitions;
+    }
+
+    /**
+     * Returns the number of partitions whose table is kept.
+     *
+     * @return the number of partitions whose table is kept.
+     */
+    public int getNumberOfPartitions() {
+        return this.tables.size();
+    }
+
+    /**
+     * Computes the novelty of a state and records its fluents and pairs of fluents.
+     *
+     * @param state the state.
+     * @return the novelty of the state, i.e., 1 or 2, or <code>width + 1</code> if the state is not novel.
+     */
+    public int update(final BitVector state) {
+        return this.update(state, 0L);
+    }
+
+    /**
+     * Computes the novelty of a state with respect to the states of a specified partition and records its fluents and
+     * pairs of fluents in the table of the partition.
+     *
+     * @param state     the state.
+     * @param partition the partition of the state.
+     * @return the novelty of the state, i.e., 1 or 2, or <code>width + 1</code> if the state is not novel.
+     */
+    public int update(final BitVector state, final long partition) {
+        long[] table = this.tables.get(partition);
+        if (table == null) {
+            if (this.tables.size() < this.maxPartitions) {
+                table = new long[this.nbWords];
+            } else {
+                // Reuse the table of the partition used the least recently
+                final Iterator<long[]> eldest = this.tables.values().iterator();
+                table = eldest.next();
+                eldest.remove();
+                Arrays.fill(table, 0L);
+            }
+            this.tables.put(partition, table);
+        }
+        int size = 0;
+        for (int f = state.nextSetBit(0); f >= 0 && f < this.nbFluents; f = state.nextSetBit(f + 1)) {
+            this.fluents[size++] = f;
+        }
+        int novelty = this.width + 1;
+        for (int i = 0; i < size; i++) {
+            final int f = this.fluents[i];
+            final long bit = 1L << f;
+            if ((table[f >>> 6] & bit) == 0) {
+                table[f >>> 6] |= bit;
+                novelty = 1;
+            }
+        }
+        if (this.width == 2) {
+            for (int j = 1; j < size; j++) {
+                final long row = this.nbFluents + (long) this.fluents[j] * (this.fluents[j] - 1) / 2;
+                for (int i = 0; i < j; i++) {
+                    final long index = row + this.fluents[i];
+                    final int word = (int) (index >>> 6);
+                    final long bit = 1L << index;
+                    if ((table[word] & bit) == 0) {
+                        table[word] |= bit;
+                        novelty = Math.min(novelty, 2);
+                    }
+                }
+            }
+        }
+        return novelty;
+    }
+
+    /**
+     * Removes all the fluents and pairs of fluents recorded.
+     */
+    public void clear() {
+        this.tables.clear();
+    }
+}
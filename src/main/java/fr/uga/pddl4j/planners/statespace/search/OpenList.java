@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+/**
+ * This interface defines the open list of a {@link SearchEngine}, i.e., the list of the nodes generated and not yet
+ * expanded. The order in which the nodes are polled defines the search strategy.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ * @see SearchEngine
+ */
+public interface OpenList {
+
+    /**
+     * Adds a node to the open list.
+     *
+     * @param node the node.
+     */
+    void add(final Node node);
+
+    /**
+     * Removes and returns the next node to expand.
+     *
+     * @return the next node to expand or <code>null</code> if the open list is empty.
+     */
+    Node poll();
+
+    /**
+     * Returns <code>true</code> if the open list is empty.
+     *
+     * @return <code>true</code> if the open list is empty.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns the number of nodes of the open list.
+     *
+     * @return the number of nodes of the open list.
+     */
+    int size();
+
+}
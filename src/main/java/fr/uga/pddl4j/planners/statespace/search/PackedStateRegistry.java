@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class implements a registry of the states that stores the states packed with the finite-domain variables of the
+ * problem. The packed states are stored one after the other in a single array of longs and indexed by a hash table with
+ * open addressing. Thus, a state registered costs a few longs, its search data and two slots of the hash table instead
+ * of a node and an entry of a hash map, and the hash and the equality of the states are computed on their packed
+ * encoding. The states are unpacked only to rebuild the nodes of a path.
+ * <p>
+ * A state that cannot be packed, i.e., a state where two fluents of the same variable are true, is registered in a
+ * hash map. Such a state is not reachable if the mutex groups of the variables hold, but the registry remains correct
+ * otherwise.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 11.04.2021
+ * @see FiniteDomainVariables
+ */
+public final class PackedStateRegistry extends AbstractStateRegistry {
+
+    /**
+     * The finite-domain variables used to pack the states.
+     */
+    private final FiniteDomainVariables variables;
+
+    /**
+     * The number of longs of a packed state.
+     */
+    private final int width;
+
+    /**
+     * The packed states registered one after the other in the order of their index. The longs of a state that cannot
+     * be packed are zero.
+     */
+    private long[] states;
+
+    /**
+     * The hash table of the packed states: a slot contains the index plus one of a packed state or 0 if it is empty.
+     */
+    private int[] table;
+
+    /**
+     * The number of states registered.
+     */
+    private int size;
+
+    /**
+     * The index of the states registered that cannot be packed.
+     */
+    private final Map<State, Integer> unpacked;
+
+    /**
+     * The states registered that cannot be packed indexed by their index.
+     */
+    private final Map<Integer, State> unpackedStates;
+
+    /**
+     * The array used to pack the states looked up.
+     */
+    private final long[] buffer;
+
+    /**
+     * Creates a new empty registry.
+     *
+     * @param variables the finite-domain variables used to pack the states.
+     */
+    public PackedStateRegistry(final FiniteDomainVariables variables) {
+        super();
+        this.variables = Objects.requireNonNull(variables);
+        this.width = Math.max(1, variables.getPackedSize());
+        this.states = new long[AbstractStateRegistry.DEFAULT_CAPACITY * this.width];
+        this.table = new int[AbstractStateRegistry.DEFAULT_CAPACITY << 1];
+        this.size = 0;
+        this.unpacked = new HashMap<>();
+        this.unpackedStates = new HashMap<>();
+        this.buffer = new long[this.width];
+    }
+
+    /**
+     * Returns the index of a specified state.
+     *
+     * @param state the state.
+     * @return the index of the state or -1 if the state was never met.
+     */
+    @Override
+    public int indexOf(final State state) {
+        if (!this.variables.pack(state, this.buffer)) {
+            final Integer index = this.unpacked.get(state);
+            return index == null ? -1 : index;
+        }
+        return this.table[this.slot(this.buffer)] - 1;
+    }
+
+    /**
+     * Registers the packed encoding of a specified state if the state is not already registered.
+     *
+     * @param state the state.
+     * @return the index of the state.
+     */
+    @Override
+    protected int register(final State state) {
+        final boolean packed = this.variables.pack(state, this.buffer);
+        if (!packed) {
+            final Integer index = this.unpacked.get(state);
+            if (index != null) {
+                return index;
+            }
+        }
+        int slot = packed ? this.slot(this.buffer) : -1;
+        if (packed && this.table[slot] != 0) {
+            return this.table[slot] - 1;
+        }
+        if (this.size * this.width == this.states.length) {
+            this.states = Arrays.copyOf(this.states, this.states.length << 1);
+            this.rehash();
+            slot = packed ? this.slot(this.buffer) : -1;
+        }
+        final int index = this.size;
+        this.size++;
+        if (packed) {
+            System.arraycopy(this.buffer, 0, this.states, index * this.width, this.width);
+            this.table[slot] = index + 1;
+        } else {
+            final State copy = new State(state);
+            this.unpacked.put(copy, index);
+            this.unpackedStates.put(index, copy);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the state registered at a specified index. The state is unpacked.
+     *
+     * @param index the index of the state.
+     * @return the state registered at the index.
+     */
+    @Override
+    public State getState(final int index) {
+        final State copy = this.unpackedStates.get(index);
+        if (copy != null) {
+            return new State(copy);
+        }
+        final long[] words = Arrays.copyOfRange(this.states, index * this.width, (index + 1) * this.width);
+        final State state = new State();
+        this.variables.unpack(words, state);
+        return state;
+    }
+
+    /**
+     * Returns the number of states registered.
+     *
+     * @return the number of states registered.
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the slot of the hash table where a specified packed state is stored or the empty slot where it must be
+     * stored.
+     *
+     * @param words the packed state.
+     * @return the slot of the packed state in the hash table.
+     */
+    private int slot(final long[] words) {
+        long hash = 1;
+        for (int i = 0; i < this.width; i++) {
+            hash = hash * 0x9E3779B97F4A7C15L + words[i];
+        }
+        // Mix the bits of the hash since the high bits of the packed states are often zero
+        hash ^= hash >>> 32;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 29;
+        final int mask = this.table.length - 1;
+        int slot = (int) hash & mask;
+        while (this.table[slot] != 0 && !this.equals(this.table[slot] - 1, words)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns if the packed state registered at a specified index is equal to a specified packed state.
+     *
+     * @param index the index of the packed state registered.
+     * @param words the packed state.
+     * @return <code>true</code> if the packed states are equal; <code>false</code> otherwise.
+     */
+    private boolean equals(final int index, final long[] words) {
+        final int offset = index * this.width;
+        for (int i = 0; i < this.width; i++) {
+            if (this.states[offset + i] != words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Doubles the capacity of the hash table and stores again the packed states registered.
+     */
+    private void rehash() {
+        this.table = new int[this.table.length << 1];
+        final long[] words = new long[this.width];
+        for (int index = 0; index < this.size; index++) {
+            if (!this.unpackedStates.containsKey(index)) {
+                System.arraycopy(this.states, index * this.width, words, 0, this.width);
+                this.table[this.slot(words)] = index + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * This class implements an open list that returns the nodes by increasing order of a comparator. It is the open list
+ * of the best first searches, e.g., the nodes are ordered by <code>f = g + w * h</code> for A* and by heuristic value
+ * for greedy best first search.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ * @see NodeComparator
+ */
+public final class PriorityOpenList implements OpenList {
+
+    /**
+     * The default initial capacity of the open list.
+     */
+    private static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * The nodes of the open list.
+     */
+    private final PriorityQueue<Node> nodes;
+
+    /**
+     * Creates a new empty open list.
+     *
+     * @param comparator the comparator used to order the nodes.
+     */
+    public PriorityOpenList(final Comparator<? super Node> comparator) {
+        this.nodes = new PriorityQueue<>(PriorityOpenList.DEFAULT_CAPACITY, comparator);
+    }
+
+    /**
+     * Adds a node to the open list.
+     *
+     * @param node the node.
+     */
+    @Override
+    public void add(final Node node) {
+        this.nodes.add(node);
+    }
+
+    /**
+     * Removes and returns the smallest node of the open list.
+     *
+     * @return the smallest node of the open list or <code>null</code> if the open list is empty.
+     */
+    @Override
+    public Node poll() {
+        return this.nodes.poll();
+    }
+
+    /**
+     * Returns <code>true</code> if the open list is empty.
+     *
+     * @return <code>true</code> if the open list is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.nodes.isEmpty();
+    }
+
+    /**
+     * Returns the number of nodes of the open list.
+     *
+     * @return the number of nodes of the open list.
+     */
+    @Override
+    public int size() {
+        return this.nodes.size();
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * This class implements a generic search engine built from components: the open list defines the order in which the
+ * nodes are expanded, the registry detects the duplicates, the successor generator expands the nodes, the evaluator
+ * computes the heuristic values and detects the dead ends, and the pruning method discards the nodes that must not be
+ * expanded. The best first searches, e.g., A*, greedy best first search, breadth and depth first search, are
+ * configurations of the engine.
+ * <p>
+ * When reopening is enabled, a state met again with a lower cost is added again to the open list and the node
+ * previously added is ignored when polled. The reopened node keeps the heuristic value of the first evaluation of its
+ * state, unless the evaluator is path-dependent: the node is then evaluated again along its new path. Otherwise, the
+ * states met again are discarded. An engine runs a single search.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ */
+public final class SearchEngine {
+
+    /**
+     * The open list.
+     */
+    private final OpenList open;
+
+    /**
+     * The registry of the states.
+     */
+    private final StateRegistry registry;
+
+    /**
+     * The generator of the successors.
+     */
+    private final SuccessorGenerator generator;
+
+    /**
+     * The evaluator of the nodes.
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * The pruning method.
+     */
+    private PruningMethod pruning;
+
+    /**
+     * The flag used to reopen the states met again with a lower cost.
+     */
+    private boolean reopening;
+
+    /**
+     * The flag used to test the goal when the nodes are generated rather than when they are expanded.
+     */
+    private boolean goalTestOnGeneration;
+
+    /**
+     * The number of nodes expanded.
+     */
+    private int exploredNodes;
+
+    /**
+     * The number of nodes generated.
+     */
+    private int createdNodes;
+
+    /**
+     * The number of nodes in the open list at the end of the search.
+     */
+    private int pendingNodes;
+
+    /**
+     * The memory used by the search in bytes.
+     */
+    private long memoryUsed;
+
+    /**
+     * The time spent by the search in milliseconds.
+     */
+    private long searchingTime;
+
+    /**
+     * Creates a new search engine without pruning and reopening, and testing the goal when the nodes are expanded.
+     *
+     * @param open      the open list.
+     * @param registry  the registry of the states.
+     * @param generator the generator of the successors.
+     * @param evaluator the evaluator of the nodes.
+     */
+    public SearchEngine(final OpenList open, final StateRegistry registry, final SuccessorGenerator generator,
+                        final Evaluator evaluator) {
+        this.open = Objects.requireNonNull(open);
+        this.registry = Objects.requireNonNull(registry);
+        this.generator = Objects.requireNonNull(generator);
+        this.evaluator = Objects.requireNonNull(evaluator);
+        this.pruning = PruningMethod.NONE;
+        this.reopening = false;
+        this.goalTestOnGeneration = false;
+    }
+
+    /**
+     * Sets the pruning method of the engine.
+     *
+     * @param pruning the pruning method.
+     */
+    public void setPruningMethod(final PruningMethod pruning) {
+        this.pruning = Objects.requireNonNull(pruning);
+    }
+
+    /**
+     * Sets if the states met again with a lower cost are reopened.
+     *
+     * @param reopening <code>true</code> to reopen the states met again with a lower cost.
+     */
+    public void setReopening(final boolean reopening) {
+        this.reopening = reopening;
+    }
+
+    /**
+     * Sets if the goal is tested when the nodes are generated rather than when they are expanded.
+     *
+     * @param flag <code>true</code> to test the goal when the nodes are generated.
+     */
+    public void setGoalTestOnGeneration(final boolean flag) {
+        this.goalTestOnGeneration = flag;
+    }
+
+    /**
+     * Returns the number of nodes expanded by the search.
+     *
+     * @return the number of nodes expanded by the search.
+     */
+    public int getExploredNodes() {
+        return this.exploredNodes;
+    }
+
+    /**
+     * Returns the number of nodes generated by the search.
+     *
+     * @return the number of nodes generated by the search.
+     */
+    public int getCreatedNodes() {
+        return this.createdNodes;
+    }
+
+    /**
+     * Returns the number of nodes in the open list at the end of the search.
+     *
+     * @return the number of nodes in the open list at the end of the search.
+     */
+    public int getPendingNodes() {
+        return this.pendingNodes;
+    }
+
+    /**
+     * Returns the memory used by the nodes registered at the end of the search in bytes.
+     *
+     * @return the memory used by the search.
+     */
+    public long getMemoryUsed() {
+        return this.memoryUsed;
+    }
+
+    /**
+     * Returns the time spent by the search in milliseconds.
+     *
+     * @return the time spent by the search.
+     */
+    public long getSearchingTime() {
+        return this.searchingTime;
+    }
+
+    /**
+     * Searches a solution node of a specified problem from its initial state.
+     *
+     * @param problem the problem to be solved.
+     * @param timeout the time out of the search in milliseconds.
+     * @return the solution node or <code>null</code> if no solution was found.
+     */
+    public Node search(final Problem problem, final long timeout) {
+        final Condition goal = problem.getGoal();
+        final Node root = new Node(new State(problem.getInitialState()), null, -1, 0, 0, 0);
+        return this.search(root, node -> node.satisfy(goal), timeout);
+    }
+
+    /**
+     * Searches a node satisfying a specified goal test from a specified root. The root keeps its cost and its depth,
+     * but the solution node returned is linked to a copy of the root that has no parent.
+     *
+     * @param root    the root of the search.
+     * @param goal    the goal test.
+     * @param timeout the time out of the search in milliseconds.
+     * @return the solution node or <code>null</code> if no solution was found.
+     */
+    public Node search(final Node root, final Predicate<Node> goal, final long timeout) {
+        final long begin = System.currentTimeMillis();
+        if (!this.pruning.prune(root) && this.evaluator.evaluate(root)) {
+            this.registry.put(root, -1);
+            this.open.add(root);
+        }
+
+        Node solution = null;
+        final List<Node> successors = new ArrayList<>();
+        final List<Node> candidates = new ArrayList<>();
+        long time = 0;
+        while (!this.open.isEmpty() && solution == null && time < timeout) {
+            final Node current = this.open.poll();
+            final int index = this.registry.indexOf(current);
+            // Ignore the nodes whose state was registered again with a lower cost
+            if (this.reopening && this.registry.getCost(index) < current.getCost()) {
+                continue;
+            }
+            this.exploredNodes++;
+            if (goal.test(current)) {
+                solution = this.registry.getNode(index);
+            } else {
+                successors.clear();
+                candidates.clear();
+                this.generator.generate(current, successors);
+                this.createdNodes += successors.size();
+                for (Node successor : successors) {
+                    final int previous = this.registry.indexOf(successor);
+                    if (previous != -1) {
+                        if (this.reopening && successor.getCost() < this.registry.getCost(previous)) {
+                            if (this.evaluator.isPathDependent()) {
+                                if (!this.evaluator.evaluate(successor)) {
+                                    continue;
+                                }
+                            } else {
+                                successor.setHeuristic(this.registry.getHeuristic(previous));
+                            }
+                            this.add(successor, index);
+                        }
+                    } else if (this.goalTestOnGeneration && goal.test(successor)) {
+                        solution = this.registry.getNode(this.registry.put(successor, index));
+                        break;
+                    } else if (!this.pruning.prune(successor)) {
+                        candidates.add(successor);
+                    }
+                }
+                if (solution == null && !candidates.isEmpty()) {
+                    for (Node successor : this.evaluator.evaluate(current, candidates)) {
+                        // Two successors of the same node can reach the same state
+                        final int previous = this.registry.indexOf(successor);
+                        if (previous == -1 || this.reopening && successor.getCost() < this.registry.getCost(previous)) {
+                            this.add(successor, index);
+                        }
+                    }
+                }
+            }
+            time = System.currentTimeMillis() - begin;
+        }
+
+        this.pendingNodes = this.open.size();
+        // The states of the pending nodes are registered: the open list is not walked since it may hold a lambda
+        this.memoryUsed = GraphLayout.parseInstance(this.registry).totalSize();
+        this.searchingTime = time;
+        return solution;
+    }
+
+    /**
+     * Registers a successor and adds it to the open list. The link of the successor to its parent is cut: the path of
+     * the successor is kept by the registry, so that the nodes expanded are not retained by the open list.
+     *
+     * @param successor the successor.
+     * @param parent    the index of the state of the parent of the successor.
+     */
+    private void add(final Node successor, final int parent) {
+        this.registry.put(successor, parent);
+        successor.setParent(null);
+        this.open.add(successor);
+    }
+}
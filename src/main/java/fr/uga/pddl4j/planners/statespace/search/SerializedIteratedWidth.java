@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.heuristics.state.GoalCount;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.util.Objects;
+
+/**
+ * This class implements the serialized IW search strategy SIW. SIW achieves the goal fluents one at a time: from the
+ * current state, it runs IW(1) and then IW(2) until a state achieving a new goal fluent and keeping the goal fluents
+ * already achieved is found. This state becomes the current state and the plan found is appended to the plan of the
+ * previous subgoals. SIW is a blind search: it needs no heuristic. For more about this search strategy see N.
+ * Lipovetzky and H. Geffner, Width and Serialization of Classical Planning Problems, Proceedings of ECAI, 2012.
+ * <p>
+ * <b>Warning:</b> SIW is not complete: it returns <code>null</code> when no subgoal can be achieved with IW(2), e.g.,
+ * when a goal fluent already achieved must be undone to achieve the others.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.02.2021
+ * @see IteratedWidth
+ * @see NoveltyTable
+ */
+public final class SerializedIteratedWidth extends AbstractStateSpaceSearch {
+
+    /**
+     * The maximal width of the IW searches.
+     */
+    private static final int MAX_WIDTH = 2;
+
+    /**
+     * Creates a new SIW search strategy with default parameters.
+     */
+    public SerializedIteratedWidth() {
+        this(StateSpaceSearch.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new SIW search strategy. The search is blind: it uses no heuristic.
+     *
+     * @param timeout the time out of the planner.
+     */
+    public SerializedIteratedWidth(final int timeout) {
+        super(timeout, null, StateSpaceSearch.DEFAULT_HEURISTIC_WEIGHT);
+    }
+
+    /**
+     * Solves the planning problem and returns the first solution found.
+     *
+     * @param codedProblem the problem to be solved. The problem cannot be null.
+     * @return a solution node or null if no solution was found.
+     */
+    public Node search(final Problem codedProblem) {
+        Objects.requireNonNull(codedProblem);
+        this.resetNodesStatistics();
+        final long begin = System.currentTimeMillis();
+        final long timeout = this.getTimeout() * 1000L;
+        final Condition goal = codedProblem.getGoal();
+        Node current = new Node(new State(codedProblem.getInitialState()), null, -1, 0, 0, 0);
+        long time = 0;
+        while (current != null && !current.satisfy(goal) && time < timeout) {
+            final Node root = current;
+            final int count = GoalCount.count(root, goal);
+            // The goal fluents achieved in the root must be kept
+            final BitVector positive = new BitVector(goal.getPositiveFluents());
+            positive.and(root);
+            final BitVector negative = new BitVector(goal.getNegativeFluents());
+            negative.andNot(root);
+            final Condition kept = new Condition(positive, negative);
+            Node subgoal = null;
+            for (int width = 1; width <= SerializedIteratedWidth.MAX_WIDTH && subgoal == null && time < timeout;
+                 width++) {
+                final int k = width;
+                final NoveltyTable novelty = new NoveltyTable(codedProblem.getFluents().size(), k);
+                final SearchEngine engine = new SearchEngine(new FifoOpenList(), this.createRegistry(),
+                    new DefaultSuccessorGenerator(codedProblem), Evaluator.BLIND);
+                // Prune the successors that are not novel
+                engine.setPruningMethod(node -> novelty.update(node) > k);
+                engine.setGoalTestOnGeneration(true);
+                subgoal = engine.search(root, node -> node.satisfy(kept) && GoalCount.count(node, goal) < count,
+                    timeout - time);
+                this.setExploredNodes(this.getExploredNodes() + engine.getExploredNodes());
+                this.setCreatedNodes(this.getCreatedNodes() + engine.getCreatedNodes());
+                this.setPendingNodes(engine.getPendingNodes());
+                this.setMemoryUsed(Math.max(this.getMemoryUsed(), engine.getMemoryUsed()));
+                time = System.currentTimeMillis() - begin;
+            }
+            current = subgoal == null ? null : this.append(subgoal, root);
+        }
+        this.setSearchingTime(time);
+        return current != null && current.satisfy(goal) ? current : null;
+    }
+
+    /**
+     * Appends the path of a node found by an IW search to the path of the root of the search. The path of the node
+     * starts with a copy of the root that is replaced by the root itself.
+     *
+     * @param node the node found by the IW search.
+     * @param root the root of the IW search.
+     * @return the node linked to the path of the root.
+     */
+    private Node append(final Node node, final Node root) {
+        Node child = node;
+        while (child.getParent().getParent() != null) {
+            child = child.getParent();
+        }
+        child.setParent(root);
+        return node;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import fr.uga.pddl4j.problem.State;
+
+/**
+ * This interface defines the registry of the states met by a {@link SearchEngine}. The registry gives an index to each
+ * state and records the search data of the best node reaching it: the index of the state of its parent, its action,
+ * its cost, its depth and its heuristic value. The registry keeps no node: it is used to detect the duplicates among
+ * the successors and the nodes of a path are rebuilt from the states and the search data registered.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ * @see SearchEngine
+ */
+public interface StateRegistry {
+
+    /**
+     * Returns the index of a specified state.
+     *
+     * @param state the state.
+     * @return the index of the state or -1 if the state was never met.
+     */
+    int indexOf(final State state);
+
+    /**
+     * Registers the state of a node with the search data of the node. The search data replace the search data
+     * previously registered for the same state. The node itself is not kept.
+     *
+     * @param node   the node.
+     * @param parent the index of the state of the parent of the node or -1 if the node is the root.
+     * @return the index of the state of the node.
+     */
+    int put(final Node node, final int parent);
+
+    /**
+     * Returns the state registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the state registered at the index.
+     */
+    State getState(final int index);
+
+    /**
+     * Returns the index of the state of the parent of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the index of the state of the parent or -1 if the node is the root.
+     */
+    int getParent(final int index);
+
+    /**
+     * Returns the action of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the action of the node.
+     */
+    int getAction(final int index);
+
+    /**
+     * Returns the cost of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the cost of the node.
+     */
+    double getCost(final int index);
+
+    /**
+     * Returns the depth of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the depth of the node.
+     */
+    int getDepth(final int index);
+
+    /**
+     * Returns the heuristic value of the node registered at a specified index.
+     *
+     * @param index the index of the state.
+     * @return the heuristic value of the node.
+     */
+    double getHeuristic(final int index);
+
+    /**
+     * Rebuilds the node registered at a specified index and the nodes of its path from the root.
+     *
+     * @param index the index of the state.
+     * @return the node registered at the index linked to its parents.
+     */
+    Node getNode(final int index);
+
+    /**
+     * Returns the number of states registered.
+     *
+     * @return the number of states registered.
+     */
+    int size();
+
+}
@@ -18,6 +18,7 @@ package fr.uga.pddl4j.planners.statespace.search;
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
 import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
 import fr.uga.pddl4j.problem.Problem;
 
 /**
@@ -29,6 +30,25 @@ import fr.uga.pddl4j.problem.Problem;
  */
 public interface StateSpaceSearch extends SearchStrategy {
 
+    /**
+     * The cheap estimates used by the greedy searches to filter the successors of a node before the evaluation with
+     * the heuristic of the search.
+     */
+    public enum EvaluationFilter {
+        /**
+         * No filter: all the successors are evaluated with the heuristic.
+         */
+        NONE,
+        /**
+         * The successors that decrease the number of goal fluents not satisfied are evaluated first.
+         */
+        GOAL_COUNT,
+        /**
+         * The successors that make true a fluent never seen before during the search are evaluated first.
+         */
+        NOVELTY,
+    }
+
     /**
      * The default heuristic used (FAST_FORWARD).
      */
@@ -44,6 +64,11 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     static final int DEFAULT_TIMEOUT = 600;
 
+    /**
+     * The default filter of the successors (NONE).
+     */
+    static final EvaluationFilter DEFAULT_EVALUATION_FILTER = EvaluationFilter.NONE;
+
     /**
      * Returns the heuristic to use to solve the planning problem.
      *
@@ -114,6 +139,20 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     void setMemoryUsed(final long memoryUsed);
 
+    /**
+     * Returns the time spent to build the structures precomputed by the heuristic of the search in milliseconds.
+     *
+     * @return the time spent to build the structures precomputed by the heuristic of the search.
+     */
+    long getHeuristicPreprocessingTime();
+
+    /**
+     * Returns the memory used by the structures precomputed by the heuristic of the search in bytes.
+     *
+     * @return the memory used by the structures precomputed by the heuristic of the search.
+     */
+    long getHeuristicPreprocessingMemory();
+
     /**
      * Returns the number of explored nodes.
      *
@@ -156,6 +195,69 @@ public interface StateSpaceSearch extends SearchStrategy {
      */
     void setCreatedNodes(final int createdNodes);
 
+    /**
+     * Returns the store of the dead ends met by the search.
+     *
+     * @return the store of the dead ends met by the search or <code>null</code> if no store is set.
+     */
+    DeadEndStore getDeadEndStore();
+
+    /**
+     * Sets the store of the dead ends met by the search. A store can be shared by several searches of the same
+     * problem.
+     *
+     * @param store the store of the dead ends.
+     */
+    void setDeadEndStore(final DeadEndStore store);
+
+    /**
+     * Returns the finite-domain variables used to pack the states registered by the search.
+     *
+     * @return the finite-domain variables used to pack the states registered by the search or <code>null</code> if
+     *          the states are registered unpacked.
+     */
+    FiniteDomainVariables getFiniteDomainVariables();
+
+    /**
+     * Sets the finite-domain variables used to pack the states registered by the search. The variables must be built
+     * from the problem solved by the search. The variables can be shared by several searches of the same problem.
+     *
+     * @param variables the finite-domain variables or <code>null</code> to register the states unpacked.
+     */
+    void setFiniteDomainVariables(final FiniteDomainVariables variables);
+
+    /**
+     * Returns the filter used to select the successors evaluated with the heuristic of the search.
+     *
+     * @return the filter used to select the successors evaluated with the heuristic of the search.
+     */
+    EvaluationFilter getEvaluationFilter();
+
+    /**
+     * Sets the filter used to select the successors evaluated with the heuristic of the search. The filter is only
+     * used by the greedy searches, i.e., the enforced hill climbing, the hill climbing and the greedy best first
+     * search.
+     *
+     * @param filter the filter. The filter cannot be null.
+     */
+    void setEvaluationFilter(final EvaluationFilter filter);
+
+    /**
+     * Returns the number of threads used to evaluate the successors of a node with the heuristic of the search.
+     *
+     * @return the number of threads used to evaluate the successors of a node with the heuristic of the search.
+     */
+    int getHeuristicThreads();
+
+    /**
+     * Sets the number of threads used to evaluate the successors of a node with the heuristic of the search. With
+     * more than one thread, the successors of a node are evaluated in parallel, unless the heuristic is
+     * path-dependent. The threads are stopped at the end of the search.
+     *
+     * @param threads the number of threads. The number of threads must be greater than 0.
+     */
+    void setHeuristicThreads(final int threads);
+
     /**
      * Solves the planning problem and returns the first solution node found.
      *
@@ -247,6 +349,16 @@ public interface StateSpaceSearch extends SearchStrategy {
                 return new GreedyBestFirstSearch(timeout, heuristic, weight);
             case HILL_CLIMBING:
                 return new HillClimbing(timeout, heuristic, weight);
+            case IW1:
+                return new IteratedWidth(timeout, 1);
+            case IW2:
+                return new IteratedWidth(timeout, 2);
+            case SIW:
+                return new SerializedIteratedWidth(timeout);
+            case BFWS:
+                return new BestFirstWidthSearch(timeout, heuristic, weight);
+            case MONTE_CARLO_RANDOM_WALK:
+                return new MonteCarloRandomWalk(timeout, heuristic, weight);
             default:
                 return null;
         }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.planners.statespace.search;
+
+import java.util.List;
+
+/**
+ * This interface defines the generator of the successors of the nodes expanded by a search.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ * @see SearchEngine
+ */
+public interface SuccessorGenerator {
+
+    /**
+     * Generates the successors of a node. The successors have their parent, their action, their cost and their depth
+     * set.
+     *
+     * @param parent     the node to expand.
+     * @param successors the list where the successors are added.
+     */
+    void generate(final Node parent, final List<Node> successors);
+
+}
@@ -324,6 +324,15 @@ public abstract class AbstractProblem implements Problem {
         return this.problem;
     }
 
+    /**
+     * Sets the parsed problem used to create this problem.
+     *
+     * @param problem the parsed problem.
+     */
+    protected final void setParsedProblem(final DefaultParsedProblem problem) {
+        this.problem = problem;
+    }
+
     /**
      * Returns the requirements of the problem.
      *
@@ -333,6 +342,15 @@ public abstract class AbstractProblem implements Problem {
         return this.requirements;
     }
 
+    /**
+     * Sets the requirements of the problem.
+     *
+     * @param requirements the requirements of the problem to set.
+     */
+    protected final void setRequirements(final Set<RequireKey> requirements) {
+        this.requirements = requirements;
+    }
+
     /**
      * Returns the list of the type symbols of the problem.
      *
@@ -342,6 +360,15 @@ public abstract class AbstractProblem implements Problem {
         return this.typeSymbols;
     }
 
+    /**
+     * Sets the list of the type symbols of the problem.
+     *
+     * @param types the list of the type symbols of the problem to set.
+     */
+    protected final void setTypes(final List<String> types) {
+        this.typeSymbols = types;
+    }
+
     /**
      * Returns the domains for each type of the problem.
      *
@@ -351,6 +378,15 @@ public abstract class AbstractProblem implements Problem {
         return this.domains;
     }
 
+    /**
+     * Sets the domains for each type of the problem.
+     *
+     * @param domains the domains for each type of the problem to set.
+     */
+    protected final void setDomains(final Map<Integer, Set<Symbol<Integer>>> domains) {
+        this.domains = domains;
+    }
+
     /**
      * Returns the list of constant symbols of the problem.
      *
@@ -360,6 +396,15 @@ public abstract class AbstractProblem implements Problem {
         return this.constantSymbols;
     }
 
+    /**
+     * Sets the list of constant symbols of the problem.
+     *
+     * @param constants the list of constant symbols of the problem to set.
+     */
+    protected final void setConstantSymbols(final List<String> constants) {
+        this.constantSymbols = constants;
+    }
+
     /**
      * Returns the list of predicate symbols of the problem.
      *
@@ -369,6 +414,15 @@ public abstract class AbstractProblem implements Problem {
         return this.predicateSymbols;
     }
 
+    /**
+     * Sets the list of predicate symbols of the problem.
+     *
+     * @param predicates the list of predicate symbols of the problem to set.
+     */
+    protected final void setPredicateSymbols(final List<String> predicates) {
+        this.predicateSymbols = predicates;
+    }
+
     /**
      * Returns the signatures of the predicates defined in the problem.
      *
@@ -378,6 +432,15 @@ public abstract class AbstractProblem implements Problem {
         return this.predicateSignatures;
     }
 
+    /**
+     * Sets the signatures of the predicates of the problem.
+     *
+     * @param signatures the signatures of the predicates of the problem to set.
+     */
+    protected final void setPredicateSignatures(final List<List<Symbol<Integer>>> signatures) {
+        this.predicateSignatures = signatures;
+    }
+
     /**
      * Returns the list of task symbols of the problem.
      *
@@ -387,6 +450,15 @@ public abstract class AbstractProblem implements Problem {
         return this.taskSymbols;
     }
 
+    /**
+     * Sets the list of task symbols of the problem.
+     *
+     * @param tasks the list of task symbols of the problem to set.
+     */
+    protected final void setTaskSymbols(final List<String> tasks) {
+        this.taskSymbols = tasks;
+    }
+
     /**
      * Returns the signatures of the task defined in the problem.
      *
@@ -396,6 +468,15 @@ public abstract class AbstractProblem implements Problem {
         return this.taskSignatures;
     }
 
+    /**
+     * Sets the signatures of the tasks of the problem.
+     *
+     * @param signatures the signatures of the tasks of the problem to set.
+     */
+    protected final void setTaskSignatures(final List<List<Symbol<Integer>>> signatures) {
+        this.taskSignatures = signatures;
+    }
+
     /**
      * Returns the list of function symbols of the problem.
      *
@@ -423,6 +504,15 @@ public abstract class AbstractProblem implements Problem {
         return this.primitiveTaskSymbols;
     }
 
+    /**
+     * Sets the list of primitive task symbols of the problem.
+     *
+     * @param tasks the list of primitive task symbols of the problem to set.
+     */
+    protected final void setPrimitiveTaskSymbols(final Set<String> tasks) {
+        this.primitiveTaskSymbols = tasks;
+    }
+
     /**
      * Returns the list of compound tasks symbols of the problem.
      *
@@ -432,6 +522,15 @@ public abstract class AbstractProblem implements Problem {
         return this.compoundTaskSymbols;
     }
 
+    /**
+     * Sets the list of compound task symbols of the problem.
+     *
+     * @param tasks the list of compound task symbols of the problem to set.
+     */
+    protected final void setCompoundTaskSymbols(final Set<String> tasks) {
+        this.compoundTaskSymbols = tasks;
+    }
+
     /**
      * Instantiates the problem. This method calls in this order the methods initialization(), preinstantiation(),
      * instantiation(), postinstantiation() and finalization(). This methods must be override in each concrete classe.
@@ -1159,7 +1258,7 @@ public abstract class AbstractProblem implements Problem {
      * @param exp the expression to encode.
      * @return the integer representation of the specified expression.
      */
-    private Expression<Integer> initExpression(final Expression<String> exp) {
+    protected Expression<Integer> initExpression(final Expression<String> exp) {
         return this.initExpression(exp, new ArrayList<>());
     }
 
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.
+ * If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.parser.Connector;
+import fr.uga.pddl4j.parser.Expression;
+import fr.uga.pddl4j.parser.Location;
+import fr.uga.pddl4j.parser.Symbol;
+import fr.uga.pddl4j.parser.SymbolType;
+import fr.uga.pddl4j.parser.TypedSymbol;
+import fr.uga.pddl4j.problem.operator.IntAction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class implements the template of an action schema used to ground the action. The template is compiled once
+ * per action schema and then filled with the bindings of the parameters of the action:
+ * <ul>
+ * <li>The literals of the precondition of the schema whose predicate is not a fluent are compiled into checks on the
+ * predicates tables. A binding, even partial, is checked with integers only, i.e., without copying or substituting
+ * any expression.</li>
+ * <li>The positive literals whose predicate is never added by an action restrict the values of their parameters to
+ * the values of the facts of the initial state that match the parameters already bound. The parameters can be bound
+ * in any order and the next parameter bound is the most constrained one.</li>
+ * <li>The precondition, the effect and the duration of a consistent binding are copied and instantiated in a single
+ * pass over the expressions of the schema.</li>
+ * </ul>
+ * A template is only read during grounding. Thus, a template can be shared by the tasks that ground an action in
+ * parallel.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 08.04.2021
+ */
+final class ActionTemplate {
+
+    /**
+     * The action schema.
+     */
+    private final IntAction schema;
+
+    /**
+     * The problem used to simplify the atoms instantiated with the inertia.
+     */
+    private final PreInstantiatedProblem problem;
+
+    /**
+     * The index of the facts of the initial state used to restrict the values of the parameters.
+     */
+    private final InertiaIndex index;
+
+    /**
+     * The values of the domains of the parameters of the schema.
+     */
+    private final int[][] domains;
+
+    /**
+     * The literals of the precondition of the schema that contain each parameter.
+     */
+    private final List<List<Literal>> literals;
+
+    /**
+     * Creates a new template from an action schema. The quantified expressions of the schema must be expanded.
+     *
+     * @param schema  the action schema.
+     * @param problem the problem used to simplify the atoms instantiated with the inertia.
+     * @param index   the index of the facts of the initial state used to restrict the values of the parameters.
+     */
+    ActionTemplate(final IntAction schema, final PreInstantiatedProblem problem, final InertiaIndex index) {
+        this.schema = schema;
+        this.problem = problem;
+        this.index = index;
+        this.domains = new int[schema.arity()][];
+        this.literals = new ArrayList<>(schema.arity());
+        for (int i = 0; i < schema.arity(); i++) {
+            this.domains[i] = problem.getDomains().get(schema.getTypeOfParameters(i)).stream()
+                .mapToInt(Symbol::getValue).toArray();
+            this.literals.add(new ArrayList<>());
+        }
+        final Expression<Integer> precondition = schema.getPreconditions();
+        if (precondition.getConnector().equals(Connector.AND)) {
+            precondition.getChildren().forEach(this::compile);
+        } else {
+            this.compile(precondition);
+        }
+    }
+
+    /**
+     * Returns the action schema of the template.
+     *
+     * @return the action schema of the template.
+     */
+    IntAction getSchema() {
+        return this.schema;
+    }
+
+    /**
+     * Returns the parameter not yet bound with the fewest values consistent with a partial binding of the parameters.
+     *
+     * @param binding the binding of the parameters, -1 for the parameters not bound.
+     * @return the parameter not yet bound with the fewest values or -1 if all the parameters are bound.
+     */
+    int select(final int[] binding) {
+        int parameter = -1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < binding.length; i++) {
+            if (binding[i] == -1) {
+                final int size = this.getValues(binding, i).length;
+                if (size < min) {
+                    parameter = i;
+                    min = size;
+                }
+            }
+        }
+        return parameter;
+    }
+
+    /**
+     * Returns the values of a parameter consistent with a partial binding of the parameters, i.e., the values of the
+     * domain of the parameter that match a fact of the initial state for each positive literal of the precondition
+     * whose predicate is indexed. The values are returned in the order of the domain of the parameter.
+     *
+     * @param binding   the binding of the parameters, -1 for the parameters not bound.
+     * @param parameter the parameter not bound.
+     * @return the values of the parameter consistent with the binding.
+     */
+    int[] getValues(final int[] binding, final int parameter) {
+        int[] values = this.domains[parameter];
+        for (Literal literal : this.literals.get(parameter)) {
+            if (literal.indexed) {
+                final BitSet matching = this.index.getValues(literal.predicate, literal.bind(binding), parameter);
+                values = Arrays.stream(values).filter(matching::get).toArray();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns if a partial binding of the parameters of the action is consistent with the predicates tables. The
+     * binding is only checked on the literals of the precondition that contain the last parameter bound.
+     *
+     * @param binding   the binding of the parameters, -1 for the parameters not bound.
+     * @param parameter the last parameter bound.
+     * @return <code>false</code> if no action with this partial binding can be applied; <code>true</code> otherwise.
+     */
+    boolean isConsistent(final int[] binding, final int parameter) {
+        for (Literal literal : this.literals.get(parameter)) {
+            if (!literal.isConsistent(binding)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Instantiates the action with a specified binding of its parameters.
+     *
+     * @param binding the constants of the parameters of the action.
+     * @return the action instantiated or <code>null</code> if the action can never be applied.
+     */
+    IntAction instantiate(final int[] binding) {
+        final int arity = this.schema.arity();
+        final List<Symbol<Integer>> constants = new ArrayList<>(arity);
+        for (int i = 0; i < arity; i++) {
+            constants.add(new Symbol<>(SymbolType.CONSTANT, binding[i]));
+        }
+        final Expression<Integer> precond = this.instantiate(this.schema.getPreconditions(), constants);
+        precond.simplify();
+        if (precond.getConnector().equals(Connector.FALSE)) {
+            return null;
+        }
+        final Expression<Integer> effects = this.instantiate(this.schema.getEffects(), constants);
+        effects.simplify();
+        if (effects.getConnector().equals(Connector.FALSE)) {
+            return null;
+        }
+        final IntAction action = new IntAction(this.schema.getName(), arity);
+        action.setPreconditions(precond);
+        action.setEffects(effects);
+        for (int i = 0; i < arity; i++) {
+            action.setTypeOfParameter(i, this.schema.getTypeOfParameters(i));
+            action.setValueOfParameter(i, binding[i]);
+        }
+        if (this.schema.isDurative()) {
+            action.setDuration(this.instantiate(this.schema.getDuration(), constants));
+        }
+        return action;
+    }
+
+    /**
+     * Copies a specified expression and substitutes in the same pass the parameters of the action by their
+     * constants. The atoms instantiated are simplified with the inertia and the truth values are propagated as
+     * {@link Expression#substitute(Symbol, Symbol, AtomicFormulaSimplifier)} does.
+     *
+     * @param exp       the expression of the schema.
+     * @param constants the constants of the parameters of the action.
+     * @return the expression instantiated.
+     */
+    private Expression<Integer> instantiate(final Expression<Integer> exp, final List<Symbol<Integer>> constants) {
+        final Expression<Integer> copy = new Expression<>(exp.getConnector());
+        boolean updated = false;
+        if (exp.getSymbol() != null) {
+            copy.setSymbol(new Symbol<>(exp.getSymbol()));
+        }
+        if (exp.getArguments() == null) {
+            copy.setArguments(null);
+        } else {
+            for (Symbol<Integer> argument : exp.getArguments()) {
+                final int value = argument.getValue();
+                if (value < 0 && -value - 1 < constants.size() && this.isSubstituted(exp.getConnector())) {
+                    copy.getArguments().add(constants.get(-value - 1));
+                    updated = true;
+                } else {
+                    copy.getArguments().add(new Symbol<>(argument));
+                }
+            }
+        }
+        if (exp.getQuantifiedVariables() == null) {
+            copy.setQuantifiedVariables(null);
+        } else {
+            for (TypedSymbol<Integer> variable : exp.getQuantifiedVariables()) {
+                copy.getQuantifiedVariables().add(new TypedSymbol<>(variable));
+            }
+        }
+        if (exp.getVariable() != null) {
+            copy.setVariable(new Symbol<>(exp.getVariable()));
+        }
+        if (exp.getPrefName() != null) {
+            copy.setPrefName(new Symbol<>(exp.getPrefName()));
+        }
+        if (exp.getTaskID() != null) {
+            copy.setTaskID(new Symbol<>(exp.getTaskID()));
+        }
+        copy.setValue(exp.getValue());
+        if (exp.getChildren() == null) {
+            copy.setChildren(null);
+        } else {
+            for (Expression<Integer> child : exp.getChildren()) {
+                copy.getChildren().add(this.instantiate(child, constants));
+            }
+        }
+        copy.setPrimtive(exp.isPrimtive());
+        if (exp.getLocation() != null) {
+            copy.setLocation(new Location(exp.getLocation()));
+        }
+        copy.setTimeSpecifier(exp.getTimeSpecifier());
+        // Propagates the truth values of the atoms instantiated
+        switch (copy.getConnector()) {
+            case ATOM:
+                if (updated) {
+                    this.problem.simplify(copy);
+                }
+                break;
+            case AND:
+                if (copy.getChildren().stream().anyMatch(e -> e.getConnector().equals(Connector.FALSE))) {
+                    copy.setConnector(Connector.FALSE);
+                }
+                break;
+            case OR:
+                if (copy.getChildren().stream().anyMatch(e -> e.getConnector().equals(Connector.TRUE))) {
+                    copy.setConnector(Connector.TRUE);
+                }
+                break;
+            case NOT:
+                final Connector connector = copy.getChildren().get(0).getConnector();
+                if (connector.equals(Connector.TRUE)) {
+                    copy.setConnector(Connector.FALSE);
+                } else if (connector.equals(Connector.FALSE)) {
+                    copy.setConnector(Connector.TRUE);
+                }
+                break;
+            default:
+                // do nothing
+        }
+        return copy;
+    }
+
+    /**
+     * Returns if the parameters occurring in the arguments of an expression with a specified connector are
+     * substituted.
+     *
+     * @param connector the connector of the expression.
+     * @return <code>true</code> if the parameters are substituted; <code>false</code> otherwise.
+     */
+    private boolean isSubstituted(final Connector connector) {
+        switch (connector) {
+            case ATOM:
+            case TASK:
+            case FN_HEAD:
+            case EQUAL_ATOM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Compiles a literal of the precondition of the schema and adds it to the literals of its parameters. The literals
+     * whose predicate is a fluent are ignored because they can never be simplified.
+     *
+     * @param literal the literal.
+     */
+    private void compile(final Expression<Integer> literal) {
+        final boolean positive = !literal.getConnector().equals(Connector.NOT);
+        final Expression<Integer> atom = positive ? literal : literal.getChildren().get(0);
+        if (!atom.getConnector().equals(Connector.ATOM)) {
+            return;
+        }
+        final int predicate = atom.getSymbol().getValue();
+        final Inertia inertia = this.problem.getInertia().get(predicate);
+        if (inertia.equals(Inertia.FLUENT)) {
+            return;
+        }
+        final List<Symbol<Integer>> signature = this.problem.getPredicateSignatures().get(predicate);
+        final int[] arguments = new int[atom.getArguments().size()];
+        final int[] sizes = new int[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = atom.getArguments().get(i).getValue();
+            sizes[i] = this.problem.getDomains().get(signature.get(i).getValue()).size();
+        }
+        final Literal compiled = new Literal(predicate, arguments, sizes, inertia, positive,
+            positive && this.index.isIndexed(predicate));
+        for (int parameter = 0; parameter < this.schema.arity(); parameter++) {
+            for (int argument : arguments) {
+                if (argument == -parameter - 1) {
+                    this.literals.get(parameter).add(compiled);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * This class implements a literal of the precondition of an action whose predicate is not a fluent. The check of
+     * a literal for a partial binding of the parameters of the action gives the same result as the simplification of
+     * the literal with the inertia.
+     *
+     * @see PreInstantiatedProblem#simplify(Expression)
+     */
+    private final class Literal {
+
+        /**
+         * The predicate of the literal.
+         */
+        private final int predicate;
+
+        /**
+         * The arguments of the literal. A negative value is the parameter <code>-value-1</code> and a positive value
+         * is a constant.
+         */
+        private final int[] arguments;
+
+        /**
+         * The sizes of the domains of the arguments of the predicate of the literal.
+         */
+        private final int[] sizes;
+
+        /**
+         * The inertia of the predicate of the literal.
+         */
+        private final Inertia inertia;
+
+        /**
+         * The polarity of the literal.
+         */
+        private final boolean positive;
+
+        /**
+         * A boolean flag to indicate if the literal restricts the values of its parameters to the facts indexed.
+         */
+        private final boolean indexed;
+
+        /**
+         * Creates a new literal.
+         *
+         * @param predicate the predicate of the literal.
+         * @param arguments the arguments of the literal.
+         * @param sizes     the sizes of the domains of the arguments of the predicate.
+         * @param inertia   the inertia of the predicate of the literal.
+         * @param positive  the polarity of the literal.
+         * @param indexed   <code>true</code> if the literal restricts the values of its parameters.
+         */
+        private Literal(final int predicate, final int[] arguments, final int[] sizes, final Inertia inertia,
+                        final boolean positive, final boolean indexed) {
+            this.predicate = predicate;
+            this.arguments = arguments;
+            this.sizes = sizes;
+            this.inertia = inertia;
+            this.positive = positive;
+            this.indexed = indexed;
+        }
+
+        /**
+         * Returns the arguments of the literal where the parameters bound are replaced by their values.
+         *
+         * @param binding the binding of the parameters, -1 for the parameters not bound.
+         * @return the arguments of the literal with the parameters bound replaced by their values.
+         */
+        private int[] bind(final int[] binding) {
+            final int[] bound = new int[this.arguments.length];
+            for (int i = 0; i < bound.length; i++) {
+                final int value = this.arguments[i];
+                bound[i] = value < 0 && binding[-value - 1] != -1 ? binding[-value - 1] : value;
+            }
+            return bound;
+        }
+
+        /**
+         * Returns if a partial binding is consistent with the literal.
+         *
+         * @param binding the binding of the parameters, -1 for the parameters not bound.
+         * @return <code>false</code> if the literal is simplified to FALSE; <code>true</code> otherwise.
+         */
+        private boolean isConsistent(final int[] binding) {
+            final int[] bound = this.bind(binding);
+            final int[] mask = new int[bound.length];
+            int size = 0;
+            int max = 1;
+            for (int i = 0; i < bound.length; i++) {
+                if (bound[i] >= 0) {
+                    mask[i] = 1;
+                    size++;
+                } else {
+                    max *= this.sizes[i];
+                }
+            }
+            final int[] key = new int[size];
+            int j = 0;
+            for (int value : bound) {
+                if (value >= 0) {
+                    key[j] = value;
+                    j++;
+                }
+            }
+            final int n = ActionTemplate.this.problem.getPredicateTable(this.predicate, mask).get(key);
+            if (this.positive) {
+                return !((this.inertia.equals(Inertia.POSITIVE) || this.inertia.equals(Inertia.INERTIA)) && n == 0);
+            } else {
+                return !((this.inertia.equals(Inertia.NEGATIVE) || this.inertia.equals(Inertia.INERTIA))
+                    && n == max);
+            }
+        }
+    }
+}
@@ -15,11 +15,13 @@ package fr.uga.pddl4j.problem;
  * If not, see <http://www.gnu.org/licenses/>
  */
 
+import fr.uga.pddl4j.heuristics.state.PreprocessingCache;
 import fr.uga.pddl4j.parser.DefaultParsedProblem;
 import fr.uga.pddl4j.parser.ErrorManager;
 import fr.uga.pddl4j.parser.Expression;
 import fr.uga.pddl4j.parser.Parser;
 import fr.uga.pddl4j.parser.RequireKey;
+import fr.uga.pddl4j.parser.TypedSymbol;
 import fr.uga.pddl4j.problem.numeric.NumericVariable;
 import fr.uga.pddl4j.problem.operator.DurativeMethod;
 import fr.uga.pddl4j.problem.operator.IntAction;
@@ -34,7 +36,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * This class implements a default problem. this class allows to realize the instantiation of a problem before its
@@ -272,6 +277,15 @@ public class DefaultProblem extends FinalizedProblem {
                 + this.toString(Data.INT_GOAL) + "\n");
         }
 
+        // The primitive tasks of the methods are not related to the goal
+        if (!this.getRequirements().contains(RequireKey.HIERARCHY)) {
+            this.pruneIrrelevantActions();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Actions relevant to the goal:\n\n"
+                    + this.toString(Data.INT_ACTIONS) + "\n");
+            }
+        }
+
         if (this.getRequirements().contains(RequireKey.HIERARCHY)) {
             this.instantiateInitialTaskNetwork();
             if (LOGGER.isDebugEnabled()) {
@@ -377,6 +391,112 @@ public class DefaultProblem extends FinalizedProblem {
 
     }
 
+    /**
+     * Reinstantiates this problem with the initial state and the goal of a new problem. The new problem must be
+     * defined on the same domain and must declare the same objects as the problem used to create this problem. The
+     * problem is reinstantiated incrementally if and only if the new initial state preserves the inertia of this
+     * problem, i.e., if it only removes atoms deleted by the actions and only adds atoms added by the actions of this
+     * problem, as a state reached from the initial state of this problem does. In this case, the actions and the
+     * fluents of this problem are kept unchanged: only the initial state and the goal are encoded, simplified with the
+     * ground inertia and finalized. If the goal changes, the actions are pruned again with the relevance to the new
+     * goal from the actions instantiated before the pruning, and the fluents and the actions are finalized again.
+     * The structures precomputed by the heuristics for this problem are removed from the {@link PreprocessingCache}
+     * since they depend on the initial state and the goal. Otherwise, the problem is not modified and the new problem
+     * must be instantiated from scratch.
+     * <p>
+     * The incremental reinstantiation is not supported for the problems with numeric fluents, timed initial literals
+     * or hierarchical tasks, and for the problems that were not instantiated from a parsed problem, e.g., the problems
+     * loaded from a cache file.
+     * </p>
+     *
+     * @param problem the new problem.
+     * @return <code>true</code> if this problem was reinstantiated with the initial state and the goal of the new
+     *          problem; <code>false</code> if this problem was not modified.
+     * @see PostInstantiatedProblem#isInertiaPreserved(Set)
+     */
+    public boolean reinstantiate(final DefaultParsedProblem problem) {
+        final DefaultParsedProblem current = this.getParsedProblem();
+        if (current == null || this.getIntActions() == null
+            || !this.isReinstantiable(this.getRequirements()) || !this.isReinstantiable(problem.getRequirements())
+            || !current.getDomainName().equals(problem.getDomainName())
+            || !DefaultProblem.equals(current.getObjects(), problem.getObjects())) {
+            return false;
+        }
+        problem.normalize();
+        final Set<Expression<Integer>> init = problem.getInit().stream().map(this::initExpression)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!this.isInertiaPreserved(init)) {
+            return false;
+        }
+        final boolean goalChanged = !current.getGoal().equals(problem.getGoal());
+        this.setParsedProblem(problem);
+        this.initInitialState();
+        this.createPredicatesTables();
+        this.initInitialAtoms();
+        this.initGoal();
+        this.instantiateGoal();
+        this.simplifyGoalWithGroundInertia();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Goal reinstantiated:\n"
+                + this.toString(Data.INT_GOAL) + "\n");
+        }
+        // The actions pruned with the relevance to the previous goal may be needed to reach the new goal
+        if (goalChanged) {
+            this.restoreUnprunedActions();
+            this.pruneIrrelevantActions();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Actions relevant to the goal:\n\n"
+                    + this.toString(Data.INT_ACTIONS) + "\n");
+            }
+            this.extractRelevantFluents();
+            this.initOfMapFluentIndex();
+            this.finalizeActions();
+        }
+        this.finalizeInitialState();
+        this.finalizeGoal();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Initial state:\n"
+                + this.toString(Data.INITIAL_STATE) + "\n");
+            LOGGER.debug("Goal:\n"
+                + this.toString(Data.GOAL) + "\n");
+        }
+        // The structures cached for this problem were computed with the previous actions, initial state and goal
+        PreprocessingCache.remove(this);
+        return true;
+    }
+
+    /**
+     * Returns if the incremental reinstantiation is supported for a specified set of requirements.
+     *
+     * @param requirements the requirements.
+     * @return <code>true</code> if the incremental reinstantiation is supported; <code>false</code> otherwise.
+     */
+    private boolean isReinstantiable(final Set<RequireKey> requirements) {
+        return !requirements.contains(RequireKey.NUMERIC_FLUENTS)
+            && !requirements.contains(RequireKey.TIMED_INITIAL_LITERALS)
+            && !requirements.contains(RequireKey.HIERARCHY);
+    }
+
+    /**
+     * Returns if two lists of objects declare the same objects with the same types in the same order.
+     *
+     * @param objects the first list of objects.
+     * @param others  the second list of objects.
+     * @return <code>true</code> if the two lists declare the same objects; <code>false</code> otherwise.
+     */
+    private static boolean equals(final List<TypedSymbol<String>> objects, final List<TypedSymbol<String>> others) {
+        if (objects.size() != others.size()) {
+            return false;
+        }
+        for (int i = 0; i < objects.size(); i++) {
+            if (!objects.get(i).equals(others.get(i))
+                || !objects.get(i).getTypes().equals(others.get(i).getTypes())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns <code>true</code> if this problem is solvable. The method returns <code>false</code> if the goal is
      * simplified to <code>false</code> during the instantiation process, otherwise the method returns
@@ -110,9 +110,10 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
     private List<Expression<Integer>> intExpFluents;
 
     /**
-     * The map used to encode fluents into bit set representation.
+     * The table used to encode fluents into bit set representation. The index of a fluent in the table is its index
+     * in the bit set representation.
      */
-    private Map<Expression<Integer>, Integer> mapOfFluentIndex;
+    private GroundAtomTable mapOfFluentIndex;
 
     /**
      * The table of the relevant numeric fluent in the form of {@code Expression}.
@@ -172,6 +173,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.actions;
     }
 
+    /**
+     * Sets the list of actions of the problem.
+     *
+     * @param actions the list of actions of the problem to set.
+     */
+    protected final void setActions(final List<Action> actions) {
+        this.actions = actions;
+    }
+
     /**
      * Returns the list of instantiated durative actions of the problem.
      *
@@ -181,6 +191,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.durativeActions;
     }
 
+    /**
+     * Sets the list of durative actions of the problem.
+     *
+     * @param actions the list of durative actions of the problem to set.
+     */
+    protected final void setDurativeActions(final List<DurativeAction> actions) {
+        this.durativeActions = actions;
+    }
+
     /**
      * Returns the list of relevant fluents of the problem.
      *
@@ -190,6 +209,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.fluents;
     }
 
+    /**
+     * Sets the list of relevant fluents of the problem.
+     *
+     * @param fluents the list of relevant fluents of the problem to set.
+     */
+    protected final void setFluents(final List<Fluent> fluents) {
+        this.fluents = fluents;
+    }
+
     /**
      * Returns the list of relevant numeric fluents of the problem.
      *
@@ -199,6 +227,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.numericFluents;
     }
 
+    /**
+     * Sets the list of relevant numeric fluents of the problem.
+     *
+     * @param fluents the list of relevant numeric fluents of the problem to set.
+     */
+    protected final void setNumericFluents(final List<NumericFluent> fluents) {
+        this.numericFluents = fluents;
+    }
+
     /**
      * Returns the initial state of the problem.
      *
@@ -208,6 +245,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.initialState;
     }
 
+    /**
+     * Sets the initial state of the problem.
+     *
+     * @param state the initial state of the problem to set.
+     */
+    protected final void setInitialState(final InitialState state) {
+        this.initialState = state;
+    }
+
     /**
      * Returns the goal of the problem.
      *
@@ -217,6 +263,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.goal;
     }
 
+    /**
+     * Sets the goal of the problem.
+     *
+     * @param goal the goal of the problem to set.
+     */
+    protected final void setGoal(final Goal goal) {
+        this.goal = goal;
+    }
+
     /**
      * Returns the list of relevant fluents of the problem in the form of <code>Expression</code>.
      *
@@ -227,12 +282,11 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
     }
 
     /**
-     * Returns the map used to encode fluents into bit set representation.
-     *
+     * Returns the table used to encode fluents into bit set representation.
      *
-     * @return the map used to encode fluents into bit set representation.
+     * @return the table used to encode fluents into bit set representation.
      */
-    private Map<Expression<Integer>, Integer> getMapOfFluentIndex() {
+    private GroundAtomTable getMapOfFluentIndex() {
         return this.mapOfFluentIndex;
     }
 
@@ -293,6 +347,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return taskResolvers;
     }
 
+    /**
+     * Sets the resolvers of the tasks of the problem.
+     *
+     * @param resolvers the resolvers of the tasks of the problem to set.
+     */
+    protected final void setTaskResolvers(final List<List<Integer>> resolvers) {
+        this.taskResolvers = resolvers;
+    }
+
     /**
      * Returns the initial task network of the problem.
      *
@@ -302,6 +365,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return initialTaskNetwork;
     }
 
+    /**
+     * Sets the initial task network of the problem.
+     *
+     * @param network the initial task network of the problem to set.
+     */
+    protected final void setInitialTaskNetwork(final TaskNetwork network) {
+        this.initialTaskNetwork = network;
+    }
+
     /**
      * The list of relevant tasks of the problem.
      *
@@ -311,6 +383,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.tasks;
     }
 
+    /**
+     * Sets the list of relevant tasks of the problem.
+     *
+     * @param tasks the list of relevant tasks of the problem to set.
+     */
+    protected final void setTasks(final List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
     /**
      * Returns the list of instantiated methods of the problem.
      *
@@ -320,6 +401,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.methods;
     }
 
+    /**
+     * Sets the list of methods of the problem.
+     *
+     * @param methods the list of methods of the problem to set.
+     */
+    protected final void setMethods(final List<Method> methods) {
+        this.methods = methods;
+    }
+
     /**
      * Returns the list of instantiated durative methods of the problem.
      *
@@ -329,6 +419,15 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         return this.durativeMethods;
     }
 
+    /**
+     * Sets the list of durative methods of the problem.
+     *
+     * @param methods the list of durative methods of the problem to set.
+     */
+    protected final void setDurativeMethods(final List<DurativeMethod> methods) {
+        this.durativeMethods = methods;
+    }
+
 
     /**
      * Extracts the relevant fluents from the instantiated actions. A fluents is relevant if and
@@ -337,10 +436,11 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
      * <li>1. it is an initial fact and not a negative ground inertia, or if</li>
      * <li>2. it is not an initial fact and not a positive ground inertia.</li>
      * </ul>
+     * Moreover, if the actions were pruned with the relevance to the goal, a fluent must be relevant to the goal.
      *
      */
     protected void extractRelevantFluents() {
-        final Set<Expression<Integer>> fluents = new LinkedHashSet<>(10000);
+        final GroundAtomTable fluents = new GroundAtomTable(10000);
         // Add relevant fluents from actions
         for (IntAction a : this.getIntActions()) {
             extractRelevantFluents(a.getPreconditions(), fluents);
@@ -348,12 +448,8 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         }
         // Add relevant fluents from the initial state
         for (Expression<Integer> p : this.getIntInitialState()) {
-            Inertia inertia = this.getGroundInertia().get(p);
-            if (inertia == null) {
-                inertia = Inertia.INERTIA;
-            }
-            if (this.getIntInitialState().contains(p) && !inertia.equals(Inertia.NEGATIVE)) {
-                fluents.add(p);
+            if (!this.getGroundInertia(p).equals(Inertia.NEGATIVE) && this.isRelevant(p)) {
+                fluents.put(p);
             }
         }
         // Add relevant fluents from the goal
@@ -363,14 +459,14 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
 
         this.intExpFluents = new ArrayList<>(fluents.size());
         this.fluents = new ArrayList<>(fluents.size());
-        for (Expression<Integer> exp : fluents) {
-            final Expression<Integer> relevant = new Expression<>(exp);
+        for (int index = 0; index < fluents.size(); index++) {
+            final Expression<Integer> relevant = fluents.get(index);
             this.intExpFluents.add(relevant);
-            int[] arguments = new int[exp.getArguments().size()];
-            for (int i = 0; i < exp.getArguments().size(); i++) {
-                arguments[i] = exp.getArguments().get(i).getValue();
+            int[] arguments = new int[relevant.getArguments().size()];
+            for (int i = 0; i < relevant.getArguments().size(); i++) {
+                arguments[i] = relevant.getArguments().get(i).getValue();
             }
-            this.fluents.add(new Fluent(exp.getSymbol().getValue(), arguments));
+            this.fluents.add(new Fluent(relevant.getSymbol().getValue(), arguments));
         }
     }
 
@@ -383,18 +479,16 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
      * </ul>
      *
      * @param exp   the expression.
-     * @param fluents the set of relevant fluents.
+     * @param fluents the table of relevant fluents.
      */
-    protected void extractRelevantFluents(final Expression<Integer> exp, final Set<Expression<Integer>> fluents) {
+    private void extractRelevantFluents(final Expression<Integer> exp, final GroundAtomTable fluents) {
         switch (exp.getConnector()) {
             case ATOM:
-                Inertia inertia = this.getGroundInertia().get(exp);
-                if (inertia == null) {
-                    inertia = Inertia.INERTIA;
-                }
-                if ((this.getIntInitialState().contains(exp) && !inertia.equals(Inertia.NEGATIVE))
-                    || (!this.getIntInitialState().contains(exp) && !inertia.equals(Inertia.POSITIVE))) {
-                    fluents.add(exp);
+                final Inertia inertia = this.getGroundInertia(exp);
+                final boolean initial = this.isInitialFact(exp);
+                if (((initial && !inertia.equals(Inertia.NEGATIVE))
+                    || (!initial && !inertia.equals(Inertia.POSITIVE))) && this.isRelevant(exp)) {
+                    fluents.put(exp);
                 }
                 break;
             case FN_HEAD:
@@ -559,11 +653,9 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
      */
     protected void initOfMapFluentIndex() {
         // Create a map of the relevant fluents with their index to speedup the bit set encoding of the actions
-        this.mapOfFluentIndex = new LinkedHashMap<>(this.getIntExpFluents().size());
-        int index = 0;
+        this.mapOfFluentIndex = new GroundAtomTable(this.getIntExpFluents().size());
         for (Expression<Integer> fluent : this.getIntExpFluents()) {
-            this.mapOfFluentIndex.put(fluent, index);
-            index++;
+            this.mapOfFluentIndex.put(fluent);
         }
     }
 
@@ -620,14 +712,14 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         final Effect effect = new Effect();
         switch (exp.getConnector()) {
             case ATOM:
-                Integer index = this.mapOfFluentIndex.get(exp);
-                if (index != null) {
+                int index = this.mapOfFluentIndex.indexOf(exp);
+                if (index != -1) {
                     effect.getPositiveFluents().set(index);
                 }
                 break;
             case NOT:
-                index = this.mapOfFluentIndex.get(exp.getChildren().get(0));
-                if (index != null) {
+                index = this.mapOfFluentIndex.indexOf(exp.getChildren().get(0));
+                if (index != -1) {
                     effect.getNegativeFluents().set(index);
                 }
                 break;
@@ -636,14 +728,14 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 for (Expression<Integer> ei : children) {
                     switch (ei.getConnector()) {
                         case ATOM:
-                            index = this.mapOfFluentIndex.get(ei);
-                            if (index != null) {
+                            index = this.mapOfFluentIndex.indexOf(ei);
+                            if (index != -1) {
                                 effect.getPositiveFluents().set(index);
                             }
                             break;
                         case NOT:
-                            index = this.mapOfFluentIndex.get(ei.getChildren().get(0));
-                            if (index != null) {
+                            index = this.mapOfFluentIndex.indexOf(ei.getChildren().get(0));
+                            if (index != -1) {
                                 effect.getNegativeFluents().set(index);
                             }
                             break;
@@ -704,10 +796,10 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 Expression<Integer> sub = exp.getChildren().get(0);
                 switch (sub.getConnector()) {
                     case ATOM:
-                        effect.getPositiveFluents().set(this.getMapOfFluentIndex().get(sub));
+                        effect.getPositiveFluents().set(this.getMapOfFluentIndex().indexOf(sub));
                         break;
                     case NOT:
-                        effect.getNegativeFluents().set(this.getMapOfFluentIndex().get(sub.getChildren().get(0)));
+                        effect.getNegativeFluents().set(this.getMapOfFluentIndex().indexOf(sub.getChildren().get(0)));
                         break;
                     case ASSIGN:
                     case INCREASE:
@@ -944,8 +1036,8 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                     encoded.getConditionalEffects().add(condBitExp);
                     break;
                 case ATOM:
-                    Integer index = this.mapOfFluentIndex.get(ei);
-                    if (index != null) {
+                    int index = this.mapOfFluentIndex.indexOf(ei);
+                    if (index != -1) {
                         unCondEffects.getEffect().getPositiveFluents().set(index);
                         hasUnConditionalEffects = true;
                     } else {
@@ -953,8 +1045,8 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                     }
                     break;
                 case NOT:
-                    index = this.mapOfFluentIndex.get(children.get(0));
-                    if (index != null) {
+                    index = this.mapOfFluentIndex.indexOf(children.get(0));
+                    if (index != -1) {
                         unCondEffects.getEffect().getNegativeFluents().set(index);
                         hasUnConditionalEffects = true;
                     }
@@ -1074,10 +1166,10 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         final Condition condition = new Condition();
         switch (exp.getConnector()) {
             case ATOM:
-                condition.getPositiveFluents().set(this.getMapOfFluentIndex().get(exp));
+                condition.getPositiveFluents().set(this.getMapOfFluentIndex().indexOf(exp));
                 break;
             case NOT:
-                condition.getNegativeFluents().set(this.getMapOfFluentIndex().get(exp.getChildren().get(0)));
+                condition.getNegativeFluents().set(this.getMapOfFluentIndex().indexOf(exp.getChildren().get(0)));
                 break;
             case AND:
                 for (Expression<Integer> e : exp.getChildren()) {
@@ -1128,10 +1220,11 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 Expression<Integer> sub = exp.getChildren().get(0);
                 switch (sub.getConnector()) {
                     case ATOM:
-                        condition.getPositiveFluents().set(this.getMapOfFluentIndex().get(sub));
+                        condition.getPositiveFluents().set(this.getMapOfFluentIndex().indexOf(sub));
                         break;
                     case NOT:
-                        condition.getNegativeFluents().set(this.getMapOfFluentIndex().get(sub.getChildren().get(0)));
+                        condition.getNegativeFluents().set(
+                            this.getMapOfFluentIndex().indexOf(sub.getChildren().get(0)));
                         break;
                     case LESS_COMPARISON:
                     case LESS_OR_EQUAL_COMPARISON:
@@ -1321,14 +1414,14 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
         for (final Expression<Integer> fact : this.getIntInitialState()) {
             switch (fact.getConnector()) {
                 case ATOM:
-                    Integer i = this.mapOfFluentIndex.get(fact);
-                    if (i != null) {
+                    int i = this.mapOfFluentIndex.indexOf(fact);
+                    if (i != -1) {
                         this.initialState.getPositiveFluents().set(i);
                     }
                     break;
                 case NOT:
-                    i = this.mapOfFluentIndex.get(fact.getChildren().get(0));
-                    if (i != null) {
+                    i = this.mapOfFluentIndex.indexOf(fact.getChildren().get(0));
+                    if (i != -1) {
                         this.initialState.getNegativeFluents().set(i);
                     }
                     break;
@@ -2441,18 +2534,18 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 final Condition before = tn.getBeforeConstraints(task.getValue());
                 final Expression<Integer> se = e.getChildren().get(1);
                 if (se.getConnector().equals(Connector.NOT)) {
-                    before.getNegativeFluents().set(this.mapOfFluentIndex.get(se.getChildren().get(0)));
+                    before.getNegativeFluents().set(this.mapOfFluentIndex.indexOf(se.getChildren().get(0)));
                 } else {
-                    before.getPositiveFluents().set(this.mapOfFluentIndex.get(se));
+                    before.getPositiveFluents().set(this.mapOfFluentIndex.indexOf(se));
                 }
             } else if (e.getConnector().equals(Connector.HOLD_AFTER_METHOD_CONSTRAINT)) {
                 final Symbol<Integer> task = e.getChildren().get(0).getTaskID();
                 final Condition after = tn.getAfterConstraints(task.getValue());
                 final Expression<Integer> se = e.getChildren().get(1);
                 if (se.getConnector().equals(Connector.NOT)) {
-                    after.getNegativeFluents().set(this.mapOfFluentIndex.get(se.getChildren().get(0)));
+                    after.getNegativeFluents().set(this.mapOfFluentIndex.indexOf(se.getChildren().get(0)));
                 } else {
-                    after.getPositiveFluents().set(this.mapOfFluentIndex.get(se));
+                    after.getPositiveFluents().set(this.mapOfFluentIndex.indexOf(se));
                 }
             } else if (e.getConnector().equals(Connector.HOLD_BETWEEN_METHOD_CONSTRAINT)) {
                 final Symbol<Integer> task1 = e.getChildren().get(0).getTaskID();
@@ -2460,9 +2553,9 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 final Condition between = tn.getBetweenConstraints(task1.getValue(), task2.getValue());
                 final Expression<Integer> se = e.getChildren().get(2);
                 if (se.getConnector().equals(Connector.NOT)) {
-                    between.getNegativeFluents().set(this.mapOfFluentIndex.get(se.getChildren().get(0)));
+                    between.getNegativeFluents().set(this.mapOfFluentIndex.indexOf(se.getChildren().get(0)));
                 } else {
-                    between.getPositiveFluents().set(this.mapOfFluentIndex.get(se));
+                    between.getPositiveFluents().set(this.mapOfFluentIndex.indexOf(se));
                 }
             }
         }
@@ -2521,18 +2614,18 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 final Condition before = tn.getBeforeConstraints(task.getValue());
                 final Expression<Integer> se = e.getChildren().get(1);
                 if (se.getConnector().equals(Connector.NOT)) {
-                    before.getNegativeFluents().set(this.mapOfFluentIndex.get(se.getChildren().get(0)));
+                    before.getNegativeFluents().set(this.mapOfFluentIndex.indexOf(se.getChildren().get(0)));
                 } else {
-                    before.getPositiveFluents().set(this.mapOfFluentIndex.get(se));
+                    before.getPositiveFluents().set(this.mapOfFluentIndex.indexOf(se));
                 }
             } else if (e.getConnector().equals(Connector.HOLD_AFTER_METHOD_CONSTRAINT)) {
                 final Symbol<Integer> task = e.getChildren().get(0).getTaskID();
                 final Condition after = tn.getAfterConstraints(task.getValue());
                 final Expression<Integer> se = e.getChildren().get(1);
                 if (se.getConnector().equals(Connector.NOT)) {
-                    after.getNegativeFluents().set(this.mapOfFluentIndex.get(se.getChildren().get(0)));
+                    after.getNegativeFluents().set(this.mapOfFluentIndex.indexOf(se.getChildren().get(0)));
                 } else {
-                    after.getPositiveFluents().set(this.mapOfFluentIndex.get(se));
+                    after.getPositiveFluents().set(this.mapOfFluentIndex.indexOf(se));
                 }
             } else { // Between
                 final Symbol<Integer> task1 = e.getChildren().get(0).getTaskID();
@@ -2540,9 +2633,9 @@ public abstract class FinalizedProblem extends PostInstantiatedProblem {
                 final Condition between = tn.getBetweenConstraints(task1.getValue(), task2.getValue());
                 final Expression<Integer> se = e.getChildren().get(2);
                 if (se.getConnector().equals(Connector.NOT)) {
-                    between.getNegativeFluents().set(this.mapOfFluentIndex.get(se.getChildren().get(0)));
+                    between.getNegativeFluents().set(this.mapOfFluentIndex.indexOf(se.getChildren().get(0)));
                 } else {
-                    between.getPositiveFluents().set(this.mapOfFluentIndex.get(se));
+                    between.getPositiveFluents().set(this.mapOfFluentIndex.indexOf(se));
                 }
             }
         }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class implements a finite-domain variable view of an instantiated problem. The variables are built from the
+ * mutex groups of the problem: the groups are considered by decreasing size and each group gives a variable whose
+ * values are its fluents not already covered by a previous variable. The fluents covered by no group give binary
+ * variables. Every variable has an additional value, the last one, meaning that none of its fluents is true.
+ * <p>
+ * The variables also define a packed encoding of the states: the value of each variable is stored on
+ * <code>ceil(log2(d))</code> bits, where <code>d</code> is the size of its domain, and the fields of the variables are
+ * laid out in an array of longs, a field never spanning two longs. A field is zero when none of the fluents of the
+ * variable is true and <code>i + 1</code> when the i-th fluent is true. Thus, a state whose fluents are mostly grouped
+ * in large variables is stored on far fewer bits than in its binary encoding.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.02.2021
+ * @see MutexGroups
+ */
+public final class FiniteDomainVariables implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The fluents of each variable.
+     */
+    private final int[][] variables;
+
+    /**
+     * The variable of each fluent.
+     */
+    private final int[] variableOf;
+
+    /**
+     * The value of each fluent in its variable.
+     */
+    private final int[] valueOf;
+
+    /**
+     * The offset in bits of the field of each variable in the packed encoding.
+     */
+    private final int[] offsets;
+
+    /**
+     * The width in bits of the field of each variable in the packed encoding.
+     */
+    private final int[] widths;
+
+    /**
+     * The number of longs of the packed encoding.
+     */
+    private final int packedSize;
+
+    /**
+     * Creates the finite-domain variables of an instantiated problem.
+     *
+     * @param problem the instantiated problem.
+     */
+    public FiniteDomainVariables(final Problem problem) {
+        this(problem, new MutexGroups(problem));
+    }
+
+    /**
+     * Creates the finite-domain variables of an instantiated problem from its mutex groups.
+     *
+     * @param problem the instantiated problem.
+     * @param groups  the mutex groups of the problem.
+     */
+    public FiniteDomainVariables(final Problem problem, final MutexGroups groups) {
+        final int nbFluents = problem.getFluents().size();
+        final Integer[] order = new Integer[groups.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer g) -> -groups.getGroup(g).length));
+        final BitVector covered = new BitVector(nbFluents);
+        final List<int[]> vars = new ArrayList<>();
+        for (int g : order) {
+            final int[] group = Arrays.stream(groups.getGroup(g)).filter(f -> !covered.get(f)).toArray();
+            if (group.length > 1) {
+                vars.add(group);
+                for (int f : group) {
+                    covered.set(f);
+                }
+            }
+        }
+        for (int f = 0; f < nbFluents; f++) {
+            if (!covered.get(f)) {
+                vars.add(new int[] {f});
+            }
+        }
+        this.variables = vars.toArray(new int[vars.size()][]);
+        this.variableOf = new int[nbFluents];
+        this.valueOf = new int[nbFluents];
+        for (int v = 0; v < this.variables.length; v++) {
+            for (int i = 0; i < this.variables[v].length; i++) {
+                this.variableOf[this.variables[v][i]] = v;
+                this.valueOf[this.variables[v][i]] = i;
+            }
+        }
+        this.offsets = new int[this.variables.length];
+        this.widths = new int[this.variables.length];
+        int offset = 0;
+        for (int v = 0; v < this.variables.length; v++) {
+            // The values 0 to the number of fluents of the variable must be stored
+            final int width = Integer.SIZE - Integer.numberOfLeadingZeros(this.variables[v].length);
+            if ((offset & 63) + width > Long.SIZE) {
+                offset = (offset + 63) & ~63;
+            }
+            this.offsets[v] = offset;
+            this.widths[v] = width;
+            offset += width;
+        }
+        this.packedSize = (offset + 63) >>> 6;
+    }
+
+    /**
+     * Returns the number of variables.
+     *
+     * @return the number of variables.
+     */
+    public int size() {
+        return this.variables.length;
+    }
+
+    /**
+     * Returns the fluents of a specified variable. The i-th fluent is the i-th value of the variable.
+     *
+     * @param variable the variable.
+     * @return the fluents of the variable.
+     */
+    public int[] getFluents(final int variable) {
+        return this.variables[variable];
+    }
+
+    /**
+     * Returns the size of the domain of a variable, the value meaning that none of the fluents of the variable is
+     * true included.
+     *
+     * @param variable the variable.
+     * @return the size of the domain of the variable.
+     */
+    public int getDomainSize(final int variable) {
+        return this.variables[variable].length + 1;
+    }
+
+    /**
+     * Returns the value meaning that none of the fluents of a variable is true.
+     *
+     * @param variable the variable.
+     * @return the value meaning that none of the fluents of the variable is true.
+     */
+    public int getNoneValue(final int variable) {
+        return this.variables[variable].length;
+    }
+
+    /**
+     * Returns the variable of a specified fluent.
+     *
+     * @param fluent the fluent.
+     * @return the variable of the fluent.
+     */
+    public int getVariable(final int fluent) {
+        return this.variableOf[fluent];
+    }
+
+    /**
+     * Returns the value of a specified fluent in its variable.
+     *
+     * @param fluent the fluent.
+     * @return the value of the fluent.
+     */
+    public int getValue(final int fluent) {
+        return this.valueOf[fluent];
+    }
+
+    /**
+     * Returns the value of a variable in a specified state.
+     *
+     * @param state    the state.
+     * @param variable the variable.
+     * @return the value of the variable in the state.
+     */
+    public int getValue(final BitVector state, final int variable) {
+        final int[] fluents = this.variables[variable];
+        for (int i = 0; i < fluents.length; i++) {
+            if (state.get(fluents[i])) {
+                return i;
+            }
+        }
+        return fluents.length;
+    }
+
+    /**
+     * Returns the number of longs needed to store a packed state.
+     *
+     * @return the number of longs needed to store a packed state.
+     */
+    public int getPackedSize() {
+        return this.packedSize;
+    }
+
+    /**
+     * Packs a specified state. The packing fails if two fluents of the same variable are true in the state or if the
+     * state has a fluent that is not a fluent of the problem. Such a state cannot be reached from the initial state
+     * of the problem if the mutex groups used to build the variables hold.
+     *
+     * @param state the state to pack.
+     * @param words the array of longs where the state is packed. Its length must be at least the packed size.
+     * @return <code>true</code> if the state was packed; <code>false</code> otherwise. The content of the array is
+     *          undefined if the packing fails.
+     */
+    public boolean pack(final BitVector state, final long[] words) {
+        Arrays.fill(words, 0, this.packedSize, 0L);
+        for (int f = state.nextSetBit(0); f >= 0; f = state.nextSetBit(f + 1)) {
+            if (f >= this.variableOf.length) {
+                return false;
+            }
+            final int v = this.variableOf[f];
+            final int word = this.offsets[v] >>> 6;
+            final int shift = this.offsets[v] & 63;
+            if ((words[word] & ((1L << this.widths[v]) - 1) << shift) != 0) {
+                return false;
+            }
+            words[word] |= (long) (this.valueOf[f] + 1) << shift;
+        }
+        return true;
+    }
+
+    /**
+     * Unpacks a specified packed state.
+     *
+     * @param words the array of longs where the state is packed.
+     * @param state the bit vector where the fluents of the state are set. The bit vector is cleared first.
+     */
+    public void unpack(final long[] words, final BitVector state) {
+        state.clear();
+        for (int v = 0; v < this.variables.length; v++) {
+            final int value = (int) (words[this.offsets[v] >>> 6] >>> (this.offsets[v] & 63)
+                & ((1L << this.widths[v]) - 1));
+            if (value != 0) {
+                state.set(this.variables[v][value - 1]);
+            }
+        }
+    }
+}
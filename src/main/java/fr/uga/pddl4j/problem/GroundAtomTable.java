@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.
+ * If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.parser.Expression;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements a hash-consing table of ground atoms. Each distinct ground atom put in the table is interned:
+ * a canonical copy of the atom is stored once and identified by a unique index given in the order of insertion. Two
+ * atoms of the table are thus equal if and only if they have the same index.
+ * <p>
+ * The hash code of an atom is computed from the integer values of its predicate and its arguments and cached in the
+ * table. Contrary to the lookup of an expression in a hash map, the lookup of an atom in this table does not compute
+ * the recursive hash code of the expression, does not compare deeply the expressions and does not allocate any
+ * object.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 07.04.2021
+ */
+final class GroundAtomTable implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default capacity of the table.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The slots of the hash table. A slot contains the index of an atom plus one or 0 if the slot is empty.
+     */
+    private int[] slots;
+
+    /**
+     * The cached hash codes of the atoms.
+     */
+    private int[] hashes;
+
+    /**
+     * The keys of the atoms, i.e., the predicate followed by the arguments of the atoms.
+     */
+    private final List<int[]> keys;
+
+    /**
+     * The canonical copies of the atoms.
+     */
+    private final List<Expression<Integer>> atoms;
+
+    /**
+     * Creates a new empty table of ground atoms.
+     */
+    GroundAtomTable() {
+        this(GroundAtomTable.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty table of ground atoms with an expected number of atoms.
+     *
+     * @param capacity the expected number of atoms.
+     */
+    GroundAtomTable(final int capacity) {
+        int length = GroundAtomTable.DEFAULT_CAPACITY;
+        while (length < 2 * capacity) {
+            length <<= 1;
+        }
+        this.slots = new int[length];
+        this.hashes = new int[length >> 1];
+        this.keys = new ArrayList<>(capacity);
+        this.atoms = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Puts a ground atom in the table if it is not already in the table and returns its index.
+     *
+     * @param atom the ground atom.
+     * @return the index of the atom in the table.
+     */
+    int put(final Expression<Integer> atom) {
+        final int hash = GroundAtomTable.hash(atom);
+        int slot = this.slot(atom, hash);
+        if (this.slots[slot] == 0) {
+            if (2 * (this.size() + 1) > this.slots.length) {
+                this.resize();
+                slot = this.slot(atom, hash);
+            }
+            final int index = this.size();
+            final int[] key = new int[atom.getArguments().size() + 1];
+            key[0] = atom.getSymbol().getValue();
+            for (int i = 1; i < key.length; i++) {
+                key[i] = atom.getArguments().get(i - 1).getValue();
+            }
+            this.keys.add(key);
+            this.atoms.add(new Expression<>(atom));
+            this.hashes[index] = hash;
+            this.slots[slot] = index + 1;
+            return index;
+        }
+        return this.slots[slot] - 1;
+    }
+
+    /**
+     * Returns the index of a ground atom in the table or -1 if the atom is not in the table.
+     *
+     * @param atom the ground atom.
+     * @return the index of the atom in the table or -1 if the atom is not in the table.
+     */
+    int indexOf(final Expression<Integer> atom) {
+        return this.slots[this.slot(atom, GroundAtomTable.hash(atom))] - 1;
+    }
+
+    /**
+     * Returns the canonical copy of the atom at a specified index.
+     *
+     * @param index the index of the atom.
+     * @return the canonical copy of the atom at the specified index.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    Expression<Integer> get(final int index) {
+        return this.atoms.get(index);
+    }
+
+    /**
+     * Returns the number of atoms in the table.
+     *
+     * @return the number of atoms in the table.
+     */
+    int size() {
+        return this.atoms.size();
+    }
+
+    /**
+     * Returns the slot of the hash table where a specified atom is stored or the empty slot where it must be stored.
+     *
+     * @param atom the atom.
+     * @param hash the hash code of the atom.
+     * @return the slot of the atom in the hash table.
+     */
+    private int slot(final Expression<Integer> atom, final int hash) {
+        final int mask = this.slots.length - 1;
+        int slot = hash & mask;
+        int index = this.slots[slot] - 1;
+        while (index != -1 && (this.hashes[index] != hash || !GroundAtomTable.equals(this.keys.get(index), atom))) {
+            slot = (slot + 1) & mask;
+            index = this.slots[slot] - 1;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the hash table. The cached hash codes of the atoms are reused.
+     */
+    private void resize() {
+        final int[] newSlots = new int[this.slots.length << 1];
+        final int mask = newSlots.length - 1;
+        for (int index = 0; index < this.size(); index++) {
+            int slot = this.hashes[index] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = index + 1;
+        }
+        final int[] newHashes = new int[newSlots.length >> 1];
+        System.arraycopy(this.hashes, 0, newHashes, 0, this.size());
+        this.slots = newSlots;
+        this.hashes = newHashes;
+    }
+
+    /**
+     * Returns if a key of the table is the key of a specified atom.
+     *
+     * @param key  the key.
+     * @param atom the atom.
+     * @return <code>true</code> if the key is the key of the atom; <code>false</code> otherwise.
+     */
+    private static boolean equals(final int[] key, final Expression<Integer> atom) {
+        if (key.length != atom.getArguments().size() + 1 || key[0] != atom.getSymbol().getValue()) {
+            return false;
+        }
+        for (int i = 1; i < key.length; i++) {
+            if (key[i] != atom.getArguments().get(i - 1).getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of an atom computed from the integer values of its predicate and its arguments.
+     *
+     * @param atom the atom.
+     * @return the hash code of the atom.
+     */
+    private static int hash(final Expression<Integer> atom) {
+        int hash = atom.getSymbol().getValue();
+        for (int i = 0; i < atom.getArguments().size(); i++) {
+            hash = hash * 0x9E3779B1 + atom.getArguments().get(i).getValue();
+        }
+        // Mix the bits of the hash since the values are small integers
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
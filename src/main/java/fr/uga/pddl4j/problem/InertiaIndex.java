@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.
+ * If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.parser.Connector;
+import fr.uga.pddl4j.parser.Expression;
+import fr.uga.pddl4j.util.SparseIntMatrix;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements the argument indexes of the facts of the initial state whose predicate is a positive inertia
+ * or an inertia, i.e., the facts that are never added by an action. For such a predicate, a positive literal of the
+ * precondition of an action can only be satisfied by a fact of the initial state. Thus, the facts of the predicate
+ * that match the arguments already bound give the only values to try for the other arguments.
+ * <p>
+ * The facts of a predicate are indexed by pattern, i.e., by the set of the arguments bound. A pattern is indexed the
+ * first time it is requested and is never modified afterwards. Thus, the index can be shared by the tasks that ground
+ * the actions in parallel.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 09.04.2021
+ */
+final class InertiaIndex {
+
+    /**
+     * The arguments of the facts of the initial state for each predicate whose facts are indexed. The list of a
+     * predicate whose facts are not indexed is <code>null</code>.
+     */
+    private final List<List<int[]>> facts;
+
+    /**
+     * The patterns already indexed for each predicate. A pattern is identified by the integer representation of its
+     * mask.
+     */
+    private final List<Map<Integer, Pattern>> patterns;
+
+    /**
+     * The number of constants of the problem.
+     */
+    private final int constants;
+
+    /**
+     * Creates a new index of the facts of the initial state of a specified problem. The facts are taken as in the
+     * predicates tables of the problem.
+     *
+     * @param problem the problem.
+     */
+    InertiaIndex(final PreInstantiatedProblem problem) {
+        final int predicates = problem.getPredicateSymbols().size();
+        this.constants = problem.getConstantSymbols().size();
+        this.facts = new ArrayList<>(predicates);
+        this.patterns = new ArrayList<>(predicates);
+        for (int predicate = 0; predicate < predicates; predicate++) {
+            final Inertia inertia = problem.getInertia().get(predicate);
+            if (inertia.equals(Inertia.INERTIA) || inertia.equals(Inertia.POSITIVE)) {
+                this.facts.add(new ArrayList<>());
+            } else {
+                this.facts.add(null);
+            }
+            this.patterns.add(new HashMap<>());
+        }
+        for (Expression<Integer> fact : problem.getIntInitialState()) {
+            if (fact.getConnector().equals(Connector.NOT)) {
+                fact = fact.getChildren().get(0);
+            }
+            final List<int[]> tuples = this.facts.get(fact.getSymbol().getValue());
+            if (tuples != null) {
+                final int[] arguments = new int[fact.getArguments().size()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = fact.getArguments().get(i).getValue();
+                }
+                tuples.add(arguments);
+            }
+        }
+    }
+
+    /**
+     * Returns if the facts of a specified predicate are indexed.
+     *
+     * @param predicate the predicate.
+     * @return <code>true</code> if the facts of the predicate are indexed; <code>false</code> otherwise.
+     */
+    boolean isIndexed(final int predicate) {
+        return this.facts.get(predicate) != null;
+    }
+
+    /**
+     * Returns the values of a parameter that match the facts of a predicate for specified arguments. The facts match
+     * the arguments bound and have the same value at all the positions of the parameter.
+     *
+     * @param predicate the predicate.
+     * @param arguments the arguments. A value greater or equal to zero is a constant bound and a negative value
+     *                  <code>-i-1</code> is the parameter <code>i</code> not bound.
+     * @param parameter the parameter.
+     * @return the values of the parameter that match the facts of the predicate.
+     * @throws IllegalArgumentException if the facts of the predicate are not indexed.
+     */
+    BitSet getValues(final int predicate, final int[] arguments, final int parameter) {
+        final int[] mask = new int[arguments.length];
+        int size = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] >= 0) {
+                mask[i] = 1;
+                size++;
+            }
+        }
+        final int[] key = new int[size];
+        int j = 0;
+        for (int argument : arguments) {
+            if (argument >= 0) {
+                key[j] = argument;
+                j++;
+            }
+        }
+        final BitSet values = new BitSet(this.constants);
+        for (int[] tuple : this.getPattern(predicate, mask).get(key)) {
+            int value = -1;
+            int i = 0;
+            while (i < arguments.length && (value == -1 || arguments[i] != -parameter - 1 || tuple[i] == value)) {
+                if (arguments[i] == -parameter - 1) {
+                    value = tuple[i];
+                }
+                i++;
+            }
+            if (i == arguments.length && value != -1) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the pattern of a specified predicate for a specified mask. The pattern is indexed if it is requested for
+     * the first time.
+     *
+     * @param predicate the predicate.
+     * @param mask      the mask of the arguments bound: 1 if the argument is bound; 0 otherwise.
+     * @return the pattern of the predicate for the mask.
+     * @throws IllegalArgumentException if the facts of the predicate are not indexed.
+     */
+    private synchronized Pattern getPattern(final int predicate, final int[] mask) {
+        final List<int[]> tuples = this.facts.get(predicate);
+        if (tuples == null) {
+            throw new IllegalArgumentException("predicate " + predicate + " not indexed");
+        }
+        int id = 0;
+        for (int bit : mask) {
+            id = id << 1 | bit;
+        }
+        Pattern pattern = this.patterns.get(predicate).get(id);
+        if (pattern == null) {
+            pattern = new Pattern(mask, tuples, this.constants);
+            this.patterns.get(predicate).put(id, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * This class implements the index of the facts of a predicate for a pattern, i.e., for a set of arguments bound.
+     * The facts are grouped by the values of the arguments bound.
+     */
+    private static final class Pattern {
+
+        /**
+         * The positions of the arguments bound.
+         */
+        private final int[] bound;
+
+        /**
+         * The table that maps the values of the arguments bound to the index plus one of their group of facts.
+         */
+        private final SparseIntMatrix keys;
+
+        /**
+         * The groups of facts.
+         */
+        private final List<List<int[]>> groups;
+
+        /**
+         * Creates a new pattern.
+         *
+         * @param mask      the mask of the arguments bound.
+         * @param tuples    the arguments of the facts of the predicate.
+         * @param constants the number of constants of the problem.
+         */
+        private Pattern(final int[] mask, final List<int[]> tuples, final int constants) {
+            int size = 0;
+            for (int bit : mask) {
+                size += bit;
+            }
+            this.bound = new int[size];
+            int j = 0;
+            for (int i = 0; i < mask.length; i++) {
+                if (mask[i] == 1) {
+                    this.bound[j] = i;
+                    j++;
+                }
+            }
+            this.keys = new SparseIntMatrix(constants, size);
+            this.groups = new ArrayList<>();
+            final int[] key = new int[size];
+            for (int[] tuple : tuples) {
+                for (int i = 0; i < size; i++) {
+                    key[i] = tuple[this.bound[i]];
+                }
+                final int group = this.keys.get(key);
+                if (group == 0) {
+                    final List<int[]> facts = new ArrayList<>();
+                    facts.add(tuple);
+                    this.groups.add(facts);
+                    this.keys.put(key, this.groups.size());
+                } else {
+                    this.groups.get(group - 1).add(tuple);
+                }
+            }
+        }
+
+        /**
+         * Returns the arguments of the facts that match specified values of the arguments bound.
+         *
+         * @param key the values of the arguments bound in the order of the arguments.
+         * @return the arguments of the facts that match the values. The list returned must not be modified.
+         */
+        private List<int[]> get(final int[] key) {
+            final int group = this.keys.get(key);
+            return group == 0 ? Collections.emptyList() : this.groups.get(group - 1);
+        }
+    }
+}
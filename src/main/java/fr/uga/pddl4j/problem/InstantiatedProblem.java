@@ -20,17 +20,23 @@ import fr.uga.pddl4j.parser.DefaultParsedProblem;
 import fr.uga.pddl4j.parser.Expression;
 import fr.uga.pddl4j.parser.Symbol;
 import fr.uga.pddl4j.parser.SymbolType;
+import fr.uga.pddl4j.problem.operator.AbstractIntOperator;
 import fr.uga.pddl4j.problem.operator.Constants;
 import fr.uga.pddl4j.problem.operator.IntAction;
 import fr.uga.pddl4j.problem.operator.IntMethod;
 import fr.uga.pddl4j.problem.operator.IntTaskNetwork;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This class contains all the methods needed to instantiate the actions and the metods of the problem.
@@ -66,6 +72,11 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
      */
     private List<Integer> relevantActions;
 
+    /**
+     * The index of the facts of the initial state that are never added by an action.
+     */
+    private InertiaIndex inertiaIndex;
+
     /**
      * The list of relevant action in the hierarchy of task obtained by decomposing the initial task network of the
      * problem.
@@ -148,10 +159,32 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
     }
 
     /**
-     * Instantiates the actions of the problem.
+     * Returns <code>true</code> if the actions are instantiated only with the bindings of their parameters reachable
+     * in the relaxed problem. This is the default. Otherwise, all the type-consistent bindings of the parameters of
+     * the actions are enumerated and pruned with the inertia.
+     *
+     * @return <code>true</code> if the actions are instantiated only with the reachable bindings.
+     * @see ReachabilityAnalysis
+     */
+    protected boolean isReachabilityAnalysisEnabled() {
+        return true;
+    }
+
+    /**
+     * Instantiates the actions of the problem. Only the actions reachable in the relaxed problem are instantiated:
+     * the bindings of the parameters of the reachable actions are computed by a fixpoint over the lifted actions and
+     * then materialized. If an action cannot be relaxed or if the reachability analysis is disabled, all the
+     * type-consistent bindings of the parameters of the actions are enumerated and pruned with the inertia.
+     * <p>
+     * The actions are grounded in parallel in the common fork/join pool. Each task grounds into its own list and the
+     * lists are merged in the order of the actions and of the bindings. Thus, the actions instantiated and their
+     * indices do not depend on the scheduling of the tasks.
+     * </p>
+     *
+     * @see ReachabilityAnalysis
      */
     protected void instantiateActions() {
-        final List<IntAction> instActions = new ArrayList<>(Constants.DEFAULT_ACTION_TABLE_SIZE);
+        final List<IntAction> schemas = new ArrayList<>();
         for (IntAction a : this.getIntActions()) {
             // If an action has a parameter with a empty domain the action must be removed
             boolean toInstantiate = true;
@@ -160,120 +193,171 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
                 toInstantiate = !this.getDomains().get(a.getTypeOfParameters(i)).isEmpty();
                 i++;
             }
-            if (toInstantiate) {
-                instActions.addAll(this.instantiate(a));
+            if (toInstantiate && this.simplify(a)) {
+                schemas.add(a);
             }
         }
+        // Compile each action schema once into a template filled by the bindings of its parameters
+        this.inertiaIndex = new InertiaIndex(this);
+        final List<ActionTemplate> templates = new ArrayList<>(schemas.size());
+        for (IntAction schema : schemas) {
+            templates.add(new ActionTemplate(schema, this, this.inertiaIndex));
+        }
+        final ReachabilityAnalysis reachability = this.isReachabilityAnalysisEnabled()
+            ? new ReachabilityAnalysis(this, schemas) : null;
+        final List<RecursiveTask<List<IntAction>>> tasks = new ArrayList<>();
+        if (reachability != null && reachability.isSupported()) {
+            reachability.compute();
+            for (int i = 0; i < schemas.size(); i++) {
+                final List<int[]> bindings = reachability.getBindings(i);
+                tasks.add(new GroundingTask(templates.get(i), bindings, 0, bindings.size()));
+            }
+        } else {
+            for (ActionTemplate template : templates) {
+                tasks.add(new InstantiationTask(template, -1, -1));
+            }
+        }
+        // Fork all the tasks before joining them in order
+        tasks.forEach(ForkJoinTask::fork);
+        final List<IntAction> instActions = new ArrayList<>(Constants.DEFAULT_ACTION_TABLE_SIZE);
+        for (RecursiveTask<List<IntAction>> task : tasks) {
+            instActions.addAll(task.join());
+        }
         this.getIntActions().clear();
         this.getIntActions().addAll(instActions);
     }
 
     /**
-     * Instantiates a specified action.
+     * Expands the quantified expressions of a specified action and simplifies its precondition and its effect.
      *
-     * @param action the action to instantiate.
-     * @param bound  the bound of actions to instantiate.
-     * @return the list of actions instantiated corresponding the specified action.
+     * @param action the action.
+     * @return <code>false</code> if the action can never be applied; <code>true</code> otherwise.
      */
-    private List<IntAction> instantiate(final IntAction action, final int bound) {
-        final List<IntAction> instOps = new ArrayList<>(100);
+    private boolean simplify(final IntAction action) {
         action.getPreconditions().expandQuantifiedExpression(this.getDomains(), this);
         action.getPreconditions().simplify();
-        if (!action.getPreconditions().getConnector().equals(Connector.FALSE)) {
-            action.getEffects().expandQuantifiedExpression(this.getDomains(), this);
-            action.getEffects().simplify();
-            if (!action.getEffects().getConnector().equals(Connector.FALSE)) {
-                this.instantiate(action, 0, bound, instOps);
-            }
+        if (action.getPreconditions().getConnector().equals(Connector.FALSE)) {
+            return false;
         }
-        return instOps;
+        action.getEffects().expandQuantifiedExpression(this.getDomains(), this);
+        action.getEffects().simplify();
+        return !action.getEffects().getConnector().equals(Connector.FALSE);
     }
 
     /**
-     * Instantiates a specified action.
+     * Instantiates an action by enumerating the bindings of its parameters not yet bound. The next parameter bound is
+     * the one with the fewest values consistent with the parameters already bound and its values are enumerated in the
+     * order of its domain. A partial binding is pruned as soon as it is inconsistent with the predicates tables.
      *
-     * @param action the action to instantiate.
-     * @return the list of actions instantiated corresponding the specified action.
+     * @param template the template of the action.
+     * @param binding  the binding of the parameters of the action, -1 for the parameters not bound.
+     * @param bound    the number of parameters already bound.
+     * @param actions  the list of actions already instantiated.
+     * @see ActionTemplate
      */
-    private List<IntAction> instantiate(final IntAction action) {
-        return this.instantiate(action, Integer.MAX_VALUE);
+    private void instantiate(final ActionTemplate template, final int[] binding, final int bound,
+                             final List<IntAction> actions) {
+        if (bound == binding.length) {
+            final IntAction action = template.instantiate(binding);
+            if (action != null) {
+                actions.add(action);
+            }
+        } else {
+            final int parameter = template.select(binding);
+            for (int value : template.getValues(binding, parameter)) {
+                binding[parameter] = value;
+                if (template.isConsistent(binding, parameter)) {
+                    this.instantiate(template, binding, bound + 1, actions);
+                }
+            }
+            binding[parameter] = -1;
+        }
     }
 
+    /**
+     * Returns the values of a parameter of a method consistent with the positive literals of the precondition of the
+     * method whose predicate is never added by an action. The values are returned in the order of the domain of the
+     * parameter.
+     *
+     * @param method    the method.
+     * @param parameter the parameter not bound.
+     * @return the values of the parameter consistent with the precondition of the method.
+     */
+    private int[] getValues(final IntMethod method, final int parameter) {
+        final Expression<Integer> precond = method.getPreconditions();
+        final List<Expression<Integer>> literals = precond.getConnector().equals(Connector.AND)
+            ? precond.getChildren() : Collections.singletonList(precond);
+        final BitSet matching = new BitSet();
+        boolean restricted = false;
+        for (Expression<Integer> literal : literals) {
+            if (literal.getConnector().equals(Connector.ATOM)
+                    && this.inertiaIndex.isIndexed(literal.getSymbol().getValue())) {
+                final int[] arguments = literal.getArguments().stream().mapToInt(Symbol::getValue).toArray();
+                if (Arrays.stream(arguments).anyMatch(argument -> argument == -parameter - 1)) {
+                    final BitSet values = this.inertiaIndex.getValues(literal.getSymbol().getValue(), arguments,
+                        parameter);
+                    if (restricted) {
+                        matching.and(values);
+                    } else {
+                        matching.or(values);
+                        restricted = true;
+                    }
+                }
+            }
+        }
+        final boolean filter = restricted;
+        return this.getDomains().get(method.getTypeOfParameters(parameter)).stream().mapToInt(Symbol::getValue)
+            .filter(value -> !filter || matching.get(value)).toArray();
+    }
 
     /**
-     * Instantiates a specified action.
-     * <p>
-     * The assumption is made that different action parameters are instantiated with different
-     * constants, i.e., the planner never generates actions like move(a,a) because we consider this
-     * as a bad domain representation that should be revised. In fact, in actions with identical
-     * constant parameters, all but one of the constants are superfluous and can be skipped from the
-     * representation without loss of information. Warning this assumption make the process no-sound.
-     * </p>
+     * Sorts operators instantiated from the same operator in the order of the values of their parameters in the
+     * domains of the parameters, i.e., in the order in which they are enumerated when the parameters are bound one
+     * after the other. Thus, the order of the operators instantiated does not depend on the order in which their
+     * parameters are bound.
      *
-     * @param action  the action.
-     * @param index   the index of the parameter to instantiate.
-     * @param bound   the bound of actions to instantiate.
-     * @param actions the list of actions already instantiated.
-     * @see IntAction
+     * @param operators the operators to sort.
      */
-    private void instantiate(final IntAction action, final int index, final int bound,
-                             final List<IntAction> actions) {
-        if (bound == actions.size()) {
+    private void sort(final List<? extends AbstractIntOperator> operators) {
+        if (operators.size() < 2) {
             return;
         }
-        final int arity = action.arity();
-        if (index == arity) {
-            final Expression<Integer> precond = action.getPreconditions();
-            precond.simplify();
-            if (!precond.getConnector().equals(Connector.FALSE)) {
-                final Expression<Integer> effect = action.getEffects();
-                effect.simplify();
-                if (!effect.getConnector().equals(Connector.FALSE)) {
-                    actions.add(action);
-                }
+        final AbstractIntOperator operator = operators.get(0);
+        final int[][] ranks = new int[operator.arity()][];
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = new int[this.getConstantSymbols().size()];
+            int rank = 0;
+            for (Symbol<Integer> constant : this.getDomains().get(operator.getTypeOfParameters(i))) {
+                ranks[i][constant.getValue()] = rank;
+                rank++;
             }
-        } else {
-            final Set<Symbol<Integer>> values = this.getDomains().get(action.getTypeOfParameters(index));
-            for (Symbol<Integer> constant : values) {
-                final Symbol<Integer> varIndex = new Symbol<>(SymbolType.VARIABLE, -index - 1);
-                final Expression<Integer> precond = new Expression<>(action.getPreconditions());
-                precond.substitute(varIndex, constant, this);
-                if (!precond.getConnector().equals(Connector.FALSE)) {
-                    final Expression<Integer> effects = new Expression<>(action.getEffects());
-                    effects.substitute(varIndex, constant, this);
-                    if (!effects.getConnector().equals(Connector.FALSE)) {
-                        final IntAction copy = new IntAction(action.getName(), arity);
-                        copy.setPreconditions(precond);
-                        copy.setEffects(effects);
-                        for (int i = 0; i < arity; i++) {
-                            copy.setTypeOfParameter(i, action.getTypeOfParameters(i));
-                        }
-                        for (int i = 0; i < index; i++) {
-                            copy.setValueOfParameter(i, action.getValueOfParameter(i));
-                        }
-                        if (action.isDurative()) {
-                            final Expression<Integer> duration = new Expression<>(action.getDuration());
-                            duration.substitute(varIndex, constant, this);
-                            copy.setDuration(duration);
-                        }
-                        copy.setValueOfParameter(index, constant.getValue());
-                        this.instantiate(copy, index + 1, bound, actions);
-                    }
+        }
+        operators.sort((o1, o2) -> {
+            for (int i = 0; i < ranks.length; i++) {
+                final int r1 = ranks[i][o1.getValueOfParameter(i)];
+                final int r2 = ranks[i][o2.getValueOfParameter(i)];
+                if (r1 != r2) {
+                    return Integer.compare(r1, r2);
                 }
             }
-        }
+            return 0;
+        });
     }
 
     /**
      * Make the preinstantion of a method based on the argument used in the tasks accomplish by the method.
+     * <p>
+     * The methods instantiated are added in the order of the values of their parameters in the domains of the
+     * parameters.
+     * </p>
      *
-     * @param method the method to instantiate.
-     * @param index  the index of the parameter to instantiate. Initially, the index is set to 0.
-     * @param bound  a bound on the number of methods to instantiate.
-     * @param task   the tasks that accomplish the method.
+     * @param method  the method to instantiate.
+     * @param bound   a bound on the number of methods to instantiate.
+     * @param methods the list of methods already instantiated.
+     * @param task    the tasks that accomplish the method.
      */
-    private void instantiate(final IntMethod method, final int index, final int bound,
-                             final List<IntMethod> methods, final Expression<Integer> task) {
+    private void instantiate(final IntMethod method, final int bound, final List<IntMethod> methods,
+                             final Expression<Integer> task) {
         final Expression<Integer> t = method.getTask();
         final IntMethod copy = new IntMethod(method);
         boolean instantiable = true;
@@ -296,85 +380,93 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
         }
         // This case may occur when variables are identical in the tasks
         if (copy.getTask().equals(task) && instantiable) {
-            this.instantiate(copy, index, bound, methods);
+            final int from = methods.size();
+            this.instantiate(copy, copy, bound, methods);
+            this.sort(methods.subList(from, methods.size()));
         }
     }
 
     /**
-     * Instantiates a specified method. This method used brut force.
-     * <p>
-     * The assumption is made that different method parameters are instantiated with different
-     * constants, i.e., the planner never generates methods like move(a,a) because we consider this
-     * as a bad domain representation that should be revised. In fact, in methods with identical
-     * constant parameters, all but one of the constants are superfluous and can be skipped from the
-     * representation without loss of information. Warning this assumption make the process no-sound.
-     * </p>
+     * Instantiates a specified method by enumerating the bindings of its parameters not yet bound. The next parameter
+     * bound is the one with the fewest values consistent with the positive literals of the precondition whose
+     * predicate is never added by an action. Only the precondition is copied and substituted for each partial binding
+     * in order to prune the bindings that can never be applied. The other expressions of the method are copied and
+     * substituted once the parameters are all bound.
      *
-     * @param method  the method.
-     * @param index   the index of the parameter to instantiate.
-     * @param bound   the bound of methods to instantiate.
-     * @param methods the list of methods already instantiated.
+     * @param template the method whose parameters not yet bound are instantiated.
+     * @param method   the method partially bound, i.e., its precondition and the values of its parameters.
+     * @param bound    the bound of methods to instantiate.
+     * @param methods  the list of methods already instantiated.
      * @see IntMethod
+     * @see InertiaIndex
      */
-    private void instantiate(final IntMethod method, final int index, final int bound,
+    private void instantiate(final IntMethod template, final IntMethod method, final int bound,
                              final List<IntMethod> methods) {
         if (bound == methods.size()) {
             return;
         }
         final int arity = method.arity();
-        if (index == arity) {
+        int index = -1;
+        int[] values = null;
+        for (int i = 0; i < arity; i++) {
+            if (method.getValueOfParameter(i) < 0) {
+                final int[] candidates = this.getValues(method, i);
+                if (index == -1 || candidates.length < values.length) {
+                    index = i;
+                    values = candidates;
+                }
+            }
+        }
+        if (index == -1) {
             final Expression<Integer> precond = method.getPreconditions();
             precond.simplify();
             if (precond.getConnector().equals(Connector.FALSE)) {
                 return;
             }
-            final Expression<Integer> constraints = method.getConstraints();
+            final Expression<Integer> task = new Expression<>(template.getTask());
+            final Expression<Integer> subTasks = new Expression<>(template.getSubTasks());
+            final Expression<Integer> constraints = new Expression<>(template.getConstraints());
+            final Expression<Integer> duration = template.isDurative()
+                ? new Expression<>(template.getDuration()) : null;
+            for (int i = 0; i < arity; i++) {
+                if (template.getValueOfParameter(i) < 0) {
+                    final Symbol<Integer> varIndex = new Symbol<>(SymbolType.VARIABLE, -i - 1);
+                    final Symbol<Integer> constant = new Symbol<>(SymbolType.CONSTANT, method.getValueOfParameter(i));
+                    task.substitute(varIndex, constant, this);
+                    subTasks.substitute(varIndex, constant, this);
+                    constraints.substitute(varIndex, constant, this);
+                    if (duration != null) {
+                        duration.substitute(varIndex, constant, this);
+                    }
+                }
+            }
             constraints.simplify();
             if (constraints.getConnector().equals(Connector.FALSE)) {
                 return;
             }
+            method.setTask(task);
+            method.setSubTasks(subTasks);
+            method.setConstraints(constraints);
+            method.setOrderingConstraints(new Expression<>(template.getOrderingConstraints()));
+            if (duration != null) {
+                method.setDuration(duration);
+            }
             methods.add(method);
-        } else if (method.getValueOfParameter(index) >= 0) {
-            this.instantiate(method, index + 1, bound, methods);
         } else {
-            final Set<Symbol<Integer>> values = this.getDomains().get(method.getTypeOfParameters(index));
-            for (Symbol<Integer> constant : values) {
-                final Symbol<Integer> varIndex = new Symbol<>(SymbolType.VARIABLE, -index - 1);
+            final Symbol<Integer> varIndex = new Symbol<>(SymbolType.VARIABLE, -index - 1);
+            for (int value : values) {
+                final Symbol<Integer> constant = new Symbol<>(SymbolType.CONSTANT, value);
                 final Expression<Integer> preconditionCopy = new Expression<>(method.getPreconditions());
-
                 preconditionCopy.substitute(varIndex, constant, this);
                 if (!preconditionCopy.getConnector().equals(Connector.FALSE)) {
                     final IntMethod copy = new IntMethod(method.getName(), arity);
                     copy.setPreconditions(preconditionCopy);
-                    copy.setOrderingConstraints(new Expression<>(method.getOrderingConstraints()));
-
-                    final Expression<Integer> taskCopy = new Expression<>(method.getTask());
-                    taskCopy.substitute(varIndex, constant, this);
-                    copy.setTask(taskCopy);
-
-                    if (method.isDurative()) {
-                        final Expression<Integer> duration = new Expression<>(method.getDuration());
-                        duration.substitute(varIndex, constant, this);
-                        copy.setDuration(duration);
-                    }
-
-                    final Expression<Integer> subTasksCopy = new Expression<>(method.getSubTasks());
-                    subTasksCopy.substitute(varIndex, constant, this);
-                    copy.setSubTasks(subTasksCopy);
-
-                    final Expression<Integer> constraints = new Expression<>(method.getConstraints());
-                    constraints.substitute(varIndex, constant, this);
-                    copy.setConstraints(constraints);
-
                     for (int i = 0; i < arity; i++) {
                         copy.setTypeOfParameter(i, method.getTypeOfParameters(i));
-                    }
-                    for (int i = 0; i < arity; i++) {
                         copy.setValueOfParameter(i, method.getValueOfParameter(i));
                     }
-
-                    copy.setValueOfParameter(index, constant.getValue());
-                    this.instantiate(copy, index + 1, bound, methods);
+                    copy.setValueOfParameter(index, value);
+                    this.instantiate(template, copy, bound, methods);
                 }
             }
         }
@@ -478,6 +570,11 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
      */
     protected void instantiateMethods() {
 
+        // Init the index of the facts used to bind the parameters of the methods
+        if (this.inertiaIndex == null) {
+            this.inertiaIndex = new InertiaIndex(this);
+        }
+
         // Init the list of instantiated methods or ground methods
         final List<IntMethod> instMethods = new ArrayList<>(Constants.DEFAULT_METHOD_TABLE_SIZE);
 
@@ -536,7 +633,7 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
                 if (method.getTask().getSymbol().equals(task.getSymbol())
                     && method.getTask().getArguments().size() == task.getArguments().size()) {
                     final List<IntMethod> instantiated = new ArrayList<>(100);
-                    this.instantiate(method, 0, Integer.MAX_VALUE, instantiated, task);
+                    this.instantiate(method, Integer.MAX_VALUE, instantiated, task);
                     for (IntMethod instance : instantiated) {
                         final Iterator<Expression<Integer>> i = instance.getSubTasks().getChildren().iterator();
                         final Set<Expression<Integer>> primitiveSet = new LinkedHashSet<>();
@@ -659,4 +756,162 @@ public abstract class InstantiatedProblem extends PreInstantiatedProblem {
         return tasks;
 
     }
+
+    /**
+     * This class implements the task that instantiates an action by enumerating the bindings of its parameters. The
+     * task of an action forks a subtask for each value of the first parameter bound. The template of the action is only
+     * read by the subtasks, which fill their own binding arrays. The problem is only read to simplify the atomic
+     * formulas with the inertia.
+     */
+    private final class InstantiationTask extends RecursiveTask<List<IntAction>> {
+
+        /**
+         * The serial id of the class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The template of the action to instantiate.
+         */
+        private final ActionTemplate template;
+
+        /**
+         * The first parameter bound or -1 if the task instantiates all the values of the parameter.
+         */
+        private final int parameter;
+
+        /**
+         * The value of the first parameter bound.
+         */
+        private final int value;
+
+        /**
+         * Creates a new task to instantiate an action.
+         *
+         * @param template  the template of the action to instantiate.
+         * @param parameter the first parameter bound or -1 to instantiate all the values of the parameter.
+         * @param value     the value of the first parameter bound.
+         */
+        private InstantiationTask(final ActionTemplate template, final int parameter, final int value) {
+            this.template = template;
+            this.parameter = parameter;
+            this.value = value;
+        }
+
+        /**
+         * Instantiates the action and returns the list of actions instantiated in the order of the values of the
+         * domains of the parameters.
+         *
+         * @return the list of actions instantiated.
+         */
+        @Override
+        protected List<IntAction> compute() {
+            final InstantiatedProblem problem = InstantiatedProblem.this;
+            final List<IntAction> actions = new ArrayList<>(100);
+            final int[] binding = new int[this.template.getSchema().arity()];
+            Arrays.fill(binding, -1);
+            if (this.parameter != -1) {
+                binding[this.parameter] = this.value;
+                if (this.template.isConsistent(binding, this.parameter)) {
+                    problem.instantiate(this.template, binding, 1, actions);
+                }
+                return actions;
+            }
+            if (binding.length == 0) {
+                problem.instantiate(this.template, binding, 0, actions);
+                return actions;
+            }
+            final int first = this.template.select(binding);
+            final List<InstantiationTask> subtasks = new ArrayList<>();
+            for (int constant : this.template.getValues(binding, first)) {
+                subtasks.add(new InstantiationTask(this.template, first, constant));
+            }
+            ForkJoinTask.invokeAll(subtasks);
+            for (InstantiationTask subtask : subtasks) {
+                actions.addAll(subtask.join());
+            }
+            problem.sort(actions);
+            return actions;
+        }
+    }
+
+    /**
+     * This class implements the task that materializes a range of bindings of the parameters of an action. The task
+     * splits the range in two subtasks while the range is larger than a threshold.
+     */
+    private final class GroundingTask extends RecursiveTask<List<IntAction>> {
+
+        /**
+         * The serial id of the class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The number of bindings under which the range is no longer split.
+         */
+        private static final int THRESHOLD = 512;
+
+        /**
+         * The template of the action to instantiate.
+         */
+        private final ActionTemplate template;
+
+        /**
+         * The bindings of the parameters of the action.
+         */
+        private final List<int[]> bindings;
+
+        /**
+         * The first binding of the range, inclusive.
+         */
+        private final int from;
+
+        /**
+         * The last binding of the range, exclusive.
+         */
+        private final int to;
+
+        /**
+         * Creates a new task to materialize a range of bindings of the parameters of an action.
+         *
+         * @param template the template of the action to instantiate.
+         * @param bindings the bindings of the parameters of the action.
+         * @param from     the first binding of the range, inclusive.
+         * @param to       the last binding of the range, exclusive.
+         */
+        private GroundingTask(final ActionTemplate template, final List<int[]> bindings, final int from,
+                              final int to) {
+            this.template = template;
+            this.bindings = bindings;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Materializes the range of bindings and returns the list of actions instantiated in the order of the
+         * bindings.
+         *
+         * @return the list of actions instantiated.
+         */
+        @Override
+        protected List<IntAction> compute() {
+            if (this.to - this.from > GroundingTask.THRESHOLD) {
+                final int middle = (this.from + this.to) >>> 1;
+                final GroundingTask left = new GroundingTask(this.template, this.bindings, this.from, middle);
+                final GroundingTask right = new GroundingTask(this.template, this.bindings, middle, this.to);
+                ForkJoinTask.invokeAll(left, right);
+                final List<IntAction> actions = left.join();
+                actions.addAll(right.join());
+                return actions;
+            }
+            final List<IntAction> actions = new ArrayList<>(this.to - this.from);
+            for (int i = this.from; i < this.to; i++) {
+                final IntAction action = this.template.instantiate(this.bindings.get(i));
+                if (action != null) {
+                    actions.add(action);
+                }
+            }
+            return actions;
+        }
+    }
 }
@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.util.BitVector;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class implements the synthesis of the mutex groups of an instantiated problem. A mutex group is a set of
+ * fluents such that at most one of them is true in any reachable state. The groups are synthesized in the spirit of
+ * M. Helmert, Concise finite-domain representations for PDDL planning tasks, Artificial Intelligence 173, 2009, but on
+ * the instantiated actions: a candidate invariant is a set of members, each member being a predicate with at most one
+ * counted argument. The fluents of a candidate are partitioned into groups by the values of their other arguments.
+ * A candidate is an invariant if no group has more than one fluent true in the initial state and if every action
+ * adding a fluent of a group also deletes a fluent of the same group that it requires and does not add again. When
+ * an action breaks a candidate, the candidate is extended with the members matching the fluents required and deleted
+ * by the action.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.02.2021
+ */
+public final class MutexGroups implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximal number of members of a candidate invariant.
+     */
+    private static final int MAX_MEMBERS = 4;
+
+    /**
+     * The maximal number of candidate invariants tested.
+     */
+    private static final int MAX_CANDIDATES = 1000;
+
+    /**
+     * The groups of fluents.
+     */
+    private final int[][] groups;
+
+    /**
+     * The fluents of the problem.
+     */
+    private transient List<Fluent> fluents;
+
+    /**
+     * The fluents true in the initial state.
+     */
+    private transient BitVector init;
+
+    /**
+     * The positive preconditions of the operators.
+     */
+    private transient List<BitVector> preconditions;
+
+    /**
+     * The positive effects of the operators.
+     */
+    private transient List<BitVector> adds;
+
+    /**
+     * The negative effects of the operators.
+     */
+    private transient List<BitVector> deletes;
+
+    /**
+     * The actions of the operators.
+     */
+    private transient List<Integer> actions;
+
+    /**
+     * Synthesizes the mutex groups of an instantiated problem.
+     *
+     * @param problem the instantiated problem.
+     */
+    public MutexGroups(final Problem problem) {
+        this.fluents = problem.getFluents();
+        this.init = problem.getInitialState().getPositiveFluents();
+        this.preconditions = new ArrayList<>();
+        this.adds = new ArrayList<>();
+        this.deletes = new ArrayList<>();
+        this.actions = new ArrayList<>();
+        final List<Action> operators = problem.getActions();
+        for (int a = 0; a < operators.size(); a++) {
+            final Action action = operators.get(a);
+            for (ConditionalEffect ce : action.getConditionalEffects()) {
+                final BitVector pre = new BitVector(action.getPrecondition().getPositiveFluents());
+                pre.or(ce.getCondition().getPositiveFluents());
+                this.preconditions.add(pre);
+                this.adds.add(ce.getEffect().getPositiveFluents());
+                this.deletes.add(ce.getEffect().getNegativeFluents());
+                this.actions.add(a);
+            }
+        }
+        // Index the fluents by predicate
+        final Map<Integer, Integer> arities = new LinkedHashMap<>();
+        for (Fluent f : this.fluents) {
+            arities.putIfAbsent(f.getSymbol(), f.arity());
+        }
+        final Deque<List<Member>> open = new ArrayDeque<>();
+        final Set<List<Member>> visited = new HashSet<>();
+        for (Map.Entry<Integer, Integer> e : arities.entrySet()) {
+            for (int h = 0; h < e.getValue(); h++) {
+                final List<Member> candidate = new ArrayList<>();
+                candidate.add(new Member(e.getKey(), h));
+                visited.add(candidate);
+                open.add(candidate);
+            }
+        }
+        final Set<List<Integer>> found = new HashSet<>();
+        final List<int[]> groupList = new ArrayList<>();
+        int nbCandidates = 0;
+        while (!open.isEmpty() && nbCandidates < MutexGroups.MAX_CANDIDATES) {
+            final List<Member> candidate = open.poll();
+            nbCandidates++;
+            final Map<List<Integer>, List<Integer>> instances = this.instantiate(candidate);
+            final List<List<Member>> extensions = new ArrayList<>();
+            if (this.isInvariant(candidate, instances, extensions)) {
+                for (List<Integer> group : instances.values()) {
+                    if (group.size() > 1 && found.add(group)) {
+                        groupList.add(group.stream().mapToInt(Integer::intValue).toArray());
+                    }
+                }
+            } else if (candidate.size() < MutexGroups.MAX_MEMBERS) {
+                for (List<Member> ext : extensions) {
+                    if (visited.add(ext)) {
+                        open.add(ext);
+                    }
+                }
+            }
+        }
+        this.groups = groupList.toArray(new int[groupList.size()][]);
+        this.fluents = null;
+        this.init = null;
+        this.preconditions = null;
+        this.adds = null;
+        this.deletes = null;
+        this.actions = null;
+    }
+
+    /**
+     * Returns the number of mutex groups.
+     *
+     * @return the number of mutex groups.
+     */
+    public int size() {
+        return this.groups.length;
+    }
+
+    /**
+     * Returns the fluents of a specified mutex group sorted by increasing index.
+     *
+     * @param group the index of the group.
+     * @return the fluents of the group.
+     */
+    public int[] getGroup(final int group) {
+        return this.groups[group];
+    }
+
+    /**
+     * Partitions the fluents matching the members of a candidate by the values of their non counted arguments.
+     *
+     * @param candidate the candidate.
+     * @return the groups of fluents of the candidate.
+     */
+    private Map<List<Integer>, List<Integer>> instantiate(final List<Member> candidate) {
+        final Map<List<Integer>, List<Integer>> instances = new HashMap<>();
+        for (int f = 0; f < this.fluents.size(); f++) {
+            final Fluent fluent = this.fluents.get(f);
+            for (Member m : candidate) {
+                if (m.predicate == fluent.getSymbol()) {
+                    instances.computeIfAbsent(MutexGroups.key(fluent, m.counted), k -> new ArrayList<>()).add(f);
+                }
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Returns the key of a fluent for a member, i.e., the list of its arguments without the counted argument.
+     *
+     * @param fluent  the fluent.
+     * @param counted the index of the counted argument or -1.
+     * @return the key of the fluent.
+     */
+    private static List<Integer> key(final Fluent fluent, final int counted) {
+        final int[] args = fluent.getArguments();
+        final List<Integer> key = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; i++) {
+            if (i != counted) {
+                key.add(args[i]);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Checks if a candidate is an invariant. If it is not, the possible extensions of the candidate are computed.
+     *
+     * @param candidate  the candidate.
+     * @param instances  the groups of fluents of the candidate.
+     * @param extensions the list where the extensions of the candidate are added.
+     * @return <code>true</code> if the candidate is an invariant.
+     */
+    private boolean isInvariant(final List<Member> candidate, final Map<List<Integer>, List<Integer>> instances,
+                                final List<List<Member>> extensions) {
+        final Map<Integer, List<Integer>> groupOf = new HashMap<>();
+        for (List<Integer> group : instances.values()) {
+            int count = 0;
+            for (int f : group) {
+                groupOf.put(f, group);
+                if (this.init.get(f)) {
+                    count++;
+                }
+            }
+            if (count > 1) {
+                return false;
+            }
+        }
+        final Map<Integer, Set<Integer>> addedByAction = new HashMap<>();
+        for (int op = 0; op < this.adds.size(); op++) {
+            final BitVector add = this.adds.get(op);
+            final BitVector pre = this.preconditions.get(op);
+            final BitVector del = this.deletes.get(op);
+            for (int f = add.nextSetBit(0); f >= 0; f = add.nextSetBit(f + 1)) {
+                final List<Integer> group = groupOf.get(f);
+                if (group == null || pre.get(f)) {
+                    continue;
+                }
+                final Set<Integer> added = addedByAction.computeIfAbsent(this.actions.get(op), k -> new HashSet<>());
+                // A fluent both deleted and added by an operator remains true since the deletes are applied first
+                for (int g : group) {
+                    if (g != f && add.get(g)) {
+                        return false;
+                    }
+                }
+                boolean balanced = false;
+                for (int g : group) {
+                    if (pre.get(g) && del.get(g) && !add.get(g)) {
+                        balanced = true;
+                        break;
+                    }
+                }
+                if (!balanced) {
+                    final List<Integer> key = MutexGroups.key(this.fluents.get(f),
+                        this.getCountedArgument(candidate, f));
+                    for (int q = pre.nextSetBit(0); q >= 0; q = pre.nextSetBit(q + 1)) {
+                        if (del.get(q) && !add.get(q) && !groupOf.containsKey(q)) {
+                            final Fluent fq = this.fluents.get(q);
+                            for (int h = -1; h < fq.arity(); h++) {
+                                if (MutexGroups.key(fq, h).equals(key)) {
+                                    final List<Member> ext = new ArrayList<>(candidate);
+                                    ext.add(new Member(fq.getSymbol(), h));
+                                    ext.sort(null);
+                                    extensions.add(ext);
+                                }
+                            }
+                        }
+                    }
+                    return false;
+                }
+                // Two conditional effects of the same action may add fluents of the same group
+                for (int g : group) {
+                    if (g != f && added.contains(g)) {
+                        return false;
+                    }
+                }
+                added.add(f);
+            }
+            if (op + 1 == this.adds.size() || !this.actions.get(op + 1).equals(this.actions.get(op))) {
+                addedByAction.remove(this.actions.get(op));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the counted argument of the member of a candidate matching a fluent.
+     *
+     * @param candidate the candidate.
+     * @param fluent    the fluent.
+     * @return the counted argument of the member matching the fluent.
+     */
+    private int getCountedArgument(final List<Member> candidate, final int fluent) {
+        final int symbol = this.fluents.get(fluent).getSymbol();
+        for (Member m : candidate) {
+            if (m.predicate == symbol) {
+                return m.counted;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a string representation of the mutex groups.
+     *
+     * @return a string representation of the mutex groups.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder str = new StringBuilder();
+        for (int i = 0; i < this.groups.length; i++) {
+            str.append(Arrays.toString(this.groups[i]));
+            str.append(System.lineSeparator());
+        }
+        return str.toString();
+    }
+
+    /**
+     * This class implements a member of a candidate invariant, i.e., a predicate and the index of its counted
+     * argument or -1 if no argument is counted.
+     */
+    private static final class Member implements Comparable<Member> {
+
+        /**
+         * The symbol of the predicate.
+         */
+        private final int predicate;
+
+        /**
+         * The index of the counted argument.
+         */
+        private final int counted;
+
+        /**
+         * Creates a new member.
+         *
+         * @param predicate the symbol of the predicate.
+         * @param counted   the index of the counted argument.
+         */
+        private Member(final int predicate, final int counted) {
+            this.predicate = predicate;
+            this.counted = counted;
+        }
+
+        /**
+         * Compares this member with an other one.
+         *
+         * @param other the other member.
+         * @return a negative integer, zero, or a positive integer as this member is less than, equal to, or greater
+         *      than the other member.
+         */
+        @Override
+        public int compareTo(final Member other) {
+            return this.predicate != other.predicate ? Integer.compare(this.predicate, other.predicate)
+                : Integer.compare(this.counted, other.counted);
+        }
+
+        /**
+         * Returns the hash code of the member.
+         *
+         * @return the hash code of the member.
+         */
+        @Override
+        public int hashCode() {
+            return this.predicate * 31 + this.counted;
+        }
+
+        /**
+         * Returns <code>true</code> if this member is equal to an other object.
+         *
+         * @param obj the other object.
+         * @return <code>true</code> if this member is equal to the object.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Member)) {
+                return false;
+            }
+            final Member other = (Member) obj;
+            return this.predicate == other.predicate && this.counted == other.counted;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import fr.uga.pddl4j.parser.UnexpectedExpressionException;
 import fr.uga.pddl4j.problem.operator.Constants;
 import fr.uga.pddl4j.problem.operator.IntAction;
 import fr.uga.pddl4j.problem.operator.IntMethod;
+import fr.uga.pddl4j.util.BitSet;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -42,16 +43,38 @@ import java.util.Set;
  */
 public abstract class PostInstantiatedProblem extends InstantiatedProblem {
 
+    /**
+     * The table of the ground atoms occurring in the effects of the actions and in the initial state. The ground
+     * inertia and the initial facts are indexed by the index of the atoms in this table.
+     */
+    private GroundAtomTable groundAtoms;
+
     /**
      * The table that contains the ground inertia.
      */
-    private Map<Expression<Integer>, Inertia> groundInertia;
+    private List<Inertia> groundInertia;
+
+    /**
+     * The atoms of the initial state.
+     */
+    private BitSet initialAtoms;
 
     /**
      * The table that contains the ground inertia.
      */
     private Map<Expression<Integer>, Inertia> numericGroundInertia;
 
+    /**
+     * The relevance analysis used to prune the actions or <code>null</code> if the actions were not pruned.
+     */
+    private RelevanceAnalysis relevance;
+
+    /**
+     * The copies of the actions before their pruning with the relevance to the goal or <code>null</code> if the
+     * actions were never pruned.
+     */
+    private List<IntAction> unprunedActions;
+
     /**
      * Creates a new problem from a domain and problem.
      *
@@ -63,12 +86,26 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
 
 
     /**
-     * Return the list of ground inertia of the problem.
+     * Returns the ground inertia of a specified ground atom. An atom that does not occur in the effects of the actions
+     * is an {@code Inertia.INERTIA}.
      *
-     * @return the list of ground inertia of the problem.
+     * @param atom the ground atom.
+     * @return the ground inertia of the atom.
      */
-    protected Map<Expression<Integer>, Inertia> getGroundInertia() {
-        return this.groundInertia;
+    protected Inertia getGroundInertia(final Expression<Integer> atom) {
+        final int index = this.groundAtoms.indexOf(atom);
+        return index == -1 ? Inertia.INERTIA : this.groundInertia.get(index);
+    }
+
+    /**
+     * Returns if a specified ground atom is a fact of the initial state.
+     *
+     * @param atom the ground atom.
+     * @return <code>true</code> if the atom is a fact of the initial state; <code>false</code> otherwise.
+     */
+    protected boolean isInitialFact(final Expression<Integer> atom) {
+        final int index = this.groundAtoms.indexOf(atom);
+        return index != -1 && this.initialAtoms.get(index);
     }
 
     /**
@@ -86,10 +123,75 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
      * inertia table.
      */
     protected void extractGroundInertia() {
-        this.groundInertia = new LinkedHashMap<>(Constants.DEFAULT_RELEVANT_FACTS_TABLE_SIZE);
+        this.groundAtoms = new GroundAtomTable(Constants.DEFAULT_RELEVANT_FACTS_TABLE_SIZE);
+        this.groundInertia = new ArrayList<>(Constants.DEFAULT_RELEVANT_FACTS_TABLE_SIZE);
         for (IntAction a : this.getIntActions()) {
             extractGroundInertia(a.getEffects());
         }
+        this.initInitialAtoms();
+    }
+
+    /**
+     * Initializes the atoms of the initial state from the initial state of the problem. The atoms of the initial state
+     * are put in the table of the ground atoms if they are not already in the table.
+     */
+    protected void initInitialAtoms() {
+        this.initialAtoms = new BitSet();
+        for (Expression<Integer> fact : this.getIntInitialState()) {
+            if (fact.getConnector().equals(Connector.ATOM)) {
+                this.initialAtoms.set(this.putGroundAtom(fact));
+            }
+        }
+    }
+
+    /**
+     * Returns if a specified initial state preserves the inertia of the problem, i.e., if the atoms of the initial
+     * state of the problem that are not in the specified initial state are deleted by an action and if the atoms of
+     * the specified initial state that are not in the initial state of the problem are added by an action. In this
+     * case, the simplifications of the actions made with the inertia and the initial state of the problem remain valid
+     * for the specified initial state. Moreover, the actions reachable from the specified initial state in the relaxed
+     * problem are also reachable from the initial state of the problem, i.e., they are already instantiated.
+     *
+     * @param init the initial state.
+     * @return <code>true</code> if the initial state preserves the inertia of the problem; <code>false</code>
+     *          otherwise.
+     */
+    protected boolean isInertiaPreserved(final Set<Expression<Integer>> init) {
+        final GroundAtomTable atoms = new GroundAtomTable(init.size());
+        for (Expression<Integer> fact : init) {
+            if (fact.getConnector().equals(Connector.ATOM)) {
+                final Inertia inertia = this.getGroundInertia(fact);
+                if (!this.isInitialFact(fact) && !inertia.equals(Inertia.FLUENT)
+                    && !inertia.equals(Inertia.NEGATIVE)) {
+                    return false;
+                }
+                atoms.put(fact);
+            }
+        }
+        for (Expression<Integer> fact : this.getIntInitialState()) {
+            if (fact.getConnector().equals(Connector.ATOM) && atoms.indexOf(fact) == -1) {
+                final Inertia inertia = this.getGroundInertia(fact);
+                if (!inertia.equals(Inertia.FLUENT) && !inertia.equals(Inertia.POSITIVE)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Puts a ground atom in the table of the ground atoms and returns its index. The ground inertia of an atom put
+     * for the first time is {@code Inertia.INERTIA}.
+     *
+     * @param atom the ground atom.
+     * @return the index of the atom in the table of the ground atoms.
+     */
+    private int putGroundAtom(final Expression<Integer> atom) {
+        final int index = this.groundAtoms.put(atom);
+        if (index == this.groundInertia.size()) {
+            this.groundInertia.add(Inertia.INERTIA);
+        }
+        return index;
     }
 
     /**
@@ -100,16 +202,13 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
     private void extractGroundInertia(final Expression<Integer> exp) {
         switch (exp.getConnector()) {
             case ATOM:
-                Inertia inertia = this.groundInertia.get(exp);
-                if (inertia == null) {
-                    inertia = Inertia.INERTIA;
-                }
-                switch (inertia) {
+                int index = this.putGroundAtom(exp);
+                switch (this.groundInertia.get(index)) {
                     case INERTIA:
-                        this.groundInertia.put(exp, Inertia.NEGATIVE);
+                        this.groundInertia.set(index, Inertia.NEGATIVE);
                         break;
                     case POSITIVE:
-                        this.groundInertia.put(exp, Inertia.FLUENT);
+                        this.groundInertia.set(index, Inertia.FLUENT);
                         break;
                     default:
                         // do nothing
@@ -131,16 +230,13 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
             case NOT:
                 final Expression<Integer> neg = exp.getChildren().get(0);
                 if (neg.getConnector().equals(Connector.ATOM)) {
-                    inertia = this.groundInertia.get(neg);
-                    if (inertia == null) {
-                        inertia = Inertia.INERTIA;
-                    }
-                    switch (inertia) {
+                    index = this.putGroundAtom(neg);
+                    switch (this.groundInertia.get(index)) {
                         case INERTIA:
-                            this.groundInertia.put(neg, Inertia.POSITIVE);
+                            this.groundInertia.set(index, Inertia.POSITIVE);
                             break;
                         case NEGATIVE:
-                            this.groundInertia.put(neg, Inertia.FLUENT);
+                            this.groundInertia.set(index, Inertia.FLUENT);
                             break;
                         default:
                             // do nothing
@@ -290,6 +386,92 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
         this.getIntActions().addAll(toAdd);
     }
 
+    /**
+     * Removes the actions that are not relevant to the goal, i.e., the actions that can never contribute to reach the
+     * goal. The relevance is computed backward from the goal through the preconditions of the actions and the
+     * conditions of their effects. The conditional effects of the actions kept that change no relevant atom are
+     * removed and the atoms that are not relevant are then excluded from the fluents of the problem.
+     * The actions are not pruned if the goal is simplified to false, if the relevance analysis is not supported,
+     * e.g., for the durative actions or the numeric conditions, or if all the actions and all the atoms they change
+     * are relevant. This method must be called after the simplification of the actions and of the goal with the ground
+     * inertia. A copy of the actions is kept before the first pruning to prune them again for another goal.
+     *
+     * @see RelevanceAnalysis
+     * @see #restoreUnprunedActions()
+     */
+    protected void pruneIrrelevantActions() {
+        if (this.getIntGoal().getConnector().equals(Connector.FALSE)) {
+            return;
+        }
+        final RelevanceAnalysis analysis = new RelevanceAnalysis(this.getIntActions(), this.getIntGoal());
+        if (!analysis.isSupported()) {
+            return;
+        }
+        analysis.compute();
+        if (analysis.isComplete()) {
+            return;
+        }
+        if (this.unprunedActions == null) {
+            this.unprunedActions = new ArrayList<>(this.getIntActions().size());
+            this.getIntActions().forEach(a -> this.unprunedActions.add(new IntAction(a)));
+        }
+        final List<IntAction> relevant = new ArrayList<>(this.getIntActions().size());
+        for (int i = 0; i < this.getIntActions().size(); i++) {
+            if (analysis.isRelevant(i)) {
+                final IntAction action = this.getIntActions().get(i);
+                this.pruneIrrelevantEffects(action.getEffects(), analysis);
+                action.getEffects().simplify();
+                relevant.add(action);
+            }
+        }
+        this.getIntActions().clear();
+        this.getIntActions().addAll(relevant);
+        this.relevance = analysis;
+    }
+
+    /**
+     * Removes the conditional effects of a specified effect that change no relevant atom. The conditions of such
+     * effects are not relevant and cannot be encoded with the relevant fluents.
+     *
+     * @param exp      the effect.
+     * @param analysis the relevance analysis.
+     */
+    private void pruneIrrelevantEffects(final Expression<Integer> exp, final RelevanceAnalysis analysis) {
+        if (exp.getConnector().equals(Connector.WHEN)) {
+            if (!analysis.isRelevantEffect(exp.getChildren().get(1))) {
+                exp.setConnector(Connector.TRUE);
+                exp.getChildren().clear();
+            }
+        } else if (exp.getConnector().equals(Connector.AND)) {
+            exp.getChildren().forEach(e -> this.pruneIrrelevantEffects(e, analysis));
+        }
+    }
+
+    /**
+     * Restores the actions of the problem as they were before their pruning with the relevance to the goal. The
+     * actions are unchanged if they were never pruned.
+     *
+     * @see #pruneIrrelevantActions()
+     */
+    protected void restoreUnprunedActions() {
+        if (this.unprunedActions != null) {
+            this.getIntActions().clear();
+            this.unprunedActions.forEach(a -> this.getIntActions().add(new IntAction(a)));
+            this.relevance = null;
+        }
+    }
+
+    /**
+     * Returns if a specified ground atom is relevant to the goal. All the atoms are relevant if the actions of the
+     * problem were not pruned with the relevance to the goal.
+     *
+     * @param atom the ground atom.
+     * @return <code>true</code> if the atom is relevant to the goal; <code>false</code> otherwise.
+     */
+    protected boolean isRelevant(final Expression<Integer> atom) {
+        return this.relevance == null || this.relevance.isRelevant(atom);
+    }
+
 
     /**
      * AtomicFormulaSimplifier a specified expression based on the ground inertia information.
@@ -314,21 +496,19 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
      * @param exp    the expression to simply.
      */
     protected void simplifyWithGroundInertia(final Expression<Integer> exp) {
-        Expression<Integer> copy = new Expression<>(exp);
         switch (exp.getConnector()) {
             case ATOM:
-                Inertia inertia = this.getGroundInertia().get(exp);
-                if (inertia == null) {
-                    inertia = Inertia.INERTIA;
-                }
+                final int index = this.groundAtoms.indexOf(exp);
+                final Inertia inertia = index == -1 ? Inertia.INERTIA : this.groundInertia.get(index);
+                final boolean initial = index != -1 && this.initialAtoms.get(index);
                 // An initial fact, which is a negative ground inertia, is never made FALSE and thus
                 // always satisfied in all reachable world states. All its occurrences in the
                 // preconditions of actions and in the antecedents of conditional effects can be simplified to TRUE.
                 if ((inertia.equals(Inertia.INERTIA) || inertia.equals(Inertia.NEGATIVE))
-                    && this.getIntInitialState().contains(exp)) {
+                    && initial) {
                     exp.setConnector(Connector.TRUE);
                 } else if ((inertia.equals(Inertia.INERTIA) || inertia.equals(Inertia.POSITIVE))
-                    && !this.getIntInitialState().contains(exp)) {
+                    && !initial) {
                     // If the antecedent of a conditional effect becomes TRUE, the conditional effect becomes
                     // unconditional.
                     exp.setConnector(Connector.FALSE);
@@ -480,9 +660,6 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
                 }
                 break;
             case NOT:
-            case AT_START:
-            case AT_END:
-            case OVER_ALL:
                 final Expression<Integer> neg = exp.getChildren().get(0);
                 this.simplifyWithGroundNumericInertia(neg);
                 if (neg.getConnector().equals(Connector.TRUE)) {
@@ -491,6 +668,18 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
                     exp.setConnector(Connector.TRUE);
                 }
                 break;
+            case AT_START:
+            case AT_END:
+            case OVER_ALL:
+                // A time specifier does not change the truth value of the expression it qualifies
+                final Expression<Integer> qualified = exp.getChildren().get(0);
+                this.simplifyWithGroundNumericInertia(qualified);
+                if (qualified.getConnector().equals(Connector.TRUE)) {
+                    exp.setConnector(Connector.TRUE);
+                } else if (qualified.getConnector().equals(Connector.FALSE)) {
+                    exp.setConnector(Connector.FALSE);
+                }
+                break;
             case WHEN:
                 this.simplifyWithGroundNumericInertia(exp.getChildren().get(0));
                 this.simplifyWithGroundNumericInertia(exp.getChildren().get(1));
@@ -775,14 +964,17 @@ public abstract class PostInstantiatedProblem extends InstantiatedProblem {
         switch (data) {
             case GROUND_INERTIA:
                 int i = 0;
-                for (Map.Entry<Expression<Integer>, Inertia> e : this.getGroundInertia().entrySet()) {
-                    str.append(i);
-                    str.append(": ");
-                    str.append(this.toString(e.getKey()));
-                    str.append(" : ");
-                    str.append(e.getValue());
-                    str.append(System.lineSeparator());
-                    i++;
+                for (int index = 0; index < this.groundAtoms.size(); index++) {
+                    // The atoms of the initial state that do not occur in the effects are not ground inertia
+                    if (!this.groundInertia.get(index).equals(Inertia.INERTIA)) {
+                        str.append(i);
+                        str.append(": ");
+                        str.append(this.toString(this.groundAtoms.get(index)));
+                        str.append(" : ");
+                        str.append(this.groundInertia.get(index));
+                        str.append(System.lineSeparator());
+                        i++;
+                    }
                 }
                 break;
             case GROUND_NUMERIC_INERTIA:
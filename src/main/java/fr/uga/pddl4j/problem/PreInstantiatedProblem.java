@@ -22,7 +22,7 @@ import fr.uga.pddl4j.parser.Symbol;
 import fr.uga.pddl4j.parser.SymbolType;
 import fr.uga.pddl4j.parser.UnexpectedExpressionException;
 import fr.uga.pddl4j.problem.operator.IntAction;
-import fr.uga.pddl4j.util.IntMatrix;
+import fr.uga.pddl4j.util.SparseIntMatrix;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -59,7 +59,7 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
      * The list of predicates tables used to count the occurrence of a specified predicate in the
      * initial state.
      */
-    private List<List<IntMatrix>> predicatesTables;
+    private List<List<SparseIntMatrix>> predicatesTables;
 
     /**
      * Creates a new problem from a specific domain and problem.
@@ -102,10 +102,22 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
      *
      * @return  the predicated tables.
      */
-    private List<List<IntMatrix>> getPredicatesTables() {
+    private List<List<SparseIntMatrix>> getPredicatesTables() {
         return this.predicatesTables;
     }
 
+    /**
+     * Returns the table that counts the ground instances of a predicate contained in the initial state for a
+     * specified mask, i.e., for the arguments of the predicate that are instantiated.
+     *
+     * @param predicate the predicate.
+     * @param mask      the mask of the arguments instantiated: 1 if the argument is instantiated; 0 otherwise.
+     * @return the table of the predicate for the specified mask.
+     */
+    protected SparseIntMatrix getPredicateTable(final int predicate, final int[] mask) {
+        return this.getPredicatesTables().get(predicate).get(this.toInt(mask));
+    }
+
     /**
      * This method proceeds over the actions of the domain and checks for all atom which kind of
      * inertia it is. For each atom it checks if it satisfies one of the following definitions:
@@ -609,7 +621,10 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
     }
 
     /**
-     * This method creates the predicate tables used to simplify atomic expression.
+     * This method creates the predicate tables used to simplify atomic expression. The tables are sparse: only the
+     * combinations of constants that occur in the initial state are stored, so that the memory used depends on the
+     * number of facts of the initial state and not on the number of constants to the power of the arity of the
+     * predicates.
      */
     protected void createPredicatesTables() {
         final int tableSize = this.getConstantSymbols().size();
@@ -618,10 +633,10 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
         for (final List<Symbol<Integer>> arguments : this.getPredicateSignatures()) {
             final int arity = arguments.size();
             final int nbTables = (int) Math.pow(2, arity);
-            final List<IntMatrix> pTables = new ArrayList<>(nbTables);
+            final List<SparseIntMatrix> pTables = new ArrayList<>(nbTables);
             for (int j = 0; j < nbTables; j++) {
                 final int dimension = Integer.bitCount(j);
-                pTables.add(new IntMatrix(tableSize, dimension));
+                pTables.add(new SparseIntMatrix(tableSize, dimension));
             }
             this.predicatesTables.add(pTables);
         }
@@ -631,10 +646,10 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
                 fluent = fluent.getChildren().get(0);
             }
             final int arity = this.getPredicateSignatures().get(fluent.getSymbol().getValue()).size();
-            final List<IntMatrix> pTables = this.predicatesTables.get(fluent.getSymbol().getValue());
+            final List<SparseIntMatrix> pTables = this.predicatesTables.get(fluent.getSymbol().getValue());
             final int[] set = new int[arity];
             final List<Symbol<Integer>> arguments = fluent.getArguments();
-            for (final IntMatrix intMatrix : pTables) {
+            for (final SparseIntMatrix table : pTables) {
                 int indexSize = 0;
                 for (int aSet : set) {
                     if (aSet == 1) {
@@ -649,7 +664,7 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
                         j++;
                     }
                 }
-                intMatrix.increment(index);
+                table.increment(index);
                 this.incrementMask(set);
             }
         }
@@ -693,9 +708,9 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
      *
      * @param tables predicates tables.
      */
-    protected void printPredicatesTables(final List<List<IntMatrix>> tables) {
+    protected void printPredicatesTables(final List<List<SparseIntMatrix>> tables) {
         for (int predicate = 0; predicate < tables.size(); predicate++) {
-            final List<IntMatrix> pTables = tables.get(predicate);
+            final List<SparseIntMatrix> pTables = tables.get(predicate);
             final int arity = this.getPredicateSignatures().get(predicate).size();
             final int[] mask = new int[arity];
             for (int i = 0; i < pTables.size(); i++) {
@@ -715,7 +730,7 @@ public abstract class PreInstantiatedProblem extends AbstractProblem {
      * @param tables    the predicates tables.
      */
     private void print(final int predicate, final int arity, final int[] mask, final int[] index,
-                       final List<List<IntMatrix>> tables) {
+                       final List<List<SparseIntMatrix>> tables) {
         if (index.length == arity) {
             final StringBuilder str = new StringBuilder();
             str.append("(");
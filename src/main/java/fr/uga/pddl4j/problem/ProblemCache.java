@@ -0,0 +1,722 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.
+ * If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.parser.RequireKey;
+import fr.uga.pddl4j.parser.Symbol;
+import fr.uga.pddl4j.parser.SymbolType;
+import fr.uga.pddl4j.problem.numeric.NumericVariable;
+import fr.uga.pddl4j.problem.operator.AbstractFluentDescription;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.problem.operator.DefaultOrderingConstraintNetwork;
+import fr.uga.pddl4j.problem.operator.Effect;
+import fr.uga.pddl4j.problem.operator.Method;
+import fr.uga.pddl4j.problem.operator.TaskNetwork;
+import fr.uga.pddl4j.util.BitSet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class implements the on-disk cache of the instantiated problems. A problem is saved once instantiated into a
+ * compact binary file named after a hash of the contents of its domain and problem files, so that the later runs on
+ * the same files load the problem instead of parsing and instantiating it again.
+ * <p>
+ * The file starts with a magic number and the version of the format. It contains the symbols of the problem, its
+ * relevant fluents and tasks, its actions and methods, its initial state, its goal and its initial task network. The
+ * conditions and the effects are stored as the words of their bit sets. A file is loaded through a read-only
+ * memory-mapped buffer and the bit sets are read directly from the words of the buffer.
+ * </p>
+ * <p>
+ * Only the problems with neither numeric fluents nor durative actions can be cached. The between constraints of the
+ * task networks, that cannot be read through the task network interface, are not saved. A problem loaded from the
+ * cache has no parsed problem and cannot be instantiated again.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.04.2021
+ */
+public final class ProblemCache {
+
+    /**
+     * The magic number of the files of problems.
+     */
+    private static final int MAGIC = 0x50524f42;
+
+    /**
+     * The version of the format of the files of problems.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The extension of the files of problems.
+     */
+    private static final String EXTENSION = ".problem";
+
+    /**
+     * Creates a new cache. The class has only static methods.
+     */
+    private ProblemCache() {
+        super();
+    }
+
+    /**
+     * Returns the file of the cache where the problem of a specified domain and problem files is saved. The name of
+     * the file is a hash of the contents of the files and of the version of the format.
+     *
+     * @param directory the directory of the cache.
+     * @param domain    the domain file.
+     * @param problem   the problem file.
+     * @return the file of the cache of the problem.
+     * @throws IOException if the domain or the problem file cannot be read.
+     */
+    public static File getFile(final File directory, final File domain, final File problem) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(8).putInt(ProblemCache.MAGIC).putInt(ProblemCache.VERSION).array());
+            for (File file : new File[] {domain, problem}) {
+                final byte[] content = Files.readAllBytes(file.toPath());
+                digest.update(ByteBuffer.allocate(4).putInt(content.length).array());
+                digest.update(content);
+            }
+            final StringBuilder str = new StringBuilder();
+            for (byte b : digest.digest()) {
+                str.append(String.format("%02x", b));
+            }
+            return new File(directory, str.toString() + ProblemCache.EXTENSION);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns if a specified problem can be saved in the cache. A problem can be saved if it is instantiated and it
+     * has neither numeric fluents nor durative actions.
+     *
+     * @param problem the problem.
+     * @return <code>true</code> if the problem can be saved; <code>false</code> otherwise.
+     */
+    public static boolean isSupported(final Problem problem) {
+        return problem instanceof FinalizedProblem
+            && problem.getActions() != null
+            && problem.getDurativeActions().isEmpty()
+            && (problem.getDurativeMethods() == null || problem.getDurativeMethods().isEmpty())
+            && !problem.getRequirements().contains(RequireKey.NUMERIC_FLUENTS)
+            && !problem.getRequirements().contains(RequireKey.DURATIVE_ACTIONS)
+            && !problem.getRequirements().contains(RequireKey.TIMED_INITIAL_LITERALS);
+    }
+
+    /**
+     * Saves a specified problem into a file. The file is first written under a temporary name and then renamed, so
+     * that a file of the cache is always complete.
+     *
+     * @param problem the problem.
+     * @param file    the file.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the problem cannot be saved.
+     * @see #isSupported(Problem)
+     */
+    public static void save(final Problem problem, final File file) throws IOException {
+        if (!ProblemCache.isSupported(problem)) {
+            throw new IllegalArgumentException("problem not supported");
+        }
+        final FinalizedProblem pb = (FinalizedProblem) problem;
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("cannot create directory " + dir);
+        }
+        final File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(ProblemCache.MAGIC);
+            out.writeInt(ProblemCache.VERSION);
+            // The symbols of the problem
+            out.writeInt(pb.getRequirements().size());
+            for (RequireKey requirement : pb.getRequirements()) {
+                ProblemCache.writeString(out, requirement.name());
+            }
+            ProblemCache.writeStrings(out, pb.getTypes());
+            out.writeInt(pb.getDomains().size());
+            for (Map.Entry<Integer, Set<Symbol<Integer>>> e : pb.getDomains().entrySet()) {
+                out.writeInt(e.getKey());
+                ProblemCache.writeSymbols(out, e.getValue());
+            }
+            ProblemCache.writeStrings(out, pb.getConstantSymbols());
+            ProblemCache.writeStrings(out, pb.getPredicateSymbols());
+            ProblemCache.writeSignatures(out, pb.getPredicateSignatures());
+            ProblemCache.writeStrings(out, pb.getTaskSymbols());
+            ProblemCache.writeSignatures(out, pb.getTaskSignatures());
+            ProblemCache.writeStrings(out, pb.getPrimitiveTaskSymbols());
+            ProblemCache.writeStrings(out, pb.getCompoundTaskSymbols());
+            // The relevant fluents
+            out.writeInt(pb.getFluents().size());
+            for (Fluent fluent : pb.getFluents()) {
+                out.writeInt(fluent.getSymbol());
+                ProblemCache.writeInts(out, fluent.getArguments());
+            }
+            // The actions
+            out.writeInt(pb.getActions().size());
+            for (Action action : pb.getActions()) {
+                ProblemCache.writeString(out, action.getName());
+                ProblemCache.writeInts(out, action.getParameters());
+                ProblemCache.writeInts(out, action.getInstantiations());
+                out.writeBoolean(action.isDummy());
+                out.writeDouble(action.getCost().getValue());
+                ProblemCache.writeFluents(out, action.getPrecondition());
+                out.writeInt(action.getConditionalEffects().size());
+                for (ConditionalEffect effect : action.getConditionalEffects()) {
+                    ProblemCache.writeFluents(out, effect.getCondition());
+                    ProblemCache.writeFluents(out, effect.getEffect());
+                }
+            }
+            // The initial state and the goal
+            ProblemCache.writeFluents(out, pb.getInitialState());
+            out.writeBoolean(pb.getGoal() != null);
+            if (pb.getGoal() != null) {
+                ProblemCache.writeFluents(out, pb.getGoal());
+            }
+            // The tasks and the methods of hierarchical problems
+            out.writeBoolean(pb.getTasks() != null);
+            if (pb.getTasks() != null) {
+                out.writeInt(pb.getTasks().size());
+                for (Task task : pb.getTasks()) {
+                    out.writeInt(task.getSymbol());
+                    ProblemCache.writeInts(out, task.getArguments());
+                    out.writeBoolean(task.isPrimtive());
+                }
+            }
+            out.writeBoolean(pb.getTaskResolvers() != null);
+            if (pb.getTaskResolvers() != null) {
+                out.writeInt(pb.getTaskResolvers().size());
+                for (List<Integer> resolvers : pb.getTaskResolvers()) {
+                    ProblemCache.writeInts(out, ProblemCache.toArray(resolvers));
+                }
+            }
+            out.writeBoolean(pb.getMethods() != null);
+            if (pb.getMethods() != null) {
+                out.writeInt(pb.getMethods().size());
+                for (Method method : pb.getMethods()) {
+                    ProblemCache.writeString(out, method.getName());
+                    ProblemCache.writeInts(out, method.getParameters());
+                    ProblemCache.writeInts(out, method.getInstantiations());
+                    out.writeInt(method.getTask());
+                    ProblemCache.writeFluents(out, method.getPrecondition());
+                    ProblemCache.writeTaskNetwork(out, method.getTaskNetwork());
+                }
+            }
+            out.writeBoolean(pb.getInitialTaskNetwork() != null);
+            if (pb.getInitialTaskNetwork() != null) {
+                ProblemCache.writeTaskNetwork(out, pb.getInitialTaskNetwork());
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("cannot rename " + tmp + " into " + file);
+        }
+    }
+
+    /**
+     * Loads a problem from a file through a read-only memory-mapped buffer of the file.
+     *
+     * @param file the file.
+     * @return the problem loaded.
+     * @throws IOException if the file cannot be read or is not a file of problem.
+     */
+    public static Problem load(final File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != ProblemCache.MAGIC || buffer.getInt() != ProblemCache.VERSION) {
+                throw new IOException("unsupported format");
+            }
+            final DefaultProblem pb = new DefaultProblem(null);
+            // The symbols of the problem
+            final int nbRequirements = ProblemCache.readLength(buffer);
+            final Set<RequireKey> requirements = new LinkedHashSet<>(nbRequirements);
+            for (int i = 0; i < nbRequirements; i++) {
+                requirements.add(RequireKey.valueOf(ProblemCache.readString(buffer)));
+            }
+            pb.setRequirements(requirements);
+            pb.setTypes(ProblemCache.readStrings(buffer));
+            final int nbDomains = ProblemCache.readLength(buffer);
+            final Map<Integer, Set<Symbol<Integer>>> domains = new LinkedHashMap<>(nbDomains);
+            for (int i = 0; i < nbDomains; i++) {
+                final int type = buffer.getInt();
+                domains.put(type, new LinkedHashSet<>(ProblemCache.readSymbols(buffer)));
+            }
+            pb.setDomains(domains);
+            pb.setConstantSymbols(ProblemCache.readStrings(buffer));
+            pb.setPredicateSymbols(ProblemCache.readStrings(buffer));
+            pb.setPredicateSignatures(ProblemCache.readSignatures(buffer));
+            pb.setTaskSymbols(ProblemCache.readStrings(buffer));
+            pb.setTaskSignatures(ProblemCache.readSignatures(buffer));
+            final List<String> primitiveTasks = ProblemCache.readStrings(buffer);
+            pb.setPrimitiveTaskSymbols(primitiveTasks == null ? null : new LinkedHashSet<>(primitiveTasks));
+            final List<String> compoundTasks = ProblemCache.readStrings(buffer);
+            pb.setCompoundTaskSymbols(compoundTasks == null ? null : new LinkedHashSet<>(compoundTasks));
+            // The relevant fluents
+            final int nbFluents = ProblemCache.readLength(buffer);
+            final List<Fluent> fluents = new ArrayList<>(nbFluents);
+            for (int i = 0; i < nbFluents; i++) {
+                final int symbol = buffer.getInt();
+                fluents.add(new Fluent(symbol, ProblemCache.readInts(buffer)));
+            }
+            pb.setFluents(fluents);
+            // The actions
+            final int nbActions = ProblemCache.readLength(buffer);
+            final List<Action> actions = new ArrayList<>(nbActions);
+            for (int i = 0; i < nbActions; i++) {
+                final String name = ProblemCache.readString(buffer);
+                final int[] parameters = ProblemCache.readInts(buffer);
+                final int[] instantiations = ProblemCache.readInts(buffer);
+                final Action action = new Action(name, parameters.length);
+                for (int j = 0; j < parameters.length; j++) {
+                    action.setTypeOfParameter(j, parameters[j]);
+                    action.setValueOfParameter(j, instantiations[j]);
+                }
+                action.setDummy(buffer.get() != 0);
+                action.setCost(new NumericVariable(-1, buffer.getDouble()));
+                action.setPrecondition(ProblemCache.readFluents(buffer, new Condition()));
+                final int nbEffects = ProblemCache.readLength(buffer);
+                for (int j = 0; j < nbEffects; j++) {
+                    final Condition condition = ProblemCache.readFluents(buffer, new Condition());
+                    final Effect effect = ProblemCache.readFluents(buffer, new Effect());
+                    action.getConditionalEffects().add(new ConditionalEffect(condition, effect));
+                }
+                actions.add(action);
+            }
+            pb.setActions(actions);
+            pb.setDurativeActions(new ArrayList<>());
+            // The initial state and the goal
+            pb.setInitialState(ProblemCache.readFluents(buffer, new InitialState()));
+            if (buffer.get() != 0) {
+                pb.setGoal(ProblemCache.readFluents(buffer, new Goal()));
+            }
+            // The tasks and the methods of hierarchical problems
+            if (buffer.get() != 0) {
+                final int nbTasks = ProblemCache.readLength(buffer);
+                final List<Task> tasks = new ArrayList<>(nbTasks);
+                for (int i = 0; i < nbTasks; i++) {
+                    final int symbol = buffer.getInt();
+                    final int[] arguments = ProblemCache.readInts(buffer);
+                    tasks.add(new Task(symbol, arguments, buffer.get() != 0));
+                }
+                pb.setTasks(tasks);
+            }
+            if (buffer.get() != 0) {
+                final int nbTasks = ProblemCache.readLength(buffer);
+                final List<List<Integer>> resolvers = new ArrayList<>(nbTasks);
+                for (int i = 0; i < nbTasks; i++) {
+                    resolvers.add(ProblemCache.toList(ProblemCache.readInts(buffer)));
+                }
+                pb.setTaskResolvers(resolvers);
+            }
+            if (buffer.get() != 0) {
+                final int nbMethods = ProblemCache.readLength(buffer);
+                final List<Method> methods = new ArrayList<>(nbMethods);
+                for (int i = 0; i < nbMethods; i++) {
+                    final String name = ProblemCache.readString(buffer);
+                    final int[] parameters = ProblemCache.readInts(buffer);
+                    final int[] instantiations = ProblemCache.readInts(buffer);
+                    final Method method = new Method(name, parameters.length);
+                    for (int j = 0; j < parameters.length; j++) {
+                        method.setTypeOfParameter(j, parameters[j]);
+                        method.setValueOfParameter(j, instantiations[j]);
+                    }
+                    method.setTask(buffer.getInt());
+                    method.setPrecondition(ProblemCache.readFluents(buffer, new Condition()));
+                    method.setTaskNetwork(ProblemCache.readTaskNetwork(buffer));
+                    methods.add(method);
+                }
+                pb.setMethods(methods);
+                pb.setDurativeMethods(new ArrayList<>());
+            }
+            if (buffer.get() != 0) {
+                pb.setInitialTaskNetwork(ProblemCache.readTaskNetwork(buffer));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("corrupted file");
+            }
+            return pb;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("corrupted file");
+        }
+    }
+
+    /**
+     * Writes a task network. The tasks are written first, followed by the rows of the ordering constraints and the
+     * before and after constraints of the tasks that are not empty.
+     *
+     * @param out     the output stream.
+     * @param network the task network.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeTaskNetwork(final DataOutputStream out, final TaskNetwork network) throws IOException {
+        ProblemCache.writeInts(out, ProblemCache.toArray(network.getTasks()));
+        final DefaultOrderingConstraintNetwork ordering = network.getOrderingConstraints();
+        out.writeInt(ordering.size());
+        for (int i = 0; i < ordering.size(); i++) {
+            ProblemCache.writeBits(out, ordering.getTaskOrderedAfter(i));
+        }
+        // The constraints are read from a copy because reading a constraint creates it when it does not exist
+        final TaskNetwork copy = new TaskNetwork(network);
+        final Set<Integer> tasks = new LinkedHashSet<>(network.getTasks());
+        final List<Integer> before = new ArrayList<>();
+        final List<Integer> after = new ArrayList<>();
+        for (Integer task : tasks) {
+            if (!copy.getBeforeConstraints(task).isEmpty()) {
+                before.add(task);
+            }
+            if (!copy.getAfterConstraints(task).isEmpty()) {
+                after.add(task);
+            }
+        }
+        out.writeInt(before.size());
+        for (Integer task : before) {
+            out.writeInt(task);
+            ProblemCache.writeFluents(out, copy.getBeforeConstraints(task));
+        }
+        out.writeInt(after.size());
+        for (Integer task : after) {
+            out.writeInt(task);
+            ProblemCache.writeFluents(out, copy.getAfterConstraints(task));
+        }
+    }
+
+    /**
+     * Reads a task network.
+     *
+     * @param buffer the buffer.
+     * @return the task network read.
+     * @throws IOException if the task network read is not valid.
+     */
+    private static TaskNetwork readTaskNetwork(final ByteBuffer buffer) throws IOException {
+        final TaskNetwork network = new TaskNetwork();
+        network.setTasks(ProblemCache.toList(ProblemCache.readInts(buffer)));
+        final int size = ProblemCache.readLength(buffer);
+        final DefaultOrderingConstraintNetwork ordering = new DefaultOrderingConstraintNetwork(size);
+        for (int i = 0; i < size; i++) {
+            ordering.getTaskOrderedAfter(i).or(ProblemCache.readBits(buffer));
+        }
+        network.setOrderingConstraints(ordering);
+        final int nbBefore = ProblemCache.readLength(buffer);
+        for (int i = 0; i < nbBefore; i++) {
+            final Condition condition = network.getBeforeConstraints(buffer.getInt());
+            if (condition == null) {
+                throw new IOException("corrupted file");
+            }
+            ProblemCache.readFluents(buffer, condition);
+        }
+        final int nbAfter = ProblemCache.readLength(buffer);
+        for (int i = 0; i < nbAfter; i++) {
+            final Condition condition = network.getAfterConstraints(buffer.getInt());
+            if (condition == null) {
+                throw new IOException("corrupted file");
+            }
+            ProblemCache.readFluents(buffer, condition);
+        }
+        return network;
+    }
+
+    /**
+     * Writes the positive and the negative fluents of a fluent description.
+     *
+     * @param out         the output stream.
+     * @param description the fluent description.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeFluents(final DataOutputStream out, final AbstractFluentDescription description)
+        throws IOException {
+        ProblemCache.writeBits(out, description.getPositiveFluents());
+        ProblemCache.writeBits(out, description.getNegativeFluents());
+    }
+
+    /**
+     * Reads the positive and the negative fluents of a fluent description and adds them to a specified description.
+     *
+     * @param buffer      the buffer.
+     * @param description the fluent description.
+     * @param <T>         the type of the fluent description.
+     * @return the fluent description.
+     * @throws IOException if the fluents read are not valid.
+     */
+    private static <T extends AbstractFluentDescription> T readFluents(final ByteBuffer buffer, final T description)
+        throws IOException {
+        description.getPositiveFluents().or(ProblemCache.readBits(buffer));
+        description.getNegativeFluents().or(ProblemCache.readBits(buffer));
+        return description;
+    }
+
+    /**
+     * Writes the words of a bit set.
+     *
+     * @param out  the output stream.
+     * @param bits the bit set.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeBits(final DataOutputStream out, final BitSet bits) throws IOException {
+        final long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads the words of a bit set directly from a buffer.
+     *
+     * @param buffer the buffer.
+     * @return the bit set read.
+     * @throws IOException if the number of words read is not valid.
+     */
+    private static BitSet readBits(final ByteBuffer buffer) throws IOException {
+        final int length = ProblemCache.readLength(buffer);
+        final LongBuffer words = buffer.asLongBuffer();
+        words.limit(length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Writes a list of signatures. A <code>null</code> list is written as the length -1.
+     *
+     * @param out        the output stream.
+     * @param signatures the signatures.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeSignatures(final DataOutputStream out, final List<List<Symbol<Integer>>> signatures)
+        throws IOException {
+        if (signatures == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(signatures.size());
+            for (List<Symbol<Integer>> signature : signatures) {
+                ProblemCache.writeSymbols(out, signature);
+            }
+        }
+    }
+
+    /**
+     * Reads a list of signatures.
+     *
+     * @param buffer the buffer.
+     * @return the list of signatures read or <code>null</code> if the length read is -1.
+     * @throws IOException if the signatures read are not valid.
+     */
+    private static List<List<Symbol<Integer>>> readSignatures(final ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(buffer.position()) == -1) {
+            buffer.getInt();
+            return null;
+        }
+        final int size = ProblemCache.readLength(buffer);
+        final List<List<Symbol<Integer>>> signatures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            signatures.add(ProblemCache.readSymbols(buffer));
+        }
+        return signatures;
+    }
+
+    /**
+     * Writes a collection of integer symbols.
+     *
+     * @param out     the output stream.
+     * @param symbols the symbols.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeSymbols(final DataOutputStream out, final Collection<Symbol<Integer>> symbols)
+        throws IOException {
+        out.writeInt(symbols.size());
+        for (Symbol<Integer> symbol : symbols) {
+            out.writeInt(symbol.getType().ordinal());
+            out.writeInt(symbol.getValue());
+        }
+    }
+
+    /**
+     * Reads a list of integer symbols.
+     *
+     * @param buffer the buffer.
+     * @return the list of symbols read.
+     * @throws IOException if the symbols read are not valid.
+     */
+    private static List<Symbol<Integer>> readSymbols(final ByteBuffer buffer) throws IOException {
+        final int size = ProblemCache.readLength(buffer);
+        final List<Symbol<Integer>> symbols = new ArrayList<>(size);
+        final SymbolType[] types = SymbolType.values();
+        for (int i = 0; i < size; i++) {
+            final SymbolType type = types[buffer.getInt()];
+            symbols.add(new Symbol<>(type, buffer.getInt()));
+        }
+        return symbols;
+    }
+
+    /**
+     * Writes a collection of strings. A <code>null</code> collection is written as the length -1.
+     *
+     * @param out     the output stream.
+     * @param strings the strings.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeStrings(final DataOutputStream out, final Collection<String> strings)
+        throws IOException {
+        if (strings == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(strings.size());
+            for (String str : strings) {
+                ProblemCache.writeString(out, str);
+            }
+        }
+    }
+
+    /**
+     * Reads a list of strings.
+     *
+     * @param buffer the buffer.
+     * @return the list of strings read or <code>null</code> if the length read is -1.
+     * @throws IOException if the strings read are not valid.
+     */
+    private static List<String> readStrings(final ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(buffer.position()) == -1) {
+            buffer.getInt();
+            return null;
+        }
+        final int size = ProblemCache.readLength(buffer);
+        final List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(ProblemCache.readString(buffer));
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a string encoded in UTF-8.
+     *
+     * @param out the output stream.
+     * @param str the string.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeString(final DataOutputStream out, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string encoded in UTF-8.
+     *
+     * @param buffer the buffer.
+     * @return the string read.
+     * @throws IOException if the length of the string read is not valid.
+     */
+    private static String readString(final ByteBuffer buffer) throws IOException {
+        final byte[] bytes = new byte[ProblemCache.readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an array of integers.
+     *
+     * @param out    the output stream.
+     * @param values the integers.
+     * @throws IOException if an error occurs while writing.
+     */
+    private static void writeInts(final DataOutputStream out, final int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads an array of integers.
+     *
+     * @param buffer the buffer.
+     * @return the array of integers read.
+     * @throws IOException if the length of the array read is not valid.
+     */
+    private static int[] readInts(final ByteBuffer buffer) throws IOException {
+        final int[] values = new int[ProblemCache.readLength(buffer)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getInt();
+        }
+        return values;
+    }
+
+    /**
+     * Reads a length from a buffer.
+     *
+     * @param buffer the buffer.
+     * @return the length read.
+     * @throws IOException if the length read is negative or too large.
+     */
+    private static int readLength(final ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("corrupted file");
+        }
+        return length;
+    }
+
+    /**
+     * Converts a list of integers into an array.
+     *
+     * @param list the list.
+     * @return the array.
+     */
+    private static int[] toArray(final List<Integer> list) {
+        final int[] array = new int[list.size()];
+        int i = 0;
+        for (Integer value : list) {
+            array[i] = value;
+            i++;
+        }
+        return array;
+    }
+
+    /**
+     * Converts an array of integers into a list.
+     *
+     * @param array the array.
+     * @return the list.
+     */
+    private static List<Integer> toList(final int[] array) {
+        final List<Integer> list = new ArrayList<>(array.length);
+        for (int value : array) {
+            list.add(value);
+        }
+        return list;
+    }
+}
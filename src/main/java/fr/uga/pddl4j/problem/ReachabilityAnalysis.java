@@ -0,0 +1,662 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.
+ * If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.parser.Expression;
+import fr.uga.pddl4j.parser.Symbol;
+import fr.uga.pddl4j.problem.operator.IntAction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class implements the relaxed reachability analysis of the lifted actions of a problem. Each action is seen as
+ * a Datalog rule whose body is made of the positive atoms of its precondition and whose heads are the positive atoms
+ * of its effects. The negative literals, the equalities, the numeric constraints and the conditions of the
+ * conditional effects are ignored. Thus, the fixpoint over-approximates the facts and the actions reachable from the
+ * initial state and only the bindings of the parameters of the reachable actions have to be instantiated.
+ * <p>
+ * The fixpoint is computed semi-naively: the facts are processed one by one and a rule is only joined with the facts
+ * already processed once one of its atoms is unified with the new fact. The remaining atoms are joined greedily: the
+ * next atom joined is the one with the most arguments bound and its candidate facts are taken from the index of the
+ * most selective bound argument.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 05.04.2021
+ */
+final class ReachabilityAnalysis {
+
+    /**
+     * The rules of the actions in the order of the actions.
+     */
+    private final List<Rule> rules;
+
+    /**
+     * The number of constants of the problem.
+     */
+    private final int nbConstants;
+
+    /**
+     * The rules and the positions of their atoms triggered by the facts of each predicate.
+     */
+    private final List<List<int[]>> triggers;
+
+    /**
+     * The facts discovered.
+     */
+    private final Set<Fact> discovered;
+
+    /**
+     * The facts discovered but not yet processed.
+     */
+    private final Deque<Fact> queue;
+
+    /**
+     * The arguments of the facts processed for each predicate.
+     */
+    private final List<List<int[]>> known;
+
+    /**
+     * The index of the facts processed: for each predicate, for each argument position and for each constant, the
+     * arguments of the facts processed having this constant at this position.
+     */
+    private final List<List<List<List<int[]>>>> index;
+
+    /**
+     * A boolean flag to indicate if all the actions can be relaxed.
+     */
+    private boolean supported;
+
+    /**
+     * Creates a new reachability analysis of specified actions. The quantified expressions of the actions must be
+     * already expanded.
+     *
+     * @param problem the problem.
+     * @param actions the actions.
+     */
+    ReachabilityAnalysis(final PreInstantiatedProblem problem, final List<IntAction> actions) {
+        this.nbConstants = problem.getConstantSymbols().size();
+        final int nbPredicates = problem.getPredicateSymbols().size();
+        this.triggers = new ArrayList<>(nbPredicates);
+        this.known = new ArrayList<>(nbPredicates);
+        this.index = new ArrayList<>(nbPredicates);
+        for (int p = 0; p < nbPredicates; p++) {
+            this.triggers.add(new ArrayList<>());
+            this.known.add(new ArrayList<>());
+            this.index.add(null);
+        }
+        this.discovered = new HashSet<>();
+        this.queue = new ArrayDeque<>();
+        this.supported = true;
+        this.rules = new ArrayList<>(actions.size());
+        final Map<Integer, BitSet> domains = new HashMap<>();
+        for (IntAction action : actions) {
+            final BitSet[] parameters = new BitSet[action.arity()];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = domains.computeIfAbsent(action.getTypeOfParameters(i), type -> {
+                    final BitSet domain = new BitSet(this.nbConstants);
+                    problem.getDomains().get(type).forEach(c -> domain.set(c.getValue()));
+                    return domain;
+                });
+            }
+            final List<Atom> body = new ArrayList<>();
+            final List<Atom> heads = new ArrayList<>();
+            this.collectPreconditions(action.getPreconditions(), body, action.arity());
+            this.collectEffects(action.getEffects(), heads, action.arity());
+            final Rule rule = new Rule(parameters, body.toArray(new Atom[0]), heads.toArray(new Atom[0]));
+            for (int j = 0; j < rule.body.length; j++) {
+                this.triggers.get(rule.body[j].predicate).add(new int[] {this.rules.size(), j});
+            }
+            this.rules.add(rule);
+        }
+        for (Expression<Integer> fact : problem.getIntInitialState()) {
+            this.collectInitialFact(fact);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if all the actions can be relaxed. The analysis is not sound when an action has an
+     * effect that cannot be relaxed, e.g., a quantified effect not expanded.
+     *
+     * @return <code>true</code> if all the actions can be relaxed; <code>false</code> otherwise.
+     */
+    boolean isSupported() {
+        return this.supported;
+    }
+
+    /**
+     * Computes the fixpoint of the relaxed reachability.
+     */
+    void compute() {
+        for (Rule rule : this.rules) {
+            if (rule.body.length == 0) {
+                this.fire(rule, rule.newBinding(), 0);
+            }
+        }
+        while (!this.queue.isEmpty()) {
+            final Fact fact = this.queue.poll();
+            this.process(fact);
+            for (int[] trigger : this.triggers.get(fact.predicate)) {
+                final Rule rule = this.rules.get(trigger[0]);
+                final int[] binding = rule.newBinding();
+                if (this.unify(rule, rule.body[trigger[1]], fact.arguments, binding) != null) {
+                    final boolean[] joined = new boolean[rule.body.length];
+                    joined[trigger[1]] = true;
+                    this.join(rule, binding, joined, rule.body.length - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the bindings of the parameters of a specified action reachable in the relaxed problem. The bindings are
+     * sorted in lexicographic order.
+     *
+     * @param action the index of the action.
+     * @return the bindings of the parameters of the action reachable.
+     */
+    List<int[]> getBindings(final int action) {
+        final List<int[]> bindings = this.rules.get(action).bindings;
+        bindings.sort(ReachabilityAnalysis::compare);
+        return bindings;
+    }
+
+    /**
+     * Compares two bindings in lexicographic order.
+     *
+     * @param b1 the first binding.
+     * @param b2 the second binding.
+     * @return a negative integer, zero, or a positive integer as the first binding is less than, equal to, or greater
+     *          than the second binding.
+     */
+    private static int compare(final int[] b1, final int[] b2) {
+        for (int i = 0; i < b1.length; i++) {
+            if (b1[i] != b2[i]) {
+                return Integer.compare(b1[i], b2[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of facts reachable in the relaxed problem.
+     *
+     * @return the number of facts reachable in the relaxed problem.
+     */
+    int getReachableFacts() {
+        return this.discovered.size();
+    }
+
+    /**
+     * Collects the positive atoms that must hold to apply an action. The atoms of the disjunctions, of the negations
+     * and of the numeric constraints are ignored.
+     *
+     * @param exp   the precondition of the action.
+     * @param atoms the list of atoms collected.
+     * @param arity the arity of the action.
+     */
+    private void collectPreconditions(final Expression<Integer> exp, final List<Atom> atoms, final int arity) {
+        switch (exp.getConnector()) {
+            case ATOM:
+                final Atom atom = this.toAtom(exp, arity);
+                if (atom != null) {
+                    atoms.add(atom);
+                }
+                break;
+            case AND:
+                exp.getChildren().forEach(child -> this.collectPreconditions(child, atoms, arity));
+                break;
+            case AT_START:
+            case AT_END:
+            case OVER_ALL:
+                this.collectPreconditions(exp.getChildren().get(0), atoms, arity);
+                break;
+            default:
+                // The other constraints are relaxed
+        }
+    }
+
+    /**
+     * Collects the positive atoms made true by an action. The conditions of the conditional effects are ignored. The
+     * analysis is marked as not supported if an effect can neither be relaxed nor ignored.
+     *
+     * @param exp   the effect of the action.
+     * @param atoms the list of atoms collected.
+     * @param arity the arity of the action.
+     */
+    private void collectEffects(final Expression<Integer> exp, final List<Atom> atoms, final int arity) {
+        switch (exp.getConnector()) {
+            case ATOM:
+                final Atom atom = this.toAtom(exp, arity);
+                if (atom != null) {
+                    atoms.add(atom);
+                } else {
+                    this.supported = false;
+                }
+                break;
+            case AND:
+                exp.getChildren().forEach(child -> this.collectEffects(child, atoms, arity));
+                break;
+            case WHEN:
+                this.collectEffects(exp.getChildren().get(1), atoms, arity);
+                break;
+            case AT_START:
+            case AT_END:
+                this.collectEffects(exp.getChildren().get(0), atoms, arity);
+                break;
+            case NOT:
+            case TRUE:
+            case ASSIGN:
+            case INCREASE:
+            case DECREASE:
+            case SCALE_UP:
+            case SCALE_DOWN:
+                // The deletes and the numeric effects are relaxed
+                break;
+            default:
+                this.supported = false;
+        }
+    }
+
+    /**
+     * Collects a fact of the initial state. The literals timed are considered as true in the initial state.
+     *
+     * @param exp the fact.
+     */
+    private void collectInitialFact(final Expression<Integer> exp) {
+        switch (exp.getConnector()) {
+            case ATOM:
+                final int[] arguments = new int[exp.getArguments().size()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = exp.getArguments().get(i).getValue();
+                }
+                this.discover(new Fact(exp.getSymbol().getValue(), arguments));
+                break;
+            case AND:
+                exp.getChildren().forEach(this::collectInitialFact);
+                break;
+            case TIMED_LITERAL:
+                this.collectInitialFact(exp.getChildren().get(0));
+                break;
+            default:
+                // Only the positive facts are collected
+        }
+    }
+
+    /**
+     * Converts an atomic expression into an atom of a rule.
+     *
+     * @param exp   the atomic expression.
+     * @param arity the arity of the action.
+     * @return the atom or <code>null</code> if an argument is a variable that is not a parameter of the action.
+     */
+    private Atom toAtom(final Expression<Integer> exp, final int arity) {
+        final List<Symbol<Integer>> symbols = exp.getArguments();
+        final int[] arguments = new int[symbols.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = symbols.get(i).getValue();
+            if (arguments[i] < -arity) {
+                return null;
+            }
+        }
+        return new Atom(exp.getSymbol().getValue(), arguments);
+    }
+
+    /**
+     * Adds a fact to the facts discovered if it was not already discovered.
+     *
+     * @param fact the fact.
+     */
+    private void discover(final Fact fact) {
+        if (this.discovered.add(fact)) {
+            this.queue.add(fact);
+        }
+    }
+
+    /**
+     * Adds a fact to the facts processed and to their index.
+     *
+     * @param fact the fact.
+     */
+    private void process(final Fact fact) {
+        this.known.get(fact.predicate).add(fact.arguments);
+        List<List<List<int[]>>> positions = this.index.get(fact.predicate);
+        if (positions == null) {
+            positions = new ArrayList<>(fact.arguments.length);
+            for (int i = 0; i < fact.arguments.length; i++) {
+                final List<List<int[]>> constants = new ArrayList<>(this.nbConstants);
+                for (int c = 0; c < this.nbConstants; c++) {
+                    constants.add(null);
+                }
+                positions.add(constants);
+            }
+            this.index.set(fact.predicate, positions);
+        }
+        for (int i = 0; i < fact.arguments.length; i++) {
+            List<int[]> facts = positions.get(i).get(fact.arguments[i]);
+            if (facts == null) {
+                facts = new ArrayList<>();
+                positions.get(i).set(fact.arguments[i], facts);
+            }
+            facts.add(fact.arguments);
+        }
+    }
+
+    /**
+     * Joins the atoms of a rule not yet joined with the facts processed.
+     *
+     * @param rule      the rule.
+     * @param binding   the binding of the parameters of the rule, -1 for the parameters not bound.
+     * @param joined    the atoms of the body of the rule already joined.
+     * @param remaining the number of atoms not yet joined.
+     */
+    private void join(final Rule rule, final int[] binding, final boolean[] joined, final int remaining) {
+        if (remaining == 0) {
+            this.fire(rule, binding, 0);
+            return;
+        }
+        // Select the atom with the most arguments bound and the fewest candidate facts
+        int next = -1;
+        int nextBound = -1;
+        List<int[]> nextCandidates = null;
+        for (int j = 0; j < rule.body.length; j++) {
+            if (!joined[j]) {
+                final Atom atom = rule.body[j];
+                int bound = 0;
+                List<int[]> candidates = this.known.get(atom.predicate);
+                for (int i = 0; i < atom.arguments.length; i++) {
+                    final int value = this.valueOf(atom.arguments[i], binding);
+                    if (value >= 0) {
+                        bound++;
+                        final List<List<List<int[]>>> positions = this.index.get(atom.predicate);
+                        final List<int[]> facts = positions == null ? null : positions.get(i).get(value);
+                        if (facts == null) {
+                            // No fact can be unified with the atom
+                            return;
+                        }
+                        if (facts.size() < candidates.size()) {
+                            candidates = facts;
+                        }
+                    }
+                }
+                if (bound > nextBound || (bound == nextBound && candidates.size() < nextCandidates.size())) {
+                    next = j;
+                    nextBound = bound;
+                    nextCandidates = candidates;
+                }
+            }
+        }
+        joined[next] = true;
+        for (int[] arguments : nextCandidates) {
+            final int[] assigned = this.unify(rule, rule.body[next], arguments, binding);
+            if (assigned != null) {
+                this.join(rule, binding, joined, remaining - 1);
+                for (int parameter : assigned) {
+                    binding[parameter] = -1;
+                }
+            }
+        }
+        joined[next] = false;
+    }
+
+    /**
+     * Unifies an atom of a rule with the arguments of a fact and binds the parameters of the rule not yet bound.
+     *
+     * @param rule      the rule.
+     * @param atom      the atom.
+     * @param arguments the arguments of the fact.
+     * @param binding   the binding of the parameters of the rule.
+     * @return the parameters bound by the unification or <code>null</code> if the atom cannot be unified with the fact.
+     *          In this case, the binding is unchanged.
+     */
+    private int[] unify(final Rule rule, final Atom atom, final int[] arguments, final int[] binding) {
+        final int[] assigned = new int[arguments.length];
+        int size = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            final int arg = atom.arguments[i];
+            if (arg >= 0) {
+                if (arg != arguments[i]) {
+                    return this.undo(binding, assigned, size);
+                }
+            } else {
+                final int parameter = -arg - 1;
+                if (binding[parameter] == -1) {
+                    if (!rule.parameters[parameter].get(arguments[i])) {
+                        return this.undo(binding, assigned, size);
+                    }
+                    binding[parameter] = arguments[i];
+                    assigned[size++] = parameter;
+                } else if (binding[parameter] != arguments[i]) {
+                    return this.undo(binding, assigned, size);
+                }
+            }
+        }
+        return Arrays.copyOf(assigned, size);
+    }
+
+    /**
+     * Unbinds the parameters bound by a failed unification.
+     *
+     * @param binding  the binding of the parameters.
+     * @param assigned the parameters bound.
+     * @param size     the number of parameters bound.
+     * @return <code>null</code>.
+     */
+    private int[] undo(final int[] binding, final int[] assigned, final int size) {
+        for (int i = 0; i < size; i++) {
+            binding[assigned[i]] = -1;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of an argument of an atom for a specified binding.
+     *
+     * @param arg     the argument.
+     * @param binding the binding of the parameters.
+     * @return the constant of the argument or -1 if the argument is a parameter not bound.
+     */
+    private int valueOf(final int arg, final int[] binding) {
+        return arg >= 0 ? arg : binding[-arg - 1];
+    }
+
+    /**
+     * Fires a rule, i.e., binds the parameters that do not appear in the body of the rule with all the values of
+     * their domain and discovers the heads of the rule for the new bindings.
+     *
+     * @param rule      the rule.
+     * @param binding   the binding of the parameters.
+     * @param parameter the parameter from which the parameters are bound.
+     */
+    private void fire(final Rule rule, final int[] binding, final int parameter) {
+        if (parameter == binding.length) {
+            if (rule.reached.add(new Fact(-1, binding.clone()))) {
+                rule.bindings.add(binding.clone());
+                for (Atom head : rule.heads) {
+                    final int[] arguments = new int[head.arguments.length];
+                    for (int i = 0; i < arguments.length; i++) {
+                        arguments[i] = this.valueOf(head.arguments[i], binding);
+                    }
+                    this.discover(new Fact(head.predicate, arguments));
+                }
+            }
+        } else if (binding[parameter] != -1) {
+            this.fire(rule, binding, parameter + 1);
+        } else {
+            final BitSet domain = rule.parameters[parameter];
+            for (int c = domain.nextSetBit(0); c >= 0; c = domain.nextSetBit(c + 1)) {
+                binding[parameter] = c;
+                this.fire(rule, binding, parameter + 1);
+            }
+            binding[parameter] = -1;
+        }
+    }
+
+    /**
+     * This class implements an atom of a rule. The arguments greater or equal to zero are constants and the negative
+     * arguments are the parameters of the action: the parameter <code>i</code> is encoded by <code>-i - 1</code>.
+     */
+    private static final class Atom {
+
+        /**
+         * The predicate of the atom.
+         */
+        private final int predicate;
+
+        /**
+         * The arguments of the atom.
+         */
+        private final int[] arguments;
+
+        /**
+         * Creates a new atom.
+         *
+         * @param predicate the predicate of the atom.
+         * @param arguments the arguments of the atom.
+         */
+        private Atom(final int predicate, final int[] arguments) {
+            this.predicate = predicate;
+            this.arguments = arguments;
+        }
+    }
+
+    /**
+     * This class implements the rule of an action.
+     */
+    private static final class Rule {
+
+        /**
+         * The domains of the parameters of the action.
+         */
+        private final BitSet[] parameters;
+
+        /**
+         * The body of the rule.
+         */
+        private final Atom[] body;
+
+        /**
+         * The heads of the rule.
+         */
+        private final Atom[] heads;
+
+        /**
+         * The bindings reached.
+         */
+        private final Set<Fact> reached;
+
+        /**
+         * The bindings reached in the order of their discovery.
+         */
+        private final List<int[]> bindings;
+
+        /**
+         * Creates a new rule.
+         *
+         * @param parameters the domains of the parameters of the action.
+         * @param body       the body of the rule.
+         * @param heads      the heads of the rule.
+         */
+        private Rule(final BitSet[] parameters, final Atom[] body, final Atom[] heads) {
+            this.parameters = parameters;
+            this.body = body;
+            this.heads = heads;
+            this.reached = new HashSet<>();
+            this.bindings = new ArrayList<>();
+        }
+
+        /**
+         * Returns a new binding of the parameters where no parameter is bound.
+         *
+         * @return a new binding of the parameters.
+         */
+        private int[] newBinding() {
+            final int[] binding = new int[this.parameters.length];
+            Arrays.fill(binding, -1);
+            return binding;
+        }
+    }
+
+    /**
+     * This class implements a ground fact. The class is also used to store the bindings of the rules.
+     */
+    private static final class Fact {
+
+        /**
+         * The predicate of the fact.
+         */
+        private final int predicate;
+
+        /**
+         * The arguments of the fact.
+         */
+        private final int[] arguments;
+
+        /**
+         * The hash code of the fact.
+         */
+        private final int hashCode;
+
+        /**
+         * Creates a new fact.
+         *
+         * @param predicate the predicate of the fact.
+         * @param arguments the arguments of the fact.
+         */
+        private Fact(final int predicate, final int[] arguments) {
+            this.predicate = predicate;
+            this.arguments = arguments;
+            this.hashCode = 31 * predicate + Arrays.hashCode(arguments);
+        }
+
+        /**
+         * Returns <code>true</code> if this fact is equal to an object.
+         *
+         * @param obj the object to compare.
+         * @return <code>true</code> if this fact is equal to an object; <code>false</code> otherwise.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Fact)) {
+                return false;
+            }
+            final Fact other = (Fact) obj;
+            return this.predicate == other.predicate && Arrays.equals(this.arguments, other.arguments);
+        }
+
+        /**
+         * Returns the hash code of this fact.
+         *
+         * @return the hash code of this fact.
+         */
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.
+ * If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.problem;
+
+import fr.uga.pddl4j.parser.Connector;
+import fr.uga.pddl4j.parser.Expression;
+import fr.uga.pddl4j.problem.operator.IntAction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * This class implements the backward relevance analysis of the instantiated actions of a problem. The atoms of the
+ * goal are relevant. An action is relevant if it adds or deletes a relevant atom, either unconditionally or in a
+ * conditional effect. The atoms of the precondition of a relevant action and the atoms of the conditions of its
+ * effects changing a relevant atom are in turn relevant. The actions that are not relevant in the fixpoint can never
+ * contribute to reach the goal and can be removed from the problem, as well as the atoms that are not relevant and
+ * the conditional effects of the relevant actions that change no relevant atom.
+ * <p>
+ * The numeric effects of the actions are ignored since they cannot make an atom true or false. The analysis is not
+ * supported if an action has a numeric or a temporal condition, or a temporal effect.
+ * </p>
+ *
+ * @author D. Pellier
+ * @version 1.0 - 11.04.2021
+ */
+final class RelevanceAnalysis {
+
+    /**
+     * The actions analyzed.
+     */
+    private final List<IntAction> actions;
+
+    /**
+     * The goal.
+     */
+    private final Expression<Integer> goal;
+
+    /**
+     * The atoms changed by the effects of the actions.
+     */
+    private final GroundAtomTable effects;
+
+    /**
+     * The effects changing each atom of the table of the effects.
+     */
+    private final List<List<Trigger>> triggers;
+
+    /**
+     * The relevant atoms.
+     */
+    private final GroundAtomTable relevant;
+
+    /**
+     * The relevant atoms not yet processed.
+     */
+    private final Deque<Integer> queue;
+
+    /**
+     * The relevant actions.
+     */
+    private final BitSet relevantActions;
+
+    /**
+     * A boolean flag to indicate if the goal and all the actions can be analyzed.
+     */
+    private boolean supported;
+
+    /**
+     * Creates a new relevance analysis of specified actions for a specified goal. The quantified expressions of the
+     * actions and of the goal must be already expanded.
+     *
+     * @param actions the actions.
+     * @param goal    the goal.
+     */
+    RelevanceAnalysis(final List<IntAction> actions, final Expression<Integer> goal) {
+        this.actions = actions;
+        this.goal = goal;
+        this.effects = new GroundAtomTable(actions.size());
+        this.triggers = new ArrayList<>();
+        this.relevant = new GroundAtomTable(actions.size());
+        this.queue = new ArrayDeque<>();
+        this.relevantActions = new BitSet(actions.size());
+        this.supported = this.isCondition(goal);
+        for (int a = 0; a < actions.size() && this.supported; a++) {
+            this.supported = this.isCondition(actions.get(a).getPreconditions())
+                && this.collectEffects(a, actions.get(a).getEffects(), null);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the goal and all the actions can be analyzed.
+     *
+     * @return <code>true</code> if the goal and all the actions can be analyzed; <code>false</code> otherwise.
+     */
+    boolean isSupported() {
+        return this.supported;
+    }
+
+    /**
+     * Computes the fixpoint of the relevance.
+     */
+    void compute() {
+        this.collectAtoms(this.goal);
+        while (!this.queue.isEmpty()) {
+            final int index = this.effects.indexOf(this.relevant.get(this.queue.poll()));
+            if (index != -1) {
+                for (Trigger trigger : this.triggers.get(index)) {
+                    if (!this.relevantActions.get(trigger.action)) {
+                        this.relevantActions.set(trigger.action);
+                        this.collectAtoms(this.actions.get(trigger.action).getPreconditions());
+                    }
+                    if (trigger.condition != null) {
+                        this.collectAtoms(trigger.condition);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns if the action at a specified index is relevant.
+     *
+     * @param action the index of the action.
+     * @return <code>true</code> if the action is relevant; <code>false</code> otherwise.
+     */
+    boolean isRelevant(final int action) {
+        return this.relevantActions.get(action);
+    }
+
+    /**
+     * Returns if all the actions and all the atoms changed by their effects are relevant, i.e., if the analysis
+     * prunes nothing.
+     *
+     * @return <code>true</code> if all the actions and all the atoms changed by their effects are relevant;
+     *          <code>false</code> otherwise.
+     */
+    boolean isComplete() {
+        if (this.relevantActions.cardinality() < this.actions.size()) {
+            return false;
+        }
+        for (int i = 0; i < this.effects.size(); i++) {
+            if (!this.isRelevant(this.effects.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns if a specified ground atom is relevant.
+     *
+     * @param atom the ground atom.
+     * @return <code>true</code> if the atom is relevant; <code>false</code> otherwise.
+     */
+    boolean isRelevant(final Expression<Integer> atom) {
+        return this.relevant.indexOf(atom) != -1;
+    }
+
+    /**
+     * Returns if a specified effect changes a relevant atom or a numeric fluent.
+     *
+     * @param exp the effect.
+     * @return <code>true</code> if the effect changes a relevant atom or a numeric fluent; <code>false</code>
+     *          otherwise.
+     */
+    boolean isRelevantEffect(final Expression<Integer> exp) {
+        switch (exp.getConnector()) {
+            case ATOM:
+                return this.isRelevant(exp);
+            case ASSIGN:
+            case INCREASE:
+            case DECREASE:
+            case SCALE_UP:
+            case SCALE_DOWN:
+                return true;
+            default:
+                return exp.getChildren().stream().anyMatch(this::isRelevantEffect);
+        }
+    }
+
+    /**
+     * Returns if a specified expression is a condition that can be analyzed, i.e., a condition made of atoms,
+     * equalities and logical connectors.
+     *
+     * @param exp the expression.
+     * @return <code>true</code> if the expression can be analyzed; <code>false</code> otherwise.
+     */
+    private boolean isCondition(final Expression<Integer> exp) {
+        switch (exp.getConnector()) {
+            case ATOM:
+            case EQUAL_ATOM:
+            case TRUE:
+            case FALSE:
+                return true;
+            case AND:
+            case OR:
+            case NOT:
+            case IMPLY:
+                return exp.getChildren().stream().allMatch(this::isCondition);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Indexes the atoms changed by an effect of an action.
+     *
+     * @param action    the index of the action.
+     * @param exp       the effect.
+     * @param condition the condition of the effect or <code>null</code> if the effect is unconditional.
+     * @return <code>true</code> if the effect can be analyzed; <code>false</code> otherwise.
+     */
+    private boolean collectEffects(final int action, final Expression<Integer> exp,
+                                   final Expression<Integer> condition) {
+        switch (exp.getConnector()) {
+            case ATOM:
+                int index = this.effects.put(exp);
+                if (index == this.triggers.size()) {
+                    this.triggers.add(new ArrayList<>());
+                }
+                this.triggers.get(index).add(new Trigger(action, condition));
+                return true;
+            case NOT:
+                return exp.getChildren().get(0).getConnector().equals(Connector.ATOM)
+                    && this.collectEffects(action, exp.getChildren().get(0), condition);
+            case AND:
+                for (Expression<Integer> e : exp.getChildren()) {
+                    if (!this.collectEffects(action, e, condition)) {
+                        return false;
+                    }
+                }
+                return true;
+            case WHEN:
+                return condition == null && this.isCondition(exp.getChildren().get(0))
+                    && this.collectEffects(action, exp.getChildren().get(1), exp.getChildren().get(0));
+            case TRUE:
+            case ASSIGN:
+            case INCREASE:
+            case DECREASE:
+            case SCALE_UP:
+            case SCALE_DOWN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Marks as relevant the atoms of a specified condition.
+     *
+     * @param exp the condition.
+     */
+    private void collectAtoms(final Expression<Integer> exp) {
+        if (exp.getConnector().equals(Connector.ATOM)) {
+            if (this.relevant.indexOf(exp) == -1) {
+                this.queue.add(this.relevant.put(exp));
+            }
+        } else {
+            exp.getChildren().forEach(this::collectAtoms);
+        }
+    }
+
+    /**
+     * This class implements an effect of an action changing an atom.
+     */
+    private static final class Trigger {
+
+        /**
+         * The index of the action.
+         */
+        private final int action;
+
+        /**
+         * The condition of the effect or <code>null</code> if the effect is unconditional.
+         */
+        private final Expression<Integer> condition;
+
+        /**
+         * Creates a new trigger.
+         *
+         * @param action    the index of the action.
+         * @param condition the condition of the effect or <code>null</code> if the effect is unconditional.
+         */
+        private Trigger(final int action, final Expression<Integer> condition) {
+            this.action = action;
+            this.condition = condition;
+        }
+    }
+}
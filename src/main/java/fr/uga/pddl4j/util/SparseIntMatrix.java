@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PDDL4J.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class implements a sparse matrix at n-dimension. Only the indexes explicitly set are stored in a hash table
+ * with open addressing. Thus, the memory used by the matrix depends on the number of indexes set and not on
+ * <code>size<sup>dimension</sup></code> as for {@link IntMatrix}. The access to a value takes constant expected time
+ * and does not allocate any object. This class is used to store the predicates tables.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 06.04.2021
+ * @see IntMatrix
+ */
+public final class SparseIntMatrix implements Serializable {
+
+    /**
+     * The serial id of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default capacity of the hash table.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The indexes stored in the hash table. A <code>null</code> slot is empty.
+     */
+    private int[][] keys;
+
+    /**
+     * The values of the indexes stored in the hash table.
+     */
+    private int[] values;
+
+    /**
+     * The number of indexes stored.
+     */
+    private int entries;
+
+    /**
+     * The dimension of the matrix.
+     */
+    private final int dimension;
+
+    /**
+     * The size of the matrix.
+     */
+    private final int size;
+
+    /**
+     * Create a new n-dimensional sparse matrix with a specified size and dimension.
+     *
+     * @param size      the size of the matrix.
+     * @param dimension the dimension of the matrix.
+     * @throws IllegalArgumentException if size &lt; 0.
+     */
+    public SparseIntMatrix(final int size, final int dimension) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0");
+        }
+        this.dimension = dimension;
+        this.size = size;
+        this.keys = new int[SparseIntMatrix.DEFAULT_CAPACITY][];
+        this.values = new int[SparseIntMatrix.DEFAULT_CAPACITY];
+        this.entries = 0;
+    }
+
+    /**
+     * Get the integer at the specified index.
+     *
+     * @param index the index.
+     * @return the integer contained in the matrix at the specified index or 0 if no value was set at the specified
+     *          index.
+     * @throws ArrayIndexOutOfBoundsException if index.length &ne; dimension and for all i 0 &le;
+     *                                        index[i] &lt; size does not hold.
+     */
+    public int get(final int[] index) {
+        final int slot = this.slot(index);
+        return this.keys[slot] == null ? 0 : this.values[slot];
+    }
+
+    /**
+     * Put a new value at a specified index.
+     *
+     * @param index the index.
+     * @param value the integer value to put.
+     * @throws ArrayIndexOutOfBoundsException if index.length &ne; dimension and for all i 0 &le;
+     *                                        index[i] &lt; size does not hold.
+     */
+    public void put(final int[] index, final int value) {
+        final int slot = this.insert(index);
+        this.values[slot] = value;
+    }
+
+    /**
+     * Increment the value at a specified index.
+     *
+     * @param index the index.
+     * @throws ArrayIndexOutOfBoundsException if index.length &ne; dimension and for all i 0 &le;
+     *                                        index[i] &lt; size does not hold.
+     */
+    public void increment(final int[] index) {
+        final int slot = this.insert(index);
+        this.values[slot]++;
+    }
+
+    /**
+     * Set all the value of the matrix to 0.
+     */
+    public void zero() {
+        this.keys = new int[SparseIntMatrix.DEFAULT_CAPACITY][];
+        this.values = new int[SparseIntMatrix.DEFAULT_CAPACITY];
+        this.entries = 0;
+    }
+
+    /**
+     * Return the dimension of the matrix.
+     *
+     * @return the dimension of the matrix.
+     */
+    public int getDimension() {
+        return this.dimension;
+    }
+
+    /**
+     * Return the size of the matrix.
+     *
+     * @return size the size of the matrix.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Return the number of indexes explicitly set in the matrix.
+     *
+     * @return the number of indexes explicitly set in the matrix.
+     */
+    public int getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Returns the slot of the hash table where a specified index is stored and stores the index if it is not already
+     * stored.
+     *
+     * @param index the index.
+     * @return the slot of the index in the hash table.
+     */
+    private int insert(final int[] index) {
+        int slot = this.slot(index);
+        if (this.keys[slot] == null) {
+            if (2 * (this.entries + 1) > this.keys.length) {
+                this.resize();
+                slot = this.slot(index);
+            }
+            this.keys[slot] = index.clone();
+            this.entries++;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the hash table where a specified index is stored or the empty slot where it must be stored.
+     *
+     * @param index the index.
+     * @return the slot of the index in the hash table.
+     * @throws ArrayIndexOutOfBoundsException if index.length &ne; dimension and for all i 0 &le;
+     *                                        index[i] &lt; size does not hold.
+     */
+    private int slot(final int[] index) {
+        if (index.length != this.dimension) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        int hash = 1;
+        for (int value : index) {
+            if (value < 0 || value >= this.size) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            hash = hash * 0x9E3779B1 + value;
+        }
+        // Mix the bits of the hash since the values are small integers
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        final int mask = this.keys.length - 1;
+        int slot = hash & mask;
+        while (this.keys[slot] != null && !Arrays.equals(this.keys[slot], index)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the hash table.
+     */
+    private void resize() {
+        final int[][] oldKeys = this.keys;
+        final int[] oldValues = this.values;
+        this.keys = new int[oldKeys.length << 1][];
+        this.values = new int[oldValues.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                final int slot = this.slot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+}
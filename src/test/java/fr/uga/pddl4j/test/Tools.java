@@ -10,6 +10,9 @@ import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.problem.DefaultProblem;
 import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.LoggerContext;
@@ -29,6 +32,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -144,6 +148,70 @@ public abstract class Tools {
         return null;
     }
 
+    /**
+     * Checks that a sequential plan is valid for a specified problem by applying its actions from the initial state
+     * of the problem. The conditional effects of an action are evaluated in the state before the action.
+     *
+     * @param problem the problem.
+     * @param plan    the plan to check.
+     * @return <code>true</code> if every action of the plan is applicable and the last state satisfies the goal;
+     *          <code>false</code> otherwise.
+     */
+    public static boolean isValid(Problem problem, Plan plan) {
+        final State state = new State(problem.getInitialState());
+        for (Action action : plan.actions()) {
+            if (!action.isApplicable(state)) {
+                return false;
+            }
+            final State before = new State(state);
+            for (ConditionalEffect ce : action.getConditionalEffects()) {
+                if (before.satisfy(ce.getCondition())) {
+                    state.apply(ce.getEffect());
+                }
+            }
+        }
+        return state.satisfy(problem.getGoal());
+    }
+
+    /**
+     * Collects the states reached by random walks from the initial state of a problem. The walks are seeded, so the
+     * same states are collected from one call to another. The conditional effects of an action are evaluated in the
+     * state before the action.
+     *
+     * @param problem the problem.
+     * @param walks   the number of random walks.
+     * @param length  the length of the random walks.
+     * @return the states collected.
+     */
+    public static State[] collectStates(Problem problem, int walks, int length) {
+        final Random random = new Random(0);
+        final List<State> states = new ArrayList<>();
+        final List<Action> applicable = new ArrayList<>();
+        for (int w = 0; w < walks; w++) {
+            final State state = new State(problem.getInitialState());
+            for (int d = 0; d < length; d++) {
+                states.add(new State(state));
+                applicable.clear();
+                for (Action action : problem.getActions()) {
+                    if (action.isApplicable(state)) {
+                        applicable.add(action);
+                    }
+                }
+                if (applicable.isEmpty()) {
+                    break;
+                }
+                final Action action = applicable.get(random.nextInt(applicable.size()));
+                final State before = new State(state);
+                for (ConditionalEffect ce : action.getConditionalEffects()) {
+                    if (before.satisfy(ce.getCondition())) {
+                        state.apply(ce.getEffect());
+                    }
+                }
+            }
+        }
+        return states.toArray(new State[0]);
+    }
+
     /**
      * Change the permissions for PDDL_VAL file (add read, write and execute).
      */
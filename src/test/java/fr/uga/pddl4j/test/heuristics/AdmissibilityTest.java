@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.Statistics;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>AdmissibilityTest</tt> of the PDD4L library. The class checks that A* finds plans of optimal
+ * cost, i.e., of the cost of the plans found by breadth first search on problems with unit costs, with the merge and
+ * shrink, pattern database, critical path, set-level, cost partitioning and admissible landmark count heuristics. It
+ * checks also the statistics of the preprocessing of the heuristics.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 01.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class AdmissibilityTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The admissible heuristics checked.
+     */
+    private static final StateHeuristic.Name[] HEURISTICS = {
+        StateHeuristic.Name.MERGE_AND_SHRINK,
+        StateHeuristic.Name.PATTERN_DATABASE,
+        StateHeuristic.Name.CRITICAL_PATH,
+        StateHeuristic.Name.SET_LEVEL,
+        StateHeuristic.Name.COST_PARTITIONING,
+        StateHeuristic.Name.ADMISSIBLE_LANDMARK_COUNT
+    };
+
+    /**
+     * Method that checks the heuristics using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Admissibility_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkAdmissibility(localTestPath, "p02");
+    }
+
+    /**
+     * Method that checks the heuristics using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Admissibility_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkAdmissibility(localTestPath, "p004");
+    }
+
+    /**
+     * Method that checks the heuristics using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Admissibility_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkAdmissibility(localTestPath, "p01");
+    }
+
+    /**
+     * Solves a specified problem with breadth first search and with A* and each admissible heuristic, and checks that
+     * the plans found have the same cost. The statistics of the preprocessing of the heuristics are checked too: the
+     * merge and shrink heuristic must report the memory of its abstraction.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @throws Exception if something went wrong.
+     */
+    private void checkAdmissibility(final String localTestPath, final String problemName) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Planner bfs = this.getPlanner(localTestPath, problemName, SearchStrategy.Name.BREADTH_FIRST,
+            StateHeuristic.Name.FAST_FORWARD);
+        final double optimal = this.solve(bfs, localTestPath, problemName).cost();
+        Assert.assertEquals(0, bfs.getStatistics().getTimeToPreprocessHeuristic());
+        Assert.assertEquals(0, bfs.getStatistics().getMemoryUsedForHeuristic());
+        for (StateHeuristic.Name heuristic : AdmissibilityTest.HEURISTICS) {
+            final Planner astar = this.getPlanner(localTestPath, problemName, SearchStrategy.Name.ASTAR, heuristic);
+            final Plan plan = this.solve(astar, localTestPath, problemName);
+            Assert.assertEquals(heuristic + " is not admissible on " + problemName, optimal, plan.cost(), 0.0);
+            final Statistics statistics = astar.getStatistics();
+            Assert.assertTrue(statistics.getTimeToPreprocessHeuristic() >= 0);
+            if (heuristic == StateHeuristic.Name.MERGE_AND_SHRINK) {
+                Assert.assertTrue(heuristic + " reports no memory", statistics.getMemoryUsedForHeuristic() > 0);
+            }
+        }
+    }
+
+    /**
+     * Creates a GSP planner for a specified problem, search strategy and heuristic.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @param strategy      the search strategy.
+     * @param heuristic     the heuristic.
+     * @return the planner.
+     */
+    private Planner getPlanner(final String localTestPath, final String problemName,
+                               final SearchStrategy.Name strategy, final StateHeuristic.Name heuristic) {
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.DOMAIN_SETTING, localTestPath + Tools.PDDL_DOMAIN);
+        config.setProperty(Planner.PROBLEM_SETTING, localTestPath + problemName + Tools.PDDL_EXT);
+        config.setProperty(Planner.TIME_OUT_SETTING, AdmissibilityTest.TIMEOUT);
+        config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + strategy + "]");
+        config.setProperty(GSP.HEURISTIC_SETTING, heuristic);
+        return Planner.getInstance(Planner.Name.GSP, config);
+    }
+
+    /**
+     * Solves a specified problem with a planner and checks that the plan found is valid.
+     *
+     * @param planner       the planner.
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @return the plan found.
+     * @throws Exception if something went wrong.
+     */
+    private Plan solve(final Planner planner, final String localTestPath, final String problemName)
+        throws Exception {
+        final String problemFile = localTestPath + problemName + Tools.PDDL_EXT;
+        final DefaultParsedProblem parsedProblem = planner.parse(localTestPath + Tools.PDDL_DOMAIN, problemFile);
+        final Problem problem = planner.instantiate(parsedProblem);
+        final Plan plan = planner.solve(problem);
+        Assert.assertNotNull("no plan found for " + problemFile, plan);
+        Assert.assertTrue("invalid plan for " + problemFile, Tools.isValid(problem, plan));
+        return plan;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics;
+
+import fr.uga.pddl4j.heuristics.state.CostPartitioning;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>CostPartitioningTest</tt> of the PDD4L library. The class checks that the cost partitioning
+ * heuristic does not estimate to zero a state that does not satisfy the goal, and thus that enforced hill climbing,
+ * which stops on the first state estimated to zero, returns valid plans with this heuristic.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 15.03.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CostPartitioningTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * Method that checks the heuristic using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_EnforcedHillClimbing_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkEnforcedHillClimbing(localTestPath, "p02");
+    }
+
+    /**
+     * Method that checks the heuristic using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_EnforcedHillClimbing_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkEnforcedHillClimbing(localTestPath, "p004");
+    }
+
+    /**
+     * Solves a specified problem with enforced hill climbing and the cost partitioning heuristic. The test checks
+     * that the plan is valid and that the heuristic estimates to more than zero all the states of the plan that do not
+     * satisfy the goal.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @throws Exception if something went wrong.
+     */
+    private void checkEnforcedHillClimbing(final String localTestPath, final String problemName) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final String domain = localTestPath + Tools.PDDL_DOMAIN;
+        final String problemFile = localTestPath + problemName + Tools.PDDL_EXT;
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.DOMAIN_SETTING, domain);
+        config.setProperty(Planner.PROBLEM_SETTING, problemFile);
+        config.setProperty(Planner.TIME_OUT_SETTING, CostPartitioningTest.TIMEOUT);
+        config.setProperty(GSP.SEARCH_STRATEGIES_SETTING,
+            "[" + SearchStrategy.Name.ENFORCED_HILL_CLIMBING + "]");
+        config.setProperty(GSP.HEURISTIC_SETTING, StateHeuristic.Name.COST_PARTITIONING);
+        final Planner planner = Planner.getInstance(Planner.Name.GSP, config);
+        final DefaultParsedProblem parsedProblem = planner.parse(domain, problemFile);
+        final Problem problem = planner.instantiate(parsedProblem);
+        final Plan plan = planner.solve(problem);
+        Assert.assertNotNull("no plan found for " + problemFile, plan);
+        Assert.assertTrue("invalid plan for " + problemFile, Tools.isValid(problem, plan));
+
+        final CostPartitioning heuristic = new CostPartitioning(problem);
+        final State state = new State(problem.getInitialState());
+        for (Action action : plan.actions()) {
+            if (!state.satisfy(problem.getGoal())) {
+                Assert.assertTrue(heuristic.estimate(state, problem.getGoal()) > 0);
+            }
+            final State before = new State(state);
+            for (ConditionalEffect ce : action.getConditionalEffects()) {
+                if (before.satisfy(ce.getCondition())) {
+                    state.apply(ce.getEffect());
+                }
+            }
+        }
+        Assert.assertEquals(0, heuristic.estimate(state, problem.getGoal()));
+    }
+}
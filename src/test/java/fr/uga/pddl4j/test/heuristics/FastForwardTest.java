@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics;
+
+import fr.uga.pddl4j.heuristics.state.FastForward;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.problem.operator.ConditionalEffect;
+import fr.uga.pddl4j.test.Tools;
+import fr.uga.pddl4j.util.BitVector;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implements the <tt>FastForwardTest</tt> of the PDD4L library. The class checks that the fast forward heuristic
+ * gives the same estimations as a reference extraction of the relaxed plans and that the evaluation of the states does
+ * not allocate any object once the heuristic is created. The states evaluated are collected by random walks from the
+ * initial state of problems of IPC.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 29.03.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FastForwardTest {
+
+    /**
+     * The number of random walks used to collect the states to evaluate.
+     */
+    private static final int WALKS = 20;
+
+    /**
+     * The length of the random walks.
+     */
+    private static final int LENGTH = 20;
+
+    /**
+     * The number of evaluations of the states used to warm up the heuristic.
+     */
+    private static final int WARM_UP = 20;
+
+    /**
+     * The number of evaluations of the states measured.
+     */
+    private static final int RUNS = 10;
+
+    /**
+     * Method that checks the estimations of the heuristic using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Estimate_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkEstimate(localTestPath, "p02");
+    }
+
+    /**
+     * Method that checks the estimations of the heuristic using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Estimate_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        this.checkEstimate(localTestPath, "p05");
+    }
+
+    /**
+     * Method that checks the estimations of the heuristic using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Estimate_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkEstimate(localTestPath, "p03");
+    }
+
+    /**
+     * Method that checks the allocations of the heuristic using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Allocation_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        this.checkAllocation(localTestPath, "p05");
+    }
+
+    /**
+     * Method that checks the allocations of the heuristic using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Allocation_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkAllocation(localTestPath, "p03");
+    }
+
+    /**
+     * Checks that the evaluation of states collected on a specified problem does not allocate any object after the
+     * warm up of the heuristic.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     */
+    private void checkAllocation(final String localTestPath, final String problemName) {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + problemName + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        final FastForward heuristic = new FastForward(problem);
+        final State[] states = Tools.collectStates(problem, FastForwardTest.WALKS, FastForwardTest.LENGTH);
+
+        final long thread = Thread.currentThread().getId();
+        long sum = 0;
+        for (int i = 0; i < FastForwardTest.WARM_UP; i++) {
+            sum += this.evaluate(heuristic, states, problem);
+        }
+        // The allocations of the measure itself
+        final long start = threads.getThreadAllocatedBytes(thread);
+        final long before = threads.getThreadAllocatedBytes(thread);
+        final long overhead = before - start;
+        for (int i = 0; i < FastForwardTest.RUNS; i++) {
+            sum += this.evaluate(heuristic, states, problem);
+        }
+        final long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+        final long evaluations = (long) states.length * FastForwardTest.RUNS;
+        Assert.assertTrue(sum > 0);
+        // The runtime may allocate a few bytes on the thread, e.g., for the compilation: the test fails only if
+        // the evaluations allocate on average
+        Assert.assertTrue(allocated + " bytes allocated by " + evaluations + " evaluations",
+            allocated < evaluations);
+    }
+
+    /**
+     * Evaluates all the specified states.
+     *
+     * @param heuristic the heuristic.
+     * @param states    the states to evaluate.
+     * @param problem   the problem.
+     * @return the sum of the values of the states.
+     */
+    private long evaluate(final FastForward heuristic, final State[] states, final Problem problem) {
+        long sum = 0;
+        for (State state : states) {
+            sum += heuristic.estimate(state, problem.getGoal());
+        }
+        return sum;
+    }
+
+    /**
+     * Checks that the heuristic gives the same estimations as the reference extraction of the relaxed plans on the
+     * states collected on a specified problem.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     */
+    private void checkEstimate(final String localTestPath, final String problemName) {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + problemName + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        final FastForward heuristic = new FastForward(problem);
+        final State[] states = Tools.collectStates(problem, FastForwardTest.WALKS, FastForwardTest.LENGTH);
+        for (State state : states) {
+            Assert.assertEquals(this.reference(problem, state, problem.getGoal()),
+                heuristic.estimate(state, problem.getGoal()));
+        }
+    }
+
+    /**
+     * Computes the length of the relaxed plan extracted from a specified state. The planning graph is expanded
+     * ignoring the delete effects until the goal is reached and the plan is extracted backward level by level: each
+     * goal without NOOP is supported by its achiever of minimal difficulty, i.e., the sum of the levels of its
+     * preconditions. Each conditional effect of an action is treated as a separate action. This straightforward
+     * implementation allocates its structures at each call and serves as a reference for the heuristic.
+     *
+     * @param problem the problem.
+     * @param state   the state to evaluate.
+     * @param goal    the goal.
+     * @return the number of actions of the relaxed plan or <code>Integer.MAX_VALUE</code> if the goal is not
+     *      reachable.
+     */
+    private int reference(final Problem problem, final State state, final Condition goal) {
+        final int nbFacts = problem.getFluents().size();
+        final List<BitVector> pPre = new ArrayList<>();
+        final List<BitVector> nPre = new ArrayList<>();
+        final List<BitVector> pEff = new ArrayList<>();
+        final List<BitVector> nEff = new ArrayList<>();
+        for (Action action : problem.getActions()) {
+            for (ConditionalEffect ce : action.getConditionalEffects()) {
+                final BitVector p = new BitVector();
+                p.or(action.getPrecondition().getPositiveFluents());
+                p.or(ce.getCondition().getPositiveFluents());
+                pPre.add(p);
+                final BitVector n = new BitVector();
+                n.or(action.getPrecondition().getNegativeFluents());
+                n.or(ce.getCondition().getNegativeFluents());
+                nPre.add(n);
+                pEff.add(ce.getEffect().getPositiveFluents());
+                nEff.add(ce.getEffect().getNegativeFluents());
+            }
+        }
+        final int nbOperators = pPre.size();
+        final BitVector pGoal = goal.getPositiveFluents();
+        final BitVector nGoal = goal.getNegativeFluents();
+
+        // Expansion of the relaxed planning graph
+        final int[] pLevel = new int[nbFacts];
+        final int[] nLevel = new int[nbFacts];
+        final int[] opLevel = new int[nbOperators];
+        final int[] difficulty = new int[nbOperators];
+        Arrays.fill(pLevel, Integer.MAX_VALUE);
+        Arrays.fill(nLevel, Integer.MAX_VALUE);
+        Arrays.fill(opLevel, Integer.MAX_VALUE);
+        final BitVector pReached = new BitVector();
+        pReached.or(state);
+        final BitVector nReached = new BitVector();
+        nReached.set(0, nbFacts);
+        nReached.andNot(state);
+        BitVector pNew = new BitVector(pReached);
+        BitVector nNew = new BitVector(nReached);
+        pNew.stream().forEach(p -> pLevel[p] = 0);
+        nNew.stream().forEach(p -> nLevel[p] = 0);
+        int level = 0;
+        while (!(this.isReached(pGoal, pReached) && this.isReached(nGoal, nReached))
+            && (!pNew.isEmpty() || !nNew.isEmpty())) {
+            final BitVector pNext = new BitVector();
+            final BitVector nNext = new BitVector();
+            for (int o = 0; o < nbOperators; o++) {
+                final boolean applicable = this.isReached(pPre.get(o), pReached)
+                    && this.isReached(nPre.get(o), nReached);
+                // An action is added to the level where its last precondition appears. The actions without
+                // precondition are added to every level
+                final boolean added = pPre.get(o).isEmpty() && nPre.get(o).isEmpty()
+                    || pPre.get(o).intersects(pNew) || nPre.get(o).intersects(nNew);
+                if (applicable && added) {
+                    opLevel[o] = level;
+                    difficulty[o] = pPre.get(o).stream().map(p -> pLevel[p]).sum()
+                        + nPre.get(o).stream().map(p -> nLevel[p]).sum();
+                    pNext.or(pEff.get(o));
+                    nNext.or(nEff.get(o));
+                }
+            }
+            pNext.andNot(pReached);
+            nNext.andNot(nReached);
+            level++;
+            final int next = level;
+            pNext.stream().forEach(p -> pLevel[p] = next);
+            nNext.stream().forEach(p -> nLevel[p] = next);
+            pReached.or(pNext);
+            nReached.or(nNext);
+            pNew = pNext;
+            nNew = nNext;
+        }
+        if (!this.isReached(pGoal, pReached) || !this.isReached(nGoal, nReached)) {
+            return Integer.MAX_VALUE;
+        }
+
+        // Extraction of the relaxed plan
+        final BitVector[] pGoals = new BitVector[level + 1];
+        final BitVector[] nGoals = new BitVector[level + 1];
+        for (int k = 0; k <= level; k++) {
+            pGoals[k] = new BitVector();
+            nGoals[k] = new BitVector();
+        }
+        pGoal.stream().forEach(g -> pGoals[pLevel[g]].set(g));
+        nGoal.stream().forEach(g -> nGoals[nLevel[g]].set(g));
+        int value = 0;
+        for (int k = level; k > 0; k--) {
+            for (int positive = 1; positive >= 0; positive--) {
+                final BitVector gk = positive == 1 ? pGoals[k] : nGoals[k];
+                for (int g = gk.nextSetBit(0); g >= 0; g = gk.nextSetBit(g + 1)) {
+                    int resolver = -1;
+                    for (int o = 0; o < nbOperators; o++) {
+                        final BitVector eff = positive == 1 ? pEff.get(o) : nEff.get(o);
+                        if (eff.get(g) && opLevel[o] < k
+                            && (resolver == -1 || difficulty[o] < difficulty[resolver])) {
+                            resolver = o;
+                        }
+                    }
+                    if (resolver != -1) {
+                        for (int p = pPre.get(resolver).nextSetBit(0); p >= 0;
+                             p = pPre.get(resolver).nextSetBit(p + 1)) {
+                            if (pLevel[p] != 0) {
+                                pGoals[pLevel[p]].set(p);
+                            }
+                        }
+                        for (int p = nPre.get(resolver).nextSetBit(0); p >= 0;
+                             p = nPre.get(resolver).nextSetBit(p + 1)) {
+                            if (nLevel[p] != 0) {
+                                nGoals[nLevel[p]].set(p);
+                            }
+                        }
+                        // The effects of the resolver are true at the levels k and k - 1
+                        pGoals[k - 1].andNot(pEff.get(resolver));
+                        nGoals[k - 1].andNot(nEff.get(resolver));
+                        pGoals[k].andNot(pEff.get(resolver));
+                        nGoals[k].andNot(nEff.get(resolver));
+                        value++;
+                    } else if (positive == 1) {
+                        pGoals[k - 1].clear(g);
+                        pGoals[k].clear(g);
+                    } else {
+                        nGoals[k - 1].set(g);
+                        nGoals[k].clear(g);
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns <code>true</code> if all the facts of a set are reached.
+     *
+     * @param facts   the facts.
+     * @param reached the facts reached.
+     * @return <code>true</code> if all the facts of a set are reached.
+     */
+    private boolean isReached(final BitVector facts, final BitVector reached) {
+        final BitVector missing = new BitVector(facts);
+        missing.andNot(reached);
+        return missing.isEmpty();
+    }
+}
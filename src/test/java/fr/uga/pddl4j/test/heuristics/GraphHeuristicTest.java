@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Implements the <tt>GraphHeuristicTest</tt> of the PDD4L library. The class checks the values of the set-level and
+ * sum mutex heuristics on a small problem where they can be computed by hand. A robot at <code>a</code> must visit
+ * <code>b</code> and <code>c</code> and can only move from <code>a</code> to <code>b</code>, from <code>a</code> to
+ * <code>c</code> and from <code>b</code> to <code>c</code>. From the initial state, the two moves from <code>a</code>
+ * are dependent, so <code>(visited b)</code> and <code>(visited c)</code> first appear at level 1 but are mutex at this
+ * level. They are no longer mutex at level 2, where <code>(visited c)</code> is also produced by the move from
+ * <code>b</code>, which is independent of the NOOP of <code>(visited b)</code>.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 30.03.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class GraphHeuristicTest {
+
+    /**
+     * The domain of the problem.
+     */
+    private static final String DOMAIN = "(define (domain visit)\n"
+        + "  (:requirements :strips)\n"
+        + "  (:predicates (at ?l) (visited ?l) (connected ?x ?y))\n"
+        + "  (:action move\n"
+        + "    :parameters (?from ?to)\n"
+        + "    :precondition (and (at ?from) (connected ?from ?to))\n"
+        + "    :effect (and (at ?to) (not (at ?from)) (visited ?to))))\n";
+
+    /**
+     * The problem.
+     */
+    private static final String PROBLEM = "(define (problem visit-bc)\n"
+        + "  (:domain visit)\n"
+        + "  (:objects a b c)\n"
+        + "  (:init (at a) (connected a b) (connected a c) (connected b c))\n"
+        + "  (:goal (and (visited b) (visited c))))\n";
+
+    /**
+     * The temporary folder where the domain and the problem are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The problem instantiated.
+     */
+    private Problem problem;
+
+    /**
+     * Writes and instantiates the problem.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Before
+    public void initTest() throws Exception {
+        final File domain = new File(this.folder.getRoot(), Tools.PDDL_DOMAIN);
+        final File problem = new File(this.folder.getRoot(), "p01" + Tools.PDDL_EXT);
+        Files.write(domain.toPath(), GraphHeuristicTest.DOMAIN.getBytes(StandardCharsets.UTF_8));
+        Files.write(problem.toPath(), GraphHeuristicTest.PROBLEM.getBytes(StandardCharsets.UTF_8));
+        this.problem = Tools.generateCodedProblem(domain.getPath(), problem.getPath());
+        Assert.assertNotNull(this.problem);
+        this.problem.instantiate();
+    }
+
+    /**
+     * Checks the set-level heuristic. From the initial state, the goal is reached without mutex at level 2. After the
+     * move to <code>b</code>, <code>(visited c)</code> is reached at level 1. The goal is reached at level 0 in a goal
+     * state. After the move to <code>c</code>, no action is applicable and <code>(visited b)</code> is unreachable.
+     */
+    @Test
+    public void test_SetLevel() {
+        this.check(StateHeuristic.Name.SET_LEVEL, 2, 1, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks the sum mutex heuristic, i.e., the sum of the first levels of the goal propositions. From the initial
+     * state, <code>(visited b)</code> and <code>(visited c)</code> both appear at level 1. After the move to
+     * <code>b</code>, <code>(visited b)</code> is at level 0 and <code>(visited c)</code> at level 1. The goal
+     * propositions are at level 0 in a goal state. After the move to <code>c</code>, the goal is unreachable.
+     */
+    @Test
+    public void test_SumMutex() {
+        this.check(StateHeuristic.Name.SUM_MUTEX, 2, 1, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks the values of a heuristic in the initial state, after the move to <code>b</code>, in a goal state and
+     * after the move to <code>c</code>. Each state is evaluated with a new heuristic and with the same heuristic to
+     * check that an evaluation does not depend on the previous ones.
+     *
+     * @param name     the name of the heuristic.
+     * @param init     the expected value in the initial state.
+     * @param atB      the expected value after the move to <code>b</code>.
+     * @param goal     the expected value in a goal state.
+     * @param deadEnd  the expected value after the move to <code>c</code>.
+     */
+    private void check(final StateHeuristic.Name name, final int init, final int atB, final int goal,
+                       final int deadEnd) {
+        final State[] states = {
+            this.state("(at a)"),
+            this.state("(at b)", "(visited b)"),
+            this.state("(visited b)", "(visited c)"),
+            this.state("(visited c)")
+        };
+        final int[] expected = {init, atB, goal, deadEnd};
+        final StateHeuristic shared = StateHeuristic.getInstance(name, this.problem);
+        for (int i = 0; i < states.length; i++) {
+            final StateHeuristic fresh = StateHeuristic.getInstance(name, this.problem);
+            Assert.assertEquals(name + " on state " + i, expected[i],
+                fresh.estimate(states[i], this.problem.getGoal()));
+        }
+        for (int run = 0; run < 2; run++) {
+            for (int i = states.length - 1; i >= 0; i--) {
+                Assert.assertEquals(name + " on state " + i + " after other evaluations", expected[i],
+                    shared.estimate(states[i], this.problem.getGoal()));
+            }
+        }
+    }
+
+    /**
+     * Creates the state where only the specified fluents are true.
+     *
+     * @param fluents the string representation of the fluents.
+     * @return the state.
+     */
+    private State state(final String... fluents) {
+        final State state = new State();
+        for (String fluent : fluents) {
+            int index = -1;
+            for (int i = 0; i < this.problem.getFluents().size() && index == -1; i++) {
+                if (this.problem.toString(this.problem.getFluents().get(i)).equals(fluent)) {
+                    index = i;
+                }
+            }
+            Assert.assertTrue(fluent + " is not a fluent", index != -1);
+            state.set(index);
+        }
+        return state;
+    }
+}
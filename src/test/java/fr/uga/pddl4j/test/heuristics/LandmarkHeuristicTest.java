@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>LandmarkHeuristicTest</tt> of the PDD4L library. The class checks that the landmark count
+ * heuristics give the same estimation to a node whether the ancestors of the node were evaluated before or not. The
+ * nodes are the states of a long random walk from the initial state of problems of IPC, so that the landmarks of a
+ * node evaluated first must be accepted along a deep path.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 30.03.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LandmarkHeuristicTest {
+
+    /**
+     * The length of the random walk.
+     */
+    private static final int DEPTH = 100000;
+
+    /**
+     * The landmark heuristics checked.
+     */
+    private static final StateHeuristic.Name[] HEURISTICS = {
+        StateHeuristic.Name.LANDMARK_COUNT,
+        StateHeuristic.Name.ADMISSIBLE_LANDMARK_COUNT
+    };
+
+    /**
+     * Method that checks the heuristics using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_DeepPath_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkDeepPath(localTestPath, "p02");
+    }
+
+    /**
+     * Method that checks the heuristics using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_DeepPath_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkDeepPath(localTestPath, "p004");
+    }
+
+    /**
+     * Checks that the estimation of the last node of a random walk is the same when the node is evaluated first and
+     * when its ancestors are evaluated one by one from the root.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     */
+    private void checkDeepPath(final String localTestPath, final String problemName) {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + problemName + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        final State[] states = Tools.collectStates(problem, 1, LandmarkHeuristicTest.DEPTH);
+        Assert.assertEquals(LandmarkHeuristicTest.DEPTH, states.length);
+        for (StateHeuristic.Name name : LandmarkHeuristicTest.HEURISTICS) {
+            final StateHeuristic cold = StateHeuristic.getInstance(name, problem);
+            final double deep = cold.estimate(this.path(states), problem.getGoal());
+            final StateHeuristic warm = StateHeuristic.getInstance(name, problem);
+            Node node = null;
+            double last = 0.0;
+            for (int i = 0; i < states.length; i++) {
+                node = new Node(states[i], node, -1, i, i, 0.0);
+                last = warm.estimate(node, problem.getGoal());
+            }
+            Assert.assertEquals(name + " on " + problemName, last, deep, 0.0);
+        }
+    }
+
+    /**
+     * Creates the nodes of a path through specified states and returns the last one.
+     *
+     * @param states the states of the path.
+     * @return the last node of the path.
+     */
+    private Node path(final State[] states) {
+        Node node = null;
+        for (int i = 0; i < states.length; i++) {
+            node = new Node(states[i], node, -1, i, i, 0.0);
+        }
+        return node;
+    }
+}
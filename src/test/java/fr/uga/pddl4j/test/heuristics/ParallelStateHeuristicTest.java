@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.heuristics;
+
+import fr.uga.pddl4j.heuristics.state.ParallelStateHeuristic;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>ParallelStateHeuristicTest</tt> of the PDD4L library. The class checks that the batch evaluation
+ * in parallel gives the same estimations as the sequential evaluation, that the searches evaluating the successors of
+ * the nodes in parallel find the same plans as the sequential searches and that the threads of the heuristic are
+ * stopped at the end of the search.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 22.02.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ParallelStateHeuristicTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The number of threads used to evaluate the heuristic.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * The name of the threads of the heuristic.
+     */
+    private static final String WORKER = "heuristic-worker";
+
+    /**
+     * The maximal time waited for the threads of the heuristic to stop in milliseconds.
+     */
+    private static final long SHUTDOWN_DELAY = 5000;
+
+    /**
+     * The number of random walks used to collect the states evaluated in batch.
+     */
+    private static final int WALKS = 40;
+
+    /**
+     * The length of the random walks.
+     */
+    private static final int LENGTH = 20;
+
+    /**
+     * Method that checks the batch evaluation using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Batch_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + "p05" + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        final State[] states = Tools.collectStates(problem, ParallelStateHeuristicTest.WALKS,
+            ParallelStateHeuristicTest.LENGTH);
+        final StateHeuristic sequential = StateHeuristic.getInstance(StateHeuristic.Name.FAST_FORWARD, problem);
+        final ParallelStateHeuristic parallel = new ParallelStateHeuristic(StateHeuristic.Name.FAST_FORWARD, problem,
+            ParallelStateHeuristicTest.THREADS);
+        final int[] values = new int[states.length];
+        parallel.estimate(states, problem.getGoal(), values);
+        parallel.shutdown();
+        for (int i = 0; i < states.length; i++) {
+            Assert.assertEquals(sequential.estimate(states[i], problem.getGoal()), values[i]);
+        }
+    }
+
+    /**
+     * Method that checks the parallel evaluation using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Parallel_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkParallelEvaluation(localTestPath, "p03", SearchStrategy.Name.GREEDY_BEST_FIRST);
+        this.checkParallelEvaluation(localTestPath, "p03", SearchStrategy.Name.BFWS);
+    }
+
+    /**
+     * Method that checks the parallel evaluation using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Parallel_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        this.checkParallelEvaluation(localTestPath, "p05", SearchStrategy.Name.GREEDY_BEST_FIRST);
+        this.checkParallelEvaluation(localTestPath, "p05", SearchStrategy.Name.BFWS);
+    }
+
+    /**
+     * Solves a problem with one and several heuristic threads and checks that the plans found are valid and equal, and
+     * that no thread of the heuristic is alive after the search.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @param strategy      the search strategy.
+     * @throws Exception if something went wrong.
+     */
+    private void checkParallelEvaluation(final String localTestPath, final String problemName,
+                                         final SearchStrategy.Name strategy) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Plan sequential = this.solve(localTestPath, problemName, strategy, 1);
+        final Plan parallel = this.solve(localTestPath, problemName, strategy, ParallelStateHeuristicTest.THREADS);
+        Assert.assertEquals(sequential.actions(), parallel.actions());
+        final long end = System.currentTimeMillis() + ParallelStateHeuristicTest.SHUTDOWN_DELAY;
+        while (this.isWorkerAlive() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse("heuristic threads still alive after the search", this.isWorkerAlive());
+    }
+
+    /**
+     * Solves a problem with the fast forward heuristic and a specified number of heuristic threads.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @param strategy      the search strategy.
+     * @param threads       the number of heuristic threads.
+     * @return the plan found.
+     * @throws Exception if something went wrong.
+     */
+    private Plan solve(final String localTestPath, final String problemName, final SearchStrategy.Name strategy,
+                       final int threads) throws Exception {
+        final String domain = localTestPath + Tools.PDDL_DOMAIN;
+        final String problemFile = localTestPath + problemName + Tools.PDDL_EXT;
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.DOMAIN_SETTING, domain);
+        config.setProperty(Planner.PROBLEM_SETTING, problemFile);
+        config.setProperty(Planner.TIME_OUT_SETTING, ParallelStateHeuristicTest.TIMEOUT);
+        config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + strategy + "]");
+        config.setProperty(GSP.HEURISTIC_SETTING, StateHeuristic.Name.FAST_FORWARD);
+        config.setProperty(GSP.HEURISTIC_THREADS_SETTING, threads);
+        final Planner planner = Planner.getInstance(Planner.Name.GSP, config);
+        final DefaultParsedProblem parsedProblem = planner.parse(domain, problemFile);
+        final Problem problem = planner.instantiate(parsedProblem);
+        final Plan plan = planner.solve(problem);
+        Assert.assertNotNull("no plan found for " + problemFile, plan);
+        Assert.assertTrue("invalid plan for " + problemFile, Tools.isValid(problem, plan));
+        return plan;
+    }
+
+    /**
+     * Returns <code>true</code> if a thread of a heuristic evaluating in parallel is alive.
+     *
+     * @return <code>true</code> if a thread of a heuristic evaluating in parallel is alive.
+     */
+    private boolean isWorkerAlive() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && ParallelStateHeuristicTest.WORKER.equals(thread.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
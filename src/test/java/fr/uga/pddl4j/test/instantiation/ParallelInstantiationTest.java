@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.instantiation;
+
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implements the <tt>ParallelInstantiationTest</tt> of the PDD4L library. The class checks that the actions grounded
+ * in parallel and their indices are the same from one instantiation of a problem to another.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 04.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ParallelInstantiationTest {
+
+    /**
+     * The number of instantiations of the problems compared.
+     */
+    private static final int RUNS = 5;
+
+    /**
+     * Method that checks the instantiation using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Determinism_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkDeterminism(localTestPath, "p05");
+    }
+
+    /**
+     * Method that checks the instantiation using IPC 2002 Driverlog STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Determinism_IPC2002_Driverlog_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/driverlog/strips-automatic" + File.separator;
+        this.checkDeterminism(localTestPath, "p09");
+    }
+
+    /**
+     * Checks that several instantiations of a specified problem produce the same actions in the same order.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     */
+    private void checkDeterminism(final String localTestPath, final String problemName) {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final List<String> expected = this.instantiate(localTestPath, problemName);
+        Assert.assertFalse(expected.isEmpty());
+        for (int i = 1; i < ParallelInstantiationTest.RUNS; i++) {
+            Assert.assertEquals(expected, this.instantiate(localTestPath, problemName));
+        }
+    }
+
+    /**
+     * Instantiates a specified problem and returns the string representations of its actions.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @return the string representations of the actions of the problem in the order of their indices.
+     */
+    private List<String> instantiate(final String localTestPath, final String problemName) {
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + problemName + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        final List<String> actions = new ArrayList<>();
+        for (Action action : problem.getActions()) {
+            actions.add(problem.toString(action));
+        }
+        return actions;
+    }
+}
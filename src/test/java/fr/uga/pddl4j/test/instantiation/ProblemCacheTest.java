@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.instantiation;
+
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.parser.ErrorManager;
+import fr.uga.pddl4j.parser.Message;
+import fr.uga.pddl4j.parser.Parser;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.AbstractAtomicFormula;
+import fr.uga.pddl4j.problem.DefaultProblem;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.ProblemCache;
+import fr.uga.pddl4j.problem.Task;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.problem.operator.Method;
+import fr.uga.pddl4j.problem.operator.TaskNetwork;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implements the <tt>ProblemCacheTest</tt> of the PDD4L library. The class checks that the problems saved in the
+ * cache are loaded with the same actions, fluents, initial state, goal and methods, that the corrupted files and the
+ * files of another version of the format are rejected with an <code>IOException</code>, and that the planners fall
+ * back to the full instantiation when the file of the cache cannot be loaded.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 10.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ProblemCacheTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The temporary directory of the cache.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Method that checks that a corrupted file is rejected using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Corrupted_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        final File file = this.save(localTestPath + Tools.PDDL_DOMAIN, localTestPath + "p01" + Tools.PDDL_EXT);
+        final byte[] content = Files.readAllBytes(file.toPath());
+        // A truncated file
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length / 2));
+        this.checkRejected(file);
+        // A file with trailing bytes
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length + 8));
+        this.checkRejected(file);
+        // A file with a wrong magic number
+        Files.write(file.toPath(), content);
+        this.overwrite(file, 0, 0);
+        this.checkRejected(file);
+    }
+
+    /**
+     * Method that checks that the planner falls back to the full instantiation when the file of the cache is
+     * corrupted using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Fallback_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final File domain = new File(localTestPath + Tools.PDDL_DOMAIN);
+        final File problem = new File(localTestPath + "p01" + Tools.PDDL_EXT);
+        final File file = ProblemCache.getFile(this.folder.getRoot(), domain, problem);
+        Files.write(file.toPath(), new byte[] {1, 2, 3});
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.DOMAIN_SETTING, domain.getPath());
+        config.setProperty(Planner.PROBLEM_SETTING, problem.getPath());
+        config.setProperty(Planner.TIME_OUT_SETTING, ProblemCacheTest.TIMEOUT);
+        config.setProperty(Planner.CACHE_SETTING, this.folder.getRoot().getPath());
+        final Plan plan = Planner.getInstance(Planner.Name.GSP, config).solve();
+        Assert.assertNotNull("no plan found after the fallback to the instantiation", plan);
+        // The corrupted file is replaced by the problem instantiated
+        final Problem expected = this.instantiate(domain.getPath(), problem.getPath());
+        this.checkEquals(expected, ProblemCache.load(file));
+    }
+
+    /**
+     * Method that checks the saving and the loading of a problem using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_SaveAndLoad_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkSaveAndLoad(localTestPath + Tools.PDDL_DOMAIN, localTestPath + "p02" + Tools.PDDL_EXT);
+    }
+
+    /**
+     * Method that checks the saving and the loading of a problem using IPC 2000 Logistics STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_SaveAndLoad_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        this.checkSaveAndLoad(localTestPath + Tools.PDDL_DOMAIN, localTestPath + "p01" + Tools.PDDL_EXT);
+    }
+
+    /**
+     * Method that checks the saving and the loading of a problem using IPC 2020 Rover HDDL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_SaveAndLoad_IPC2020_HDDL_Rover() throws Exception {
+        final String localTestPath = Tools.HDDL_BENCH_DIR + "ipc2020/rover" + File.separator;
+        this.checkSaveAndLoad(localTestPath + Tools.HDDL_DOMAIN, localTestPath + "p01" + Tools.HDDL_EXT);
+    }
+
+    /**
+     * Method that checks that a file of another version of the format is rejected using IPC 2000 Logistics STRIPS
+     * typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Version_IPC2000_Logistics_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/logistics/strips-typed" + File.separator;
+        final File file = this.save(localTestPath + Tools.PDDL_DOMAIN, localTestPath + "p01" + Tools.PDDL_EXT);
+        // The version is written after the magic number
+        this.overwrite(file, 4, Integer.MAX_VALUE);
+        this.checkRejected(file);
+    }
+
+    /**
+     * Saves a specified problem in the cache, loads it and checks that the problem loaded is equal to the problem
+     * saved.
+     *
+     * @param domain  the domain file.
+     * @param problem the problem file.
+     * @throws Exception if something went wrong.
+     */
+    private void checkSaveAndLoad(final String domain, final String problem) throws Exception {
+        final Problem expected = this.instantiate(domain, problem);
+        final File file = this.save(domain, problem);
+        this.checkEquals(expected, ProblemCache.load(file));
+    }
+
+    /**
+     * Instantiates a specified problem and saves it in the cache.
+     *
+     * @param domain  the domain file.
+     * @param problem the problem file.
+     * @return the file of the cache.
+     * @throws Exception if something went wrong.
+     */
+    private File save(final String domain, final String problem) throws Exception {
+        Assert.assertTrue("missing benchmark [file: " + problem + "] test skipped !",
+            Tools.isBenchmarkExist(problem));
+        final Problem pb = this.instantiate(domain, problem);
+        Assert.assertTrue(ProblemCache.isSupported(pb));
+        final File file = ProblemCache.getFile(this.folder.getRoot(), new File(domain), new File(problem));
+        ProblemCache.save(pb, file);
+        Assert.assertTrue(file.exists());
+        return file;
+    }
+
+    /**
+     * Parses and instantiates a specified problem.
+     *
+     * @param domain  the domain file.
+     * @param problem the problem file.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem instantiate(final String domain, final String problem) throws Exception {
+        final Parser parser = new Parser();
+        final DefaultParsedProblem parsedProblem = parser.parse(new File(domain), new File(problem));
+        final ErrorManager errorManager = parser.getErrorManager();
+        Assert.assertTrue(errorManager.getMessages(Message.Type.LEXICAL_ERROR).isEmpty()
+            && errorManager.getMessages(Message.Type.PARSER_ERROR).isEmpty());
+        final Problem pb = new DefaultProblem(parsedProblem);
+        pb.instantiate();
+        return pb;
+    }
+
+    /**
+     * Overwrites an integer of a file.
+     *
+     * @param file     the file.
+     * @param position the position of the integer in the file.
+     * @param value    the new value of the integer.
+     * @throws IOException if the file cannot be written.
+     */
+    private void overwrite(final File file, final long position, final int value) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(position);
+            raf.writeInt(value);
+        }
+    }
+
+    /**
+     * Checks that the loading of a file raises an <code>IOException</code>.
+     *
+     * @param file the file.
+     */
+    private void checkRejected(final File file) {
+        try {
+            ProblemCache.load(file);
+            Assert.fail("file loaded: " + file);
+        } catch (IOException e) {
+            // The expected exception
+        }
+    }
+
+    /**
+     * Checks that a problem loaded from the cache is equal to the problem saved.
+     *
+     * @param expected the problem saved.
+     * @param actual   the problem loaded.
+     */
+    private void checkEquals(final Problem expected, final Problem actual) {
+        // The fluents
+        Assert.assertEquals(expected.getFluents().size(), actual.getFluents().size());
+        for (int i = 0; i < expected.getFluents().size(); i++) {
+            this.checkEquals(expected.getFluents().get(i), actual.getFluents().get(i));
+        }
+        // The actions
+        Assert.assertEquals(expected.getActions().size(), actual.getActions().size());
+        for (int i = 0; i < expected.getActions().size(); i++) {
+            final Action e = expected.getActions().get(i);
+            final Action a = actual.getActions().get(i);
+            Assert.assertEquals(e, a);
+            Assert.assertArrayEquals(e.getParameters(), a.getParameters());
+            Assert.assertEquals(e.isDummy(), a.isDummy());
+            Assert.assertEquals(e.getCost().getValue(), a.getCost().getValue(), 0.0);
+            Assert.assertEquals(e.getPrecondition(), a.getPrecondition());
+            Assert.assertEquals(e.getConditionalEffects(), a.getConditionalEffects());
+        }
+        // The initial state and the goal
+        Assert.assertEquals(expected.getInitialState().getPositiveFluents(),
+            actual.getInitialState().getPositiveFluents());
+        Assert.assertEquals(expected.getInitialState().getNegativeFluents(),
+            actual.getInitialState().getNegativeFluents());
+        Assert.assertEquals(expected.getGoal(), actual.getGoal());
+        // The tasks and the methods of hierarchical problems
+        Assert.assertEquals(expected.getTasks() == null, actual.getTasks() == null);
+        if (expected.getTasks() != null) {
+            Assert.assertEquals(expected.getTasks().size(), actual.getTasks().size());
+            for (int i = 0; i < expected.getTasks().size(); i++) {
+                final Task e = expected.getTasks().get(i);
+                final Task a = actual.getTasks().get(i);
+                this.checkEquals(e, a);
+                Assert.assertEquals(e.isPrimtive(), a.isPrimtive());
+            }
+        }
+        Assert.assertEquals(expected.getTaskResolvers(), actual.getTaskResolvers());
+        Assert.assertEquals(expected.getMethods() == null, actual.getMethods() == null);
+        if (expected.getMethods() != null) {
+            Assert.assertEquals(expected.getMethods().size(), actual.getMethods().size());
+            for (int i = 0; i < expected.getMethods().size(); i++) {
+                final Method e = expected.getMethods().get(i);
+                final Method a = actual.getMethods().get(i);
+                Assert.assertEquals(e, a);
+                Assert.assertArrayEquals(e.getParameters(), a.getParameters());
+                Assert.assertEquals(e.getTask(), a.getTask());
+                Assert.assertEquals(e.getPrecondition(), a.getPrecondition());
+                this.checkEquals(e.getTaskNetwork(), a.getTaskNetwork());
+            }
+        }
+        Assert.assertEquals(expected.getInitialTaskNetwork() == null, actual.getInitialTaskNetwork() == null);
+        if (expected.getInitialTaskNetwork() != null) {
+            this.checkEquals(expected.getInitialTaskNetwork(), actual.getInitialTaskNetwork());
+        }
+    }
+
+    /**
+     * Checks that two atomic formulas, i.e., fluents or tasks, have the same symbol and the same arguments.
+     *
+     * @param expected the expected formula.
+     * @param actual   the actual formula.
+     */
+    private void checkEquals(final AbstractAtomicFormula expected, final AbstractAtomicFormula actual) {
+        Assert.assertEquals(expected.getSymbol(), actual.getSymbol());
+        Assert.assertArrayEquals(expected.getArguments(), actual.getArguments());
+    }
+
+    /**
+     * Checks that two task networks have the same tasks and the same ordering constraints.
+     *
+     * @param expected the expected task network.
+     * @param actual   the actual task network.
+     */
+    private void checkEquals(final TaskNetwork expected, final TaskNetwork actual) {
+        final List<Integer> tasks = expected.getTasks();
+        Assert.assertEquals(tasks, actual.getTasks());
+        Assert.assertEquals(expected.getOrderingConstraints(), actual.getOrderingConstraints());
+        for (int t = 0; t < tasks.size(); t++) {
+            Assert.assertEquals(expected.getBeforeConstraints(t), actual.getBeforeConstraints(t));
+            Assert.assertEquals(expected.getAfterConstraints(t), actual.getAfterConstraints(t));
+        }
+    }
+}
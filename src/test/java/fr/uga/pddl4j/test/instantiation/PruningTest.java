@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.instantiation;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.parser.Parser;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.plan.SequentialPlan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.DefaultProblem;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Implements the <tt>PruningTest</tt> of the PDD4L library. The class checks that the actions pruned during the
+ * instantiation are not needed: the problem instantiated with the pruning never has more actions than the problem
+ * instantiated without it, and it stays solvable with a plan that is also valid in the problem instantiated without
+ * pruning. The actions are pruned by the grounding of the bindings reachable in the relaxed problem and by the
+ * relevance analysis, which removes the actions that cannot contribute to the goal.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 04.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PruningTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The domain of the problem written by hand. The robot can move along the roads and light a lamp where it is.
+     */
+    private static final String DOMAIN = "(define (domain rooms)\n"
+        + "  (:requirements :strips)\n"
+        + "  (:predicates (at ?r) (road ?x ?y) (visited ?r) (lit ?r))\n"
+        + "  (:action move\n"
+        + "    :parameters (?from ?to)\n"
+        + "    :precondition (and (at ?from) (road ?from ?to))\n"
+        + "    :effect (and (at ?to) (not (at ?from)) (visited ?to)))\n"
+        + "  (:action light\n"
+        + "    :parameters (?r)\n"
+        + "    :precondition (at ?r)\n"
+        + "    :effect (lit ?r)))\n";
+
+    /**
+     * The problem written by hand. The rooms <code>d</code> and <code>e</code> are never reached. Nothing can move
+     * the robot to <code>d</code>, so that the actions requiring <code>(at d)</code> are ruled out by the ground
+     * inertia. The robot can move to <code>e</code> from <code>d</code>, so that the move from <code>e</code> and the
+     * lighting of <code>e</code> are only ruled out by the reachability analysis.
+     */
+    private static final String PROBLEM = "(define (problem rooms-c)\n"
+        + "  (:domain rooms)\n"
+        + "  (:objects a b c d e)\n"
+        + "  (:init (at a) (road a b) (road b c) (road d e) (road e a))\n"
+        + "  (:goal (visited c)))\n";
+
+    /**
+     * The temporary folder where the domain and the problem written by hand are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Method that checks the reachability pruning on the problem written by hand. Without pruning, the moves from
+     * <code>a</code>, <code>b</code> and <code>e</code> and the lighting of all the rooms but <code>d</code> are
+     * instantiated. The reachability pruning removes the move from <code>e</code> and the lighting of <code>e</code>.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reachability_Rooms() throws Exception {
+        final Problem[] problems = this.checkPruning(this.writeRooms(), "p01", true, false);
+        Assert.assertEquals(7, problems[0].getActions().size());
+        Assert.assertEquals(5, problems[1].getActions().size());
+    }
+
+    /**
+     * Method that checks the relevance pruning on the problem written by hand. The lighting of the rooms is irrelevant
+     * to the goal, so that only the moves from <code>a</code>, <code>b</code> and <code>e</code> are kept, and the move
+     * from <code>e</code> is also removed when the reachability pruning is enabled.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Relevance_Rooms() throws Exception {
+        final String localTestPath = this.writeRooms();
+        Problem[] problems = this.checkPruning(localTestPath, "p01", false, true);
+        Assert.assertEquals(7, problems[0].getActions().size());
+        Assert.assertEquals(3, problems[1].getActions().size());
+        problems = this.checkPruning(localTestPath, "p01", true, true);
+        Assert.assertEquals(2, problems[1].getActions().size());
+        for (int i = 0; i < problems[1].getFluents().size(); i++) {
+            Assert.assertFalse(problems[1].toString(problems[1].getFluents().get(i)).startsWith("(lit "));
+        }
+    }
+
+    /**
+     * Method that checks the relevance pruning using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Relevance_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkPruning(localTestPath, "p02", true, true);
+    }
+
+    /**
+     * Method that checks the relevance pruning using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Relevance_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkPruning(localTestPath, "p004", true, true);
+    }
+
+    /**
+     * Method that checks the relevance pruning using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Relevance_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkPruning(localTestPath, "p01", true, true);
+    }
+
+    /**
+     * Method that checks the reachability pruning using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reachability_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkPruning(localTestPath, "p02", true, false);
+    }
+
+    /**
+     * Method that checks the reachability pruning using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reachability_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkPruning(localTestPath, "p004", true, false);
+    }
+
+    /**
+     * Method that checks the reachability pruning using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reachability_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkPruning(localTestPath, "p01", true, false);
+    }
+
+    /**
+     * Writes the domain and the problem written by hand in the temporary folder.
+     *
+     * @return the path of the temporary folder.
+     * @throws Exception if something went wrong.
+     */
+    private String writeRooms() throws Exception {
+        final File domain = new File(this.folder.getRoot(), Tools.PDDL_DOMAIN);
+        final File problem = new File(this.folder.getRoot(), "p01" + Tools.PDDL_EXT);
+        Files.write(domain.toPath(), PruningTest.DOMAIN.getBytes(StandardCharsets.UTF_8));
+        Files.write(problem.toPath(), PruningTest.PROBLEM.getBytes(StandardCharsets.UTF_8));
+        return this.folder.getRoot().getPath() + File.separator;
+    }
+
+    /**
+     * Instantiates a specified problem without pruning and with the specified pruning, checks that the pruning never
+     * adds an action and that the problem pruned stays solvable with a plan valid in the problem not pruned.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @param reachability  <code>true</code> to check the reachability pruning.
+     * @param relevance     <code>true</code> to check the relevance pruning.
+     * @return the problem not pruned and the problem pruned.
+     * @throws Exception if something went wrong.
+     */
+    private Problem[] checkPruning(final String localTestPath, final String problemName, final boolean reachability,
+                                   final boolean relevance) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final String domain = localTestPath + Tools.PDDL_DOMAIN;
+        final String problemFile = localTestPath + problemName + Tools.PDDL_EXT;
+        final Problem unpruned = this.instantiate(domain, problemFile, false, false);
+        final Problem pruned = this.instantiate(domain, problemFile, reachability, relevance);
+        Assert.assertTrue(problemName + " has more actions with pruning",
+            pruned.getActions().size() <= unpruned.getActions().size());
+        Assert.assertTrue(problemName + " has more fluents with pruning",
+            pruned.getFluents().size() <= unpruned.getFluents().size());
+
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.DOMAIN_SETTING, domain);
+        config.setProperty(Planner.PROBLEM_SETTING, problemFile);
+        config.setProperty(Planner.TIME_OUT_SETTING, PruningTest.TIMEOUT);
+        config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + SearchStrategy.Name.GREEDY_BEST_FIRST + "]");
+        config.setProperty(GSP.HEURISTIC_SETTING, StateHeuristic.Name.FAST_FORWARD);
+        final Planner planner = Planner.getInstance(Planner.Name.GSP, config);
+        final Plan plan = planner.solve(pruned);
+        Assert.assertNotNull("no plan found for " + problemFile + " with pruning", plan);
+        Assert.assertTrue("invalid plan found for " + problemFile + " with pruning", Tools.isValid(pruned, plan));
+        // The actions are identified by their name and their parameters in both problems
+        final Plan replayed = new SequentialPlan();
+        for (Action action : plan.actions()) {
+            final int index = unpruned.getActions().indexOf(action);
+            Assert.assertTrue(action.getName() + " is not an action without pruning", index != -1);
+            replayed.add(replayed.size(), unpruned.getActions().get(index));
+        }
+        Assert.assertTrue("plan found for " + problemFile + " with pruning is invalid without pruning",
+            Tools.isValid(unpruned, replayed));
+        return new Problem[] {unpruned, pruned};
+    }
+
+    /**
+     * Parses and instantiates a problem with the specified pruning.
+     *
+     * @param domain       the path of the domain file.
+     * @param problem      the path of the problem file.
+     * @param reachability <code>true</code> to instantiate only the actions reachable in the relaxed problem.
+     * @param relevance    <code>true</code> to prune the actions irrelevant to the goal.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem instantiate(final String domain, final String problem, final boolean reachability,
+                                final boolean relevance) throws Exception {
+        final Parser parser = new Parser();
+        final DefaultParsedProblem parsedProblem = parser.parse(new File(domain), new File(problem));
+        Assert.assertTrue(parser.getErrorManager().isEmpty());
+        final Problem instantiated = new PrunedProblem(parsedProblem, reachability, relevance);
+        instantiated.instantiate();
+        return instantiated;
+    }
+
+    /**
+     * A problem whose pruning of the actions during the instantiation can be disabled.
+     */
+    private static final class PrunedProblem extends DefaultProblem {
+
+        /**
+         * The serial id of the class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * <code>true</code> to instantiate only the actions reachable in the relaxed problem.
+         */
+        private final boolean reachability;
+
+        /**
+         * <code>true</code> to prune the actions irrelevant to the goal.
+         */
+        private final boolean relevance;
+
+        /**
+         * Creates a new problem from a parsed problem.
+         *
+         * @param problem      the parsed problem.
+         * @param reachability <code>true</code> to instantiate only the actions reachable in the relaxed problem.
+         * @param relevance    <code>true</code> to prune the actions irrelevant to the goal.
+         */
+        PrunedProblem(final DefaultParsedProblem problem, final boolean reachability, final boolean relevance) {
+            super(problem);
+            this.reachability = reachability;
+            this.relevance = relevance;
+        }
+
+        /**
+         * Returns <code>true</code> if the actions are instantiated only with the reachable bindings.
+         *
+         * @return <code>true</code> if the actions are instantiated only with the reachable bindings.
+         */
+        @Override
+        protected boolean isReachabilityAnalysisEnabled() {
+            return this.reachability;
+        }
+
+        /**
+         * Removes the actions that are not relevant to the goal if the relevance pruning is enabled.
+         */
+        @Override
+        protected void pruneIrrelevantActions() {
+            if (this.relevance) {
+                super.pruneIrrelevantActions();
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.instantiation;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.parser.Parser;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.DefaultProblem;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.operator.Action;
+import fr.uga.pddl4j.test.Tools;
+import fr.uga.pddl4j.util.BitVector;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implements the <tt>ReinstantiationTest</tt> of the PDD4L library. The class checks that a problem reinstantiated
+ * with the initial state or the goal of a new problem has the same actions, fluents, initial state and goal as the new
+ * problem instantiated from scratch, and that the plans found for the problem reinstantiated are valid. The problems
+ * are variants of the problem p01 of the IPC 1998 Gripper ADL benchmarks.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 06.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ReinstantiationTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The path of the benchmark.
+     */
+    private static final String BENCHMARK = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+
+    /**
+     * The initial state of the problem p01.
+     */
+    private static final String INIT = "(at-robby rooma) (free left) (free right) "
+        + "(at ball4 rooma) (at ball3 rooma) (at ball2 rooma) (at ball1 rooma)";
+
+    /**
+     * A state reached from the initial state of the problem p01: the robot has carried <code>ball4</code> to
+     * <code>roomb</code>, came back and picked <code>ball1</code> with its left gripper.
+     */
+    private static final String REACHED = "(at-robby roomb) (carry ball1 left) (free right) "
+        + "(at ball4 roomb) (at ball3 rooma) (at ball2 rooma)";
+
+    /**
+     * The goal of the problem p01.
+     */
+    private static final String GOAL = "(and (at ball4 roomb) (at ball3 roomb) (at ball2 roomb) (at ball1 roomb))";
+
+    /**
+     * A goal for which the actions picking and dropping the balls are irrelevant.
+     */
+    private static final String MOVE = "(at-robby roomb)";
+
+    /**
+     * The temporary folder where the problems are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks the reinstantiation with a new initial state and the same goal.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reinstantiate_InitialState() throws Exception {
+        final DefaultProblem problem = this.instantiate(this.write("p01", INIT, GOAL));
+        final File reached = this.write("reached", REACHED, GOAL);
+        Assert.assertTrue(problem.reinstantiate(this.parse(reached)));
+        this.check(problem, this.instantiate(reached));
+    }
+
+    /**
+     * Checks the reinstantiation with the same initial state and a new goal, for which some actions are irrelevant,
+     * and then with the initial goal again, for which the actions pruned must be restored.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reinstantiate_Goal() throws Exception {
+        final File initial = this.write("p01", INIT, GOAL);
+        final DefaultProblem problem = this.instantiate(initial);
+        final int nbActions = problem.getActions().size();
+        final File move = this.write("move", INIT, MOVE);
+        Assert.assertTrue(problem.reinstantiate(this.parse(move)));
+        this.check(problem, this.instantiate(move));
+        Assert.assertTrue(problem.getActions().size() < nbActions);
+        Assert.assertTrue(problem.reinstantiate(this.parse(initial)));
+        this.check(problem, this.instantiate(initial));
+        Assert.assertEquals(nbActions, problem.getActions().size());
+    }
+
+    /**
+     * Checks the reinstantiation with a new initial state and a new goal.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reinstantiate_InitialState_And_Goal() throws Exception {
+        final DefaultProblem problem = this.instantiate(this.write("p01", INIT, GOAL));
+        final File reached = this.write("reached", REACHED, MOVE);
+        Assert.assertTrue(problem.reinstantiate(this.parse(reached)));
+        this.check(problem, this.instantiate(reached));
+    }
+
+    /**
+     * Checks that a problem is not modified by a new problem declaring other objects.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Reinstantiate_Other_Objects() throws Exception {
+        final File initial = this.write("p01", INIT, GOAL);
+        final DefaultProblem problem = this.instantiate(initial);
+        Assert.assertFalse(problem.reinstantiate(this.parse(new File(BENCHMARK + "p02" + Tools.PDDL_EXT))));
+        this.check(problem, this.instantiate(initial));
+    }
+
+    /**
+     * Checks that a problem reinstantiated has the same actions, fluents, initial state and goal as the same problem
+     * instantiated from scratch and that the plan found for the problem reinstantiated is valid.
+     *
+     * @param reinstantiated the problem reinstantiated.
+     * @param expected       the problem instantiated from scratch.
+     * @throws Exception if something went wrong.
+     */
+    private void check(final Problem reinstantiated, final Problem expected) throws Exception {
+        Assert.assertEquals(this.actions(expected), this.actions(reinstantiated));
+        Assert.assertEquals(this.fluents(expected, null), this.fluents(reinstantiated, null));
+        Assert.assertEquals(this.fluents(expected, expected.getInitialState().getPositiveFluents()),
+            this.fluents(reinstantiated, reinstantiated.getInitialState().getPositiveFluents()));
+        Assert.assertEquals(this.fluents(expected, expected.getGoal().getPositiveFluents()),
+            this.fluents(reinstantiated, reinstantiated.getGoal().getPositiveFluents()));
+        Assert.assertEquals(this.fluents(expected, expected.getGoal().getNegativeFluents()),
+            this.fluents(reinstantiated, reinstantiated.getGoal().getNegativeFluents()));
+
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.TIME_OUT_SETTING, ReinstantiationTest.TIMEOUT);
+        config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + SearchStrategy.Name.ASTAR + "]");
+        config.setProperty(GSP.HEURISTIC_SETTING, StateHeuristic.Name.FAST_FORWARD);
+        final Planner planner = Planner.getInstance(Planner.Name.GSP, config);
+        final Plan plan = planner.solve(reinstantiated);
+        Assert.assertNotNull(plan);
+        Assert.assertTrue(Tools.isValid(reinstantiated, plan));
+        Assert.assertEquals(planner.solve(expected).cost(), plan.cost(), 0.0);
+    }
+
+    /**
+     * Returns the sorted string representations of the actions of a problem.
+     *
+     * @param problem the problem.
+     * @return the sorted string representations of the actions.
+     */
+    private List<String> actions(final Problem problem) {
+        final List<String> actions = new ArrayList<>(problem.getActions().size());
+        for (Action action : problem.getActions()) {
+            actions.add(problem.toString(action));
+        }
+        Collections.sort(actions);
+        return actions;
+    }
+
+    /**
+     * Returns the sorted string representations of the fluents of a problem in a specified set or of all the fluents
+     * of the problem if the set is <code>null</code>.
+     *
+     * @param problem the problem.
+     * @param fluents the set of fluents or <code>null</code>.
+     * @return the sorted string representations of the fluents.
+     */
+    private List<String> fluents(final Problem problem, final BitVector fluents) {
+        final List<String> strings = new ArrayList<>();
+        for (int i = 0; i < problem.getFluents().size(); i++) {
+            if (fluents == null || fluents.get(i)) {
+                strings.add(problem.toString(problem.getFluents().get(i)));
+            }
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+
+    /**
+     * Writes a variant of the problem p01 with a specified initial state and goal.
+     *
+     * @param name the name of the problem.
+     * @param init the atoms of the initial state.
+     * @param goal the goal.
+     * @return the file of the problem.
+     * @throws Exception if something went wrong.
+     */
+    private File write(final String name, final String init, final String goal) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + BENCHMARK + "] test skipped !",
+            Tools.isBenchmarkExist(BENCHMARK));
+        final File file = new File(this.folder.getRoot(), name + Tools.PDDL_EXT);
+        final String problem = "(define (problem gripper-x-1)\n"
+            + "   (:domain gripper-typed)\n"
+            + "   (:objects rooma roomb - room\n"
+            + "             ball4 ball3 ball2 ball1 - ball)\n"
+            + "   (:init " + init + ")\n"
+            + "   (:goal " + goal + "))\n";
+        Files.write(file.toPath(), problem.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Parses a specified problem of the gripper domain.
+     *
+     * @param problem the file of the problem.
+     * @return the problem parsed.
+     * @throws Exception if something went wrong.
+     */
+    private DefaultParsedProblem parse(final File problem) throws Exception {
+        final Parser parser = new Parser();
+        final DefaultParsedProblem parsed = parser.parse(new File(BENCHMARK + Tools.PDDL_DOMAIN), problem);
+        Assert.assertTrue(parser.getErrorManager().isEmpty());
+        return parsed;
+    }
+
+    /**
+     * Parses and instantiates a specified problem of the gripper domain from scratch.
+     *
+     * @param problem the file of the problem.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private DefaultProblem instantiate(final File problem) throws Exception {
+        final DefaultProblem instantiated = new DefaultProblem(this.parse(problem));
+        instantiated.instantiate();
+        return instantiated;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.DeadEndStore;
+import fr.uga.pddl4j.planners.statespace.search.HeuristicEvaluator;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Implements the <tt>DeadEndStoreTest</tt> of the PDD4L library. The class checks that the dead ends registered by a
+ * search are used by the other searches sharing the same store. A robot at <code>a</code> must reach <code>c</code>
+ * through <code>b</code>, but it can also take the one-way roads from <code>a</code> to <code>d</code> and from
+ * <code>d</code> to <code>e</code>, from where <code>c</code> is unreachable.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 26.02.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DeadEndStoreTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 10;
+
+    /**
+     * The domain of the problem.
+     */
+    private static final String DOMAIN = "(define (domain trap)\n"
+        + "  (:requirements :strips)\n"
+        + "  (:predicates (at ?l) (road ?x ?y))\n"
+        + "  (:action move\n"
+        + "    :parameters (?from ?to)\n"
+        + "    :precondition (and (at ?from) (road ?from ?to))\n"
+        + "    :effect (and (at ?to) (not (at ?from)))))\n";
+
+    /**
+     * The problem.
+     */
+    private static final String PROBLEM = "(define (problem trap-c)\n"
+        + "  (:domain trap)\n"
+        + "  (:objects a b c d e)\n"
+        + "  (:init (at a) (road a b) (road b c) (road a d) (road d e))\n"
+        + "  (:goal (at c)))\n";
+
+    /**
+     * The temporary folder where the domain and the problem are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The problem instantiated.
+     */
+    private Problem problem;
+
+    /**
+     * Writes and instantiates the problem.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Before
+    public void initTest() throws Exception {
+        final File domain = new File(this.folder.getRoot(), Tools.PDDL_DOMAIN);
+        final File problem = new File(this.folder.getRoot(), "p01" + Tools.PDDL_EXT);
+        Files.write(domain.toPath(), DeadEndStoreTest.DOMAIN.getBytes(StandardCharsets.UTF_8));
+        Files.write(problem.toPath(), DeadEndStoreTest.PROBLEM.getBytes(StandardCharsets.UTF_8));
+        this.problem = Tools.generateCodedProblem(domain.getPath(), problem.getPath());
+        Assert.assertNotNull(this.problem);
+        this.problem.instantiate();
+    }
+
+    /**
+     * Checks that the dead end registered by a greedy best first search when it evaluates the move to <code>d</code>
+     * prunes, in another search, the state at <code>e</code>, which the first search never generated but which is
+     * subsumed by the dead end. The state is pruned without being evaluated with the heuristic.
+     */
+    @Test
+    public void test_DeadEnd_Subsumed_In_Another_Search() {
+        final DeadEndStore store = new DeadEndStore(this.problem);
+        final StateSpaceSearch gbfs = StateSpaceSearch.getInstance(SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateHeuristic.Name.FAST_FORWARD, 1.0, DeadEndStoreTest.TIMEOUT);
+        gbfs.setDeadEndStore(store);
+        Assert.assertNotNull(gbfs.searchSolutionNode(this.problem));
+        Assert.assertEquals(1, store.size());
+        Assert.assertTrue(store.isDeadEnd(this.state("(at d)")));
+
+        final HeuristicEvaluator evaluator = new HeuristicEvaluator(
+            StateHeuristic.getInstance(StateHeuristic.Name.FAST_FORWARD, this.problem), this.problem.getGoal(), store,
+            StateSpaceSearch.EvaluationFilter.NONE, this.problem.getFluents().size());
+        final Node node = new Node(this.state("(at e)"), null, -1, 0.0, -1.0);
+        Assert.assertFalse(evaluator.evaluate(node));
+        Assert.assertEquals("the subsumed state was evaluated", -1.0, node.getHeuristic(), 0.0);
+        Assert.assertFalse(store.isDeadEnd(this.state("(at b)")));
+    }
+
+    /**
+     * Checks that a search sharing the store of a previous search meets no new dead end: the move to <code>d</code>
+     * is pruned by the dead end of the previous search instead of being evaluated again, whereas the same search with
+     * its own store registers it.
+     */
+    @Test
+    public void test_DeadEnd_Shared_Between_Searches() {
+        final DeadEndStore shared = new DeadEndStore(this.problem);
+        final StateSpaceSearch gbfs = StateSpaceSearch.getInstance(SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateHeuristic.Name.FAST_FORWARD, 1.0, DeadEndStoreTest.TIMEOUT);
+        gbfs.setDeadEndStore(shared);
+        Assert.assertNotNull(gbfs.searchSolutionNode(this.problem));
+        Assert.assertEquals(1, shared.size());
+
+        final StateSpaceSearch astar = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR,
+            StateHeuristic.Name.FAST_FORWARD, 1.0, DeadEndStoreTest.TIMEOUT);
+        astar.setDeadEndStore(shared);
+        final Node solution = astar.searchSolutionNode(this.problem);
+        Assert.assertNotNull(solution);
+        Assert.assertEquals(2.0, solution.getCost(), 0.0);
+        Assert.assertEquals(1, shared.size());
+
+        final DeadEndStore own = new DeadEndStore(this.problem);
+        final StateSpaceSearch alone = StateSpaceSearch.getInstance(SearchStrategy.Name.ASTAR,
+            StateHeuristic.Name.FAST_FORWARD, 1.0, DeadEndStoreTest.TIMEOUT);
+        alone.setDeadEndStore(own);
+        Assert.assertNotNull(alone.searchSolutionNode(this.problem));
+        Assert.assertEquals(1, own.size());
+    }
+
+    /**
+     * Creates the state where only the specified fluents and the roads are true.
+     *
+     * @param fluents the string representation of the fluents.
+     * @return the state.
+     */
+    private State state(final String... fluents) {
+        final State state = new State();
+        for (int i = 0; i < this.problem.getFluents().size(); i++) {
+            final String fluent = this.problem.toString(this.problem.getFluents().get(i));
+            if (fluent.startsWith("(road ")) {
+                state.set(i);
+            }
+            for (String f : fluents) {
+                if (fluent.equals(f)) {
+                    state.set(i);
+                }
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace;
+
+import fr.uga.pddl4j.heuristics.state.GoalCount;
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.Planner;
+import fr.uga.pddl4j.planners.PlannerConfiguration;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.planners.statespace.search.DeadEndStore;
+import fr.uga.pddl4j.planners.statespace.search.HeuristicEvaluator;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.problem.operator.Condition;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implements the <tt>EvaluationFilterTest</tt> of the PDD4L library. The class checks that the greedy best first
+ * search and the enforced hill climbing find valid plans when the successors are evaluated in two tiers, and that only
+ * the successors improving the cheap estimate of the filter are evaluated with the heuristic. In the problem used to
+ * check the evaluations, a robot at <code>a</code> must visit <code>b</code> and <code>c</code>, but it can also go to
+ * <code>d</code> and <code>e</code>. The fluents <code>(at c)</code>, <code>(visited d)</code> and
+ * <code>(visited e)</code> are irrelevant to the goal and pruned by the instantiation.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 02.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class EvaluationFilterTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The heuristic value of the parents of the successors evaluated.
+     */
+    private static final double PARENT_HEURISTIC = 5.0;
+
+    /**
+     * The domain of the problem used to check the evaluations.
+     */
+    private static final String DOMAIN = "(define (domain tour)\n"
+        + "  (:requirements :strips)\n"
+        + "  (:predicates (at ?l) (visited ?l) (road ?x ?y))\n"
+        + "  (:action move\n"
+        + "    :parameters (?from ?to)\n"
+        + "    :precondition (and (at ?from) (road ?from ?to))\n"
+        + "    :effect (and (at ?to) (visited ?to) (not (at ?from)))))\n";
+
+    /**
+     * The problem used to check the evaluations.
+     */
+    private static final String PROBLEM = "(define (problem tour-bc)\n"
+        + "  (:domain tour)\n"
+        + "  (:objects a b c d e)\n"
+        + "  (:init (at a) (road a b) (road b c) (road a c) (road a d) (road d b) (road d e) (road e b))\n"
+        + "  (:goal (and (visited b) (visited c))))\n";
+
+    /**
+     * The temporary folder where the domain and the problem are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Method that checks the greedy best first search with the goal count filter using IPC 1998 Gripper ADL
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GBFS_GoalCount_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.solve(localTestPath, "p02", SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+    }
+
+    /**
+     * Method that checks the greedy best first search with the novelty filter using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GBFS_Novelty_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.solve(localTestPath, "p02", SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateSpaceSearch.EvaluationFilter.NOVELTY);
+    }
+
+    /**
+     * Method that checks the greedy best first search with the goal count filter using IPC 2000 Blocks STRIPS typed
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GBFS_GoalCount_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.solve(localTestPath, "p004", SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+    }
+
+    /**
+     * Method that checks the greedy best first search with the novelty filter using IPC 2000 Blocks STRIPS typed
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GBFS_Novelty_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.solve(localTestPath, "p004", SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateSpaceSearch.EvaluationFilter.NOVELTY);
+    }
+
+    /**
+     * Method that checks the greedy best first search with the goal count filter using IPC 2002 Depots STRIPS
+     * automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GBFS_GoalCount_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.solve(localTestPath, "p01", SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+    }
+
+    /**
+     * Method that checks the greedy best first search with the novelty filter using IPC 2002 Depots STRIPS automatic
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GBFS_Novelty_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.solve(localTestPath, "p01", SearchStrategy.Name.GREEDY_BEST_FIRST,
+            StateSpaceSearch.EvaluationFilter.NOVELTY);
+    }
+
+    /**
+     * Method that checks the enforced hill climbing with the goal count filter using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_EHC_GoalCount_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.solve(localTestPath, "p02", SearchStrategy.Name.ENFORCED_HILL_CLIMBING,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+    }
+
+    /**
+     * Method that checks the enforced hill climbing with the novelty filter using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_EHC_Novelty_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.solve(localTestPath, "p02", SearchStrategy.Name.ENFORCED_HILL_CLIMBING,
+            StateSpaceSearch.EvaluationFilter.NOVELTY);
+    }
+
+    /**
+     * Method that checks the enforced hill climbing with the goal count filter using IPC 2002 Depots STRIPS automatic
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_EHC_GoalCount_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.solve(localTestPath, "p01", SearchStrategy.Name.ENFORCED_HILL_CLIMBING,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+    }
+
+    /**
+     * Method that checks the enforced hill climbing with the novelty filter using IPC 2002 Depots STRIPS automatic
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_EHC_Novelty_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.solve(localTestPath, "p01", SearchStrategy.Name.ENFORCED_HILL_CLIMBING,
+            StateSpaceSearch.EvaluationFilter.NOVELTY);
+    }
+
+    /**
+     * Checks that, with the goal count filter, only the moves to <code>b</code> and <code>c</code>, which decrease the
+     * goal count, are evaluated with the heuristic. The move to <code>d</code> inherits the heuristic value of its
+     * parent and is returned after the successors evaluated.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GoalCount_Filter_Non_Improving_Not_Evaluated() throws Exception {
+        final Problem problem = this.tour();
+        final CountingHeuristic heuristic = new CountingHeuristic(problem);
+        final HeuristicEvaluator evaluator = this.create(problem, heuristic,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+        final Node parent = this.node(problem, null, "(at a)");
+        final Node d = this.node(problem, parent, "(at d)");
+        final Node b = this.node(problem, parent, "(at b)", "(visited b)");
+        final Node c = this.node(problem, parent, "(visited c)");
+        final List<Node> evaluated = evaluator.evaluate(parent, Arrays.asList(d, b, c));
+        Assert.assertEquals(2, heuristic.getCalls());
+        Assert.assertEquals(Arrays.asList(b, c, d), evaluated);
+        Assert.assertEquals(1.0, b.getHeuristic(), 0.0);
+        Assert.assertEquals(1.0, c.getHeuristic(), 0.0);
+        Assert.assertEquals(EvaluationFilterTest.PARENT_HEURISTIC, d.getHeuristic(), 0.0);
+    }
+
+    /**
+     * Checks that, with the goal count filter, the successors are all evaluated with the heuristic when none of them
+     * decreases the goal count.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_GoalCount_Filter_Plateau_Evaluated() throws Exception {
+        final Problem problem = this.tour();
+        final CountingHeuristic heuristic = new CountingHeuristic(problem);
+        final HeuristicEvaluator evaluator = this.create(problem, heuristic,
+            StateSpaceSearch.EvaluationFilter.GOAL_COUNT);
+        final Node parent = this.node(problem, null, "(at d)");
+        final Node e = this.node(problem, parent, "(at e)");
+        Assert.assertEquals(Arrays.asList(e), evaluator.evaluate(parent, Arrays.asList(e)));
+        Assert.assertEquals(1, heuristic.getCalls());
+        Assert.assertEquals(2.0, e.getHeuristic(), 0.0);
+    }
+
+    /**
+     * Checks that, with the novelty filter, the successors that are not novel with respect to the states of same goal
+     * count are not evaluated with the heuristic, and that the goal states are always evaluated.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Novelty_Filter_Non_Novel_Not_Evaluated() throws Exception {
+        final Problem problem = this.tour();
+        final CountingHeuristic heuristic = new CountingHeuristic(problem);
+        final HeuristicEvaluator evaluator = this.create(problem, heuristic,
+            StateSpaceSearch.EvaluationFilter.NOVELTY);
+        final Node parent = this.node(problem, null, "(at a)");
+        final List<Node> first = Arrays.asList(this.node(problem, parent, "(at b)", "(visited b)"),
+            this.node(problem, parent, "(at d)"));
+        Assert.assertEquals(first, evaluator.evaluate(parent, first));
+        Assert.assertEquals(2, heuristic.getCalls());
+
+        final Node b = this.node(problem, parent, "(at b)", "(visited b)");
+        final Node e = this.node(problem, parent, "(at e)");
+        final Node goal = this.node(problem, parent, "(at b)", "(visited b)", "(visited c)");
+        final Node again = this.node(problem, parent, "(at b)", "(visited b)", "(visited c)");
+        final List<Node> evaluated = evaluator.evaluate(parent, Arrays.asList(b, e, goal, again));
+        Assert.assertEquals(5, heuristic.getCalls());
+        Assert.assertEquals(Arrays.asList(e, goal, again, b), evaluated);
+        Assert.assertEquals(EvaluationFilterTest.PARENT_HEURISTIC, b.getHeuristic(), 0.0);
+        Assert.assertEquals(0.0, again.getHeuristic(), 0.0);
+    }
+
+    /**
+     * Solves a problem with the fast forward heuristic and a specified evaluation filter, and checks that the plan
+     * found is valid.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @param strategy      the search strategy.
+     * @param filter        the evaluation filter.
+     * @throws Exception if something went wrong.
+     */
+    private void solve(final String localTestPath, final String problemName, final SearchStrategy.Name strategy,
+                       final StateSpaceSearch.EvaluationFilter filter) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final String domain = localTestPath + Tools.PDDL_DOMAIN;
+        final String problemFile = localTestPath + problemName + Tools.PDDL_EXT;
+        final PlannerConfiguration config = GSP.getDefaultConfiguration();
+        config.setProperty(Planner.DOMAIN_SETTING, domain);
+        config.setProperty(Planner.PROBLEM_SETTING, problemFile);
+        config.setProperty(Planner.TIME_OUT_SETTING, EvaluationFilterTest.TIMEOUT);
+        config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + strategy + "]");
+        config.setProperty(GSP.HEURISTIC_SETTING, StateHeuristic.Name.FAST_FORWARD);
+        config.setProperty(GSP.EVALUATION_FILTER_SETTING, filter);
+        final Planner planner = Planner.getInstance(Planner.Name.GSP, config);
+        final DefaultParsedProblem parsedProblem = planner.parse(domain, problemFile);
+        final Problem problem = planner.instantiate(parsedProblem);
+        final Plan plan = planner.solve(problem);
+        Assert.assertNotNull("no plan found for " + problemFile + " with " + filter, plan);
+        Assert.assertTrue("invalid plan for " + problemFile + " with " + filter, Tools.isValid(problem, plan));
+    }
+
+    /**
+     * Writes and instantiates the problem used to check the evaluations.
+     *
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem tour() throws Exception {
+        final File domain = new File(this.folder.getRoot(), Tools.PDDL_DOMAIN);
+        final File problemFile = new File(this.folder.getRoot(), "p01" + Tools.PDDL_EXT);
+        Files.write(domain.toPath(), EvaluationFilterTest.DOMAIN.getBytes(StandardCharsets.UTF_8));
+        Files.write(problemFile.toPath(), EvaluationFilterTest.PROBLEM.getBytes(StandardCharsets.UTF_8));
+        final Problem problem = Tools.generateCodedProblem(domain.getPath(), problemFile.getPath());
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        return problem;
+    }
+
+    /**
+     * Creates an evaluator with a specified heuristic and filter.
+     *
+     * @param problem   the problem.
+     * @param heuristic the heuristic.
+     * @param filter    the evaluation filter.
+     * @return the evaluator.
+     */
+    private HeuristicEvaluator create(final Problem problem, final StateHeuristic heuristic,
+                                      final StateSpaceSearch.EvaluationFilter filter) {
+        return new HeuristicEvaluator(heuristic, problem.getGoal(), new DeadEndStore(problem), filter,
+            problem.getFluents().size());
+    }
+
+    /**
+     * Creates a node whose state contains only the specified fluents. The heuristic value of the node is the heuristic
+     * value of the parents.
+     *
+     * @param problem the problem.
+     * @param parent  the parent of the node.
+     * @param fluents the string representation of the fluents.
+     * @return the node.
+     */
+    private Node node(final Problem problem, final Node parent, final String... fluents) {
+        final State state = new State();
+        for (int i = 0; i < problem.getFluents().size(); i++) {
+            final String fluent = problem.toString(problem.getFluents().get(i));
+            for (String f : fluents) {
+                if (fluent.equals(f)) {
+                    state.set(i);
+                }
+            }
+        }
+        return new Node(state, parent, -1, 0.0, EvaluationFilterTest.PARENT_HEURISTIC);
+    }
+
+    /**
+     * The goal count heuristic counting the states it evaluates.
+     */
+    private static final class CountingHeuristic implements StateHeuristic {
+
+        /**
+         * The goal count heuristic.
+         */
+        private final GoalCount heuristic;
+
+        /**
+         * The number of states evaluated.
+         */
+        private int calls;
+
+        /**
+         * Creates a new counting heuristic.
+         *
+         * @param problem the problem.
+         */
+        private CountingHeuristic(final Problem problem) {
+            this.heuristic = new GoalCount(problem);
+            this.calls = 0;
+        }
+
+        /**
+         * Returns the number of states evaluated.
+         *
+         * @return the number of states evaluated.
+         */
+        private int getCalls() {
+            return this.calls;
+        }
+
+        @Override
+        public int estimate(final State state, final Condition goal) {
+            this.calls++;
+            return this.heuristic.estimate(state, goal);
+        }
+
+        @Override
+        public double estimate(final Node node, final Condition goal) {
+            return this.estimate((State) node, goal);
+        }
+
+        @Override
+        public boolean isAdmissible() {
+            return this.heuristic.isAdmissible();
+        }
+    }
+}
@@ -16,10 +16,13 @@
 package fr.uga.pddl4j.test.planners.statespace;
 
 import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.parser.DefaultParsedProblem;
+import fr.uga.pddl4j.plan.Plan;
 import fr.uga.pddl4j.planners.Planner;
 import fr.uga.pddl4j.planners.PlannerConfiguration;
 import fr.uga.pddl4j.planners.SearchStrategy;
 import fr.uga.pddl4j.planners.statespace.GSP;
+import fr.uga.pddl4j.problem.Problem;
 import fr.uga.pddl4j.test.Tools;
 
 import org.junit.Assert;
@@ -677,4 +680,69 @@ public class GSPTest {
         Tools.solve(localTestPath, Tools.PDDL_EXT, Planner.Name.GSP, this.config);
     }*/
 
+    /**
+     * Method that executes the causal graph and the context-enhanced additive heuristics using IPC 1998 Gripper ADL
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_DTG_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkDomainTransitionGraphHeuristics(localTestPath, "p02");
+    }
+
+    /**
+     * Method that executes the causal graph and the context-enhanced additive heuristics using IPC 2000 Blocks STRIPS
+     * typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_DTG_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkDomainTransitionGraphHeuristics(localTestPath, "p004");
+    }
+
+    /**
+     * Method that executes the causal graph and the context-enhanced additive heuristics using IPC 2002 Depots STRIPS
+     * automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_DTG_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkDomainTransitionGraphHeuristics(localTestPath, "p01");
+    }
+
+    /**
+     * Solves a specified problem with greedy best first search and the heuristics computed on the domain transition
+     * graphs, i.e., the causal graph and the context-enhanced additive heuristics, and checks that the plans found
+     * are valid.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @throws Exception if something went wrong.
+     */
+    private void checkDomainTransitionGraphHeuristics(final String localTestPath, final String problemName)
+        throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final String domain = localTestPath + Tools.PDDL_DOMAIN;
+        final String problemFile = localTestPath + problemName + Tools.PDDL_EXT;
+        for (StateHeuristic.Name heuristic : new StateHeuristic.Name[] {StateHeuristic.Name.CAUSAL_GRAPH,
+            StateHeuristic.Name.CONTEXT_ENHANCED_ADDITIVE}) {
+            this.config.setProperty(Planner.DOMAIN_SETTING, domain);
+            this.config.setProperty(Planner.PROBLEM_SETTING, problemFile);
+            this.config.setProperty(GSP.SEARCH_STRATEGIES_SETTING, "[" + SearchStrategy.Name.GREEDY_BEST_FIRST + "]");
+            this.config.setProperty(GSP.HEURISTIC_SETTING, heuristic);
+            final Planner planner = Planner.getInstance(Planner.Name.GSP, this.config);
+            final DefaultParsedProblem parsedProblem = planner.parse(domain, problemFile);
+            final Problem problem = planner.instantiate(parsedProblem);
+            final Plan plan = planner.solve(problem);
+            Assert.assertNotNull(heuristic + " found no plan for " + problemFile, plan);
+            Assert.assertTrue(heuristic + " found an invalid plan for " + problemFile, Tools.isValid(problem, plan));
+        }
+    }
 }
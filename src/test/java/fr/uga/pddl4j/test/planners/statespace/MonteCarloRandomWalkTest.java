@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.statespace.search.MonteCarloRandomWalk;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>MonteCarloRandomWalkTest</tt> of the PDD4L library. The class checks that the Monte-Carlo random
+ * walk search finds valid plans with one and several threads, and that a search with a fixed seed and a single thread
+ * is reproducible.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 30.03.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class MonteCarloRandomWalkTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * The number of threads of the parallel searches.
+     */
+    private static final int NUMBER_OF_THREADS = 4;
+
+    /**
+     * Method that checks the search using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_MRW_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkRandomWalk(localTestPath, "p01");
+    }
+
+    /**
+     * Method that checks the search using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_MRW_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkRandomWalk(localTestPath, "p004");
+    }
+
+    /**
+     * Method that checks the search using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_MRW_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkRandomWalk(localTestPath, "p01");
+    }
+
+    /**
+     * Method that checks that a search with the same seed and a single thread finds the same plan and explores the
+     * same number of states, using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_MRW_Reproducible() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        final Problem problem = this.instantiate(localTestPath, "p02");
+        final MonteCarloRandomWalk first = this.create(1, 42);
+        final Plan expected = first.searchPlan(problem);
+        Assert.assertNotNull(expected);
+        for (int run = 0; run < 2; run++) {
+            final MonteCarloRandomWalk search = this.create(1, 42);
+            final Plan plan = search.searchPlan(problem);
+            Assert.assertNotNull(plan);
+            Assert.assertEquals(expected.actions(), plan.actions());
+            Assert.assertEquals(first.getExploredNodes(), search.getExploredNodes());
+        }
+    }
+
+    /**
+     * Solves a problem with the search with a single thread and several threads, and checks that the plans found are
+     * valid.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @throws Exception if something went wrong.
+     */
+    private void checkRandomWalk(final String localTestPath, final String problemName) throws Exception {
+        final Problem problem = this.instantiate(localTestPath, problemName);
+        for (int threads : new int[] {1, MonteCarloRandomWalkTest.NUMBER_OF_THREADS}) {
+            final Plan plan = this.create(threads, MonteCarloRandomWalk.DEFAULT_SEED).searchPlan(problem);
+            Assert.assertNotNull("no plan found for " + problemName + " with " + threads + " threads", plan);
+            Assert.assertTrue("invalid plan found for " + problemName + " with " + threads + " threads",
+                Tools.isValid(problem, plan));
+        }
+    }
+
+    /**
+     * Creates a Monte-Carlo random walk search with the FF heuristic.
+     *
+     * @param threads the number of threads.
+     * @param seed    the seed of the random generators.
+     * @return the search.
+     */
+    private MonteCarloRandomWalk create(final int threads, final long seed) {
+        final MonteCarloRandomWalk search = new MonteCarloRandomWalk(MonteCarloRandomWalkTest.TIMEOUT,
+            StateHeuristic.Name.FAST_FORWARD, StateSpaceSearch.DEFAULT_HEURISTIC_WEIGHT);
+        search.setNumberOfThreads(threads);
+        search.setSeed(seed);
+        return search;
+    }
+
+    /**
+     * Parses and instantiates a problem.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem instantiate(final String localTestPath, final String problemName) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + problemName + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        return problem;
+    }
+}
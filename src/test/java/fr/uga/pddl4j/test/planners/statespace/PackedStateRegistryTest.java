@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.HashStateRegistry;
+import fr.uga.pddl4j.planners.statespace.search.Node;
+import fr.uga.pddl4j.planners.statespace.search.PackedStateRegistry;
+import fr.uga.pddl4j.planners.statespace.search.StateRegistry;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.FiniteDomainVariables;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.problem.State;
+import fr.uga.pddl4j.test.Tools;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.File;
+
+/**
+ * Implements the <tt>PackedStateRegistryTest</tt> of the PDD4L library. The class checks that a search registering
+ * the states packed with the finite-domain variables of the problem finds the same plan as the same search registering
+ * the states unpacked, and that the packed registry uses less memory than the unpacked one.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 11.04.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PackedStateRegistryTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * Method that checks the packed registry with A* using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Packed_AStar_IPC1998_Gripper_ADL() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        this.checkPacking(localTestPath, "p02", SearchStrategy.Name.ASTAR);
+    }
+
+    /**
+     * Method that checks the packed registry with the greedy best first search using IPC 2000 Blocks STRIPS typed
+     * benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Packed_GBFS_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.checkPacking(localTestPath, "p010", SearchStrategy.Name.GREEDY_BEST_FIRST);
+    }
+
+    /**
+     * Method that checks the packed registry with A* using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Packed_AStar_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.checkPacking(localTestPath, "p01", SearchStrategy.Name.ASTAR);
+    }
+
+    /**
+     * Method that checks that the packed registry and the unpacked registry give the same index to the states
+     * reachable in the problem p01 of the IPC 1998 Gripper ADL benchmarks, rebuild the same states and that the packed
+     * registry uses less memory.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_Packed_Registry_Memory() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+        final Problem problem = this.instantiate(localTestPath, "p01");
+        final FiniteDomainVariables variables = new FiniteDomainVariables(problem);
+        final StateRegistry unpacked = new HashStateRegistry();
+        final StateRegistry packed = new PackedStateRegistry(variables);
+        for (State state : Tools.collectStates(problem, 100, 50)) {
+            final Node node = new Node(state, null, -1, 0.0, 0, 0.0);
+            Assert.assertEquals(unpacked.put(node, -1), packed.put(node, -1));
+        }
+        Assert.assertEquals(unpacked.size(), packed.size());
+        for (int i = 0; i < packed.size(); i++) {
+            Assert.assertEquals(unpacked.getState(i), packed.getState(i));
+            Assert.assertEquals(i, packed.indexOf(unpacked.getState(i)));
+        }
+        final long packedSize = GraphLayout.parseInstance(packed).totalSize()
+            - GraphLayout.parseInstance(variables).totalSize();
+        final long unpackedSize = GraphLayout.parseInstance(unpacked).totalSize();
+        Assert.assertTrue("the packed registry uses " + packedSize + " bytes against " + unpackedSize,
+            packedSize < unpackedSize);
+    }
+
+    /**
+     * Solves a problem with a specified search with the states registered unpacked and packed, and checks that both
+     * searches find the same valid plan and that the packed search uses less memory.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @param strategy      the search strategy.
+     * @throws Exception if something went wrong.
+     */
+    private void checkPacking(final String localTestPath, final String problemName,
+                              final SearchStrategy.Name strategy) throws Exception {
+        final Problem problem = this.instantiate(localTestPath, problemName);
+        final StateSpaceSearch unpacked = StateSpaceSearch.getInstance(strategy, StateHeuristic.Name.FAST_FORWARD,
+            1.0, PackedStateRegistryTest.TIMEOUT);
+        final Plan expected = unpacked.searchPlan(problem);
+        Assert.assertNotNull("no plan found for " + problemName + " with the states unpacked", expected);
+
+        final StateSpaceSearch packed = StateSpaceSearch.getInstance(strategy, StateHeuristic.Name.FAST_FORWARD,
+            1.0, PackedStateRegistryTest.TIMEOUT);
+        packed.setFiniteDomainVariables(new FiniteDomainVariables(problem));
+        final Plan plan = packed.searchPlan(problem);
+        Assert.assertNotNull("no plan found for " + problemName + " with the states packed", plan);
+        Assert.assertTrue("invalid plan found for " + problemName + " with the states packed",
+            Tools.isValid(problem, plan));
+        Assert.assertEquals(expected.actions(), plan.actions());
+        Assert.assertEquals(unpacked.getExploredNodes(), packed.getExploredNodes());
+        Assert.assertTrue("the packed search uses " + packed.getMemoryUsed() + " bytes against "
+            + unpacked.getMemoryUsed(), packed.getMemoryUsed() < unpacked.getMemoryUsed());
+    }
+
+    /**
+     * Parses and instantiates a problem.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemName   the name of the problem file without extension.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem instantiate(final String localTestPath, final String problemName) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN,
+            localTestPath + problemName + Tools.PDDL_EXT);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        return problem;
+    }
+}
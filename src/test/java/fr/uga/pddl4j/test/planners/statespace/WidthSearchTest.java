@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2021 by Damien Pellier <Damien.Pellier@imag.fr>.
+ *
+ * This file is part of PDDL4J library.
+ *
+ * PDDL4J is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * PDDL4J is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with PDDL4J.  If not, see
+ * <http://www.gnu.org/licenses/>
+ */
+
+package fr.uga.pddl4j.test.planners.statespace;
+
+import fr.uga.pddl4j.heuristics.state.StateHeuristic;
+import fr.uga.pddl4j.plan.Plan;
+import fr.uga.pddl4j.planners.SearchStrategy;
+import fr.uga.pddl4j.planners.statespace.search.NoveltyTable;
+import fr.uga.pddl4j.planners.statespace.search.StateSpaceSearch;
+import fr.uga.pddl4j.problem.Problem;
+import fr.uga.pddl4j.test.Tools;
+import fr.uga.pddl4j.util.BitVector;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Implements the <tt>WidthSearchTest</tt> of the PDD4L library. The class checks the blind width searches IW(1), IW(2)
+ * and SIW, and the best first width search BFWS. IW(k) is only expected to solve the atomic goals of low width, while
+ * SIW and BFWS must solve the conjunctive goals of the benchmarks.
+ *
+ * @author D. Pellier
+ * @version 1.0 - 24.02.2021
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class WidthSearchTest {
+
+    /**
+     * Computation timeout.
+     */
+    private static final int TIMEOUT = 10;
+
+    /**
+     * The path of the gripper benchmark.
+     */
+    private static final String GRIPPER = Tools.PDDL_BENCH_DIR + "ipc1998/gripper/adl" + File.separator;
+
+    /**
+     * The temporary folder where the problems with an atomic goal are written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks that IW(1) moves the robot of the problem p01 of the IPC 1998 Gripper ADL benchmarks, a goal of width 1.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_IW1_Atomic_Goal() throws Exception {
+        this.check(this.atomic("(at-robby roomb)"), SearchStrategy.Name.IW1, null);
+    }
+
+    /**
+     * Checks that IW(2) carries a ball of the problem p01 of the IPC 1998 Gripper ADL benchmarks, a goal of width 2.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_IW2_Atomic_Goal() throws Exception {
+        this.check(this.atomic("(at ball1 roomb)"), SearchStrategy.Name.IW2, null);
+    }
+
+    /**
+     * Checks that IW(2) is blind and incomplete: it finds no plan for the conjunctive goal of the problem p01 of the
+     * IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_IW2_Conjunctive_Goal() throws Exception {
+        final Problem problem = this.instantiate(GRIPPER, GRIPPER + "p01" + Tools.PDDL_EXT);
+        final StateSpaceSearch search = StateSpaceSearch.getInstance(SearchStrategy.Name.IW2, null, 1.0,
+            WidthSearchTest.TIMEOUT);
+        Assert.assertNull(search.getHeuristic());
+        Assert.assertNull(search.searchPlan(problem));
+    }
+
+    /**
+     * Checks SIW using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_SIW_IPC1998_Gripper_ADL() throws Exception {
+        this.check(this.instantiate(GRIPPER, GRIPPER + "p02" + Tools.PDDL_EXT), SearchStrategy.Name.SIW, null);
+    }
+
+    /**
+     * Checks SIW using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_SIW_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        this.check(this.instantiate(localTestPath, localTestPath + "p010" + Tools.PDDL_EXT), SearchStrategy.Name.SIW,
+            null);
+    }
+
+    /**
+     * Checks SIW using IPC 2002 Depots STRIPS automatic benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_SIW_IPC2002_Depots_STRIPS_Automatic() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2002/depots/strips-automatic" + File.separator;
+        this.check(this.instantiate(localTestPath, localTestPath + "p01" + Tools.PDDL_EXT), SearchStrategy.Name.SIW,
+            null);
+    }
+
+    /**
+     * Checks BFWS with the goal count and with the FF heuristic using IPC 1998 Gripper ADL benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_BFWS_IPC1998_Gripper_ADL() throws Exception {
+        final Problem problem = this.instantiate(GRIPPER, GRIPPER + "p02" + Tools.PDDL_EXT);
+        this.check(problem, SearchStrategy.Name.BFWS, null);
+        this.check(problem, SearchStrategy.Name.BFWS, StateHeuristic.Name.FAST_FORWARD);
+    }
+
+    /**
+     * Checks BFWS with the goal count and with the FF heuristic using IPC 2000 Blocks STRIPS typed benchmarks.
+     *
+     * @throws Exception if something went wrong.
+     */
+    @Test
+    public void test_BFWS_IPC2000_Blocks_STRIPS_Typed() throws Exception {
+        final String localTestPath = Tools.PDDL_BENCH_DIR + "ipc2000/blocks/strips-typed" + File.separator;
+        final Problem problem = this.instantiate(localTestPath, localTestPath + "p004" + Tools.PDDL_EXT);
+        this.check(problem, SearchStrategy.Name.BFWS, null);
+        this.check(problem, SearchStrategy.Name.BFWS, StateHeuristic.Name.FAST_FORWARD);
+    }
+
+    /**
+     * Checks that the number of partitions of a novelty table of width 2 is bounded by its memory budget and that the
+     * table of the partition used the least recently is reused.
+     */
+    @Test
+    public void test_Novelty_Partitions_Bounded() {
+        final int nbFluents = 8192;
+        final NoveltyTable novelty = new NoveltyTable(nbFluents, 2);
+        Assert.assertTrue(novelty.getMaxPartitions() < 1024);
+        final BitVector state = new BitVector();
+        state.set(0);
+        state.set(1);
+        for (int p = 0; p <= novelty.getMaxPartitions(); p++) {
+            Assert.assertEquals(1, novelty.update(state, p));
+        }
+        Assert.assertEquals(novelty.getMaxPartitions(), novelty.getNumberOfPartitions());
+        // The partition 0 was forgotten while the last partition is still known
+        Assert.assertEquals(3, novelty.update(state, novelty.getMaxPartitions()));
+        Assert.assertEquals(1, novelty.update(state, 0));
+    }
+
+    /**
+     * Solves a problem with a specified search strategy and checks that the plan found is valid.
+     *
+     * @param problem   the problem.
+     * @param strategy  the search strategy.
+     * @param heuristic the heuristic or <code>null</code> for a blind search.
+     */
+    private void check(final Problem problem, final SearchStrategy.Name strategy,
+                       final StateHeuristic.Name heuristic) {
+        final StateSpaceSearch search = StateSpaceSearch.getInstance(strategy, heuristic, 1.0,
+            WidthSearchTest.TIMEOUT);
+        final Plan plan = search.searchPlan(problem);
+        Assert.assertNotNull(strategy + " with " + heuristic + " found no plan", plan);
+        Assert.assertTrue(strategy + " with " + heuristic + " found an invalid plan", Tools.isValid(problem, plan));
+    }
+
+    /**
+     * Writes and instantiates the problem p01 of the IPC 1998 Gripper ADL benchmarks with a specified atomic goal.
+     *
+     * @param goal the atomic goal.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem atomic(final String goal) throws Exception {
+        final File file = new File(this.folder.getRoot(), "atomic" + Tools.PDDL_EXT);
+        final String problem = "(define (problem gripper-x-1)\n"
+            + "   (:domain gripper-typed)\n"
+            + "   (:objects rooma roomb - room\n"
+            + "             ball4 ball3 ball2 ball1 - ball)\n"
+            + "   (:init (at-robby rooma) (free left) (free right)\n"
+            + "          (at ball4 rooma) (at ball3 rooma) (at ball2 rooma) (at ball1 rooma))\n"
+            + "   (:goal " + goal + "))\n";
+        Files.write(file.toPath(), problem.getBytes(StandardCharsets.UTF_8));
+        return this.instantiate(GRIPPER, file.getPath());
+    }
+
+    /**
+     * Parses and instantiates a problem.
+     *
+     * @param localTestPath the path of the benchmark.
+     * @param problemFile   the path of the problem file.
+     * @return the problem instantiated.
+     * @throws Exception if something went wrong.
+     */
+    private Problem instantiate(final String localTestPath, final String problemFile) throws Exception {
+        Assert.assertTrue("missing benchmark [directory: " + localTestPath + "] test skipped !",
+            Tools.isBenchmarkExist(localTestPath));
+        final Problem problem = Tools.generateCodedProblem(localTestPath + Tools.PDDL_DOMAIN, problemFile);
+        Assert.assertNotNull(problem);
+        problem.instantiate();
+        return problem;
+    }
+}